@@ -0,0 +1,143 @@
+package com.meetinginsights.backend.audio;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.InputStreamSource;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Shrinks uploaded audio before it is sent to the model. Speech analysis doesn't need CD-quality stereo, so
+ * uncompressed WAV is converted to mono 16-bit PCM at 16 kHz, typically 5-10x smaller, and long silences (before the
+ * meeting starts, during breaks, after people leave) are cut out.
+ * <p>
+ * The prepared audio is spooled to a temp file once, because later stages (hashing, chunked uploads, segmenting)
+ * re-read it several times. Compressed formats are passed through unchanged: decoding them needs a codec.
+ */
+@Component
+public class AudioPreprocessor {
+
+    @Value("${audio.preprocess.enabled:true}")
+    private boolean enabled;
+
+    @Value("${audio.preprocess.target-sample-rate:16000}")
+    private int targetSampleRate;
+
+    @Value("${audio.silence.enabled:true}")
+    private boolean silenceTrimmingEnabled;
+
+    @Value("${audio.silence.threshold-dbfs:-45}")
+    private double silenceThresholdDbfs;
+
+    @Value("${audio.silence.min-duration:2s}")
+    private Duration minSilence;
+
+    @Value("${audio.silence.padding:200ms}")
+    private Duration silencePadding;
+
+    private final DistributionSummary silenceRemoved;
+
+    public AudioPreprocessor(MeterRegistry meterRegistry) {
+        this.silenceRemoved = DistributionSummary.builder("audio.silence.removed")
+                .description("Seconds of silence cut from each prepared recording")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Converts and trims the audio if it is a WAV file that would benefit from it.
+     *
+     * @param audio The original audio.
+     * @param wav   The WAV format of the audio, or null if it is not a WAV file.
+     * @return The prepared audio, which the caller must close; empty if the original should be used as is.
+     * @throws IOException If the audio cannot be read or the temp file cannot be written.
+     */
+    public Optional<PreparedAudio> prepare(InputStreamSource audio, WavFormat wav) throws IOException {
+        if (!enabled || wav == null) {
+            return Optional.empty();
+        }
+        WavTranscoder transcoder = new WavTranscoder(targetSampleRate);
+        boolean transcode = transcoder.isWorthwhile(wav);
+        if (!transcode && !silenceTrimmingEnabled) {
+            return Optional.empty();
+        }
+
+        int sampleRate = transcoder.outputFormat(wav).getSampleRate();
+        Path spooled = Files.createTempFile("prepared-audio-", ".wav");
+        try {
+            TimestampMap timeline;
+            try (InputStream in = transcoder.transcodeData(wav.openData(audio), wav);
+                 OutputStream out = new BufferedOutputStream(Files.newOutputStream(spooled))) {
+                out.write(new byte[44]); // header placeholder; the data length is only known at the end
+                if (silenceTrimmingEnabled) {
+                    timeline = new SilenceTrimmer(sampleRate, silenceThresholdDbfs, minSilence.toMillis(),
+                            silencePadding.toMillis()).trim(in, out);
+                } else {
+                    timeline = new TimestampMap();
+                    in.transferTo(out);
+                }
+            }
+            long dataLength = Files.size(spooled) - 44;
+            silenceRemoved.record(timeline.getRemovedSeconds());
+
+            if (!transcode && timeline.isEmpty()) {
+                // Nothing to cut and nothing gained by the conversion alone.
+                Files.deleteIfExists(spooled);
+                return Optional.empty();
+            }
+
+            WavFormat format = new WavFormat(WavFormat.FORMAT_PCM, 1, sampleRate, 16, 44, dataLength);
+            try (RandomAccessFile file = new RandomAccessFile(spooled.toFile(), "rw")) {
+                file.write(format.header(dataLength));
+            }
+            return Optional.of(new PreparedAudio(spooled, format, timeline));
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(spooled);
+            throw e;
+        }
+    }
+
+    /**
+     * Prepared audio spooled to a temp file, deleted on close.
+     */
+    public static class PreparedAudio implements AutoCloseable {
+        private final Path path;
+        private final WavFormat format;
+        private final TimestampMap timeline;
+
+        PreparedAudio(Path path, WavFormat format, TimestampMap timeline) {
+            this.path = path;
+            this.format = format;
+            this.timeline = timeline;
+        }
+
+        public InputStreamSource getSource() { return new FileSystemResource(path); }
+        public WavFormat getFormat() { return format; }
+        public String getMimeType() { return "audio/wav"; }
+
+        /**
+         * @return The silences cut from the audio, to map times in it back to the original recording.
+         */
+        public TimestampMap getTimeline() { return timeline; }
+
+        public long getSize() throws IOException {
+            return Files.size(path);
+        }
+
+        @Override
+        public void close() throws IOException {
+            Files.deleteIfExists(path);
+        }
+    }
+}
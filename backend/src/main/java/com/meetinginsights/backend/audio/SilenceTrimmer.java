@@ -0,0 +1,125 @@
+package com.meetinginsights.backend.audio;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Energy-based voice activity detection that cuts long silences out of mono 16-bit little-endian PCM.
+ * <p>
+ * The audio is classified in 20 ms frames by RMS level. A silent run longer than the minimum duration is shortened to
+ * the padding on either side of it, so speech is never clipped and pauses still sound like pauses. Silent frames are
+ * held back only until the run is known to be long, so memory is bounded by the minimum duration, not the input.
+ */
+public class SilenceTrimmer {
+
+    private static final int FRAMES_PER_SECOND = 50;
+
+    private final int sampleRate;
+    private final int frameSamples;
+    private final int minSilenceFrames;
+    private final int paddingFrames;
+    private final double thresholdSumOfSquares;
+
+    /**
+     * @param sampleRate      The sample rate of the audio.
+     * @param thresholdDbfs   Frames with an RMS level below this (in dB relative to full scale) are silent.
+     * @param minSilenceMs    Only silent runs longer than this are shortened.
+     * @param paddingMs       Silence kept on each side of a shortened run; at most half the minimum duration.
+     */
+    public SilenceTrimmer(int sampleRate, double thresholdDbfs, long minSilenceMs, long paddingMs) {
+        this.sampleRate = sampleRate;
+        this.frameSamples = Math.max(1, sampleRate / FRAMES_PER_SECOND);
+        this.minSilenceFrames = (int) Math.max(1, minSilenceMs * FRAMES_PER_SECOND / 1000);
+        this.paddingFrames = (int) Math.min(minSilenceFrames / 2, paddingMs * FRAMES_PER_SECOND / 1000);
+        double thresholdRms = Math.pow(10, thresholdDbfs / 20) * 32768;
+        this.thresholdSumOfSquares = thresholdRms * thresholdRms * frameSamples;
+    }
+
+    /**
+     * Copies the audio, leaving out the long silent spans.
+     *
+     * @param in  Mono 16-bit PCM sample data.
+     * @param out Where the trimmed sample data is written.
+     * @return The cuts that were made.
+     * @throws IOException If reading or writing fails.
+     */
+    public TimestampMap trim(InputStream in, OutputStream out) throws IOException {
+        int frameBytes = frameSamples * 2;
+        byte[] frame = new byte[frameBytes];
+        // Silent frames of the current run, held until it is known whether the run is long enough to cut.
+        byte[] held = new byte[minSilenceFrames * frameBytes];
+        // Once a run is being cut: the last paddingFrames silent frames, as a ring.
+        byte[] tail = new byte[Math.max(1, paddingFrames) * frameBytes];
+
+        TimestampMap map = new TimestampMap();
+        long outputSamples = 0;
+        long run = 0;
+
+        while (true) {
+            int length = in.readNBytes(frame, 0, frameBytes);
+            if (length < frameBytes) {
+                // End of input: a trailing run is shortened like any other, then the partial frame is kept as is.
+                outputSamples += finishRun(run, held, tail, frameBytes, outputSamples, map, out);
+                out.write(frame, 0, length - length % 2);
+                return map;
+            }
+
+            if (!isSilent(frame)) {
+                outputSamples += finishRun(run, held, tail, frameBytes, outputSamples, map, out);
+                run = 0;
+                out.write(frame);
+                outputSamples += frameSamples;
+                continue;
+            }
+
+            if (run < minSilenceFrames) {
+                System.arraycopy(frame, 0, held, (int) run * frameBytes, frameBytes);
+            } else {
+                if (run == minSilenceFrames) {
+                    // The run is long: emit its leading padding and keep only its trailing padding from now on.
+                    out.write(held, 0, paddingFrames * frameBytes);
+                    outputSamples += (long) paddingFrames * frameSamples;
+                    for (int i = 0; i < paddingFrames; i++) {
+                        int from = (minSilenceFrames - paddingFrames + i) * frameBytes;
+                        System.arraycopy(held, from, tail, (int) ((run - paddingFrames + i) % paddingFrames) * frameBytes, frameBytes);
+                    }
+                }
+                if (paddingFrames > 0) {
+                    System.arraycopy(frame, 0, tail, (int) (run % paddingFrames) * frameBytes, frameBytes);
+                }
+            }
+            run++;
+        }
+    }
+
+    /**
+     * Writes out whatever part of the silent run that just ended is kept, recording a cut if one was made.
+     *
+     * @return The number of samples written.
+     */
+    private long finishRun(long run, byte[] held, byte[] tail, int frameBytes, long outputSamples,
+                           TimestampMap map, OutputStream out) throws IOException {
+        if (run <= minSilenceFrames) {
+            out.write(held, 0, (int) run * frameBytes);
+            return run * frameSamples;
+        }
+        long removedFrames = run - 2L * paddingFrames;
+        map.addCut((double) outputSamples / sampleRate, (double) removedFrames * frameSamples / sampleRate);
+        // The ring's oldest frame is the one the next write would overwrite.
+        for (int i = 0; i < paddingFrames; i++) {
+            int slot = (int) ((run + i) % paddingFrames);
+            out.write(tail, slot * frameBytes, frameBytes);
+        }
+        return (long) paddingFrames * frameSamples;
+    }
+
+    private boolean isSilent(byte[] frame) {
+        double sumOfSquares = 0;
+        for (int i = 0; i < frame.length; i += 2) {
+            int sample = (short) ((frame[i] & 0xFF) | (frame[i + 1] << 8));
+            sumOfSquares += (double) sample * sample;
+        }
+        return sumOfSquares < thresholdSumOfSquares;
+    }
+}
@@ -0,0 +1,97 @@
+package com.meetinginsights.backend.audio;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Maps times in trimmed audio back to times in the original recording, given the silent spans that were cut out.
+ * Its size grows with the number of cuts, not with the length of the audio.
+ */
+public class TimestampMap {
+
+    private final List<Cut> cuts = new ArrayList<>();
+    private double removedSeconds = 0;
+
+    /**
+     * Records that {@code removed} seconds of the original were cut at {@code outputSeconds} of the trimmed audio.
+     * Cuts must be added in order.
+     */
+    void addCut(double outputSeconds, double removed) {
+        cuts.add(new Cut(outputSeconds, outputSeconds + removedSeconds, removed));
+        removedSeconds += removed;
+    }
+
+    /**
+     * @return The time in the original recording corresponding to a time in the trimmed audio.
+     */
+    public double toOriginal(double outputSeconds) {
+        double shift = 0;
+        for (Cut cut : cuts) {
+            if (cut.outputSeconds > outputSeconds) {
+                break;
+            }
+            shift += cut.removedSeconds;
+        }
+        return outputSeconds + shift;
+    }
+
+    /**
+     * Describes the cuts inside a stretch of the trimmed audio, one line per cut, for inclusion in a prompt.
+     *
+     * @param fromSeconds Start of the stretch in the trimmed audio; times in the description are relative to it.
+     * @param toSeconds   End of the stretch in the trimmed audio.
+     * @return The description, or an empty string if there are no cuts in the stretch.
+     */
+    public String describe(double fromSeconds, double toSeconds) {
+        StringBuilder description = new StringBuilder();
+        for (Cut cut : cuts) {
+            if (cut.outputSeconds >= fromSeconds && cut.outputSeconds < toSeconds) {
+                description.append("- At ").append(formatTime(cut.outputSeconds - fromSeconds))
+                        .append(" in this audio, ").append(formatTime(cut.removedSeconds))
+                        .append(" of silence was removed; the audio after it resumes at ")
+                        .append(formatTime(cut.originalSeconds + cut.removedSeconds))
+                        .append(" of the original recording.\n");
+            }
+        }
+        return description.toString();
+    }
+
+    public boolean isEmpty() {
+        return cuts.isEmpty();
+    }
+
+    public double getRemovedSeconds() {
+        return removedSeconds;
+    }
+
+    public List<Cut> getCuts() {
+        return Collections.unmodifiableList(cuts);
+    }
+
+    public static String formatTime(double seconds) {
+        long s = (long) seconds;
+        return s >= 3600
+                ? String.format("%d:%02d:%02d", s / 3600, (s % 3600) / 60, s % 60)
+                : String.format("%02d:%02d", s / 60, s % 60);
+    }
+
+    /**
+     * A removed silent span.
+     */
+    public static class Cut {
+        private final double outputSeconds;
+        private final double originalSeconds;
+        private final double removedSeconds;
+
+        Cut(double outputSeconds, double originalSeconds, double removedSeconds) {
+            this.outputSeconds = outputSeconds;
+            this.originalSeconds = originalSeconds;
+            this.removedSeconds = removedSeconds;
+        }
+
+        public double getOutputSeconds() { return outputSeconds; }
+        public double getOriginalSeconds() { return originalSeconds; }
+        public double getRemovedSeconds() { return removedSeconds; }
+    }
+}
@@ -0,0 +1,174 @@
+package com.meetinginsights.backend.audio;
+
+import org.springframework.core.io.InputStreamSource;
+
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Optional;
+
+/**
+ * The format and data location of a RIFF/WAVE file, read from its header without touching the sample data.
+ * <p>
+ * The header comes from an upload, so its values are checked against what real recordings use before anything is
+ * sized or scheduled from them; a header outside those ranges is treated as not a WAV file.
+ */
+public final class WavFormat {
+
+    public static final int FORMAT_PCM = 1;
+    public static final int FORMAT_IEEE_FLOAT = 3;
+    private static final int FORMAT_EXTENSIBLE = 0xFFFE;
+
+    // Give up looking for the data chunk after this many header bytes.
+    private static final int MAX_HEADER_BYTES = 1024 * 1024;
+    // The fmt chunk is 16 bytes, 18 with an extension size and 40 for WAVE_FORMAT_EXTENSIBLE.
+    private static final int MAX_FMT_BYTES = 40;
+    // From telephone audio to high-resolution studio recordings.
+    static final int MIN_SAMPLE_RATE = 8000;
+    static final int MAX_SAMPLE_RATE = 384000;
+    // Up to 7.1 surround.
+    static final int MAX_CHANNELS = 8;
+
+    private final int audioFormat;
+    private final int channels;
+    private final int sampleRate;
+    private final int bitsPerSample;
+    private final int blockAlign;
+    private final long dataOffset;
+    private final long dataLength;
+
+    public WavFormat(int audioFormat, int channels, int sampleRate, int bitsPerSample, long dataOffset, long dataLength) {
+        this.audioFormat = audioFormat;
+        this.channels = channels;
+        this.sampleRate = sampleRate;
+        this.bitsPerSample = bitsPerSample;
+        this.blockAlign = channels * ((bitsPerSample + 7) / 8);
+        this.dataOffset = dataOffset;
+        this.dataLength = dataLength - dataLength % blockAlign;
+    }
+
+    /**
+     * Reads the WAV header of an audio source.
+     *
+     * @param audio The audio source.
+     * @param size  The total size of the source in bytes, used to clamp a missing or oversized data length.
+     * @return The format, or empty if the source is not an uncompressed PCM or float WAV file, or its header has a
+     *         sample rate, channel count or bit depth outside the supported ranges.
+     * @throws IOException If the source cannot be read.
+     */
+    public static Optional<WavFormat> read(InputStreamSource audio, long size) throws IOException {
+        try (DataInputStream in = new DataInputStream(audio.getInputStream())) {
+            if (readInt(in) != 0x46464952 /* RIFF */) {
+                return Optional.empty();
+            }
+            readInt(in); // RIFF chunk size, unreliable for streamed recordings
+            if (readInt(in) != 0x45564157 /* WAVE */) {
+                return Optional.empty();
+            }
+
+            long position = 12;
+            int audioFormat = -1, channels = 0, sampleRate = 0, bitsPerSample = 0;
+            while (position < MAX_HEADER_BYTES) {
+                int tag = readInt(in);
+                long chunkSize = readInt(in) & 0xFFFFFFFFL;
+                position += 8;
+
+                if (tag == 0x20746D66 /* fmt */) {
+                    if (chunkSize < 16 || chunkSize > MAX_FMT_BYTES) {
+                        return Optional.empty();
+                    }
+                    byte[] fmt = new byte[(int) chunkSize];
+                    in.readFully(fmt);
+                    ByteBuffer b = ByteBuffer.wrap(fmt).order(ByteOrder.LITTLE_ENDIAN);
+                    audioFormat = b.getShort(0) & 0xFFFF;
+                    channels = b.getShort(2) & 0xFFFF;
+                    sampleRate = b.getInt(4);
+                    bitsPerSample = b.getShort(14) & 0xFFFF;
+                    if (audioFormat == FORMAT_EXTENSIBLE && fmt.length >= 26) {
+                        audioFormat = b.getShort(24) & 0xFFFF; // first two bytes of the SubFormat GUID
+                    }
+                } else if (tag == 0x61746164 /* data */) {
+                    if (!isSupported(audioFormat, channels, sampleRate, bitsPerSample)) {
+                        return Optional.empty();
+                    }
+                    long available = size - position;
+                    long dataLength = chunkSize == 0 || chunkSize > available ? available : chunkSize;
+                    return Optional.of(new WavFormat(audioFormat, channels, sampleRate, bitsPerSample, position, dataLength));
+                } else {
+                    in.skipNBytes(chunkSize);
+                }
+                // Chunks are padded to an even length.
+                if ((chunkSize & 1) == 1) {
+                    in.skipNBytes(1);
+                    chunkSize++;
+                }
+                position += chunkSize;
+            }
+            return Optional.empty();
+        } catch (EOFException e) {
+            return Optional.empty();
+        }
+    }
+
+    private static boolean isSupported(int audioFormat, int channels, int sampleRate, int bitsPerSample) {
+        if (channels < 1 || channels > MAX_CHANNELS || sampleRate < MIN_SAMPLE_RATE || sampleRate > MAX_SAMPLE_RATE) {
+            return false;
+        }
+        if (audioFormat == FORMAT_PCM) {
+            return bitsPerSample == 8 || bitsPerSample == 16 || bitsPerSample == 24 || bitsPerSample == 32;
+        }
+        return audioFormat == FORMAT_IEEE_FLOAT && (bitsPerSample == 32 || bitsPerSample == 64);
+    }
+
+    private static int readInt(DataInputStream in) throws IOException {
+        return Integer.reverseBytes(in.readInt());
+    }
+
+    /**
+     * Builds a canonical 44-byte WAV header for this format.
+     *
+     * @param dataLength The length of the sample data that follows the header.
+     * @return The header bytes.
+     */
+    public byte[] header(long dataLength) {
+        ByteBuffer b = ByteBuffer.allocate(44).order(ByteOrder.LITTLE_ENDIAN);
+        b.putInt(0x46464952).putInt((int) (36 + dataLength)).putInt(0x45564157);
+        b.putInt(0x20746D66).putInt(16)
+                .putShort((short) audioFormat)
+                .putShort((short) channels)
+                .putInt(sampleRate)
+                .putInt(sampleRate * blockAlign)
+                .putShort((short) blockAlign)
+                .putShort((short) bitsPerSample);
+        b.putInt(0x61746164).putInt((int) dataLength);
+        return b.array();
+    }
+
+    /**
+     * Opens the sample data of a source in this format.
+     */
+    public InputStream openData(InputStreamSource audio) throws IOException {
+        InputStream in = audio.getInputStream();
+        in.skipNBytes(dataOffset);
+        return new RangeInputStream(in, dataLength);
+    }
+
+    public int getAudioFormat() { return audioFormat; }
+    public int getChannels() { return channels; }
+    public int getSampleRate() { return sampleRate; }
+    public int getBitsPerSample() { return bitsPerSample; }
+    public int getBlockAlign() { return blockAlign; }
+    public long getDataOffset() { return dataOffset; }
+    public long getDataLength() { return dataLength; }
+
+    public long getFrameCount() {
+        return dataLength / blockAlign;
+    }
+
+    public double getDurationSeconds() {
+        return (double) getFrameCount() / sampleRate;
+    }
+}
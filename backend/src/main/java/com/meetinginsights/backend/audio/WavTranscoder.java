@@ -0,0 +1,240 @@
+package com.meetinginsights.backend.audio;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.util.Arrays;
+
+/**
+ * Converts PCM/float WAV sample data into compact speech-quality audio: mono, 16-bit, at most the target sample rate.
+ * <p>
+ * Conversion is streaming: frames are decoded, downmixed and resampled block by block with fixed-size buffers,
+ * so memory use depends neither on the length of the recording nor, since blocks are sized in bytes, on its format.
+ * Downsampling averages the input over each output sample period (a box filter), which is enough anti-aliasing for
+ * speech. Audio is never upsampled.
+ */
+public class WavTranscoder {
+
+    // Input read per block, whatever the frame size.
+    private static final int BLOCK_BYTES = 64 * 1024;
+
+    private final int targetSampleRate;
+
+    public WavTranscoder(int targetSampleRate) {
+        this.targetSampleRate = targetSampleRate;
+    }
+
+    /**
+     * @return True if transcoding would shrink the audio, i.e. it is not already mono 16-bit at or below the target rate.
+     */
+    public boolean isWorthwhile(WavFormat in) {
+        return in.getChannels() > 1 || in.getBitsPerSample() > 16 || in.getSampleRate() > targetSampleRate;
+    }
+
+    /**
+     * @return The format of the transcoded audio (the data offset is the canonical 44-byte header).
+     */
+    public WavFormat outputFormat(WavFormat in) {
+        if (in.getSampleRate() <= 0 || in.getBlockAlign() <= 0) {
+            // WavFormat.read never returns such a format.
+            throw new IllegalArgumentException("Not a valid WAV format: " + in.getSampleRate() + " Hz, "
+                    + in.getChannels() + " channels, " + in.getBitsPerSample() + " bits");
+        }
+        int rate = Math.min(in.getSampleRate(), targetSampleRate);
+        long frames = outputFrames(in, rate);
+        return new WavFormat(WavFormat.FORMAT_PCM, 1, rate, 16, 44, frames * 2);
+    }
+
+    /**
+     * Transcodes WAV sample data.
+     *
+     * @param pcmData The sample data of the input (without its header), e.g. from {@link WavFormat#openData}.
+     * @param in      The format of the input.
+     * @return A stream of the complete output WAV file, header included.
+     */
+    public InputStream transcode(InputStream pcmData, WavFormat in) {
+        WavFormat out = outputFormat(in);
+        return new SequenceInputStream(new ByteArrayInputStream(out.header(out.getDataLength())),
+                new TranscodingInputStream(pcmData, in, out));
+    }
+
+    /**
+     * Like {@link #transcode}, but returns only the output sample data, without a header.
+     */
+    public InputStream transcodeData(InputStream pcmData, WavFormat in) {
+        return new TranscodingInputStream(pcmData, in, outputFormat(in));
+    }
+
+    private static long outputFrames(WavFormat in, int rate) {
+        return in.getFrameCount() * rate / in.getSampleRate();
+    }
+
+    /**
+     * Pulls blocks of input frames and emits mono 16-bit little-endian samples at the output rate.
+     */
+    private static class TranscodingInputStream extends InputStream {
+        private final InputStream source;
+        private final WavFormat in;
+        private final int bytesPerSample;
+        private final double step; // input frames per output frame, >= 1
+
+        private final byte[] inputBlock;
+        private final byte[] outputBlock;
+        private int outputLength = 0;
+        private int outputPosition = 0;
+
+        // Box filter state: the running sum for the current output sample and how far into the input we are.
+        private long outputFramesLeft;
+        private long emitted = 0;
+        private double sum = 0;
+        private double consumed = 0;
+        private double nextBoundary;
+        private boolean sourceExhausted = false;
+
+        TranscodingInputStream(InputStream source, WavFormat in, WavFormat out) {
+            this.source = source;
+            this.in = in;
+            this.bytesPerSample = in.getBlockAlign() / in.getChannels();
+            this.step = (double) in.getSampleRate() / out.getSampleRate();
+            this.nextBoundary = step;
+            this.outputFramesLeft = out.getFrameCount();
+            int blockFrames = Math.max(1, BLOCK_BYTES / in.getBlockAlign());
+            this.inputBlock = new byte[blockFrames * in.getBlockAlign()];
+            // Each input frame produces at most one output frame.
+            this.outputBlock = new byte[blockFrames * 2];
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (!fill()) {
+                return -1;
+            }
+            return outputBlock[outputPosition++] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            if (!fill()) {
+                return -1;
+            }
+            int n = Math.min(len, outputLength - outputPosition);
+            System.arraycopy(outputBlock, outputPosition, b, off, n);
+            outputPosition += n;
+            return n;
+        }
+
+        @Override
+        public void close() throws IOException {
+            source.close();
+        }
+
+        private boolean fill() throws IOException {
+            while (outputPosition >= outputLength) {
+                if (outputFramesLeft <= 0) {
+                    return false;
+                }
+                outputPosition = 0;
+                outputLength = 0;
+                if (sourceExhausted) {
+                    // The header promised more frames than the data held; pad with silence.
+                    int frames = (int) Math.min(outputFramesLeft, outputBlock.length / 2);
+                    Arrays.fill(outputBlock, 0, frames * 2, (byte) 0);
+                    outputLength = frames * 2;
+                    outputFramesLeft -= frames;
+                    return true;
+                }
+                transcodeBlock();
+            }
+            return true;
+        }
+
+        private void transcodeBlock() throws IOException {
+            int filled = 0;
+            while (filled < inputBlock.length) {
+                int n = source.read(inputBlock, filled, inputBlock.length - filled);
+                if (n < 0) {
+                    sourceExhausted = true;
+                    break;
+                }
+                filled += n;
+            }
+
+            int frames = filled / in.getBlockAlign();
+            int channels = in.getChannels();
+            for (int f = 0; f < frames; f++) {
+                double mono = 0;
+                int base = f * in.getBlockAlign();
+                for (int c = 0; c < channels; c++) {
+                    mono += decodeSample(inputBlock, base + c * bytesPerSample);
+                }
+                mono /= channels;
+                resample(mono);
+            }
+        }
+
+        /**
+         * Feeds one mono input sample (covering one input frame period) into the box filter.
+         */
+        private void resample(double sample) {
+            double remaining = 1.0;
+            while (consumed + remaining >= nextBoundary && outputFramesLeft > 0) {
+                double take = nextBoundary - consumed;
+                sum += sample * take;
+                emit(sum / step);
+                sum = 0;
+                consumed = nextBoundary;
+                remaining -= take;
+                emitted++;
+                nextBoundary = (emitted + 1) * step;
+            }
+            sum += sample * remaining;
+            consumed += remaining;
+        }
+
+        private void emit(double sample) {
+            int value = (int) Math.round(sample * 32767.0);
+            if (value > Short.MAX_VALUE) {
+                value = Short.MAX_VALUE;
+            } else if (value < Short.MIN_VALUE) {
+                value = Short.MIN_VALUE;
+            }
+            outputBlock[outputLength++] = (byte) value;
+            outputBlock[outputLength++] = (byte) (value >> 8);
+            outputFramesLeft--;
+        }
+
+        /**
+         * Decodes one little-endian sample to the range [-1, 1].
+         */
+        private double decodeSample(byte[] b, int i) {
+            if (in.getAudioFormat() == WavFormat.FORMAT_IEEE_FLOAT) {
+                if (bytesPerSample == 8) {
+                    return Double.longBitsToDouble(readLong(b, i));
+                }
+                return Float.intBitsToFloat(readInt(b, i));
+            }
+            switch (bytesPerSample) {
+                case 1:
+                    return ((b[i] & 0xFF) - 128) / 128.0; // 8-bit WAV is unsigned
+                case 2:
+                    return (short) ((b[i] & 0xFF) | (b[i + 1] << 8)) / 32768.0;
+                case 3:
+                    return ((b[i] & 0xFF) | ((b[i + 1] & 0xFF) << 8) | (b[i + 2] << 16)) / 8388608.0;
+                default:
+                    return readInt(b, i) / 2147483648.0;
+            }
+        }
+
+        private static int readInt(byte[] b, int i) {
+            return (b[i] & 0xFF) | ((b[i + 1] & 0xFF) << 8) | ((b[i + 2] & 0xFF) << 16) | (b[i + 3] << 24);
+        }
+
+        private static long readLong(byte[] b, int i) {
+            return (readInt(b, i) & 0xFFFFFFFFL) | ((long) readInt(b, i + 4) << 32);
+        }
+    }
+}
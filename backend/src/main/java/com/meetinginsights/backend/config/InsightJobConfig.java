@@ -0,0 +1,79 @@
+package com.meetinginsights.backend.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+@EnableScheduling
+public class InsightJobConfig {
+
+    /**
+     * Bounded executor for insight jobs. Gemini calls run here instead of on Tomcat request threads;
+     * once the queue is full new jobs are rejected rather than piling up.
+     * <p>
+     * With spring.threads.virtual.enabled=true (JDK 21+) the workers are virtual threads, so a much larger
+     * number of blocking Gemini calls can be in flight while the queue limit still applies.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor insightJobExecutor(Environment environment,
+                                                     @Value("${insight.jobs.pool-size:8}") int poolSize,
+                                                     @Value("${insight.jobs.virtual-pool-size:256}") int virtualPoolSize,
+                                                     @Value("${insight.jobs.queue-capacity:100}") int queueCapacity) {
+        boolean virtual = Threading.VIRTUAL.isActive(environment);
+
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(virtual ? virtualPoolSize : poolSize);
+        executor.setMaxPoolSize(virtual ? virtualPoolSize : poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("insight-job-");
+        if (virtual) {
+            executor.setThreadFactory(new VirtualThreadTaskExecutor("insight-job-").getVirtualThreadFactory());
+        }
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        return executor;
+    }
+
+    /**
+     * Executor for the per-segment model calls of long meetings. Each meeting limits its own parallelism
+     * (gemini.segments.concurrency); this pool caps segment calls across all meetings. Once its queue is full, further
+     * meetings are turned away with 429 rather than piling up.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor meetingSegmentExecutor(Environment environment,
+                                                         @Value("${gemini.segments.pool-size:16}") int poolSize,
+                                                         @Value("${gemini.segments.queue-capacity:64}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("meeting-segment-");
+        if (Threading.VIRTUAL.isActive(environment)) {
+            executor.setThreadFactory(new VirtualThreadTaskExecutor("meeting-segment-").getVirtualThreadFactory());
+        }
+        return executor;
+    }
+
+    /**
+     * Executor for writing generated insights to the history table after the response. A small pool is enough since
+     * each write is one insert; when the queue is full writes are dropped rather than slowing down requests.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor insightHistoryExecutor(@Value("${insight.history.pool-size:2}") int poolSize,
+                                                         @Value("${insight.history.queue-capacity:1000}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("insight-history-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        return executor;
+    }
+}
@@ -0,0 +1,63 @@
+package com.meetinginsights.backend.config;
+
+import com.meetinginsights.backend.service.PipelineMetrics;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.boot.autoconfigure.web.servlet.MultipartProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.multipart.MultipartException;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.multipart.MultipartHttpServletRequest;
+import org.springframework.web.multipart.support.StandardServletMultipartResolver;
+import org.springframework.web.servlet.DispatcherServlet;
+
+import java.util.List;
+
+@Configuration
+public class MetricsConfig {
+
+    /**
+     * Replaces Spring Boot's multipart resolver with one that times reading the upload (the multipart_read stage of
+     * insight.pipeline.stage) and records its size. Unless resolve-lazily is set, the whole request body is received
+     * and parsed here, before the controller runs.
+     * <p>
+     * The size is the request's Content-Length. A chunked upload has none, so the sizes of its files are added up
+     * instead, unless resolve-lazily is set and the parts haven't been parsed yet.
+     */
+    @Bean(name = DispatcherServlet.MULTIPART_RESOLVER_BEAN_NAME)
+    public StandardServletMultipartResolver multipartResolver(MultipartProperties multipartProperties,
+                                                              PipelineMetrics metrics) {
+        boolean resolveLazily = multipartProperties.isResolveLazily();
+        StandardServletMultipartResolver resolver = new StandardServletMultipartResolver() {
+            @Override
+            public MultipartHttpServletRequest resolveMultipart(HttpServletRequest request) throws MultipartException {
+                long start = System.nanoTime();
+                MultipartHttpServletRequest multipart = null;
+                try {
+                    multipart = super.resolveMultipart(request);
+                    return multipart;
+                } finally {
+                    metrics.recordSince(PipelineMetrics.Stage.MULTIPART_READ, start);
+                    long size = request.getContentLengthLong();
+                    if (size < 0 && multipart != null && !resolveLazily) {
+                        size = fileSizes(multipart);
+                    }
+                    metrics.recordUploadSize(size);
+                }
+            }
+        };
+        resolver.setResolveLazily(multipartProperties.isResolveLazily());
+        resolver.setStrictServletCompliance(multipartProperties.isStrictServletCompliance());
+        return resolver;
+    }
+
+    private static long fileSizes(MultipartHttpServletRequest request) {
+        long total = 0;
+        for (List<MultipartFile> files : request.getMultiFileMap().values()) {
+            for (MultipartFile file : files) {
+                total += file.getSize();
+            }
+        }
+        return total;
+    }
+}
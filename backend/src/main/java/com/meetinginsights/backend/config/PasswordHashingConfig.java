@@ -0,0 +1,28 @@
+package com.meetinginsights.backend.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+public class PasswordHashingConfig {
+
+    /**
+     * Bounded executor for password hashing and verification. Its pool size is the number of cores logins can
+     * occupy at most; once the queue is full further logins are rejected with 429.
+     * <p>
+     * The workers stay platform threads even when virtual threads are enabled: hashing is CPU-bound, and the pool
+     * size is what limits it.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor passwordHashExecutor(@Value("${auth.hashing.pool-size:2}") int poolSize,
+                                                       @Value("${auth.hashing.queue-capacity:32}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("password-hash-");
+        return executor;
+    }
+}
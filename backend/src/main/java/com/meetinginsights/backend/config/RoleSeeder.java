@@ -2,14 +2,23 @@ package com.meetinginsights.backend.config;
 
 import com.meetinginsights.backend.entity.Role;
 import com.meetinginsights.backend.repository.RoleRepository;
+import com.meetinginsights.backend.security.RoleRegistry;
 import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 
 @Component
 public class RoleSeeder {
 
+    private static final Logger log = LoggerFactory.getLogger(RoleSeeder.class);
+
     private final RoleRepository roleRepository;
-    public RoleSeeder(RoleRepository roleRepository) { this.roleRepository = roleRepository; }
+    private final RoleRegistry roleRegistry;
+    public RoleSeeder(RoleRepository roleRepository, RoleRegistry roleRegistry) {
+        this.roleRepository = roleRepository;
+        this.roleRegistry = roleRegistry;
+    }
 
     @PostConstruct
     public void seed() {
@@ -23,6 +32,7 @@ public class RoleSeeder {
             r.setName("ROLE_ADMIN");
             roleRepository.save(r);
         }
-        System.out.println("✅ Default roles ensured.");
+        roleRegistry.reload();
+        log.info("Default roles ensured.");
     }
 }
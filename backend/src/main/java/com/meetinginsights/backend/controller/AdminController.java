@@ -1,13 +1,66 @@
 package com.meetinginsights.backend.controller;
 
+import com.meetinginsights.backend.service.UserAdminService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.Collection;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/admin")
 public class AdminController {
 
+    private final UserAdminService userAdminService;
+
+    public AdminController(UserAdminService userAdminService) { this.userAdminService = userAdminService; }
+
     @GetMapping("/dashboard")
     @PreAuthorize("hasRole('ADMIN')")
     public String adminDashboard() { return "Welcome to Admin Dashboard!"; }
+
+    /**
+     * Reloads the in-memory role registry from the roles table, after roles were added or renamed in the database.
+     * If a role is gone, all tokens are revoked and everyone has to log in again.
+     *
+     * @return The names of the loaded roles.
+     */
+    @PostMapping("/roles/reload")
+    @PreAuthorize("hasRole('ADMIN')")
+    public Collection<String> reloadRoles() { return userAdminService.reloadRoles(); }
+
+    /**
+     * Replaces a user's roles. The user's tokens are revoked, so the new roles apply from their next login.
+     *
+     * @param email The user's email.
+     * @param roles The new role names, e.g. ["ROLE_USER", "ROLE_ADMIN"].
+     * @return The user's role names.
+     */
+    @PutMapping("/users/{email}/roles")
+    @PreAuthorize("hasRole('ADMIN')")
+    public Set<String> setRoles(@PathVariable String email, @RequestBody Set<String> roles) {
+        try {
+            return userAdminService.setRoles(email, roles)
+                    .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "User not found: " + email));
+        } catch (IllegalStateException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    /**
+     * Deletes a user and their stored insights, and revokes their tokens.
+     *
+     * @param email The user's email.
+     */
+    @DeleteMapping("/users/{email}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Void> deleteUser(@PathVariable String email) {
+        if (!userAdminService.deleteUser(email)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "User not found: " + email);
+        }
+        return ResponseEntity.noContent().build();
+    }
 }
@@ -4,8 +4,10 @@ import com.meetinginsights.backend.dto.AuthResponse;
 import com.meetinginsights.backend.dto.LoginRequest;
 import com.meetinginsights.backend.dto.RegisterRequest;
 import com.meetinginsights.backend.service.AuthService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 @RestController
@@ -30,11 +32,27 @@ public class AuthController {
     /**
      * Handles user login requests.
      *
-     * @param request The LoginRequest DTO containing user login credentials.
+     * @param request     The LoginRequest DTO containing user login credentials.
+     * @param httpRequest The HTTP request, for the client address used in login throttling. Behind the proxy this is
+     *                    the address from X-Forwarded-For, resolved by Tomcat (server.forward-headers-strategy).
      * @return An AuthResponse containing a JWT token and user details upon successful login.
      */
     @PostMapping("/login")
-    public AuthResponse login(@RequestBody LoginRequest request) {
-        return authService.login(request);
+    public AuthResponse login(@RequestBody LoginRequest request, HttpServletRequest httpRequest) {
+        return authService.login(request, httpRequest.getRemoteAddr());
+    }
+
+    /**
+     * Handles logout requests by revoking the caller's token, which is refused from then on even before it expires.
+     *
+     * @param authorization The Authorization header carrying the bearer token.
+     * @return 204 No Content; also when there is no token to revoke.
+     */
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logout(@RequestHeader(value = "Authorization", required = false) String authorization) {
+        if (authorization != null && authorization.startsWith("Bearer ")) {
+            authService.logout(authorization.substring(7));
+        }
+        return ResponseEntity.noContent().build();
     }
 }
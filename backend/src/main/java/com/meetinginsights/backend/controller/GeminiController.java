@@ -1,45 +1,159 @@
 package com.meetinginsights.backend.controller;
 
+import com.meetinginsights.backend.dto.InsightJobResponse;
+import com.meetinginsights.backend.exception.TooManyRequestsException;
 import com.meetinginsights.backend.service.GeminiService;
+import com.meetinginsights.backend.service.InsightJob;
+import com.meetinginsights.backend.service.InsightJobService;
+import com.meetinginsights.backend.service.InsightStreamEvent;
+import com.meetinginsights.backend.service.ModelTier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import reactor.core.publisher.Flux;
 
 import java.io.IOException;
+import java.net.URI;
+import java.security.Principal;
 
 @RestController
 @RequestMapping("/api/gemini")
 @CrossOrigin(origins = "http://localhost:5173") // ⭐ CORRECTED: Specify the exact origin of your frontend ⭐
 public class GeminiController {
 
+    private static final Logger log = LoggerFactory.getLogger(GeminiController.class);
+
     @Autowired
     private GeminiService geminiService;
 
+    @Autowired
+    private InsightJobService insightJobService;
+
     /**
-     * Handles the upload of a meeting audio file and generates insights using Gemini.
+     * Handles the upload of a meeting audio file and queues insight generation with Gemini.
      * This endpoint is secured and requires a valid JWT token.
      *
-     * @param file The MultipartFile containing the meeting audio.
-     * @return A ResponseEntity with the generated insights or an error message.
+     * The request returns as soon as the audio is spooled; the Gemini round trip runs as an insight job, so it never
+     * holds a request thread. Poll the job, or follow its events, for the insights. They are also saved to the user's
+     * history (see /api/insights).
+     *
+     * @param file      The MultipartFile containing the meeting audio.
+     * @param model     "fast", "pro", or "auto" (the default) to pick the model from the audio's length and the user.
+     * @param draft     With the pro model, finish the job with the fast model's insights right away and replace them
+     *                  in the history once the pro model's insights are ready.
+     * @param principal The authenticated user.
+     * @return 202 Accepted with the job ID and a Location header pointing at the job.
+     * @throws IOException If the upload cannot be spooled for processing.
+     * @throws TooManyRequestsException If the job queue is full (answered with 429).
      */
     @PostMapping("/upload-audio")
-    public ResponseEntity<String> uploadAudio(@RequestParam("file") MultipartFile file) {
+    public ResponseEntity<InsightJobResponse> uploadAudio(@RequestParam("file") MultipartFile file,
+                                                          @RequestParam(value = "model", required = false) String model,
+                                                          @RequestParam(value = "draft", defaultValue = "false") boolean draft,
+                                                          Principal principal) throws IOException {
+        return submitJob(file, model, draft, principal);
+    }
+
+    /**
+     * Like {@link #uploadAudio}, but generates the insights within the request and streams them as Server-Sent Events while the model produces them,
+     * so the client sees the first output long before the whole answer is ready.
+     *
+     * @param file      The MultipartFile containing the meeting audio.
+     * @param model     "fast", "pro", or "auto" (the default) to pick the model from the audio's length and the user.
+     * @param principal The authenticated user.
+     * @return An SSE stream of "chunk" events carrying pieces of the model's JSON answer, followed by one
+     *         "insights" event with the parsed insights, or an "error" event if generation fails.
+     */
+    @PostMapping(path = "/upload-audio/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<Object>> streamAudio(@RequestParam("file") MultipartFile file,
+                                                     @RequestParam(value = "model", required = false) String model,
+                                                     Principal principal) {
+        if (file.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Audio file cannot be empty.");
+        }
+        ModelTier requested;
         try {
-            String insights = geminiService.processMeetingAudio(file);
-            return ResponseEntity.ok().body(insights);
+            requested = ModelTier.parse(model);
         } catch (IllegalArgumentException e) {
-            // Handle cases where the audio file is empty
-            return ResponseEntity.badRequest().body(e.getMessage());
-        } catch (IOException | InterruptedException e) {
-            // Handle IO or Interruption exceptions during audio processing
-            System.err.println("Error processing audio for insights: " + e.getMessage());
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Failed to process audio: " + e.getMessage());
-        } catch (Exception e) {
-            // Catch any other unexpected exceptions
-            System.err.println("An unexpected error occurred during insight generation: " + e.getMessage());
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("An unexpected error occurred: " + e.getMessage());
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+        return geminiService.streamMeetingAudio(file, file.getSize(), file.getContentType(), file.getOriginalFilename(),
+                        principal.getName(), requested)
+                .map(event -> event.getType() == InsightStreamEvent.Type.CHUNK
+                        ? ServerSentEvent.builder((Object) event.getText()).event("chunk").build()
+                        : ServerSentEvent.builder((Object) event.getInsights()).event("insights").build())
+                .onErrorResume(e -> {
+                    log.warn("Error streaming insights", e);
+                    return Flux.just(ServerSentEvent.builder((Object) ("Failed to process audio: " + e.getMessage()))
+                            .event("error").build());
+                });
+    }
+
+    /**
+     * Queues a meeting audio file for asynchronous insight generation.
+     * The request returns immediately; the Gemini call runs on the bounded insight job executor.
+     *
+     * @param file      The MultipartFile containing the meeting audio.
+     * @param model     "fast", "pro", or "auto" (the default) to pick the model from the audio's length and the user.
+     * @param draft     With the pro model, finish the job with the fast model's insights and refine them later.
+     * @param principal The authenticated user submitting the job.
+     * @return 202 Accepted with the job ID and a Location header pointing at the job.
+     * @throws IOException If the upload cannot be spooled for processing.
+     */
+    @PostMapping("/jobs")
+    public ResponseEntity<InsightJobResponse> submitJob(@RequestParam("file") MultipartFile file,
+                                                        @RequestParam(value = "model", required = false) String model,
+                                                        @RequestParam(value = "draft", defaultValue = "false") boolean draft,
+                                                        Principal principal) throws IOException {
+        if (file.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Audio file cannot be empty.");
         }
+        ModelTier requested;
+        try {
+            requested = ModelTier.parse(model);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+        InsightJob job = insightJobService.submit(file, principal.getName(), requested, draft);
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/gemini/jobs/" + job.getId()))
+                .body(InsightJobResponse.from(job));
+    }
+
+    /**
+     * Returns the current state of an insight job, including the insights once it has succeeded.
+     *
+     * @param id        The job ID returned by {@link #submitJob}.
+     * @param principal The authenticated user.
+     * @return The job status.
+     */
+    @GetMapping("/jobs/{id}")
+    public InsightJobResponse getJob(@PathVariable String id, Principal principal) {
+        return InsightJobResponse.from(findJob(id, principal));
+    }
+
+    /**
+     * Streams status updates for an insight job as Server-Sent Events until it finishes.
+     *
+     * @param id        The job ID returned by {@link #submitJob}.
+     * @param principal The authenticated user.
+     * @return An SSE stream of "status" events.
+     */
+    @GetMapping(path = "/jobs/{id}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamJob(@PathVariable String id, Principal principal) {
+        return insightJobService.subscribe(findJob(id, principal));
+    }
+
+    private InsightJob findJob(String id, Principal principal) {
+        return insightJobService.find(id, principal.getName())
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Insight job not found: " + id));
     }
-}
\ No newline at end of file
+}
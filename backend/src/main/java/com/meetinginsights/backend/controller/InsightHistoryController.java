@@ -0,0 +1,58 @@
+package com.meetinginsights.backend.controller;
+
+import com.meetinginsights.backend.dto.InsightHistoryPage;
+import com.meetinginsights.backend.dto.InsightSearchHit;
+import com.meetinginsights.backend.service.InsightHistoryService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.security.Principal;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/insights")
+public class InsightHistoryController {
+
+    @Autowired
+    private InsightHistoryService insightHistoryService;
+
+    /**
+     * Lists the authenticated user's previously generated insights, newest first.
+     *
+     * @param cursor    The nextCursor from the previous page; omit for the first page.
+     * @param limit     The page size (at most 100).
+     * @param principal The authenticated user.
+     * @return The page of insights and the cursor of the next page, if there is one.
+     */
+    @GetMapping
+    public InsightHistoryPage list(@RequestParam(required = false) String cursor,
+                                   @RequestParam(defaultValue = "20") int limit,
+                                   Principal principal) {
+        try {
+            return insightHistoryService.list(principal.getName(), cursor, limit);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    /**
+     * Searches the authenticated user's insights.
+     *
+     * @param q         The search words; all of them must occur.
+     * @param limit     The maximum number of results (at most 50).
+     * @param principal The authenticated user.
+     * @return The matching insights, best match first, with highlighted fragments.
+     */
+    @GetMapping("/search")
+    public List<InsightSearchHit> search(@RequestParam String q,
+                                         @RequestParam(defaultValue = "10") int limit,
+                                         Principal principal) {
+        try {
+            return insightHistoryService.search(principal.getName(), q, limit);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+}
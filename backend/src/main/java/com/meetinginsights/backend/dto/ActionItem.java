@@ -0,0 +1,12 @@
+package com.meetinginsights.backend.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+public class ActionItem {
+    private String task;
+    private String owner;
+    private String deadline;
+}
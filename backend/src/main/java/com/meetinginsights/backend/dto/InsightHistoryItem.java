@@ -0,0 +1,19 @@
+package com.meetinginsights.backend.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.Instant;
+
+@Getter
+@Setter
+public class InsightHistoryItem {
+    private Long id;
+    private String fileName;
+    private Double durationSeconds;
+    private String model;
+    private String promptVersion;
+    private long processingMs;
+    private Instant createdAt;
+    private MeetingInsights insights;
+}
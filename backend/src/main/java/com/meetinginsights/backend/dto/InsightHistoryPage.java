@@ -0,0 +1,15 @@
+package com.meetinginsights.backend.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Getter
+@Setter
+public class InsightHistoryPage {
+    private List<InsightHistoryItem> items = new ArrayList<>();
+    // Pass as ?cursor= to get the next page; null on the last page
+    private String nextCursor;
+}
@@ -0,0 +1,33 @@
+package com.meetinginsights.backend.dto;
+
+import com.meetinginsights.backend.service.InsightJob;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.Instant;
+
+@Getter
+@Setter
+public class InsightJobResponse {
+    private String jobId;
+    private String status;
+    private String fileName;
+    private Instant submittedAt;
+    private Instant startedAt;
+    private Instant finishedAt;
+    private MeetingInsights insights;
+    private String error;
+
+    public static InsightJobResponse from(InsightJob job) {
+        InsightJobResponse response = new InsightJobResponse();
+        response.setJobId(job.getId());
+        response.setStatus(job.getStatus().name());
+        response.setFileName(job.getFileName());
+        response.setSubmittedAt(job.getSubmittedAt());
+        response.setStartedAt(job.getStartedAt());
+        response.setFinishedAt(job.getFinishedAt());
+        response.setInsights(job.getResult());
+        response.setError(job.getError());
+        return response;
+    }
+}
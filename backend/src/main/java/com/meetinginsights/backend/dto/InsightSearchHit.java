@@ -0,0 +1,17 @@
+package com.meetinginsights.backend.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.Instant;
+
+@Getter
+@Setter
+public class InsightSearchHit {
+    private Long id;
+    private String fileName;
+    private Instant createdAt;
+    private double rank;
+    // HTML-escaped fragments of the insights with the matched words in <mark> tags
+    private String highlight;
+}
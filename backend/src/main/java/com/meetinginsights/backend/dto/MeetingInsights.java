@@ -0,0 +1,17 @@
+package com.meetinginsights.backend.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Getter
+@Setter
+public class MeetingInsights {
+    private List<String> summary = new ArrayList<>();
+    private List<ActionItem> actionItems = new ArrayList<>();
+    private List<String> decisions = new ArrayList<>();
+    private List<String> discussionPoints = new ArrayList<>();
+    private List<String> followUps = new ArrayList<>();
+}
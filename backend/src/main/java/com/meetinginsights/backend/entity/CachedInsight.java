@@ -0,0 +1,30 @@
+package com.meetinginsights.backend.entity;
+
+import jakarta.persistence.*;
+
+import java.time.Instant;
+
+@Entity
+@Table(name = "insight_cache")
+public class CachedInsight {
+    // SHA-256 of the audio plus the prompt version, see InsightCache
+    @Id
+    @Column(name = "cache_key", length = 100)
+    private String cacheKey;
+
+    @Column(columnDefinition = "TEXT", nullable = false)
+    private String insights;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    // Getters & Setters
+    public String getCacheKey() { return cacheKey; }
+    public void setCacheKey(String cacheKey) { this.cacheKey = cacheKey; }
+
+    public String getInsights() { return insights; }
+    public void setInsights(String insights) { this.insights = insights; }
+
+    public Instant getCreatedAt() { return createdAt; }
+    public void setCreatedAt(Instant createdAt) { this.createdAt = createdAt; }
+}
@@ -0,0 +1,75 @@
+package com.meetinginsights.backend.entity;
+
+import jakarta.persistence.*;
+
+import java.time.Instant;
+
+/**
+ * One generation request, for auditing and billing. Rows are only inserted, in batches, by
+ * {@link com.meetinginsights.backend.service.GenerationAuditLog}; the entity defines the table.
+ */
+@Entity
+@Table(name = "generation_audit", indexes = {
+        // Serves per-user usage reports over a time range
+        @Index(name = "idx_generation_audit_user_created", columnList = "user_email, created_at")
+})
+public class GenerationAudit {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // The email rather than a foreign key, so audit rows outlive the user and are written without a lookup.
+    // Null for requests made without a user.
+    @Column(name = "user_email")
+    private String userEmail;
+
+    @Column(name = "audio_bytes", nullable = false)
+    private long audioBytes;
+
+    @Column(name = "latency_ms", nullable = false)
+    private long latencyMs;
+
+    // ok, cached, error or cancelled
+    @Column(nullable = false, length = 16)
+    private String status;
+
+    @Column(nullable = false, length = 64)
+    private String model;
+
+    @Column(name = "prompt_tokens", nullable = false)
+    private long promptTokens;
+
+    @Column(name = "output_tokens", nullable = false)
+    private long outputTokens;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    // Getters & Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public String getUserEmail() { return userEmail; }
+    public void setUserEmail(String userEmail) { this.userEmail = userEmail; }
+
+    public long getAudioBytes() { return audioBytes; }
+    public void setAudioBytes(long audioBytes) { this.audioBytes = audioBytes; }
+
+    public long getLatencyMs() { return latencyMs; }
+    public void setLatencyMs(long latencyMs) { this.latencyMs = latencyMs; }
+
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+
+    public String getModel() { return model; }
+    public void setModel(String model) { this.model = model; }
+
+    public long getPromptTokens() { return promptTokens; }
+    public void setPromptTokens(long promptTokens) { this.promptTokens = promptTokens; }
+
+    public long getOutputTokens() { return outputTokens; }
+    public void setOutputTokens(long outputTokens) { this.outputTokens = outputTokens; }
+
+    public Instant getCreatedAt() { return createdAt; }
+    public void setCreatedAt(Instant createdAt) { this.createdAt = createdAt; }
+}
@@ -0,0 +1,89 @@
+package com.meetinginsights.backend.entity;
+
+import jakarta.persistence.*;
+
+import java.time.Instant;
+
+/**
+ * Insights generated for one uploaded meeting, kept so users can come back to them without another model call.
+ */
+@Entity
+@Table(name = "meeting_insights", indexes = {
+        // Serves the history listing: the newest insights of one owner, paged by (created_at, id).
+        @Index(name = "idx_meeting_insights_owner_created", columnList = "owner_id, created_at DESC, id DESC")
+})
+public class MeetingInsight {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "owner_id", nullable = false)
+    private User owner;
+
+    // SHA-256 of the uploaded audio, see InsightCache
+    @Column(name = "audio_hash", length = 64, nullable = false)
+    private String audioHash;
+
+    @Column(name = "file_name")
+    private String fileName;
+
+    // Only known for WAV uploads
+    @Column(name = "duration_seconds")
+    private Double durationSeconds;
+
+    @Column(nullable = false, length = 64)
+    private String model;
+
+    @Column(name = "prompt_version", nullable = false, length = 16)
+    private String promptVersion;
+
+    // The insights as JSON
+    @Column(columnDefinition = "TEXT", nullable = false)
+    private String insights;
+
+    // The file name and insights as plain text, one line per item; the search index is built from this
+    @Column(name = "search_text", columnDefinition = "TEXT")
+    private String searchText;
+
+    // Time from receiving the audio to having the insights
+    @Column(name = "processing_ms", nullable = false)
+    private long processingMs;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    // Getters & Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public User getOwner() { return owner; }
+    public void setOwner(User owner) { this.owner = owner; }
+
+    public String getAudioHash() { return audioHash; }
+    public void setAudioHash(String audioHash) { this.audioHash = audioHash; }
+
+    public String getFileName() { return fileName; }
+    public void setFileName(String fileName) { this.fileName = fileName; }
+
+    public Double getDurationSeconds() { return durationSeconds; }
+    public void setDurationSeconds(Double durationSeconds) { this.durationSeconds = durationSeconds; }
+
+    public String getModel() { return model; }
+    public void setModel(String model) { this.model = model; }
+
+    public String getPromptVersion() { return promptVersion; }
+    public void setPromptVersion(String promptVersion) { this.promptVersion = promptVersion; }
+
+    public String getInsights() { return insights; }
+    public void setInsights(String insights) { this.insights = insights; }
+
+    public String getSearchText() { return searchText; }
+    public void setSearchText(String searchText) { this.searchText = searchText; }
+
+    public long getProcessingMs() { return processingMs; }
+    public void setProcessingMs(long processingMs) { this.processingMs = processingMs; }
+
+    public Instant getCreatedAt() { return createdAt; }
+    public void setCreatedAt(Instant createdAt) { this.createdAt = createdAt; }
+}
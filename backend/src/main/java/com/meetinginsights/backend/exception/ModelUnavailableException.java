@@ -0,0 +1,28 @@
+package com.meetinginsights.backend.exception;
+
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * The model provider is overloaded, down or not answering in time, so the request can be tried again later. It is an
+ * IOException so that it travels the same paths as other failed model calls.
+ */
+public class ModelUnavailableException extends IOException {
+
+    private final Duration retryAfter;
+
+    public ModelUnavailableException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+
+    public ModelUnavailableException(String message, Duration retryAfter, Throwable cause) {
+        super(message, cause);
+        this.retryAfter = retryAfter;
+    }
+
+    /** How long to wait before trying again, or null if unknown. */
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
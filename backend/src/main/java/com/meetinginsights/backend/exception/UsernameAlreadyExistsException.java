@@ -0,0 +1,7 @@
+package com.meetinginsights.backend.exception;
+
+public class UsernameAlreadyExistsException extends RuntimeException {
+    public UsernameAlreadyExistsException(String message) {
+        super(message);
+    }
+}
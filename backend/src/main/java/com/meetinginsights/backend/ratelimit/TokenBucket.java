@@ -0,0 +1,79 @@
+package com.meetinginsights.backend.ratelimit;
+
+/**
+ * A token bucket: holds up to {@code capacity} tokens and refills continuously at a fixed rate. Each admitted action
+ * takes a token, so bursts up to the capacity are allowed while the long-run rate is bounded by the refill rate.
+ */
+public class TokenBucket {
+
+    private final double capacity;
+    private final double refillPerNano;
+    private double tokens;
+    private long lastRefill;
+
+    /**
+     * @param capacity        The maximum number of tokens; the bucket starts full.
+     * @param refillPerMinute Tokens added per minute.
+     */
+    public TokenBucket(double capacity, double refillPerMinute) {
+        this.capacity = capacity;
+        this.refillPerNano = refillPerMinute / 60_000_000_000d;
+        this.tokens = capacity;
+        this.lastRefill = System.nanoTime();
+    }
+
+    /**
+     * Takes one token if there is one.
+     *
+     * @return True if a token was taken, false if the bucket is empty.
+     */
+    public synchronized boolean tryConsume() {
+        return tryConsume(1);
+    }
+
+    /**
+     * Takes the given number of tokens if there are that many.
+     *
+     * @param amount The tokens to take, at most the capacity.
+     * @return True if the tokens were taken, false if there are too few.
+     */
+    public synchronized boolean tryConsume(double amount) {
+        refill();
+        if (tokens < amount) {
+            return false;
+        }
+        tokens -= amount;
+        return true;
+    }
+
+    /**
+     * @param amount The tokens wanted, at most the capacity.
+     * @return The nanoseconds until the bucket holds that many tokens, 0 if it already does.
+     */
+    public synchronized long nanosUntilAvailable(double amount) {
+        refill();
+        return tokens >= amount ? 0 : (long) Math.ceil((amount - tokens) / refillPerNano);
+    }
+
+    /**
+     * Adds tokens, or takes them if negative, without checking the level, e.g. to correct an estimated cost once the
+     * real one is known. The bucket never holds more than its capacity but may go into debt, which holds off later
+     * consumers until it has refilled.
+     *
+     * @param delta The tokens to add.
+     */
+    public synchronized void adjust(double delta) {
+        refill();
+        tokens = Math.min(capacity, tokens + delta);
+    }
+
+    public double getCapacity() {
+        return capacity;
+    }
+
+    private void refill() {
+        long now = System.nanoTime();
+        tokens = Math.min(capacity, tokens + (now - lastRefill) * refillPerNano);
+        lastRefill = now;
+    }
+}
@@ -0,0 +1,16 @@
+package com.meetinginsights.backend.repository;
+
+import com.meetinginsights.backend.entity.CachedInsight;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+
+public interface CachedInsightRepository extends JpaRepository<CachedInsight, String> {
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM CachedInsight c WHERE c.createdAt < :cutoff")
+    int deleteCreatedBefore(Instant cutoff);
+}
@@ -0,0 +1,14 @@
+package com.meetinginsights.backend.repository;
+
+import java.time.Instant;
+
+/**
+ * One result of {@link MeetingInsightRepository#search}.
+ */
+public interface InsightSearchRow {
+    Long getId();
+    String getFileName();
+    Instant getCreatedAt();
+    Double getRank();
+    String getHighlight();
+}
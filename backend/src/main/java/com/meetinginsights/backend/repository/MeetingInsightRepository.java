@@ -0,0 +1,43 @@
+package com.meetinginsights.backend.repository;
+
+import com.meetinginsights.backend.entity.MeetingInsight;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface MeetingInsightRepository extends JpaRepository<MeetingInsight, Long> {
+
+    // Keyset pagination: each page continues after the last (createdAt, id) of the previous one, so the cost of a
+    // page doesn't grow with how far back it is, unlike OFFSET.
+    @Query("SELECT m FROM MeetingInsight m WHERE m.owner.id = :ownerId ORDER BY m.createdAt DESC, m.id DESC")
+    List<MeetingInsight> findFirstPage(Long ownerId, Limit limit);
+
+    @Query("SELECT m FROM MeetingInsight m WHERE m.owner.id = :ownerId"
+            + " AND (m.createdAt < :createdAt OR (m.createdAt = :createdAt AND m.id < :id))"
+            + " ORDER BY m.createdAt DESC, m.id DESC")
+    List<MeetingInsight> findPageAfter(Long ownerId, Instant createdAt, Long id, Limit limit);
+
+    // Full-text search over search_vector, a generated tsvector column with a GIN index (see schema.sql). Rows are
+    // ranked and cut to the limit first, so ts_headline, which re-parses the text, only runs for the returned rows.
+    @Query(value = "SELECT top.id AS id, top.file_name AS fileName, top.created_at AS createdAt, top.rank AS rank,"
+            + " ts_headline('english', coalesce(top.search_text, ''), top.query, :headlineOptions) AS highlight"
+            + " FROM (SELECT m.id, m.file_name, m.created_at, m.search_text, q.query,"
+            + "         ts_rank_cd(m.search_vector, q.query) AS rank"
+            + "       FROM meeting_insights m, websearch_to_tsquery('english', :query) AS q(query)"
+            + "       WHERE m.owner_id = :ownerId AND m.search_vector @@ q.query"
+            + "       ORDER BY rank DESC, m.id DESC LIMIT :limit) top"
+            + " ORDER BY top.rank DESC, top.id DESC", nativeQuery = true)
+    List<InsightSearchRow> search(Long ownerId, String query, int limit, String headlineOptions);
+
+    // The whole table in id order, one page at a time, for indexes that are rebuilt at startup.
+    @Query("SELECT m FROM MeetingInsight m WHERE m.id > :afterId ORDER BY m.id")
+    List<MeetingInsight> findPageAfterId(Long afterId, Limit limit);
+
+    @Modifying
+    @Query("DELETE FROM MeetingInsight m WHERE m.owner.id = :ownerId")
+    int deleteByOwnerId(Long ownerId);
+}
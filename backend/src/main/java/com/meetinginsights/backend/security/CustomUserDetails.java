@@ -1,28 +1,21 @@
 package com.meetinginsights.backend.security;
 
-import com.meetinginsights.backend.entity.Role;
-import com.meetinginsights.backend.entity.User;
 import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
 import java.util.Collection;
-import java.util.stream.Collectors;
 
 public class CustomUserDetails implements UserDetails {
 
-    private final User user;
+    private final UserSnapshot user;
 
-    public CustomUserDetails(User user) { this.user = user; }
+    public CustomUserDetails(UserSnapshot user) { this.user = user; }
 
-    public User getUser() { return user; }
+    public UserSnapshot getUser() { return user; }
 
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
-        return user.getRoles().stream()
-                .map(Role::getName) // e.g. "ROLE_USER"
-                .map(SimpleGrantedAuthority::new)
-                .collect(Collectors.toSet());
+        return user.getAuthorities(); // e.g. "ROLE_USER"
     }
 
     @Override
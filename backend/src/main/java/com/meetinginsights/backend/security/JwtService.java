@@ -1,11 +1,17 @@
 package com.meetinginsights.backend.security;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.Jws;
 import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
@@ -18,27 +24,59 @@ import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
+/**
+ * Issues and verifies JWTs.
+ * <p>
+ * The signing key and the parser are built once. Verified claims are cached by token string, so the repeated
+ * requests of a logged-in user cost one hash lookup instead of an HMAC verification each; entries are evicted when
+ * their token expires, and only tokens that passed verification are ever cached.
+ */
 @Service
 public class JwtService {
 
-    @Value("${jwt.secret}")
-    private String secret;
+    private final Key signingKey;
+    private final JwtParser parser;
+    private final Cache<String, Claims> verifiedClaims;
 
     @Value("${jwt.expiration-ms}")
     private long expirationMs;
 
-    /**
-     * Retrieves the signing key from the secret key string using UTF-8 encoding.
-     * This method is adopted from your previous JwtUtil class.
-     *
-     * @return The signing key.
-     */
-    private Key signingKey() {
-        byte[] keyBytes = secret.getBytes(StandardCharsets.UTF_8);
-        return Keys.hmacShaKeyFor(keyBytes);
+    public JwtService(@Value("${jwt.secret}") String secret,
+                      @Value("${jwt.cache.max-entries:10000}") long maxCachedTokens,
+                      MeterRegistry meterRegistry) {
+        this.signingKey = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        // JwtParser is immutable and thread-safe, so one instance serves every request.
+        this.parser = Jwts.parserBuilder().setSigningKey(signingKey).build();
+        this.verifiedClaims = Caffeine.newBuilder()
+                .maximumSize(maxCachedTokens)
+                .expireAfter(new Expiry<String, Claims>() {
+                    @Override
+                    public long expireAfterCreate(String token, Claims claims, long currentTime) {
+                        Date expiration = claims.getExpiration();
+                        if (expiration == null) {
+                            return Long.MAX_VALUE;
+                        }
+                        return TimeUnit.MILLISECONDS.toNanos(Math.max(0, expiration.getTime() - System.currentTimeMillis()));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String token, Claims claims, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(String token, Claims claims, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, verifiedClaims, "jwt.claims");
     }
 
     /**
@@ -74,9 +112,10 @@ public class JwtService {
         return Jwts.builder()
                 .setClaims(claims)
                 .setSubject(username) // Set the principal (username/email) as the token subject.
+                .setId(UUID.randomUUID().toString()) // Unique token id, so a single token can be revoked.
                 .setIssuedAt(now) // Set the token issuance time.
                 .setExpiration(exp) // Set the token expiration time.
-                .signWith(signingKey(), SignatureAlgorithm.HS256) // Sign the token using the secret key and HS256 algorithm.
+                .signWith(signingKey, SignatureAlgorithm.HS256) // Sign the token using the secret key and HS256 algorithm.
                 .compact(); // Build and serialize the JWT to a compact, URL-safe string.
     }
 
@@ -87,10 +126,7 @@ public class JwtService {
      * @return The Jws object containing header, claims, and signature.
      */
     private Jws<Claims> parseToken(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(signingKey()) // Use the secret key for parsing.
-                .build()
-                .parseClaimsJws(token); // Parse the signed JWT.
+        return parser.parseClaimsJws(token); // Parse the signed JWT.
     }
 
     /**
@@ -117,13 +153,15 @@ public class JwtService {
     }
 
     /**
-     * Extracts all claims (payload) from the JWT token.
+     * Extracts all claims (payload) from the JWT token, verifying it on first use and serving it from the
+     * verified-claims cache afterwards.
      *
      * @param token The JWT token string.
-     * @return The Claims object containing all token claims.
+     * @return The Claims object containing all token claims. It is shared between callers and must not be modified.
+     * @throws JwtException If the token is malformed, has an invalid signature or has expired.
      */
-    private Claims extractAllClaims(String token) {
-        return parseToken(token).getBody(); // Get the claims body after parsing.
+    public Claims extractAllClaims(String token) {
+        return verifiedClaims.get(token, t -> parseToken(t).getBody());
     }
 
     /**
@@ -133,9 +171,18 @@ public class JwtService {
      * @param token The JWT token string.
      * @return A Set of role names (Strings). Returns an empty set if the "roles" claim is not found or is not a collection.
      */
-    @SuppressWarnings("unchecked")
     public Set<String> extractRoles(String token) {
-        Object r = parseToken(token).getBody().get("roles");
+        return extractRoles(extractAllClaims(token));
+    }
+
+    /**
+     * Extracts the roles from already extracted claims.
+     *
+     * @param claims The claims from {@link #extractAllClaims}.
+     * @return A Set of role names (Strings). Returns an empty set if the "roles" claim is not found or is not a collection.
+     */
+    public Set<String> extractRoles(Claims claims) {
+        Object r = claims.get("roles");
         if (r instanceof Collection<?>) {
             return ((Collection<?>) r).stream()
                     .map(Object::toString)
@@ -153,28 +200,30 @@ public class JwtService {
      * @return True if the token is valid, false otherwise.
      */
     public boolean validateToken(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
+        return validateToken(extractAllClaims(token), userDetails);
     }
 
     /**
-     * Checks if the JWT token has expired.
+     * Checks already extracted claims against the given UserDetails, so a caller that has the claims does not need
+     * another lookup.
      *
-     * @param token The JWT token string.
-     * @return True if the token is expired, false otherwise.
+     * @param claims      The claims from {@link #extractAllClaims}.
+     * @param userDetails The UserDetails object for comparison.
+     * @return True if the claims belong to the user and have not expired, false otherwise.
      */
-    private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+    public boolean validateToken(Claims claims, UserDetails userDetails) {
+        return claims.getSubject().equals(userDetails.getUsername()) && !isExpired(claims);
     }
 
     /**
-     * Extracts the expiration date from the JWT token's claims.
+     * Checks whether verified claims have expired. The claims cache evicts at expiry, but an entry can still be read
+     * in the moment before eviction runs.
      *
-     * @param token The JWT token string.
-     * @return The expiration date.
+     * @param claims The claims from {@link #extractAllClaims}.
+     * @return True if the token is expired, false otherwise.
      */
-    private Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+    public boolean isExpired(Claims claims) {
+        return claims.getExpiration() != null && claims.getExpiration().before(new Date());
     }
 
     /**
@@ -186,7 +235,7 @@ public class JwtService {
      */
     public boolean isTokenSyntacticallyValid(String token) {
         try {
-            parseToken(token);
+            extractAllClaims(token);
             return true;
         } catch (JwtException | IllegalArgumentException ex) {
             return false;
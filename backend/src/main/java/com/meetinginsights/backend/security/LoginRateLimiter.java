@@ -0,0 +1,73 @@
+package com.meetinginsights.backend.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.meetinginsights.backend.exception.TooManyRequestsException;
+import com.meetinginsights.backend.ratelimit.TokenBucket;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Locale;
+
+/**
+ * Admission control for login attempts, checked before any password is hashed.
+ * <p>
+ * Each client address and each account has its own token bucket: the per-address limit slows down one client trying
+ * many accounts, the per-account limit slows down many clients trying one account. Buckets of idle keys are dropped,
+ * so memory is bounded by the number of recently active addresses and accounts.
+ */
+@Component
+public class LoginRateLimiter {
+
+    private final Cache<String, TokenBucket> addressBuckets;
+    private final Cache<String, TokenBucket> accountBuckets;
+    private final Counter addressThrottled;
+    private final Counter accountThrottled;
+
+    @Value("${auth.login.ip.capacity:20}")
+    private int addressCapacity;
+
+    @Value("${auth.login.ip.refill-per-minute:20}")
+    private int addressRefillPerMinute;
+
+    @Value("${auth.login.account.capacity:5}")
+    private int accountCapacity;
+
+    @Value("${auth.login.account.refill-per-minute:5}")
+    private int accountRefillPerMinute;
+
+    public LoginRateLimiter(MeterRegistry meterRegistry,
+                            @Value("${auth.login.max-tracked-keys:100000}") long maxTrackedKeys) {
+        // With the default rates a bucket left alone this long has refilled completely, so dropping it changes nothing.
+        Duration idle = Duration.ofMinutes(10);
+        this.addressBuckets = Caffeine.newBuilder().maximumSize(maxTrackedKeys).expireAfterAccess(idle).build();
+        this.accountBuckets = Caffeine.newBuilder().maximumSize(maxTrackedKeys).expireAfterAccess(idle).build();
+        this.addressThrottled = meterRegistry.counter("auth.login.throttled", "limit", "address");
+        this.accountThrottled = meterRegistry.counter("auth.login.throttled", "limit", "account");
+    }
+
+    /**
+     * Admits a login attempt or rejects it.
+     *
+     * @param clientAddress The address the request came from.
+     * @param email         The account being logged into.
+     * @throws TooManyRequestsException If the address or the account has used up its attempts.
+     */
+    public void acquire(String clientAddress, String email) {
+        if (!addressBuckets.get(clientAddress, k -> new TokenBucket(addressCapacity, addressRefillPerMinute)).tryConsume()) {
+            addressThrottled.increment();
+            throw new TooManyRequestsException("Too many login attempts. Please try again later.");
+        }
+        if (email == null) {
+            return;
+        }
+        String account = email.trim().toLowerCase(Locale.ROOT);
+        if (!accountBuckets.get(account, k -> new TokenBucket(accountCapacity, accountRefillPerMinute)).tryConsume()) {
+            accountThrottled.increment();
+            throw new TooManyRequestsException("Too many login attempts for this account. Please try again later.");
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.meetinginsights.backend.security;
+
+import org.springframework.security.crypto.argon2.Argon2PasswordEncoder;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.crypto.password.Pbkdf2PasswordEncoder;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Builds the application's password encoder: a {@link DelegatingPasswordEncoder} that prefixes each hash with its
+ * algorithm ({@code {bcrypt}}, {@code {pbkdf2}}, {@code {argon2}}), while the cost parameters are recorded in the hash
+ * itself. Hashes stored before the prefix was introduced are plain BCrypt and are still accepted.
+ * <p>
+ * {@link PasswordEncoder#upgradeEncoding} reports hashes made with another algorithm, or another BCrypt cost, than the
+ * current target, so they can be replaced on the next successful login.
+ */
+public final class PasswordEncoders {
+
+    public static final String BCRYPT = "bcrypt";
+    public static final String PBKDF2 = "pbkdf2";
+    public static final String ARGON2 = "argon2";
+
+    private PasswordEncoders() {
+    }
+
+    /**
+     * @param idForEncode    The algorithm new hashes are made with: bcrypt, pbkdf2 or argon2.
+     * @param bcryptStrength The BCrypt cost (log2 rounds) new BCrypt hashes are made with.
+     * @return The delegating encoder.
+     */
+    public static PasswordEncoder create(String idForEncode, int bcryptStrength) {
+        BCryptPasswordEncoder bcrypt = new TargetCostBCryptPasswordEncoder(bcryptStrength);
+        Map<String, PasswordEncoder> encoders = new HashMap<>();
+        encoders.put(BCRYPT, bcrypt);
+        encoders.put(PBKDF2, Pbkdf2PasswordEncoder.defaultsForSpringSecurity_v5_8());
+        encoders.put(ARGON2, Argon2PasswordEncoder.defaultsForSpringSecurity_v5_8());
+        if (!encoders.containsKey(idForEncode)) {
+            throw new IllegalArgumentException("Unknown password encoder: " + idForEncode);
+        }
+        DelegatingPasswordEncoder delegating = new DelegatingPasswordEncoder(idForEncode, encoders);
+        // Hashes from before the {id} prefix are plain BCrypt.
+        delegating.setDefaultPasswordEncoderForMatches(bcrypt);
+        return delegating;
+    }
+
+    /**
+     * BCrypt that asks for a re-hash whenever the stored cost differs from the configured one, so lowering the cost
+     * takes effect too (the stock encoder only upgrades hashes with a lower cost).
+     */
+    static class TargetCostBCryptPasswordEncoder extends BCryptPasswordEncoder {
+
+        private final int strength;
+
+        TargetCostBCryptPasswordEncoder(int strength) {
+            super(strength);
+            this.strength = strength;
+        }
+
+        @Override
+        public boolean upgradeEncoding(String encodedPassword) {
+            // $2a$10$<salt and hash>: the cost is the two digits after the version.
+            if (encodedPassword == null || encodedPassword.length() < 7 || encodedPassword.charAt(0) != '$') {
+                return false;
+            }
+            try {
+                return Integer.parseInt(encodedPassword.substring(4, 6)) != strength;
+            } catch (NumberFormatException e) {
+                return false;
+            }
+        }
+    }
+}
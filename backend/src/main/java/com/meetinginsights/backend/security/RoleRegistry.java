@@ -0,0 +1,105 @@
+package com.meetinginsights.backend.security;
+
+import com.meetinginsights.backend.entity.Role;
+import com.meetinginsights.backend.repository.RoleRepository;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * The roles table held in memory. Roles are few and only change when {@link com.meetinginsights.backend.config.RoleSeeder}
+ * runs or an admin edits them, so they are loaded once and resolving a role never queries the database.
+ * <p>
+ * Each role has one canonical {@link GrantedAuthority}, and the authority list of each combination of roles is built
+ * once, so authenticating a request doesn't allocate authorities. The contents are replaced as a whole by
+ * {@link #reload()}; readers always see either the old or the new set of roles.
+ */
+@Component
+public class RoleRegistry {
+
+    /**
+     * One immutable generation of the registry.
+     */
+    private static final class Roles {
+        private final Map<String, Role> byName;
+        private final Map<String, GrantedAuthority> authorities;
+        // Authority lists by the collection of role names they were requested for (token claims, user snapshots).
+        // Only combinations that were actually issued show up here, so it stays tiny.
+        private final Map<Collection<?>, List<GrantedAuthority>> authorityLists = new ConcurrentHashMap<>();
+
+        Roles(Collection<Role> roles) {
+            this.byName = roles.stream().collect(Collectors.toUnmodifiableMap(Role::getName, Function.identity()));
+            this.authorities = roles.stream().collect(Collectors.toUnmodifiableMap(Role::getName,
+                    role -> new SimpleGrantedAuthority(role.getName())));
+        }
+    }
+
+    private final RoleRepository roleRepository;
+    private volatile Roles roles = new Roles(List.of());
+
+    public RoleRegistry(RoleRepository roleRepository) {
+        this.roleRepository = roleRepository;
+    }
+
+    /**
+     * Reloads all roles from the database.
+     *
+     * @return The names of the loaded roles.
+     */
+    public Collection<String> reload() {
+        Roles loaded = new Roles(roleRepository.findAll());
+        roles = loaded;
+        return loaded.byName.keySet();
+    }
+
+    /**
+     * @return The names of the loaded roles.
+     */
+    public Collection<String> names() {
+        return roles.byName.keySet();
+    }
+
+    /**
+     * @param name The role name, e.g. "ROLE_USER".
+     * @return The role entity. It is detached, so it can only be used as a reference (e.g. added to a user's roles).
+     * @throws IllegalStateException If there is no such role.
+     */
+    public Role get(String name) {
+        Role role = roles.byName.get(name);
+        if (role == null) {
+            throw new IllegalStateException("Role '" + name + "' is not found. Please ensure it exists.");
+        }
+        return role;
+    }
+
+    /**
+     * @param roleNames Role names, e.g. the "roles" claim of a token. Elements are converted with toString.
+     * @return The canonical authorities of the roles, as an immutable list shared by all callers asking for the same
+     *         names. Names that aren't in the registry (e.g. a role removed since a token was issued) still get an
+     *         authority, so a reload can't silently change what a valid token grants.
+     */
+    public List<GrantedAuthority> authorities(Collection<?> roleNames) {
+        Roles current = roles;
+        List<GrantedAuthority> cached = current.authorityLists.get(roleNames);
+        if (cached != null) {
+            return cached;
+        }
+        List<GrantedAuthority> authorities = roleNames.stream()
+                .map(Object::toString)
+                .distinct()
+                .map(name -> current.authorities.getOrDefault(name, new SimpleGrantedAuthority(name)))
+                .toList();
+        // The key is copied as the same kind of collection, since a List never equals a Set.
+        Collection<?> key = roleNames instanceof Set<?> set ? Set.copyOf(set) : List.copyOf(roleNames);
+        current.authorityLists.putIfAbsent(key, authorities);
+        return authorities;
+    }
+}
@@ -1,20 +1,28 @@
 package com.meetinginsights.backend.security;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.autoconfigure.security.servlet.EndpointRequest;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod; // Added this import
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.AuthenticationProvider;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import org.springframework.security.web.util.matcher.AndRequestMatcher;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
@@ -27,10 +35,32 @@ public class SecurityConfig {
 
     private final JwtFilter jwtFilter;
     private final UserDetailsService userDetailsService;
+    private final UserDetailsPasswordService userDetailsPasswordService;
+    private final ThreadPoolTaskExecutor passwordHashExecutor;
+    private final MeterRegistry meterRegistry;
 
-    public SecurityConfig(JwtFilter jwtFilter, UserDetailsService userDetailsService) {
+    @Value("${auth.password.encoder:bcrypt}")
+    private String passwordEncoderId;
+
+    @Value("${auth.password.bcrypt-strength:10}")
+    private int bcryptStrength;
+
+    @Value("${server.port:8080}")
+    private int serverPort;
+
+    // The actuator's own port, which isn't published; -1 if the actuator is served on the application's port.
+    @Value("${management.server.port:-1}")
+    private int managementPort;
+
+    public SecurityConfig(JwtFilter jwtFilter, UserDetailsService userDetailsService,
+                          UserDetailsPasswordService userDetailsPasswordService,
+                          @Qualifier("passwordHashExecutor") ThreadPoolTaskExecutor passwordHashExecutor,
+                          MeterRegistry meterRegistry) {
         this.jwtFilter = jwtFilter;
         this.userDetailsService = userDetailsService;
+        this.userDetailsPasswordService = userDetailsPasswordService;
+        this.passwordHashExecutor = passwordHashExecutor;
+        this.meterRegistry = meterRegistry;
     }
 
     @Bean
@@ -42,7 +72,14 @@ public class SecurityConfig {
                 .authorizeHttpRequests(auth -> auth
                         // ⭐ CORRECTED: Allow all OPTIONS requests to pass without authentication ⭐
                         .requestMatchers(HttpMethod.OPTIONS, "/**").permitAll()
+                        // Async dispatches (SSE job streams) were already authorized on the original request
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                         .requestMatchers("/api/auth/**").permitAll()
+                        // Health checks have no user token
+                        .requestMatchers(EndpointRequest.to("health")).permitAll()
+                        // Neither has the Prometheus scraper, which is only let in on the private management port
+                        .requestMatchers(new AndRequestMatcher(EndpointRequest.to("prometheus"), this::isManagementPort))
+                        .permitAll()
                         .requestMatchers("/api/gemini/**").authenticated()
                         .anyRequest().authenticated()
                 )
@@ -52,6 +89,10 @@ public class SecurityConfig {
         return http.build();
     }
 
+    private boolean isManagementPort(HttpServletRequest request) {
+        return managementPort > 0 && managementPort != serverPort && request.getLocalPort() == managementPort;
+    }
+
     @Bean
     public CorsConfigurationSource corsConfigurationSource() {
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
@@ -72,6 +113,8 @@ public class SecurityConfig {
         DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider();
         authProvider.setUserDetailsService(userDetailsService);
         authProvider.setPasswordEncoder(passwordEncoder());
+        // After a successful login, hashes made with another algorithm or cost than the target are replaced.
+        authProvider.setUserDetailsPasswordService(userDetailsPasswordService);
         return authProvider;
     }
 
@@ -82,6 +125,8 @@ public class SecurityConfig {
 
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        // Hashing runs on its own bounded pool so a burst of logins can't take over every core.
+        return new BoundedPasswordEncoder(PasswordEncoders.create(passwordEncoderId, bcryptStrength),
+                passwordHashExecutor, meterRegistry);
     }
 }
\ No newline at end of file
@@ -0,0 +1,80 @@
+package com.meetinginsights.backend.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.jsonwebtoken.Claims;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Date;
+
+/**
+ * Revocation of JWTs that have not expired yet, checked on every authenticated request.
+ * <p>
+ * Two compact lists are kept: the ids of single revoked tokens (logout), and per user a cutoff before which all of the
+ * user's tokens are revoked (e.g. after a role change, so a token can't keep carrying old roles). Entries only need to
+ * outlive the tokens they revoke, so both lists are bounded by the token lifetime. A global cutoff revokes every token
+ * at once, for when roles are removed. The lists are held in memory, so each instance of the backend has its own.
+ */
+@Service
+public class TokenRevocationService {
+
+    private final Cache<String, Boolean> revokedTokenIds;
+    private final Cache<String, Long> revokedBefore;
+    private volatile long allRevokedBefore = Long.MIN_VALUE;
+
+    public TokenRevocationService(@Value("${jwt.expiration-ms}") long expirationMs,
+                                  @Value("${jwt.revocation.max-entries:100000}") long maxEntries) {
+        Duration tokenLifetime = Duration.ofMillis(expirationMs);
+        this.revokedTokenIds = Caffeine.newBuilder().maximumSize(maxEntries).expireAfterWrite(tokenLifetime).build();
+        this.revokedBefore = Caffeine.newBuilder().maximumSize(maxEntries).expireAfterWrite(tokenLifetime).build();
+    }
+
+    /**
+     * Revokes a single token.
+     *
+     * @param claims The verified claims of the token.
+     */
+    public void revoke(Claims claims) {
+        if (claims.getId() != null) {
+            revokedTokenIds.put(claims.getId(), Boolean.TRUE);
+        }
+    }
+
+    /**
+     * Revokes every token issued to a user until now.
+     * <p>
+     * Issue times have a resolution of one second, so a token issued in the same second right after this call is
+     * revoked too; the user simply logs in again.
+     *
+     * @param subject The user's token subject (email).
+     */
+    public void revokeAllFor(String subject) {
+        revokedBefore.put(subject, System.currentTimeMillis());
+    }
+
+    /**
+     * Revokes every token issued until now, to everyone. Like {@link #revokeAllFor}, with a resolution of one second.
+     */
+    public void revokeAll() {
+        allRevokedBefore = System.currentTimeMillis();
+    }
+
+    /**
+     * @param claims The verified claims of a token.
+     * @return True if the token has been revoked.
+     */
+    public boolean isRevoked(Claims claims) {
+        if (claims.getId() != null && revokedTokenIds.getIfPresent(claims.getId()) != null) {
+            return true;
+        }
+        Date issuedAt = claims.getIssuedAt();
+        long issued = issuedAt == null ? Long.MIN_VALUE : issuedAt.getTime();
+        if (issued <= allRevokedBefore) {
+            return true;
+        }
+        Long cutoff = revokedBefore.getIfPresent(claims.getSubject());
+        return cutoff != null && issued <= cutoff;
+    }
+}
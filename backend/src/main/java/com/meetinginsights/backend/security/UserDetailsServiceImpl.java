@@ -2,31 +2,57 @@ package com.meetinginsights.backend.security;
 
 import com.meetinginsights.backend.entity.User;
 import com.meetinginsights.backend.repository.UserRepository;
+import com.meetinginsights.backend.service.UserChangedEvent;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.annotation.Primary;
-import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
-
-import java.util.Set;
-import java.util.stream.Collectors;
+import org.springframework.transaction.annotation.Transactional;
 
 @Service
 @Primary // Marked as the primary UserDetailsService bean
-public class UserDetailsServiceImpl implements UserDetailsService {
+public class UserDetailsServiceImpl implements UserDetailsService, UserDetailsPasswordService {
+
+    @Autowired
+    private UserSnapshotCache userSnapshotCache;
 
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     @Override
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
-        User user = userRepository.findByEmail(email)
+        UserSnapshot user = userSnapshotCache.findByEmail(email)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found with email: " + email));
 
         // Now correctly returns your custom UserDetailsImpl
         return UserDetailsImpl.build(user);
     }
+
+    /**
+     * Stores a re-hashed password after a successful login, when the old hash used another algorithm or cost than
+     * the current target.
+     *
+     * @param user        The user who just logged in, as loaded by {@link #loadUserByUsername}.
+     * @param newPassword The new encoded password.
+     * @return The user with the new password.
+     */
+    @Override
+    @Transactional
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        Long id = ((UserDetailsImpl) user).getId();
+        User entity = userRepository.findById(id)
+                .orElseThrow(() -> new UsernameNotFoundException("User not found with id: " + id));
+        entity.setPassword(newPassword);
+        userRepository.save(entity);
+        eventPublisher.publishEvent(new UserChangedEvent(entity.getEmail()));
+        UserDetailsImpl details = (UserDetailsImpl) user;
+        return new UserDetailsImpl(id, details.getUsername(), details.getEmail(), newPassword, details.getAuthorities());
+    }
 }
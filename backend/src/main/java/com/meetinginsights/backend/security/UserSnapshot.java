@@ -0,0 +1,48 @@
+package com.meetinginsights.backend.security;
+
+import com.meetinginsights.backend.entity.Role;
+import com.meetinginsights.backend.entity.User;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * An immutable copy of the fields of a {@link User} that authentication needs. Unlike the entity, it can be cached and
+ * shared between threads, and its authorities are the registry's canonical ones instead of being built per request.
+ */
+public final class UserSnapshot {
+
+    private final Long id;
+    private final String username;
+    private final String email;
+    private final String password;
+    private final Set<String> roles;
+    private final List<GrantedAuthority> authorities;
+
+    private UserSnapshot(Long id, String username, String email, String password, Set<String> roles,
+                         List<GrantedAuthority> authorities) {
+        this.id = id;
+        this.username = username;
+        this.email = email;
+        this.password = password;
+        this.roles = roles;
+        this.authorities = authorities;
+    }
+
+    public static UserSnapshot of(User user, RoleRegistry roleRegistry) {
+        Set<String> roles = user.getRoles().stream()
+                .map(Role::getName)
+                .collect(Collectors.toUnmodifiableSet());
+        return new UserSnapshot(user.getId(), user.getUsername(), user.getEmail(), user.getPassword(), roles,
+                roleRegistry.authorities(roles));
+    }
+
+    public Long getId() { return id; }
+    public String getUsername() { return username; }
+    public String getEmail() { return email; }
+    public String getPassword() { return password; }
+    public Set<String> getRoles() { return roles; }
+    public List<GrantedAuthority> getAuthorities() { return authorities; }
+}
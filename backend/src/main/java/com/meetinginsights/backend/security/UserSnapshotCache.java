@@ -0,0 +1,93 @@
+package com.meetinginsights.backend.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.meetinginsights.backend.repository.UserRepository;
+import com.meetinginsights.backend.service.UserChangedEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Shared cache of {@link UserSnapshot}s by email, in front of {@link UserRepository#findByEmail}, so that loading the
+ * user for an authenticated request doesn't query the database each time.
+ * <p>
+ * Code that changes a user (their row or their roles) publishes a {@link UserChangedEvent}, and the entry is dropped
+ * once the transaction has completed, so a concurrent lookup can't cache the old row again. The TTL bounds how stale
+ * an entry can get if a write doesn't publish the event.
+ */
+@Service
+public class UserSnapshotCache {
+
+    private final UserRepository userRepository;
+    private final RoleRegistry roleRegistry;
+    private final Cache<String, UserSnapshot> cache;
+    private final Timer loadTimer;
+
+    public UserSnapshotCache(UserRepository userRepository,
+                             RoleRegistry roleRegistry,
+                             MeterRegistry meterRegistry,
+                             @Value("${user.cache.max-entries:10000}") long maxEntries,
+                             @Value("${user.cache.ttl:5m}") Duration ttl) {
+        this.userRepository = userRepository;
+        this.roleRegistry = roleRegistry;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        // Exposes cache.gets{result=hit|miss}, cache.evictions and cache.size for cache=users.
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "users");
+        this.loadTimer = Timer.builder("user.cache.load")
+                .description("Time to load a user from the database on a cache miss")
+                .register(meterRegistry);
+    }
+
+    /**
+     * @param email The user's email.
+     * @return The user's snapshot, from the cache or loaded from the database; empty if there is no such user.
+     *         Unknown emails are not cached, so a user who registers is found right away.
+     */
+    public Optional<UserSnapshot> findByEmail(String email) {
+        return Optional.ofNullable(cache.get(email, this::load));
+    }
+
+    /**
+     * Drops the cached snapshot of a user, so the next lookup reads the database.
+     *
+     * @param email The user's email.
+     */
+    public void invalidate(String email) {
+        if (email != null) {
+            cache.invalidate(email);
+        }
+    }
+
+    /**
+     * Drops the changed user's snapshot after the transaction that changed it has completed, or right away when the
+     * event is published outside a transaction.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMPLETION, fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        invalidate(event.getEmail());
+    }
+
+    /**
+     * Drops all cached snapshots, e.g. after the role registry was reloaded, so no snapshot keeps authorities of roles
+     * that no longer exist.
+     */
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    private UserSnapshot load(String email) {
+        return loadTimer.record(() -> userRepository.findByEmail(email).map(user -> UserSnapshot.of(user, roleRegistry)).orElse(null));
+    }
+}
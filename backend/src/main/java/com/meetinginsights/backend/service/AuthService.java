@@ -6,10 +6,17 @@ import com.meetinginsights.backend.dto.RegisterRequest;
 import com.meetinginsights.backend.dto.UserResponse;
 import com.meetinginsights.backend.entity.Role;
 import com.meetinginsights.backend.entity.User;
-import com.meetinginsights.backend.repository.RoleRepository;
+import com.meetinginsights.backend.exception.EmailAlreadyExistsException;
+import com.meetinginsights.backend.exception.TooManyRequestsException;
+import com.meetinginsights.backend.exception.UsernameAlreadyExistsException;
 import com.meetinginsights.backend.repository.UserRepository;
 import com.meetinginsights.backend.security.JwtService;
+import com.meetinginsights.backend.security.LoginRateLimiter;
+import com.meetinginsights.backend.security.RoleRegistry;
+import com.meetinginsights.backend.security.TokenRevocationService;
+import io.jsonwebtoken.JwtException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
@@ -17,18 +24,22 @@ import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
+import java.sql.SQLException;
 import java.util.HashSet;
+import java.util.Locale;
 import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
 public class AuthService {
 
+    private static final String UNIQUE_VIOLATION = "23505";
+
     @Autowired
     private UserRepository userRepository;
 
     @Autowired
-    private RoleRepository roleRepository;
+    private RoleRegistry roleRegistry;
 
     @Autowired
     private PasswordEncoder passwordEncoder;
@@ -39,6 +50,24 @@ public class AuthService {
     @Autowired
     private AuthenticationManager authenticationManager;
 
+    @Autowired
+    private TokenRevocationService revocationService;
+
+    @Autowired
+    private LoginRateLimiter loginRateLimiter;
+
+    /**
+     * Registers a new user and issues a token.
+     * <p>
+     * Uniqueness of the email and username is left to the database's unique constraints instead of being checked
+     * with queries first, so a signup is one insert into users and one into user_roles, and two concurrent signups
+     * with the same email can't both pass a check.
+     *
+     * @param request The registration details.
+     * @return The token and user details.
+     * @throws EmailAlreadyExistsException    If the email is already registered.
+     * @throws UsernameAlreadyExistsException If the username is already taken.
+     */
     public AuthResponse register(RegisterRequest request) {
         if (request.getUsername() == null || request.getUsername().trim().isEmpty()) {
             throw new IllegalArgumentException("Username cannot be null or empty.");
@@ -50,13 +79,6 @@ public class AuthService {
             throw new IllegalArgumentException("Last name cannot be null or empty.");
         }
 
-        if (userRepository.existsByEmail(request.getEmail())) {
-            throw new RuntimeException("Email is already taken!");
-        }
-        if (userRepository.findByUsername(request.getUsername()).isPresent()) {
-            throw new RuntimeException("Username is already taken!");
-        }
-
         User user = new User();
         user.setUsername(request.getUsername());
         user.setFirstName(request.getFirstName());
@@ -65,20 +87,19 @@ public class AuthService {
         user.setEmail(request.getEmail());
         user.setPassword(passwordEncoder.encode(request.getPassword()));
 
-        Role userRole = roleRepository.findByName("ROLE_USER")
-                .orElseThrow(() -> new RuntimeException("Error: Role 'ROLE_USER' is not found. Please ensure it exists."));
+        Role userRole = roleRegistry.get("ROLE_USER");
         Set<Role> roles = new HashSet<>();
         roles.add(userRole);
         user.setRoles(roles);
 
-        userRepository.save(user);
-
-        Set<String> roleNames = user.getRoles().stream()
-                .map(Role::getName)
-                .collect(Collectors.toSet());
+        try {
+            userRepository.save(user);
+        } catch (DataIntegrityViolationException e) {
+            throw translateDuplicate(e);
+        }
 
         AuthResponse response = new AuthResponse();
-        response.setToken(jwtService.generateToken(user.getEmail(), roleNames));
+        response.setToken(jwtService.generateToken(user.getEmail(), Set.of(userRole.getName())));
 
         UserResponse userResponse = new UserResponse();
         userResponse.setId(user.getId());
@@ -90,7 +111,40 @@ public class AuthService {
         return response;
     }
 
-    public AuthResponse login(LoginRequest request) {
+    /**
+     * Turns a unique constraint violation on users into the matching 409 exception. The constraint names were
+     * generated by Hibernate and say nothing, so the violated column is recognised from PostgreSQL's detail line,
+     * "Key (email)=(...) already exists", of a unique violation (SQLState 23505). Other violations are rethrown as
+     * they are.
+     */
+    private RuntimeException translateDuplicate(DataIntegrityViolationException e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLException sql && UNIQUE_VIOLATION.equals(sql.getSQLState())) {
+                String message = String.valueOf(sql.getMessage()).toLowerCase(Locale.ROOT);
+                if (message.contains("key (email)=")) {
+                    return new EmailAlreadyExistsException("Email is already taken!");
+                }
+                if (message.contains("key (username)=")) {
+                    return new UsernameAlreadyExistsException("Username is already taken!");
+                }
+            }
+        }
+        return e;
+    }
+
+    /**
+     * Authenticates a user and issues a token.
+     *
+     * @param request       The login credentials.
+     * @param clientAddress The address the request came from, for login throttling.
+     * @return The token and user details.
+     * @throws TooManyRequestsException If the address or the account is being throttled, or the password hashing
+     *                                  queue is full.
+     */
+    public AuthResponse login(LoginRequest request, String clientAddress) {
+        // Throttle before authenticating, so rejected attempts never reach the password hash.
+        loginRateLimiter.acquire(clientAddress, request.getEmail());
+
         Authentication authentication = authenticationManager.authenticate(
                 new UsernamePasswordAuthenticationToken(request.getEmail(), request.getPassword())
         );
@@ -117,4 +171,17 @@ public class AuthService {
 
         return response;
     }
+
+    /**
+     * Revokes a token. Tokens that are invalid or already expired are ignored, since they are refused anyway.
+     *
+     * @param token The JWT token string.
+     */
+    public void logout(String token) {
+        try {
+            revocationService.revoke(jwtService.extractAllClaims(token));
+        } catch (JwtException | IllegalArgumentException ignored) {
+            // Nothing to revoke.
+        }
+    }
 }
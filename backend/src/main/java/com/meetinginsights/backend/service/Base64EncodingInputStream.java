@@ -0,0 +1,128 @@
+package com.meetinginsights.backend.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.function.LongConsumer;
+
+/**
+ * An InputStream that Base64-encodes another InputStream on the fly.
+ * The source is read in fixed-size chunks (a multiple of 3 bytes, so no padding is emitted mid-stream),
+ * which keeps the memory cost at two small buffers regardless of how large the source is.
+ * <p>
+ * Optionally the time spent encoding is summed up and reported when the stream is closed, apart from the time spent
+ * reading the source or waiting for the reader.
+ */
+public class Base64EncodingInputStream extends InputStream {
+
+    public static final int DEFAULT_CHUNK_SIZE = 48 * 1024; // must be a multiple of 3
+
+    private final InputStream source;
+    private final byte[] rawChunk;
+    private final byte[] encodedChunk;
+    private final Base64.Encoder encoder = Base64.getEncoder();
+    private final LongConsumer encodeTime;
+
+    private long encodeNanos = 0;
+    private boolean closed = false;
+
+    private int encodedLength = 0;
+    private int encodedPosition = 0;
+    private boolean sourceExhausted = false;
+
+    public Base64EncodingInputStream(InputStream source) {
+        this(source, DEFAULT_CHUNK_SIZE);
+    }
+
+    public Base64EncodingInputStream(InputStream source, int chunkSize) {
+        this(source, chunkSize, null);
+    }
+
+    /**
+     * @param encodeTime Receives the nanoseconds spent encoding once the stream is closed, or null.
+     */
+    public Base64EncodingInputStream(InputStream source, int chunkSize, LongConsumer encodeTime) {
+        if (chunkSize <= 0 || chunkSize % 3 != 0) {
+            throw new IllegalArgumentException("Chunk size must be a positive multiple of 3.");
+        }
+        this.source = source;
+        this.rawChunk = new byte[chunkSize];
+        this.encodedChunk = new byte[chunkSize / 3 * 4];
+        this.encodeTime = encodeTime;
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (!fill()) {
+            return -1;
+        }
+        return encodedChunk[encodedPosition++] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        if (!fill()) {
+            return -1;
+        }
+        int n = Math.min(len, encodedLength - encodedPosition);
+        System.arraycopy(encodedChunk, encodedPosition, b, off, n);
+        encodedPosition += n;
+        return n;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (!closed) {
+            closed = true;
+            if (encodeTime != null) {
+                encodeTime.accept(encodeNanos);
+            }
+        }
+        source.close();
+    }
+
+    /**
+     * Makes sure there are encoded bytes available, reading and encoding the next chunk if needed.
+     *
+     * @return False once the source is exhausted and every encoded byte has been handed out.
+     */
+    private boolean fill() throws IOException {
+        if (encodedPosition < encodedLength) {
+            return true;
+        }
+        if (sourceExhausted) {
+            return false;
+        }
+
+        // Fill the whole raw chunk so every chunk but the last is a multiple of 3 bytes.
+        int filled = 0;
+        while (filled < rawChunk.length) {
+            int n = source.read(rawChunk, filled, rawChunk.length - filled);
+            if (n < 0) {
+                sourceExhausted = true;
+                break;
+            }
+            filled += n;
+        }
+
+        if (filled == 0) {
+            return false;
+        }
+        long start = encodeTime != null ? System.nanoTime() : 0;
+        if (filled == rawChunk.length) {
+            encodedLength = encoder.encode(rawChunk, encodedChunk);
+        } else {
+            // Last (partial) chunk: the only place padding may appear.
+            encodedLength = encoder.encode(Arrays.copyOf(rawChunk, filled), encodedChunk);
+        }
+        if (encodeTime != null) {
+            encodeNanos += System.nanoTime() - start;
+        }
+        encodedPosition = 0;
+        return true;
+    }
+}
@@ -0,0 +1,120 @@
+package com.meetinginsights.backend.service;
+
+import java.time.Duration;
+import java.util.function.Consumer;
+
+/**
+ * A count-based circuit breaker. It opens when at least the given share of the last {@code window} calls failed, then
+ * rejects calls for the open duration. After that one trial call is let through: if it succeeds the breaker closes,
+ * otherwise it opens again. A trial that never reports back (e.g. the caller was interrupted) is given up after
+ * another open duration.
+ */
+final class CircuitBreaker {
+
+    enum State { CLOSED, HALF_OPEN, OPEN }
+
+    private final boolean[] failures;
+    private final int failureThreshold;
+    private final long openNanos;
+    private final Consumer<State> onTransition;
+
+    private State state = State.CLOSED;
+    private int next;
+    private int recorded;
+    private int failed;
+    private long openedAt;
+    private long trialStartedAt;
+    private boolean trialInFlight;
+
+    /**
+     * @param window       The number of most recent calls looked at.
+     * @param failureRate  The share of failed calls in a full window that opens the breaker, e.g. 0.5.
+     * @param openDuration How long calls are rejected once open.
+     * @param onTransition Called with the new state on every state change, while holding the breaker's lock.
+     */
+    CircuitBreaker(int window, double failureRate, Duration openDuration, Consumer<State> onTransition) {
+        this.failures = new boolean[window];
+        this.failureThreshold = Math.max(1, (int) Math.ceil(window * failureRate));
+        this.openNanos = openDuration.toNanos();
+        this.onTransition = onTransition;
+    }
+
+    /**
+     * Asks to make a call.
+     *
+     * @return Null if the call may be made, otherwise how long the breaker stays open.
+     */
+    synchronized Duration tryAcquire() {
+        long now = System.nanoTime();
+        if (state == State.OPEN) {
+            long remaining = openedAt + openNanos - now;
+            if (remaining > 0) {
+                return Duration.ofNanos(remaining);
+            }
+            transition(State.HALF_OPEN);
+        }
+        if (state == State.HALF_OPEN) {
+            if (trialInFlight && now - trialStartedAt < openNanos) {
+                return Duration.ofNanos(trialStartedAt + openNanos - now);
+            }
+            trialInFlight = true;
+            trialStartedAt = now;
+        }
+        return null;
+    }
+
+    /**
+     * Reports the outcome of a call that was let through.
+     */
+    synchronized void record(boolean success) {
+        switch (state) {
+            case HALF_OPEN -> {
+                trialInFlight = false;
+                if (success) {
+                    transition(State.CLOSED);
+                } else {
+                    open();
+                }
+            }
+            case CLOSED -> {
+                if (recorded == failures.length) {
+                    if (failures[next]) {
+                        failed--;
+                    }
+                } else {
+                    recorded++;
+                }
+                failures[next] = !success;
+                if (!success) {
+                    failed++;
+                }
+                next = (next + 1) % failures.length;
+                if (recorded == failures.length && failed >= failureThreshold) {
+                    open();
+                }
+            }
+            case OPEN -> {
+                // A call started before the breaker opened; it doesn't change anything.
+            }
+        }
+    }
+
+    synchronized State getState() {
+        return state;
+    }
+
+    private void open() {
+        openedAt = System.nanoTime();
+        transition(State.OPEN);
+    }
+
+    private void transition(State to) {
+        if (to == State.CLOSED) {
+            recorded = 0;
+            failed = 0;
+            next = 0;
+        }
+        state = to;
+        onTransition.accept(to);
+    }
+}
@@ -1,8 +1,8 @@
 package com.meetinginsights.backend.service;
 
-import com.meetinginsights.backend.entity.User;
-import com.meetinginsights.backend.repository.UserRepository;
 import com.meetinginsights.backend.security.CustomUserDetails;
+import com.meetinginsights.backend.security.UserSnapshot;
+import com.meetinginsights.backend.security.UserSnapshotCache;
 import org.springframework.stereotype.Service;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -11,13 +11,13 @@ import org.springframework.security.core.userdetails.UserDetailsService;
 @Service
 public class CustomUserDetailsService implements UserDetailsService {
 
-    private final UserRepository userRepository;
+    private final UserSnapshotCache userSnapshotCache;
 
-    public CustomUserDetailsService(UserRepository userRepository) { this.userRepository = userRepository; }
+    public CustomUserDetailsService(UserSnapshotCache userSnapshotCache) { this.userSnapshotCache = userSnapshotCache; }
 
     @Override
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
-        User user = userRepository.findByEmail(email)
+        UserSnapshot user = userSnapshotCache.findByEmail(email)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found: " + email));
         return new CustomUserDetails(user);
     }
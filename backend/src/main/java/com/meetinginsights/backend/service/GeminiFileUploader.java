@@ -0,0 +1,237 @@
+package com.meetinginsights.backend.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.meetinginsights.backend.audio.RangeInputStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.io.InputStreamSource;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+
+/**
+ * Uploads audio to Gemini's file storage using the resumable upload protocol, so large recordings can be
+ * referenced from generateContent by URI instead of being inlined as Base64.
+ * <p>
+ * The file is sent in fixed-size chunks straight from the source stream. If a chunk fails, the uploader asks the
+ * server how many bytes it has received and resumes from there instead of starting over.
+ * <p>
+ * Uploads don't go through {@link ResilientGeminiClient}, but use its connect timeout, and every request (chunk,
+ * status query or poll) must answer within gemini.resilience.attempt-timeout. A stalled chunk therefore fails like
+ * any other and is resumed, instead of holding the request thread indefinitely.
+ */
+@Component
+@Profile("!" + StubInsightEngine.PROFILE)
+public class GeminiFileUploader {
+
+    private static final Logger log = LoggerFactory.getLogger(GeminiFileUploader.class);
+
+    @Value("${GEMINI_API_KEY}")
+    private String geminiApiKey;
+
+    @Value("${gemini.api.base-url:https://generativelanguage.googleapis.com}")
+    private String geminiBaseUrl;
+
+    // Gemini requires every chunk except the last to be a multiple of 256 KiB.
+    @Value("${gemini.files.chunk-size-bytes:8388608}")
+    private long chunkSize;
+
+    @Value("${gemini.files.max-chunk-retries:3}")
+    private int maxChunkRetries;
+
+    @Value("${gemini.files.activation-timeout-ms:120000}")
+    private long activationTimeoutMs;
+
+    @Value("${gemini.files.poll-interval-ms:2000}")
+    private long pollIntervalMs;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpClient httpClient;
+    private final Duration requestTimeout;
+
+    public GeminiFileUploader(@Value("${gemini.resilience.connect-timeout:10s}") Duration connectTimeout,
+                              @Value("${gemini.resilience.attempt-timeout:120s}") Duration requestTimeout) {
+        this.httpClient = HttpClient.newBuilder().connectTimeout(connectTimeout).build();
+        this.requestTimeout = requestTimeout;
+    }
+
+    /**
+     * Uploads the source to Gemini's file storage and waits until the file is ready to be referenced.
+     *
+     * @param source      The audio source. It is re-opened for every chunk, so it must support repeated reads.
+     * @param size        The total size of the audio in bytes.
+     * @param mimeType    The MIME type of the audio.
+     * @param displayName A human-readable name for the stored file.
+     * @return The uploaded file, including the URI to use in a fileData part.
+     * @throws IOException If the upload fails or the file never becomes active.
+     * @throws InterruptedException If the upload is interrupted.
+     */
+    public UploadedFile upload(InputStreamSource source, long size, String mimeType, String displayName)
+            throws IOException, InterruptedException {
+        String uploadUrl = startSession(size, mimeType, displayName);
+
+        long offset = 0;
+        int retries = 0;
+        JsonNode fileNode = null;
+        while (fileNode == null) {
+            long length = Math.min(chunkSize, size - offset);
+            boolean last = offset + length >= size;
+            HttpResponse<String> response = null;
+            try {
+                response = sendChunk(uploadUrl, source, offset, length, last);
+            } catch (IOException | UncheckedIOException e) {
+                log.warn("Gemini file upload chunk at offset {} failed: {}, resuming.", offset, e.getMessage());
+            }
+
+            if (response != null) {
+                if (response.statusCode() == 200) {
+                    offset += length;
+                    retries = 0;
+                    if (last) {
+                        fileNode = objectMapper.readTree(response.body()).path("file");
+                    }
+                    continue;
+                }
+                if (response.statusCode() < 500 && response.statusCode() != 408 && response.statusCode() != 429) {
+                    throw new IOException("Gemini file upload failed with status " + response.statusCode() + ": " + response.body());
+                }
+                log.warn("Gemini file upload chunk at offset {} failed with status {}, resuming.", offset, response.statusCode());
+            }
+
+            if (++retries > maxChunkRetries) {
+                throw new IOException("Gemini file upload failed after " + maxChunkRetries + " retries at offset " + offset);
+            }
+            offset = queryReceivedBytes(uploadUrl);
+        }
+
+        return waitUntilActive(fileNode);
+    }
+
+    /**
+     * Starts a resumable upload session.
+     *
+     * @return The session URL that the chunks are sent to.
+     */
+    private String startSession(long size, String mimeType, String displayName) throws IOException, InterruptedException {
+        ObjectNode metadata = objectMapper.createObjectNode();
+        metadata.putObject("file").put("display_name", displayName);
+
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create(geminiBaseUrl + "/upload/v1beta/files?key=" + geminiApiKey))
+                .timeout(requestTimeout)
+                .header("X-Goog-Upload-Protocol", "resumable")
+                .header("X-Goog-Upload-Command", "start")
+                .header("X-Goog-Upload-Header-Content-Length", Long.toString(size))
+                .header("X-Goog-Upload-Header-Content-Type", mimeType)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(metadata)))
+                .build();
+
+        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        String uploadUrl = response.headers().firstValue("X-Goog-Upload-URL").orElse(null);
+        if (response.statusCode() != 200 || uploadUrl == null) {
+            throw new IOException("Failed to start Gemini file upload, status " + response.statusCode() + ": " + response.body());
+        }
+        return uploadUrl;
+    }
+
+    private HttpResponse<String> sendChunk(String uploadUrl, InputStreamSource source, long offset, long length, boolean last)
+            throws IOException, InterruptedException {
+        HttpRequest.BodyPublisher body = HttpRequest.BodyPublishers.fromPublisher(
+                HttpRequest.BodyPublishers.ofInputStream(() -> {
+                    try {
+                        InputStream in = source.getInputStream();
+                        in.skipNBytes(offset);
+                        return new RangeInputStream(in, length);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException("Failed to open the upload source", e);
+                    }
+                }), length);
+
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create(uploadUrl))
+                .timeout(requestTimeout)
+                .header("X-Goog-Upload-Offset", Long.toString(offset))
+                .header("X-Goog-Upload-Command", last ? "upload, finalize" : "upload")
+                .POST(body)
+                .build();
+        return httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    /**
+     * Asks the upload session how many bytes it has persisted, which is where the next chunk must start.
+     */
+    private long queryReceivedBytes(String uploadUrl) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create(uploadUrl))
+                .timeout(requestTimeout)
+                .header("X-Goog-Upload-Command", "query")
+                .POST(HttpRequest.BodyPublishers.noBody())
+                .build();
+        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        String received = response.headers().firstValue("X-Goog-Upload-Size-Received").orElse(null);
+        if (response.statusCode() != 200 || received == null) {
+            throw new IOException("Failed to query Gemini upload status, status " + response.statusCode() + ": " + response.body());
+        }
+        return Long.parseLong(received.trim());
+    }
+
+    /**
+     * Polls the file until Gemini has finished processing it. Files in PROCESSING state cannot be used yet.
+     */
+    private UploadedFile waitUntilActive(JsonNode fileNode) throws IOException, InterruptedException {
+        long deadline = System.currentTimeMillis() + activationTimeoutMs;
+        while ("PROCESSING".equals(fileNode.path("state").asText())) {
+            if (System.currentTimeMillis() > deadline) {
+                throw new IOException("Gemini file " + fileNode.path("name").asText() + " did not become active in time.");
+            }
+            Thread.sleep(pollIntervalMs);
+
+            HttpRequest request = HttpRequest.newBuilder()
+                    .uri(URI.create(geminiBaseUrl + "/v1beta/" + fileNode.path("name").asText() + "?key=" + geminiApiKey))
+                    .timeout(requestTimeout)
+                    .GET()
+                    .build();
+            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 200) {
+                throw new IOException("Failed to get Gemini file status, status " + response.statusCode() + ": " + response.body());
+            }
+            fileNode = objectMapper.readTree(response.body());
+        }
+
+        if ("FAILED".equals(fileNode.path("state").asText()) || !fileNode.hasNonNull("uri")) {
+            throw new IOException("Gemini could not process the uploaded file: " + fileNode);
+        }
+        return new UploadedFile(fileNode.path("name").asText(), fileNode.path("uri").asText(), fileNode.path("mimeType").asText());
+    }
+
+    /**
+     * A file stored in Gemini's file storage.
+     */
+    public static class UploadedFile {
+        private final String name;
+        private final String uri;
+        private final String mimeType;
+
+        public UploadedFile(String name, String uri, String mimeType) {
+            this.name = name;
+            this.uri = uri;
+            this.mimeType = mimeType;
+        }
+
+        public String getName() { return name; }
+        public String getUri() { return uri; }
+        public String getMimeType() { return mimeType; }
+    }
+}
@@ -0,0 +1,389 @@
+package com.meetinginsights.backend.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.meetinginsights.backend.audio.WavFormat;
+import com.meetinginsights.backend.exception.ModelUnavailableException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.core.io.InputStreamSource;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.BodyInserters;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * The {@link InsightEngine} backed by the Gemini API: builds the generateContent requests with the insights response
+ * schema, sends them through {@link ResilientGeminiClient} within the {@link OutboundGovernor}'s quota, and extracts
+ * the answer. Used unless the stub-engine profile is active.
+ * <p>
+ * The serialize, base64, network and parse stages of each call are timed in {@link PipelineMetrics}, along with the
+ * size of the request and the status of the response.
+ */
+@Component
+@Profile("!" + StubInsightEngine.PROFILE)
+public class GeminiInsightEngine implements InsightEngine {
+
+    private static final Logger log = LoggerFactory.getLogger(GeminiInsightEngine.class);
+
+    @Value("${GEMINI_API_KEY}")
+    private String geminiApiKey;
+
+    @Value("${gemini.api.base-url:https://generativelanguage.googleapis.com}")
+    private String geminiBaseUrl;
+
+    // Above this size the audio is uploaded through the Files API and referenced by URI instead of inlined.
+    @Value("${gemini.files.threshold-bytes:10485760}")
+    private long filesApiThresholdBytes;
+
+    // How many streamed response chunks may queue up for a slow client before the stream is failed.
+    @Value("${gemini.stream.max-buffered-chunks:256}")
+    private int maxBufferedChunks;
+
+    @Autowired
+    private GeminiFileUploader fileUploader;
+
+    // Deadlines, retries, hedging and the circuit breaker for model calls
+    @Autowired
+    private ResilientGeminiClient geminiClient;
+
+    @Autowired
+    private OutboundGovernor governor;
+
+    @Autowired
+    private PipelineMetrics metrics;
+
+    @Value("${gemini.model.fast:gemini-2.5-flash}")
+    private String fastModel;
+
+    @Value("${gemini.model.pro:gemini-2.5-pro}")
+    private String proModel;
+
+    private static final ParameterizedTypeReference<ServerSentEvent<String>> SSE_CHUNK = new ParameterizedTypeReference<>() { };
+    private static final int STREAM_BUFFER_SIZE = 16 * 1024;
+
+    private static final String FAILURE_PREFIX = "Failed to generate insights: ";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final GeminiResponseParser responseParser = new GeminiResponseParser();
+    private final WebClient webClient = WebClient.create();
+
+    @Override
+    public String getModel(ModelTier tier) {
+        return tier == ModelTier.FAST ? fastModel : proModel;
+    }
+
+    /**
+     * Sends the audio with the given prompt to Gemini, inline or through the Files API depending on its size.
+     */
+    @Override
+    public String analyzeAudio(InputStreamSource audio, long size, String mimeType, String fileName, String prompt,
+                                TokenUsage usage) throws IOException, InterruptedException {
+        InputStreamSource payload = buildAudioRequest(audio, size, mimeType, fileName, prompt);
+        // Admitted once the payload is built, so a Files API upload doesn't hold an in-flight slot while it runs.
+        try (OutboundGovernor.Permit permit = governor.acquire(usage.getOwner(), estimateTokens(prompt, audio, size))) {
+            return generateContent(HttpRequest.BodyPublishers.ofInputStream(() -> {
+                try {
+                    return payload.getInputStream();
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Failed to open the request payload", e);
+                }
+            }), usage, permit);
+        }
+    }
+
+    @Override
+    public Flux<String> streamAudio(InputStreamSource audio, long size, String mimeType, String fileName, String prompt,
+                                    TokenUsage usage) {
+        return Mono.fromCallable(() -> buildAudioRequest(audio, size, mimeType, fileName, prompt))
+                .flatMapMany((InputStreamSource payload) -> Flux.using(
+                        () -> governor.acquire(usage.getOwner(), estimateTokens(prompt, audio, size)),
+                        permit -> streamContent(payload, usage, permit),
+                        OutboundGovernor.Permit::close));
+    }
+
+    /**
+     * The input tokens of a call with the given prompt and audio, for the outbound quota. The duration of WAV audio
+     * is read from its header; other formats are estimated from their size.
+     */
+    private static long estimateTokens(String prompt, InputStreamSource audio, long size) throws IOException {
+        double seconds = WavFormat.read(audio, size).map(WavFormat::getDurationSeconds)
+                .orElseGet(() -> OutboundGovernor.assumedDurationSeconds(size));
+        return OutboundGovernor.estimateTokens(prompt, seconds);
+    }
+
+    /**
+     * Builds the request body for analyzing audio. Audio above the Files API threshold is uploaded first and
+     * referenced by URI; smaller audio is inlined, streamed straight from the source and Base64-encoded chunk by
+     * chunk, so neither the raw bytes nor the encoded payload are ever fully materialized on the heap.
+     *
+     * @return The request body, which can be opened more than once.
+     */
+    private InputStreamSource buildAudioRequest(InputStreamSource audio, long size, String mimeType, String fileName,
+                                                String prompt) throws IOException, InterruptedException {
+        if (size > filesApiThresholdBytes) {
+            GeminiFileUploader.UploadedFile uploaded = fileUploader.upload(audio, size, mimeType, fileName);
+            byte[] payload = serialize(buildUploadedAudioRequest(uploaded.getUri(), mimeType, prompt));
+            return () -> new ByteArrayInputStream(payload);
+        }
+
+        long start = System.nanoTime();
+        ObjectNode audioInlineData = objectMapper.createObjectNode();
+        audioInlineData.put("mimeType", mimeType);
+        // "data" is streamed in from the source.
+
+        ObjectNode audioPart = objectMapper.createObjectNode();
+        audioPart.set("inlineData", audioInlineData);
+        ObjectNode rootNode = buildInsightsRequest(prompt, audioPart);
+        StreamingPayloadPublisher.Payload payload = StreamingPayloadPublisher.payloadWithBase64Field(objectMapper,
+                rootNode, audioInlineData, "data", audio, size,
+                encodeNanos -> metrics.record(PipelineMetrics.Stage.BASE64, encodeNanos));
+        metrics.recordSince(PipelineMetrics.Stage.SERIALIZE, start);
+        metrics.recordRequestSize(payload.contentLength());
+        return payload;
+    }
+
+    /**
+     * Serializes a request body, timing it and recording its size.
+     */
+    private byte[] serialize(ObjectNode request) throws IOException {
+        long start = System.nanoTime();
+        byte[] payload = objectMapper.writeValueAsBytes(request);
+        metrics.recordSince(PipelineMetrics.Stage.SERIALIZE, start);
+        metrics.recordRequestSize(payload.length);
+        return payload;
+    }
+
+    @Override
+    public String analyzeUploadedAudio(String fileUri, String mimeType, String prompt, TokenUsage usage)
+            throws IOException, InterruptedException {
+        byte[] payload = serialize(buildUploadedAudioRequest(fileUri, mimeType, prompt));
+        // The audio is already stored at Gemini and its duration unknown here; the counted tokens correct the estimate.
+        try (OutboundGovernor.Permit permit = governor.acquire(usage.getOwner(), OutboundGovernor.estimateTokens(prompt, 0))) {
+            return generateContent(HttpRequest.BodyPublishers.ofByteArray(payload), usage, permit);
+        }
+    }
+
+    private ObjectNode buildUploadedAudioRequest(String fileUri, String mimeType, String prompt) {
+        ObjectNode audioFileData = objectMapper.createObjectNode();
+        audioFileData.put("mimeType", mimeType);
+        audioFileData.put("fileUri", fileUri);
+
+        ObjectNode audioPart = objectMapper.createObjectNode();
+        audioPart.set("fileData", audioFileData);
+        return buildInsightsRequest(prompt, audioPart);
+    }
+
+    /**
+     * Sends a text-only prompt to Gemini, e.g. to merge the analyses of a segmented meeting.
+     */
+    @Override
+    public String generateText(String prompt, TokenUsage usage) throws IOException, InterruptedException {
+        byte[] payload = serialize(buildInsightsRequest(prompt, null));
+        try (OutboundGovernor.Permit permit = governor.acquire(usage.getOwner(), OutboundGovernor.estimateTokens(prompt, 0))) {
+            return generateContent(HttpRequest.BodyPublishers.ofByteArray(payload), usage, permit);
+        }
+    }
+
+    /**
+     * Builds the generateContent request: the prompt followed by the given audio part, if any, with the output
+     * constrained to the insights JSON schema.
+     */
+    private ObjectNode buildInsightsRequest(String prompt, ObjectNode audioPart) {
+        ObjectNode rootNode = objectMapper.createObjectNode();
+        ArrayNode contentsArray = objectMapper.createArrayNode();
+        ObjectNode userContent = objectMapper.createObjectNode();
+        userContent.put("role", "user");
+        ArrayNode partsArray = objectMapper.createArrayNode();
+
+        ObjectNode textPart = objectMapper.createObjectNode();
+        textPart.put("text", prompt);
+        partsArray.add(textPart);
+        if (audioPart != null) {
+            partsArray.add(audioPart);
+        }
+
+        userContent.set("parts", partsArray);
+        contentsArray.add(userContent);
+        rootNode.set("contents", contentsArray);
+
+        ObjectNode generationConfig = rootNode.putObject("generationConfig");
+        generationConfig.put("responseMimeType", "application/json");
+        generationConfig.set("responseSchema", buildInsightsSchema());
+        return rootNode;
+    }
+
+    /**
+     * The response schema for {@link MeetingInsights}, in the OpenAPI subset Gemini accepts.
+     */
+    private ObjectNode buildInsightsSchema() {
+        ObjectNode schema = objectMapper.createObjectNode();
+        schema.put("type", "OBJECT");
+        ObjectNode properties = schema.putObject("properties");
+        for (String list : List.of("summary", "decisions", "discussionPoints", "followUps")) {
+            properties.putObject(list).put("type", "ARRAY").putObject("items").put("type", "STRING");
+        }
+
+        ObjectNode actionItem = properties.putObject("actionItems").put("type", "ARRAY").putObject("items");
+        actionItem.put("type", "OBJECT");
+        ObjectNode itemProperties = actionItem.putObject("properties");
+        itemProperties.putObject("task").put("type", "STRING");
+        itemProperties.putObject("owner").put("type", "STRING").put("nullable", true);
+        itemProperties.putObject("deadline").put("type", "STRING").put("nullable", true);
+        actionItem.putArray("required").add("task");
+        actionItem.putArray("propertyOrdering").add("task").add("owner").add("deadline");
+
+        ArrayNode required = schema.putArray("required");
+        ArrayNode ordering = schema.putArray("propertyOrdering");
+        for (String field : List.of("summary", "actionItems", "decisions", "discussionPoints", "followUps")) {
+            required.add(field);
+            ordering.add(field);
+        }
+        return schema;
+    }
+
+    /**
+     * Sends a generateContent request and extracts the text of the answer. The response body is parsed as it
+     * streams in, without reading it into a String or building a JSON tree. The tokens of the call are added to
+     * the usage and settle the call's permit.
+     *
+     * @throws IOException If the call fails, or the model was blocked or produced no answer.
+     */
+    private String generateContent(HttpRequest.BodyPublisher payload, TokenUsage usage, OutboundGovernor.Permit permit)
+            throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create(geminiBaseUrl + "/v1beta/models/" + getModel(usage.getTier()) + ":generateContent?key=" + geminiApiKey))
+                .header("Content-Type", "application/json")
+                .POST(payload)
+                .build();
+
+        long start = System.nanoTime();
+        HttpResponse<InputStream> response = geminiClient.send(request, permit);
+        metrics.recordSince(PipelineMetrics.Stage.NETWORK, start);
+        metrics.countResponse(response.statusCode());
+
+        if (response.statusCode() != 200) {
+            String responseBody;
+            try (InputStream body = response.body()) {
+                responseBody = new String(body.readAllBytes(), StandardCharsets.UTF_8);
+            }
+            throw apiError(response.statusCode(), responseBody, ResilientGeminiClient.retryAfter(response.headers()));
+        }
+
+        start = System.nanoTime();
+        GeminiResponseParser.GeneratedContent content = responseParser.parseResponse(response.body());
+        metrics.recordSince(PipelineMetrics.Stage.PARSE, start);
+        usage.add(content.getPromptTokens(), content.getOutputTokens());
+        permit.settle(content.getPromptTokens());
+        checkPromptFeedback(content);
+        if (content.getText() == null) {
+            log.warn("Gemini API response did not contain expected textual content in candidates.");
+            throw new IOException(FAILURE_PREFIX + "AI model did not produce textual content. This might be due to insufficient speech in the audio, or the model deciding no relevant insights could be extracted. Check logs for full response.");
+        }
+        return content.getText();
+    }
+
+    /**
+     * Sends a streamGenerateContent request and emits the text of the answer chunk by chunk as Gemini produces it.
+     * <p>
+     * The request body is streamed from the source, and at most {@code gemini.stream.max-buffered-chunks} response
+     * chunks are held while the client catches up; a client that falls further behind fails the stream instead of
+     * growing the buffer.
+     * <p>
+     * Every chunk carries the token counts so far, so the last chunk's counts are added to the usage and settle the
+     * call's permit at the end.
+     * The stream is subject to the circuit breaker and fails if Gemini stalls, see {@link ResilientGeminiClient#guard}.
+     */
+    private Flux<String> streamContent(InputStreamSource payload, TokenUsage usage, OutboundGovernor.Permit permit) {
+        // Reading the source blocks, so keep it off the HTTP client's event loop.
+        Flux<DataBuffer> body = DataBufferUtils.readInputStream(payload::getInputStream,
+                        DefaultDataBufferFactory.sharedInstance, STREAM_BUFFER_SIZE)
+                .subscribeOn(Schedulers.boundedElastic());
+        long[] tokens = new long[2];
+
+        return geminiClient.guard(webClient.post()
+                .uri(geminiBaseUrl + "/v1beta/models/" + getModel(usage.getTier()) + ":streamGenerateContent?alt=sse&key=" + geminiApiKey)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(BodyInserters.fromDataBuffers(body))
+                .retrieve()
+                // The predicate sees every response's status once, so it is counted here too.
+                .onStatus(status -> {
+                    metrics.countResponse(status.value());
+                    return status.isError();
+                }, response -> response.bodyToMono(String.class)
+                        .defaultIfEmpty("")
+                        .map(responseBody -> apiError(response.statusCode().value(), responseBody,
+                                ResilientGeminiClient.parseRetryAfter(response.headers().asHttpHeaders().getFirst("Retry-After")))))
+                .bodyToFlux(SSE_CHUNK)
+                .onBackpressureBuffer(maxBufferedChunks)
+                .<String>handle((event, sink) -> {
+                    try {
+                        GeminiResponseParser.GeneratedContent content = responseParser.parseResponse(
+                                new ByteArrayInputStream(event.data().getBytes(StandardCharsets.UTF_8)));
+                        tokens[0] = Math.max(tokens[0], content.getPromptTokens());
+                        tokens[1] = Math.max(tokens[1], content.getOutputTokens());
+                        checkPromptFeedback(content);
+                        if (content.getText() != null) {
+                            sink.next(content.getText());
+                        }
+                    } catch (IOException e) {
+                        sink.error(e);
+                    }
+                }))
+                .doFinally(signal -> {
+                    usage.add(tokens[0], tokens[1]);
+                    permit.settle(tokens[0]);
+                });
+    }
+
+    /**
+     * @return The exception for an error response: a {@link ModelUnavailableException} for 429 and 5xx, which are
+     *         worth trying again later, otherwise a plain IOException.
+     */
+    private IOException apiError(int status, String responseBody, Duration retryAfter) {
+        String errorMessage = "Gemini API call failed with status " + status + ": " + responseBody;
+        log.warn(errorMessage);
+        String message;
+        try {
+            JsonNode errorNode = objectMapper.readTree(responseBody);
+            message = "Failed to get insights from Gemini API: " + errorNode.path("error").path("message").asText(errorMessage);
+        } catch (Exception e) {
+            message = "Failed to get insights from Gemini API: " + errorMessage;
+        }
+        if (status == 429 || status >= 500) {
+            return new ModelUnavailableException(message, retryAfter);
+        }
+        return new IOException(message);
+    }
+
+    private static void checkPromptFeedback(GeminiResponseParser.GeneratedContent content) throws IOException {
+        if (content.getPromptFeedback() != null) {
+            log.warn("Gemini API returned prompt feedback: {}", content.getPromptFeedback());
+            throw new IOException(FAILURE_PREFIX + "Content was blocked due to safety concerns or other prompt feedback.");
+        }
+    }
+}
@@ -0,0 +1,249 @@
+package com.meetinginsights.backend.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.meetinginsights.backend.dto.ActionItem;
+import com.meetinginsights.backend.dto.MeetingInsights;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Token-level parsing of Gemini responses and of the structured insights they carry.
+ * <p>
+ * Only the fields that are needed are materialized: the response body is read straight from the HTTP stream, the
+ * first candidate's text is picked out while everything else is skipped, and the insights JSON inside it is bound
+ * field by field to {@link MeetingInsights}. No intermediate tree is built for either document.
+ */
+class GeminiResponseParser {
+
+    private final JsonFactory jsonFactory = new JsonFactory();
+
+    /**
+     * The parts of a generateContent response the service looks at.
+     */
+    static class GeneratedContent {
+        private final String text;
+        private final String promptFeedback;
+        private final long promptTokens;
+        private final long outputTokens;
+
+        GeneratedContent(String text, String promptFeedback, long promptTokens, long outputTokens) {
+            this.text = text;
+            this.promptFeedback = promptFeedback;
+            this.promptTokens = promptTokens;
+            this.outputTokens = outputTokens;
+        }
+
+        /** The text of the first candidate's first text part, or null if there is none. */
+        String getText() { return text; }
+
+        /** The raw promptFeedback object if the prompt was flagged (e.g. blocked for safety), otherwise null. */
+        String getPromptFeedback() { return promptFeedback; }
+
+        /** usageMetadata.promptTokenCount, or 0 if absent. In a stream, each chunk carries the running total. */
+        long getPromptTokens() { return promptTokens; }
+
+        /** usageMetadata.candidatesTokenCount, or 0 if absent. In a stream, each chunk carries the running total. */
+        long getOutputTokens() { return outputTokens; }
+    }
+
+    /**
+     * Reads a generateContent response body.
+     *
+     * @param body The response body stream. It is consumed and closed.
+     * @return The candidate text, prompt feedback and token usage.
+     * @throws IOException If the body is not valid JSON.
+     */
+    GeneratedContent parseResponse(InputStream body) throws IOException {
+        String text = null;
+        String promptFeedback = null;
+        long promptTokens = 0;
+        long outputTokens = 0;
+        try (JsonParser parser = jsonFactory.createParser(body)) {
+            expect(parser.nextToken(), JsonToken.START_OBJECT);
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if ("candidates".equals(field) && value == JsonToken.START_ARRAY) {
+                    text = readFirstCandidateText(parser);
+                } else if ("promptFeedback".equals(field) && value == JsonToken.START_OBJECT) {
+                    promptFeedback = readFeedback(parser);
+                } else if ("usageMetadata".equals(field) && value == JsonToken.START_OBJECT) {
+                    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                        String usageField = parser.currentName();
+                        JsonToken count = parser.nextToken();
+                        if ("promptTokenCount".equals(usageField) && count == JsonToken.VALUE_NUMBER_INT) {
+                            promptTokens = parser.getLongValue();
+                        } else if ("candidatesTokenCount".equals(usageField) && count == JsonToken.VALUE_NUMBER_INT) {
+                            outputTokens = parser.getLongValue();
+                        } else {
+                            parser.skipChildren();
+                        }
+                    }
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+        return new GeneratedContent(text, promptFeedback, promptTokens, outputTokens);
+    }
+
+    /**
+     * Parses the structured insights produced under the response schema.
+     *
+     * @param json The JSON text of the model's answer.
+     * @return The insights; absent or null lists are left empty.
+     * @throws IOException If the text is not a JSON object.
+     */
+    MeetingInsights parseInsights(String json) throws IOException {
+        MeetingInsights insights = new MeetingInsights();
+        try (JsonParser parser = jsonFactory.createParser(json)) {
+            expect(parser.nextToken(), JsonToken.START_OBJECT);
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                parser.nextToken();
+                switch (field) {
+                    case "summary" -> insights.setSummary(readStrings(parser));
+                    case "actionItems" -> insights.setActionItems(readActionItems(parser));
+                    case "decisions" -> insights.setDecisions(readStrings(parser));
+                    case "discussionPoints" -> insights.setDiscussionPoints(readStrings(parser));
+                    case "followUps" -> insights.setFollowUps(readStrings(parser));
+                    default -> parser.skipChildren();
+                }
+            }
+        }
+        return insights;
+    }
+
+    /**
+     * Reads the candidates array, keeping the first text part of the first candidate. The parser is left on the
+     * array's END_ARRAY.
+     */
+    private String readFirstCandidateText(JsonParser parser) throws IOException {
+        String text = null;
+        boolean first = true;
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            if (!first || parser.currentToken() != JsonToken.START_OBJECT) {
+                parser.skipChildren();
+                continue;
+            }
+            first = false;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if ("content".equals(field) && value == JsonToken.START_OBJECT) {
+                    text = readContentText(parser);
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+        return text;
+    }
+
+    /**
+     * Reads a content object, returning the text of its first part that has one.
+     */
+    private String readContentText(JsonParser parser) throws IOException {
+        String text = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if (!"parts".equals(field) || value != JsonToken.START_ARRAY) {
+                parser.skipChildren();
+                continue;
+            }
+            while (parser.nextToken() != JsonToken.END_ARRAY) {
+                if (parser.currentToken() != JsonToken.START_OBJECT) {
+                    parser.skipChildren();
+                    continue;
+                }
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String partField = parser.currentName();
+                    JsonToken partValue = parser.nextToken();
+                    if (text == null && "text".equals(partField) && partValue == JsonToken.VALUE_STRING) {
+                        text = parser.getText();
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+            }
+        }
+        return text;
+    }
+
+    /**
+     * Copies a promptFeedback object as text for logging, or returns null if it is empty.
+     */
+    private String readFeedback(JsonParser parser) throws IOException {
+        StringBuilder feedback = new StringBuilder();
+        int depth = 1;
+        while (depth > 0) {
+            JsonToken token = parser.nextToken();
+            if (token == JsonToken.START_OBJECT || token == JsonToken.START_ARRAY) {
+                depth++;
+            } else if (token == JsonToken.END_OBJECT || token == JsonToken.END_ARRAY) {
+                depth--;
+            } else if (token == JsonToken.FIELD_NAME) {
+                feedback.append(parser.currentName()).append('=');
+            } else {
+                feedback.append(parser.getText()).append(' ');
+            }
+        }
+        return feedback.isEmpty() ? null : feedback.toString().trim();
+    }
+
+    private List<String> readStrings(JsonParser parser) throws IOException {
+        List<String> values = new ArrayList<>();
+        if (parser.currentToken() != JsonToken.START_ARRAY) {
+            parser.skipChildren();
+            return values;
+        }
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            if (parser.currentToken() == JsonToken.VALUE_STRING) {
+                values.add(parser.getText());
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return values;
+    }
+
+    private List<ActionItem> readActionItems(JsonParser parser) throws IOException {
+        List<ActionItem> items = new ArrayList<>();
+        if (parser.currentToken() != JsonToken.START_ARRAY) {
+            parser.skipChildren();
+            return items;
+        }
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            if (parser.currentToken() != JsonToken.START_OBJECT) {
+                parser.skipChildren();
+                continue;
+            }
+            ActionItem item = new ActionItem();
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                String text = value == JsonToken.VALUE_STRING ? parser.getText() : null;
+                switch (field) {
+                    case "task" -> item.setTask(text);
+                    case "owner" -> item.setOwner(text);
+                    case "deadline" -> item.setDeadline(text);
+                    default -> parser.skipChildren();
+                }
+            }
+            items.add(item);
+        }
+        return items;
+    }
+
+    private static void expect(JsonToken actual, JsonToken expected) throws IOException {
+        if (actual != expected) {
+            throw new IOException("Unexpected JSON: expected " + expected + " but found " + actual);
+        }
+    }
+}
@@ -1,156 +1,583 @@
 package com.meetinginsights.backend.service;
 
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.node.ArrayNode;
-import com.fasterxml.jackson.databind.node.ObjectNode;
-import org.springframework.beans.factory.annotation.Value;
+import com.meetinginsights.backend.audio.AudioPreprocessor;
+import com.meetinginsights.backend.audio.TimestampMap;
+import com.meetinginsights.backend.audio.WavFormat;
+import com.meetinginsights.backend.dto.MeetingInsights;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.InputStreamSource;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
 import java.io.IOException;
-import java.net.URI;
-import java.net.http.HttpClient;
-import java.net.http.HttpRequest;
-import java.net.http.HttpResponse;
-import java.util.Base64;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 
 @Service
 public class GeminiService {
 
-    @Value("${GEMINI_API_KEY}")
-    private String geminiApiKey;
+    private static final Logger log = LoggerFactory.getLogger(GeminiService.class);
 
-    private static final String GEMINI_MODEL = "gemini-2.5-pro"; // Using a stable model
+    // Gemini, or the in-process stub with the stub-engine profile
+    @Autowired
+    private InsightEngine engine;
 
-    private final ObjectMapper objectMapper = new ObjectMapper();
-    private final HttpClient httpClient = HttpClient.newHttpClient(); // Reuse HttpClient
+    @Autowired
+    private InsightCache insightCache;
+
+    @Autowired
+    private LongMeetingProcessor longMeetingProcessor;
+
+    @Autowired
+    private AudioPreprocessor audioPreprocessor;
+
+    // Absent in tests that build the service by hand.
+    @Autowired(required = false)
+    private InsightHistoryService insightHistory;
+
+    // Absent in tests that build the service by hand.
+    @Autowired(required = false)
+    private GenerationAuditLog auditLog;
+
+    // Absent in tests that build the service by hand; everything then goes to the pro model unless asked otherwise.
+    @Autowired(required = false)
+    private ModelRouter router;
+
+    // Runs the pro model's refinement of drafted insights. Absent in tests that build the service by hand.
+    @Autowired(required = false)
+    @Qualifier("insightJobExecutor")
+    private TaskExecutor refineExecutor;
+
+    // Bump whenever INSIGHTS_PROMPT changes, so cached insights from the old prompt are not reused.
+    static final String PROMPT_VERSION = "v3";
+
+    private static final String INSIGHTS_PROMPT = """
+        You are an AI meeting assistant.
+        Your job is to analyze the provided audio and extract meeting insights.
+        If no discernible speech is found, say so in the summary and leave the other lists empty.
+        
+        Tasks:
+        1. Summarize the meeting in 5 concise bullet points (summary).
+        2. Extract all action items with responsible persons and deadlines, if mentioned (actionItems).
+        3. Identify decisions taken (decisions).
+        4. Highlight key discussion points (discussionPoints).
+        5. Suggest possible follow-up actions (followUps).
+        
+        Analyze the provided audio.
+        """;
+
+    // Appended to a prompt, followed by TimestampMap.describe(), when silences were cut from the audio.
+    static final String SILENCE_NOTE = """
+
+        Long silences were removed from this audio. When you mention times, give them as times in the original
+        recording, using these cuts:
+        """;
+
+    private final GeminiResponseParser responseParser = new GeminiResponseParser();
+
+    /**
+     * The model calls of a long meeting's segments, with their tokens counted towards the meeting's request.
+     */
+    private LongMeetingProcessor.SegmentModel segmentModel(TokenUsage usage) {
+        return new LongMeetingProcessor.SegmentModel() {
+            @Override
+            public String analyzeAudio(InputStreamSource audio, long size, String mimeType, String fileName, String prompt)
+                    throws IOException, InterruptedException {
+                return engine.analyzeAudio(audio, size, mimeType, fileName, prompt, usage);
+            }
+
+            @Override
+            public String generateText(String prompt) throws IOException, InterruptedException {
+                return engine.generateText(prompt, usage);
+            }
+        };
+    }
 
     /**
      * Processes an audio file to generate meeting insights directly using Gemini's multimodal capabilities.
      * This method combines transcription and insight generation in one API call to Gemini.
+     * Small files are sent inline; files above the configured threshold are uploaded through the Files API first.
+     *
+     * @param audioFile The MultipartFile containing the meeting audio.
+     * @return The generated meeting insights.
+     * @throws IOException If there's an error reading the audio file or processing JSON.
+     * @throws InterruptedException If the HTTP request is interrupted.
+     */
+    public MeetingInsights processMeetingAudio(MultipartFile audioFile) throws IOException, InterruptedException {
+        return processMeetingAudio(audioFile, null);
+    }
+
+    /**
+     * Like {@link #processMeetingAudio(MultipartFile)}, and stores the insights in the owner's history.
+     *
+     * @param audioFile The MultipartFile containing the meeting audio.
+     * @param owner     The email of the user the insights are for, or null to not record them.
+     * @return The generated meeting insights.
+     * @throws IOException If there's an error reading the audio file or processing JSON.
+     * @throws InterruptedException If the HTTP request is interrupted.
+     */
+    public MeetingInsights processMeetingAudio(MultipartFile audioFile, String owner) throws IOException, InterruptedException {
+        return processMeetingAudio(audioFile, owner, null, false);
+    }
+
+    /**
+     * Like {@link #processMeetingAudio(MultipartFile, String)}, with a choice of model.
      *
      * @param audioFile The MultipartFile containing the meeting audio.
-     * @return A String containing the generated meeting insights.
+     * @param owner     The email of the user the insights are for, or null to not record them.
+     * @param requested The model tier the client asked for, or null to let the {@link ModelRouter} choose.
+     * @param draft     Whether to answer with the fast model right away when the pro model is chosen, and upgrade the
+     *                  stored insights once the pro model's result arrives.
+     * @return The generated meeting insights.
      * @throws IOException If there's an error reading the audio file or processing JSON.
      * @throws InterruptedException If the HTTP request is interrupted.
      */
-    public String processMeetingAudio(MultipartFile audioFile) throws IOException, InterruptedException {
+    public MeetingInsights processMeetingAudio(MultipartFile audioFile, String owner, ModelTier requested, boolean draft)
+            throws IOException, InterruptedException {
         if (audioFile.isEmpty()) {
             throw new IllegalArgumentException("Audio file cannot be empty.");
         }
+        return processMeetingAudio(audioFile, audioFile.getSize(), audioFile.getContentType(),
+                audioFile.getOriginalFilename(), owner, requested, draft);
+    }
 
-        byte[] audioBytes = audioFile.getBytes();
-        String base64Audio = Base64.getEncoder().encodeToString(audioBytes);
-        String mimeType = audioFile.getContentType();
+    /**
+     * Processes meeting audio from any re-readable source, e.g. a spooled copy of an upload.
+     *
+     * @param audio       The source of the audio bytes. It may be opened more than once.
+     * @param size        The size of the audio in bytes.
+     * @param contentType The MIME type reported for the audio, may be null.
+     * @param fileName    The original file name, used as the display name for Files API uploads.
+     * @return The generated meeting insights.
+     * @throws IOException If there's an error reading the audio or processing JSON.
+     * @throws InterruptedException If the HTTP request is interrupted.
+     */
+    public MeetingInsights processMeetingAudio(InputStreamSource audio, long size, String contentType, String fileName)
+            throws IOException, InterruptedException {
+        return processMeetingAudio(audio, size, contentType, fileName, null);
+    }
+
+    /**
+     * Like {@link #processMeetingAudio(InputStreamSource, long, String, String)}, and stores the insights in the
+     * owner's history.
+     *
+     * @param owner The email of the user the insights are for, or null to not record them.
+     */
+    public MeetingInsights processMeetingAudio(InputStreamSource audio, long size, String contentType, String fileName,
+                                               String owner) throws IOException, InterruptedException {
+        return processMeetingAudio(audio, size, contentType, fileName, owner, null, false);
+    }
 
-        if (mimeType == null || !mimeType.startsWith("audio/")) {
-            mimeType = "audio/mpeg";
-            System.err.println("Warning: Audio file MIME type is unknown or not audio. Defaulting to " + mimeType);
+    /**
+     * Like {@link #processMeetingAudio(InputStreamSource, long, String, String, String)}, with a choice of model.
+     * <p>
+     * In draft mode a request routed to the pro model is answered by the fast model, unless the pro model's insights
+     * are already cached. A copy of the audio is then analyzed by the pro model in the background, on the insight job
+     * executor; its result replaces the draft in the owner's history and in the cache. If that executor is busy the
+     * draft stays.
+     *
+     * @param requested The model tier the client asked for, or null to let the {@link ModelRouter} choose.
+     * @param draft     Whether to draft with the fast model and refine with the pro model later.
+     */
+    public MeetingInsights processMeetingAudio(InputStreamSource audio, long size, String contentType, String fileName,
+                                               String owner, ModelTier requested, boolean draft)
+            throws IOException, InterruptedException {
+        if (size <= 0) {
+            throw new IllegalArgumentException("Audio file cannot be empty.");
         }
 
-        String insightsPrompt = """
-        You are an AI meeting assistant.
-        Your job is to analyze the provided audio and extract meeting insights.
-        If no discernible speech is found, state that no speech was detected.
-        
-        Tasks:
-        1. Summarize the meeting in 5 concise bullet points.
-        2. Extract all action items with responsible persons and deadlines (if mentioned).
-        3. Identify decisions taken.
-        4. Highlight key discussion points.
-        5. Suggest possible follow-up actions.
-        
-        Analyze the provided audio.
-        """;
+        long start = System.nanoTime();
+        Double durationSeconds = readDuration(audio, size);
+        ModelTier tier = route(requested, owner, durationSeconds, size);
+        TokenUsage usage = new TokenUsage(owner, tier);
+        boolean succeeded = false;
+        try {
+            String mimeType = resolveMimeType(contentType);
 
-        ObjectNode rootNode = objectMapper.createObjectNode();
-        ArrayNode contentsArray = objectMapper.createArrayNode();
-        ObjectNode userContent = objectMapper.createObjectNode();
-        userContent.put("role", "user");
-        ArrayNode partsArray = objectMapper.createArrayNode();
+            // Identical audio with the same prompt and model produces the same insights, so skip the model call on a hit.
+            String audioHash = insightCache.hashAudio(audio);
+            Optional<MeetingInsights> cached = insightCache.get(cacheKey(audioHash, tier));
+            boolean refine = draft && tier == ModelTier.PRO && cached.isEmpty();
+            if (refine) {
+                usage = new TokenUsage(owner, ModelTier.FAST);
+                cached = insightCache.get(cacheKey(audioHash, ModelTier.FAST));
+            }
+            MeetingInsights insights;
+            if (cached.isPresent()) {
+                insights = cached.get();
+            } else {
+                insights = responseParser.parseInsights(generateInsights(audio, size, mimeType, fileName, usage));
+                insightCache.put(cacheKey(audioHash, usage.getTier()), insights);
+            }
+            succeeded = true;
+            CompletableFuture<Long> entry = recordHistory(owner, audioHash, fileName, durationSeconds,
+                    usage.getTier(), insights, start);
+            if (refine) {
+                refineLater(audio, size, mimeType, fileName, owner, audioHash, entry);
+            }
+            return insights;
+        } finally {
+            String status = succeeded ? successStatus(usage) : "error";
+            recordAudit(owner, size, start, status, usage);
+            recordRoute(usage.getTier(), status, start);
+        }
+    }
 
-        ObjectNode textPart = objectMapper.createObjectNode();
-        textPart.put("text", insightsPrompt);
-        partsArray.add(textPart);
+    /**
+     * Has the pro model analyze a spooled copy of the audio in the background, then replaces the drafted insights
+     * in the cache and, once its entry has been written, in the owner's history.
+     */
+    private void refineLater(InputStreamSource audio, long size, String mimeType, String fileName, String owner,
+                             String audioHash, CompletableFuture<Long> entry) {
+        if (refineExecutor == null) {
+            recordRefinement("skipped");
+            return;
+        }
+        Path spooled = null;
+        try {
+            // The upload's data is gone once the request completes.
+            spooled = Files.createTempFile("insight-refine-", ".audio");
+            try (InputStream in = audio.getInputStream()) {
+                Files.copy(in, spooled, StandardCopyOption.REPLACE_EXISTING);
+            }
+            Path source = spooled;
+            refineExecutor.execute(() -> refine(source, size, mimeType, fileName, owner, audioHash, entry));
+        } catch (IOException | TaskRejectedException e) {
+            log.warn("Not refining drafted insights for {}: {}", fileName, e.getMessage());
+            recordRefinement("rejected");
+            deleteQuietly(spooled);
+        }
+    }
 
-        ObjectNode audioInlineData = objectMapper.createObjectNode();
-        audioInlineData.put("mimeType", mimeType);
-        audioInlineData.put("data", base64Audio);
+    private void refine(Path spooled, long size, String mimeType, String fileName, String owner, String audioHash,
+                        CompletableFuture<Long> entry) {
+        long start = System.nanoTime();
+        TokenUsage usage = new TokenUsage(owner, ModelTier.PRO);
+        boolean succeeded = false;
+        try {
+            MeetingInsights insights = responseParser.parseInsights(
+                    generateInsights(new FileSystemResource(spooled), size, mimeType, fileName, usage));
+            insightCache.put(cacheKey(audioHash, ModelTier.PRO), insights);
+            succeeded = true;
+            long processingMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            if (insightHistory != null) {
+                entry.thenAccept(id -> {
+                    if (id != null) {
+                        insightHistory.upgrade(id, engine.getModel(ModelTier.PRO), insights, processingMs);
+                    }
+                });
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.warn("Refining drafted insights for {} failed", fileName, e);
+        } finally {
+            deleteQuietly(spooled);
+            recordAudit(owner, size, start, succeeded ? "refined" : "error", usage);
+            recordRefinement(succeeded ? "upgraded" : "failed");
+        }
+    }
 
-        ObjectNode audioPart = objectMapper.createObjectNode();
-        audioPart.set("inlineData", audioInlineData);
-        partsArray.add(audioPart);
+    private static void deleteQuietly(Path path) {
+        if (path == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Could not delete spooled audio {}: {}", path, e.getMessage());
+        }
+    }
 
-        userContent.set("parts", partsArray);
-        contentsArray.add(userContent);
-        rootNode.set("contents", contentsArray);
+    /**
+     * Streams meeting insights as they are generated: the model's answer is forwarded in chunks as it arrives, followed
+     * by the complete parsed insights. Cached insights, and long meetings that are analyzed in segments, produce only
+     * the final event.
+     *
+     * @param audio       The source of the audio bytes. It may be opened more than once.
+     * @param size        The size of the audio in bytes.
+     * @param contentType The MIME type reported for the audio, may be null.
+     * @param fileName    The original file name, used as the display name for Files API uploads.
+     * @return The stream of events. Blocking work (hashing, preprocessing, Files API uploads) runs on the
+     *         bounded-elastic scheduler, never on the subscriber's thread.
+     */
+    public Flux<InsightStreamEvent> streamMeetingAudio(InputStreamSource audio, long size, String contentType, String fileName) {
+        return streamMeetingAudio(audio, size, contentType, fileName, null);
+    }
 
-        String payload = objectMapper.writeValueAsString(rootNode);
+    /**
+     * Like {@link #streamMeetingAudio(InputStreamSource, long, String, String)}, and stores the final insights in the
+     * owner's history.
+     *
+     * @param owner The email of the user the insights are for, or null to not record them.
+     */
+    public Flux<InsightStreamEvent> streamMeetingAudio(InputStreamSource audio, long size, String contentType, String fileName,
+                                                       String owner) {
+        return streamMeetingAudio(audio, size, contentType, fileName, owner, null);
+    }
 
-        HttpRequest request = HttpRequest.newBuilder()
-                .uri(URI.create("https://generativelanguage.googleapis.com/v1beta/models/" + GEMINI_MODEL + ":generateContent?key=" + geminiApiKey))
-                .header("Content-Type", "application/json")
-                .POST(HttpRequest.BodyPublishers.ofString(payload))
-                .build();
+    /**
+     * Like {@link #streamMeetingAudio(InputStreamSource, long, String, String, String)}, with a choice of model.
+     * There is no draft mode: the stream already shows the answer as it is produced.
+     *
+     * @param requested The model tier the client asked for, or null to let the {@link ModelRouter} choose.
+     */
+    public Flux<InsightStreamEvent> streamMeetingAudio(InputStreamSource audio, long size, String contentType, String fileName,
+                                                       String owner, ModelTier requested) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("Audio file cannot be empty.");
+        }
+        long start = System.nanoTime();
+        String mimeType = resolveMimeType(contentType);
+        // Replaced once the request is routed, which needs the audio's duration.
+        AtomicReference<TokenUsage> usage =
+                new AtomicReference<>(new TokenUsage(owner, requested != null ? requested : ModelTier.PRO));
 
-        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
-        String responseBody = response.body();
+        return Mono.fromCallable(() -> new StreamRoute(insightCache.hashAudio(audio), readDuration(audio, size)))
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMapMany(stream -> {
+                    ModelTier tier = route(requested, owner, stream.durationSeconds(), size);
+                    usage.set(new TokenUsage(owner, tier));
+                    String cacheKey = cacheKey(stream.audioHash(), tier);
+                    Consumer<MeetingInsights> history = insights -> recordHistory(owner, stream.audioHash(), fileName,
+                            stream.durationSeconds(), tier, insights, start);
+                    return insightCache.get(cacheKey)
+                            .map(cached -> Mono.fromCallable(() -> {
+                                history.accept(cached);
+                                return InsightStreamEvent.insights(cached);
+                            }).flux())
+                            .orElseGet(() -> streamInsights(audio, size, mimeType, fileName, cacheKey, history,
+                                    usage.get()));
+                })
+                .doFinally(signal -> {
+                    String status = switch (signal) {
+                        case ON_COMPLETE -> successStatus(usage.get());
+                        case CANCEL -> "cancelled";
+                        default -> "error";
+                    };
+                    recordAudit(owner, size, start, status, usage.get());
+                    recordRoute(usage.get().getTier(), status, start);
+                });
+    }
 
-        if (response.statusCode() != 200) {
-            String errorMessage = "Gemini API call failed with status " + response.statusCode() + ": " + responseBody;
-            System.err.println(errorMessage);
-            try {
-                JsonNode errorNode = objectMapper.readTree(responseBody);
-                String apiError = errorNode.path("error").path("message").asText(errorMessage);
-                throw new IOException("Failed to get insights from Gemini API: " + apiError);
-            } catch (Exception e) {
-                throw new IOException("Failed to get insights from Gemini API: " + errorMessage);
+    /**
+     * What a streamed request is routed by. The duration is null unless the audio is WAV.
+     */
+    private record StreamRoute(String audioHash, Double durationSeconds) {
+    }
+
+    private Flux<InsightStreamEvent> streamInsights(InputStreamSource audio, long size, String mimeType, String fileName,
+                                                    String cacheKey, Consumer<MeetingInsights> history,
+                                                    TokenUsage usage) {
+        return Flux.using(() -> prepareInput(audio, size, mimeType), input -> {
+            if (longMeetingProcessor.isEligible(input.wav)) {
+                // Segments are merged at the end, so there is nothing to stream before the final result.
+                return Mono.fromCallable(() -> finish(cacheKey,
+                                longMeetingProcessor.process(input.audio, input.wav, fileName, input.timeline,
+                                        segmentModel(usage)),
+                                history))
+                        .flux();
             }
+            StringBuilder answer = new StringBuilder();
+            return engine.streamAudio(input.audio, input.size, input.mimeType, fileName, input.prompt(), usage)
+                    .doOnNext(answer::append)
+                    .map(InsightStreamEvent::chunk)
+                    .concatWith(Mono.fromCallable(() -> finish(cacheKey, answer.toString(), history)));
+        }, AudioInput::closeQuietly).subscribeOn(Schedulers.boundedElastic());
+    }
+
+    private InsightStreamEvent finish(String cacheKey, String answer, Consumer<MeetingInsights> history) throws IOException {
+        MeetingInsights insights = responseParser.parseInsights(answer);
+        insightCache.put(cacheKey, insights);
+        history.accept(insights);
+        return InsightStreamEvent.insights(insights);
+    }
+
+    /**
+     * The duration of WAV audio, which routing and the history use; null for other formats.
+     */
+    private static Double readDuration(InputStreamSource audio, long size) {
+        try {
+            return WavFormat.read(audio, size).map(WavFormat::getDurationSeconds).orElse(null);
+        } catch (IOException e) {
+            // The duration is optional.
+            return null;
         }
+    }
 
-        JsonNode root = objectMapper.readTree(responseBody);
+    private ModelTier route(ModelTier requested, String owner, Double durationSeconds, long size) {
+        if (router == null) {
+            return requested != null ? requested : ModelTier.PRO;
+        }
+        return router.route(requested, owner, durationSeconds, size);
+    }
 
-        JsonNode promptFeedback = root.path("promptFeedback");
-        if (promptFeedback.isObject() && !promptFeedback.isEmpty()) {
-            JsonNode safetyRatings = promptFeedback.path("safetyRatings");
-            StringBuilder feedbackMessage = new StringBuilder("Gemini API returned prompt feedback:\n");
-            if (safetyRatings.isArray()) {
-                for (JsonNode rating : safetyRatings) {
-                    feedbackMessage.append("  Category: ").append(rating.path("category").asText())
-                            .append(", Probability: ").append(rating.path("probability").asText())
-                            .append("\n");
-                }
-            } else {
-                feedbackMessage.append("  ").append(promptFeedback.toString()).append("\n");
+    /**
+     * Builds the cache key of a tier's insights. The models answer differently, so their insights are cached apart.
+     */
+    private String cacheKey(String audioHash, ModelTier tier) {
+        return insightCache.key(audioHash, PROMPT_VERSION + ":" + engine.getModel(tier));
+    }
+
+    /**
+     * Hands the insights to the history for the owner, if there is one; the write itself happens in the background.
+     *
+     * @return Completes with the id of the history entry, or with null if none is written.
+     */
+    private CompletableFuture<Long> recordHistory(String owner, String audioHash, String fileName, Double durationSeconds,
+                                                  ModelTier tier, MeetingInsights insights, long startNanos) {
+        if (owner == null || insightHistory == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        long processingMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+        return insightHistory.record(owner, audioHash, fileName, durationSeconds, engine.getModel(tier), PROMPT_VERSION,
+                insights, processingMs);
+    }
+
+    private void recordRoute(ModelTier tier, String status, long startNanos) {
+        if (router != null) {
+            router.recordLatency(tier, status, System.nanoTime() - startNanos);
+        }
+    }
+
+    private void recordRefinement(String outcome) {
+        if (router != null) {
+            router.recordRefinement(outcome);
+        }
+    }
+
+    /**
+     * Queues the audit row of a generation request, if auditing is set up.
+     */
+    private void recordAudit(String owner, long size, long startNanos, String status, TokenUsage usage) {
+        if (auditLog == null) {
+            return;
+        }
+        long latencyMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+        auditLog.record(owner, size, latencyMs, status, engine.getModel(usage.getTier()), usage.getPromptTokens(),
+                usage.getOutputTokens());
+    }
+
+    private static String successStatus(TokenUsage usage) {
+        return usage.getCalls() == 0 ? "cached" : "ok";
+    }
+
+    private static String resolveMimeType(String contentType) {
+        if (contentType == null || !contentType.startsWith("audio/")) {
+            log.warn("Audio file MIME type is unknown or not audio. Defaulting to audio/mpeg");
+            return "audio/mpeg";
+        }
+        return contentType;
+    }
+
+    /**
+     * Generates insights for audio that missed the cache. Long WAV recordings are analyzed in parallel segments,
+     * everything else in a single Gemini call.
+     *
+     * @return The insights JSON produced by the model.
+     */
+    private String generateInsights(InputStreamSource audio, long size, String mimeType, String fileName,
+                                    TokenUsage usage) throws IOException, InterruptedException {
+        try (AudioInput input = prepareInput(audio, size, mimeType)) {
+            if (longMeetingProcessor.isEligible(input.wav)) {
+                return longMeetingProcessor.process(input.audio, input.wav, fileName, input.timeline, segmentModel(usage));
             }
-            System.err.println(feedbackMessage.toString());
-            return "Failed to generate insights: Content was blocked due to safety concerns or other prompt feedback.";
-        }
-
-
-        JsonNode candidates = root.path("candidates");
-
-        if (candidates.isArray() && !candidates.isEmpty()) {
-            JsonNode firstCandidate = candidates.get(0);
-            if (firstCandidate != null) {
-                JsonNode content = firstCandidate.path("content");
-                if (content != null) {
-                    JsonNode parts = content.path("parts");
-                    if (parts.isArray() && !parts.isEmpty()) {
-                        JsonNode firstPart = parts.get(0);
-                        if (firstPart != null) {
-                            JsonNode textNode = firstPart.path("text");
-                            if (textNode != null && textNode.isTextual()) {
-                                return textNode.asText("");
-                            }
-                        }
-                    }
-                }
+            return engine.analyzeAudio(input.audio, input.size, input.mimeType, fileName, input.prompt(), usage);
+        }
+    }
+
+    /**
+     * Uncompressed WAV is shrunk to speech quality and has long silences cut out before it is analyzed.
+     */
+    private AudioInput prepareInput(InputStreamSource audio, long size, String mimeType) throws IOException {
+        WavFormat wav = WavFormat.read(audio, size).orElse(null);
+        Optional<AudioPreprocessor.PreparedAudio> prepared = audioPreprocessor.prepare(audio, wav);
+        if (prepared.isEmpty()) {
+            return new AudioInput(audio, size, mimeType, wav, new TimestampMap(), null);
+        }
+        AudioPreprocessor.PreparedAudio p = prepared.get();
+        return new AudioInput(p.getSource(), p.getSize(), p.getMimeType(), p.getFormat(), p.getTimeline(), p);
+    }
+
+    /**
+     * The audio that is actually sent to the model, which may be a prepared copy of the upload that must be closed.
+     */
+    private static class AudioInput implements AutoCloseable {
+        final InputStreamSource audio;
+        final long size;
+        final String mimeType;
+        final WavFormat wav;
+        final TimestampMap timeline;
+        private final AudioPreprocessor.PreparedAudio prepared;
+
+        AudioInput(InputStreamSource audio, long size, String mimeType, WavFormat wav, TimestampMap timeline,
+                   AudioPreprocessor.PreparedAudio prepared) {
+            this.audio = audio;
+            this.size = size;
+            this.mimeType = mimeType;
+            this.wav = wav;
+            this.timeline = timeline;
+            this.prepared = prepared;
+        }
+
+        String prompt() {
+            return timeline.isEmpty() ? INSIGHTS_PROMPT : INSIGHTS_PROMPT + SILENCE_NOTE + timeline.describe(0, Double.MAX_VALUE);
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (prepared != null) {
+                prepared.close();
             }
         }
 
-        System.err.println("Gemini API response did not contain expected textual content in candidates: " + responseBody);
-        return "Failed to generate insights: AI model did not produce textual content. This might be due to insufficient speech in the audio, or the model deciding no relevant insights could be extracted. Check logs for full response.";
+        void closeQuietly() {
+            try {
+                close();
+            } catch (IOException e) {
+                log.warn("Could not delete prepared audio: {}", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Generates meeting insights for audio that already lives in Gemini's file storage.
+     * This lets a recording be re-analyzed without uploading its bytes again.
+     *
+     * @param fileUri  The URI of the uploaded file, as returned by the Files API.
+     * @param mimeType The MIME type of the audio.
+     * @return The generated meeting insights.
+     * @throws IOException If there's an error calling Gemini or processing JSON.
+     * @throws InterruptedException If the HTTP request is interrupted.
+     */
+    public MeetingInsights processUploadedAudio(String fileUri, String mimeType) throws IOException, InterruptedException {
+        long start = System.nanoTime();
+        // Re-analysis has no audio to route by.
+        TokenUsage usage = new TokenUsage(null, ModelTier.PRO);
+        boolean succeeded = false;
+        try {
+            MeetingInsights insights = responseParser.parseInsights(engine.analyzeUploadedAudio(fileUri, mimeType, INSIGHTS_PROMPT, usage));
+            succeeded = true;
+            return insights;
+        } finally {
+            // No bytes were received for this request.
+            recordAudit(null, 0, start, succeeded ? "ok" : "error", usage);
+        }
     }
 }
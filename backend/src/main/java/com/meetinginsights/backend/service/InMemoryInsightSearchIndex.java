@@ -0,0 +1,355 @@
+package com.meetinginsights.backend.service;
+
+import com.meetinginsights.backend.dto.InsightSearchHit;
+import com.meetinginsights.backend.entity.MeetingInsight;
+import com.meetinginsights.backend.repository.MeetingInsightRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * An inverted index held in the JVM, for tests and local runs without PostgreSQL. It is filled from the
+ * meeting_insights table at startup, before requests are served, and kept up to date as entries are saved.
+ * <p>
+ * The index is partitioned by owner: a search only ever touches the postings of one user, so its cost depends on
+ * the size of that user's history, not on the total number of entries. Results are ranked with BM25 and highlighted
+ * like {@link PostgresInsightSearchIndex}. Words are lowercased but not stemmed, so unlike PostgreSQL "meetings" does
+ * not match "meeting"; quoted phrases, "or" and "-word" are not supported either.
+ */
+@Component
+@ConditionalOnProperty(name = "insight.search.engine", havingValue = "memory")
+public class InMemoryInsightSearchIndex implements InsightSearchIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(InMemoryInsightSearchIndex.class);
+
+    // The usual BM25 parameters
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    private static final int MAX_FRAGMENTS = 3;
+    private static final int MAX_FRAGMENT_WORDS = 20;
+    // Words kept before the first match when a fragment has to be cut
+    private static final int FRAGMENT_LEAD_WORDS = 5;
+
+    // Common words that PostgreSQL's english configuration doesn't index either
+    private static final Set<String> STOP_WORDS = Set.of("a", "an", "and", "are", "as", "at", "be", "but", "by",
+            "for", "if", "in", "into", "is", "it", "no", "not", "of", "on", "or", "such", "that", "the", "their",
+            "then", "there", "these", "they", "this", "to", "was", "will", "with");
+
+    // Rows read per query while filling the index at startup
+    private static final int BACKFILL_PAGE_SIZE = 1000;
+
+    private final MeetingInsightRepository repository;
+    private final ConcurrentMap<Long, Partition> partitions = new ConcurrentHashMap<>();
+
+    public InMemoryInsightSearchIndex(MeetingInsightRepository repository) {
+        this.repository = repository;
+    }
+
+    /**
+     * Indexes every stored entry, reading the table in pages by id.
+     */
+    @PostConstruct
+    public void backfill() {
+        long indexed = 0;
+        long afterId = 0;
+        List<MeetingInsight> page;
+        do {
+            page = repository.findPageAfterId(afterId, Limit.of(BACKFILL_PAGE_SIZE));
+            for (MeetingInsight entry : page) {
+                index(entry);
+                afterId = entry.getId();
+            }
+            indexed += page.size();
+        } while (page.size() == BACKFILL_PAGE_SIZE);
+        log.info("Indexed {} stored insights for search.", indexed);
+    }
+
+    @Override
+    public void index(MeetingInsight entry) {
+        partitions.computeIfAbsent(entry.getOwner().getId(), ownerId -> new Partition())
+                .add(entry.getId(), entry.getFileName(), entry.getCreatedAt(), entry.getSearchText());
+    }
+
+    @Override
+    public void removeOwner(Long ownerId) {
+        partitions.remove(ownerId);
+    }
+
+    @Override
+    public List<InsightSearchHit> search(Long ownerId, String query, int limit) {
+        Partition partition = partitions.get(ownerId);
+        if (partition == null || limit <= 0) {
+            return List.of();
+        }
+        Set<String> terms = new LinkedHashSet<>();
+        tokenize(query, (start, end, term) -> {
+            if (!STOP_WORDS.contains(term)) {
+                terms.add(term);
+            }
+        });
+        if (terms.isEmpty()) {
+            return List.of();
+        }
+        return partition.search(terms, limit);
+    }
+
+    /**
+     * Receives the words of a text with their position.
+     */
+    private interface TokenConsumer {
+        void accept(int start, int end, String term);
+    }
+
+    /**
+     * Splits a text into words, i.e. runs of letters and digits, and passes each one lowercased.
+     */
+    private static void tokenize(String text, TokenConsumer consumer) {
+        if (text == null) {
+            return;
+        }
+        int length = text.length();
+        int i = 0;
+        while (i < length) {
+            while (i < length && !Character.isLetterOrDigit(text.charAt(i))) {
+                i++;
+            }
+            int start = i;
+            while (i < length && Character.isLetterOrDigit(text.charAt(i))) {
+                i++;
+            }
+            if (i > start) {
+                consumer.accept(start, i, text.substring(start, i).toLowerCase(Locale.ROOT));
+            }
+        }
+    }
+
+    private static final class Doc {
+        final long id;
+        final String fileName;
+        final Instant createdAt;
+        final String text;
+        final int length;
+        // Set when the entry is indexed again; its postings are skipped from then on
+        boolean replaced;
+
+        Doc(long id, String fileName, Instant createdAt, String text, int length) {
+            this.id = id;
+            this.fileName = fileName;
+            this.createdAt = createdAt;
+            this.text = text;
+            this.length = length;
+        }
+    }
+
+    /**
+     * The documents containing one term, in the order they were added, with the term's frequency in each.
+     */
+    private static final class Postings {
+        int[] docs = new int[4];
+        int[] frequencies = new int[4];
+        int size;
+
+        void add(int doc, int frequency) {
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+                frequencies = Arrays.copyOf(frequencies, size * 2);
+            }
+            docs[size] = doc;
+            frequencies[size] = frequency;
+            size++;
+        }
+    }
+
+    private record Scored(int doc, double score) {
+    }
+
+    // Worse results first, so the head of a bounded queue is the one to drop
+    private static final Comparator<Scored> WORST_FIRST = Comparator.comparingDouble(Scored::score)
+            .thenComparingInt(Scored::doc);
+
+    /**
+     * The index of one owner.
+     */
+    private static final class Partition {
+        private final ReadWriteLock lock = new ReentrantReadWriteLock();
+        // Documents by ordinal; postings refer to documents by ordinal, so they are sorted by it
+        private final List<Doc> docs = new ArrayList<>();
+        private final Map<String, Postings> postings = new HashMap<>();
+        private final Map<Long, Integer> ordinalsById = new HashMap<>();
+        private int liveDocs;
+        private long totalLength;
+
+        void add(long id, String fileName, Instant createdAt, String text) {
+            Map<String, Integer> frequencies = new HashMap<>();
+            int[] length = new int[1];
+            tokenize(text, (start, end, term) -> {
+                length[0]++;
+                frequencies.merge(term, 1, Integer::sum);
+            });
+
+            lock.writeLock().lock();
+            try {
+                Integer previous = ordinalsById.get(id);
+                if (previous != null) {
+                    // Old postings stay behind and still count towards document frequencies until a restart; entries
+                    // are rarely replaced, so that skew is negligible.
+                    Doc old = docs.get(previous);
+                    old.replaced = true;
+                    liveDocs--;
+                    totalLength -= old.length;
+                }
+                int ordinal = docs.size();
+                docs.add(new Doc(id, fileName, createdAt, text, length[0]));
+                ordinalsById.put(id, ordinal);
+                liveDocs++;
+                totalLength += length[0];
+                frequencies.forEach((term, frequency) ->
+                        postings.computeIfAbsent(term, t -> new Postings()).add(ordinal, frequency));
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        List<InsightSearchHit> search(Set<String> terms, int limit) {
+            lock.readLock().lock();
+            try {
+                Postings[] lists = new Postings[terms.size()];
+                int n = 0;
+                for (String term : terms) {
+                    Postings list = postings.get(term);
+                    if (list == null) {
+                        return List.of();
+                    }
+                    lists[n++] = list;
+                }
+                // Walk the rarest term's documents and look the others up by binary search, which only ever moves
+                // forward since all lists are sorted.
+                Arrays.sort(lists, Comparator.comparingInt(list -> list.size));
+                double[] idf = new double[lists.length];
+                for (int i = 0; i < lists.length; i++) {
+                    idf[i] = Math.log(1 + (liveDocs - lists[i].size + 0.5) / (lists[i].size + 0.5));
+                }
+                double averageLength = liveDocs > 0 ? (double) totalLength / liveDocs : 1;
+                int[] positions = new int[lists.length];
+                PriorityQueue<Scored> top = new PriorityQueue<>(limit + 1, WORST_FIRST);
+
+                Postings rarest = lists[0];
+                candidates:
+                for (int p = 0; p < rarest.size; p++) {
+                    int doc = rarest.docs[p];
+                    Doc document = docs.get(doc);
+                    if (document.replaced) {
+                        continue;
+                    }
+                    double norm = K1 * (1 - B + B * document.length / averageLength);
+                    double score = idf[0] * bm25(rarest.frequencies[p], norm);
+                    for (int i = 1; i < lists.length; i++) {
+                        Postings list = lists[i];
+                        int found = Arrays.binarySearch(list.docs, positions[i], list.size, doc);
+                        if (found < 0) {
+                            positions[i] = -found - 1;
+                            if (positions[i] == list.size) {
+                                break candidates;
+                            }
+                            continue candidates;
+                        }
+                        positions[i] = found + 1;
+                        score += idf[i] * bm25(list.frequencies[found], norm);
+                    }
+                    top.add(new Scored(doc, score));
+                    if (top.size() > limit) {
+                        top.poll();
+                    }
+                }
+
+                InsightSearchHit[] hits = new InsightSearchHit[top.size()];
+                for (int i = hits.length - 1; i >= 0; i--) {
+                    Scored scored = top.poll();
+                    hits[i] = toHit(docs.get(scored.doc()), scored.score(), terms);
+                }
+                return List.of(hits);
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        private static double bm25(int frequency, double norm) {
+            return frequency * (K1 + 1) / (frequency + norm);
+        }
+    }
+
+    private static InsightSearchHit toHit(Doc doc, double score, Set<String> terms) {
+        InsightSearchHit hit = new InsightSearchHit();
+        hit.setId(doc.id);
+        hit.setFileName(doc.fileName);
+        hit.setCreatedAt(doc.createdAt);
+        hit.setRank(score);
+        hit.setHighlight(SearchHighlights.toHtml(highlight(doc.text, terms)));
+        return hit;
+    }
+
+    /**
+     * Builds up to {@value #MAX_FRAGMENTS} fragments from the lines that contain a query term, cut to
+     * {@value #MAX_FRAGMENT_WORDS} words, with the terms delimited for {@link SearchHighlights}.
+     */
+    private static String highlight(String text, Set<String> terms) {
+        if (text == null) {
+            return "";
+        }
+        List<String> fragments = new ArrayList<>();
+        for (String line : text.split("\n")) {
+            List<int[]> words = new ArrayList<>();
+            tokenize(line, (start, end, term) -> words.add(new int[]{start, end, terms.contains(term) ? 1 : 0}));
+            int firstMatch = -1;
+            for (int i = 0; i < words.size() && firstMatch < 0; i++) {
+                if (words.get(i)[2] == 1) {
+                    firstMatch = i;
+                }
+            }
+            if (firstMatch < 0) {
+                continue;
+            }
+            int from = words.size() <= MAX_FRAGMENT_WORDS ? 0 : Math.max(0, firstMatch - FRAGMENT_LEAD_WORDS);
+            int to = Math.min(words.size(), from + MAX_FRAGMENT_WORDS);
+            int textStart = from == 0 ? 0 : words.get(from)[0];
+            int textEnd = to == words.size() ? line.length() : words.get(to - 1)[1];
+
+            StringBuilder fragment = new StringBuilder();
+            int copied = textStart;
+            for (int i = from; i < to; i++) {
+                int[] word = words.get(i);
+                if (word[2] == 1) {
+                    fragment.append(line, copied, word[0])
+                            .append(SearchHighlights.START).append(line, word[0], word[1]).append(SearchHighlights.END);
+                    copied = word[1];
+                }
+            }
+            fragment.append(line, copied, textEnd);
+            fragments.add(fragment.toString().strip());
+            if (fragments.size() == MAX_FRAGMENTS) {
+                break;
+            }
+        }
+        return String.join(" ... ", fragments);
+    }
+}
@@ -0,0 +1,142 @@
+package com.meetinginsights.backend.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.meetinginsights.backend.dto.MeetingInsights;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.InputStreamSource;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.Optional;
+
+/**
+ * Cache of generated insights keyed by the content of the audio, so re-uploading the same recording
+ * (after a page refresh, or a colleague sharing the file) returns the stored insights without another model call.
+ * <p>
+ * Lookups go to a size- and TTL-bounded in-process cache first, then to the optional persistent tier, which stores
+ * the insights as JSON.
+ */
+@Service
+public class InsightCache {
+
+    private static final Logger log = LoggerFactory.getLogger(InsightCache.class);
+
+    private static final int HASH_BUFFER_SIZE = 64 * 1024;
+    // cache_key holds 100 characters: the 64 of the audio hash, a colon and this much of the variant's hash
+    private static final int VARIANT_HASH_CHARS = 32;
+
+    private final Cache<String, MeetingInsights> localCache;
+    private final Optional<InsightCacheStore> persistentStore;
+    private final Duration ttl;
+    private final Counter persistentHits;
+    private final Counter persistentMisses;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    public InsightCache(MeterRegistry meterRegistry,
+                        Optional<InsightCacheStore> persistentStore,
+                        @Value("${insight.cache.max-entries:1000}") long maxEntries,
+                        @Value("${insight.cache.ttl:24h}") Duration ttl) {
+        this.persistentStore = persistentStore;
+        this.ttl = ttl;
+        this.localCache = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        // Exposes cache.gets{result=hit|miss}, cache.evictions and cache.size for cache=insights.
+        CaffeineCacheMetrics.monitor(meterRegistry, localCache, "insights");
+        this.persistentHits = meterRegistry.counter("insight.cache.persistent", "result", "hit");
+        this.persistentMisses = meterRegistry.counter("insight.cache.persistent", "result", "miss");
+    }
+
+    /**
+     * Computes the SHA-256 of the audio, reading it as a stream so large files are never held in memory.
+     *
+     * @param audio The audio source.
+     * @return The lowercase hex digest.
+     * @throws IOException If the audio cannot be read.
+     */
+    public String hashAudio(InputStreamSource audio) throws IOException {
+        MessageDigest digest = sha256();
+        byte[] buffer = new byte[HASH_BUFFER_SIZE];
+        try (InputStream in = audio.getInputStream()) {
+            int n;
+            while ((n = in.read(buffer)) > 0) {
+                digest.update(buffer, 0, n);
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * Builds the cache key. Insights depend on the prompt and the model as well as the audio, so changing either
+     * invalidates every earlier entry. The variant is hashed, so keys have a fixed length however long it is.
+     *
+     * @param audioHash The hash from {@link #hashAudio}.
+     * @param variant   What else the insights depend on, e.g. the prompt version and the model name.
+     */
+    public String key(String audioHash, String variant) {
+        String variantHash = HexFormat.of().formatHex(sha256().digest(variant.getBytes(StandardCharsets.UTF_8)));
+        return audioHash + ":" + variantHash.substring(0, VARIANT_HASH_CHARS);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    public Optional<MeetingInsights> get(String key) {
+        MeetingInsights insights = localCache.getIfPresent(key);
+        if (insights != null) {
+            return Optional.of(insights);
+        }
+        if (persistentStore.isEmpty()) {
+            return Optional.empty();
+        }
+
+        Optional<MeetingInsights> stored = persistentStore.get().find(key, ttl).flatMap(json -> {
+            try {
+                return Optional.of(objectMapper.readValue(json, MeetingInsights.class));
+            } catch (JsonProcessingException e) {
+                log.warn("Ignoring unreadable cached insights for {}: {}", key, e.getMessage());
+                return Optional.empty();
+            }
+        });
+        if (stored.isPresent()) {
+            persistentHits.increment();
+            localCache.put(key, stored.get());
+        } else {
+            persistentMisses.increment();
+        }
+        return stored;
+    }
+
+    public void put(String key, MeetingInsights insights) {
+        localCache.put(key, insights);
+        persistentStore.ifPresent(store -> {
+            try {
+                store.save(key, objectMapper.writeValueAsString(insights));
+            } catch (JsonProcessingException | RuntimeException e) {
+                // The persistent tier is an optimization; never fail the request because of it.
+                log.warn("Failed to persist cached insights for {}", key, e);
+            }
+        });
+    }
+}
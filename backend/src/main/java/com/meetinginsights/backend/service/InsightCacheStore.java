@@ -0,0 +1,19 @@
+package com.meetinginsights.backend.service;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Persistent tier behind the in-process insight cache. Implementations must be safe to call concurrently.
+ */
+public interface InsightCacheStore {
+
+    /**
+     * @param key    The cache key.
+     * @param maxAge Entries older than this are treated as missing.
+     * @return The stored insights JSON, if present and fresh.
+     */
+    Optional<String> find(String key, Duration maxAge);
+
+    void save(String key, String insights);
+}
@@ -0,0 +1,60 @@
+package com.meetinginsights.backend.service;
+
+import org.springframework.core.io.InputStreamSource;
+import reactor.core.publisher.Flux;
+
+import java.io.IOException;
+
+/**
+ * The model that turns meeting audio and prompts into the insights JSON. {@link GeminiService} owns everything around
+ * the model call (caching, preprocessing, segmenting long meetings, history and auditing), so swapping the engine
+ * changes nothing else on the upload path.
+ * <p>
+ * {@link GeminiInsightEngine} calls Gemini; {@link StubInsightEngine}, active with the stub-engine profile, answers
+ * in-process for offline load tests.
+ */
+interface InsightEngine {
+
+    /**
+     * @param tier The model tier.
+     * @return The name of the tier's model, stored with the insights and audit rows.
+     */
+    String getModel(ModelTier tier);
+
+    /**
+     * Analyzes audio with the given prompt.
+     *
+     * @param audio    The source of the audio bytes. It may be opened more than once.
+     * @param size     The size of the audio in bytes.
+     * @param mimeType The MIME type of the audio.
+     * @param fileName The original file name.
+     * @param prompt   The prompt.
+     * @param usage    The request the call is made for, which also names the model tier; the call's tokens are
+     *                 added to it.
+     * @return The model's answer, the insights JSON.
+     * @throws IOException If the call fails; a {@link com.meetinginsights.backend.exception.ModelUnavailableException}
+     *                     if it is worth trying again later.
+     */
+    String analyzeAudio(InputStreamSource audio, long size, String mimeType, String fileName, String prompt,
+                        TokenUsage usage) throws IOException, InterruptedException;
+
+    /**
+     * Like {@link #analyzeAudio}, but emits the answer in chunks as the model produces it. Blocking work must not
+     * run on the subscriber's thread.
+     */
+    Flux<String> streamAudio(InputStreamSource audio, long size, String mimeType, String fileName, String prompt,
+                             TokenUsage usage);
+
+    /**
+     * Analyzes audio that already lives in the model provider's file storage.
+     *
+     * @param fileUri The URI of the stored file.
+     */
+    String analyzeUploadedAudio(String fileUri, String mimeType, String prompt, TokenUsage usage)
+            throws IOException, InterruptedException;
+
+    /**
+     * Answers a text-only prompt, e.g. to merge the analyses of a segmented meeting.
+     */
+    String generateText(String prompt, TokenUsage usage) throws IOException, InterruptedException;
+}
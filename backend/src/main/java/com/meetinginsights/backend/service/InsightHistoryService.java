@@ -0,0 +1,306 @@
+package com.meetinginsights.backend.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.meetinginsights.backend.dto.ActionItem;
+import com.meetinginsights.backend.dto.InsightHistoryItem;
+import com.meetinginsights.backend.dto.InsightHistoryPage;
+import com.meetinginsights.backend.dto.InsightSearchHit;
+import com.meetinginsights.backend.dto.MeetingInsights;
+import com.meetinginsights.backend.entity.MeetingInsight;
+import com.meetinginsights.backend.repository.MeetingInsightRepository;
+import com.meetinginsights.backend.repository.UserRepository;
+import com.meetinginsights.backend.security.UserSnapshot;
+import com.meetinginsights.backend.security.UserSnapshotCache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Base64;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Keeps every user's generated insights, so they can be listed and reopened later.
+ * <p>
+ * Insights are written on a small background executor after the response has been produced, so a slow database never
+ * delays the answer; if the write queue is full the record is dropped (and counted) rather than blocking. Insights
+ * drafted with a fast model are upgraded in place once the pro model's result arrives. The history
+ * is read newest first with keyset pagination over (created_at, id), or searched through the
+ * {@link InsightSearchIndex}.
+ */
+@Service
+public class InsightHistoryService {
+
+    private static final Logger log = LoggerFactory.getLogger(InsightHistoryService.class);
+
+    static final int MAX_PAGE_SIZE = 100;
+    static final int MAX_SEARCH_RESULTS = 50;
+
+    private final MeetingInsightRepository repository;
+    private final UserRepository userRepository;
+    private final UserSnapshotCache userSnapshotCache;
+    private final InsightSearchIndex searchIndex;
+    private final ThreadPoolTaskExecutor executor;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Counter savedCounter;
+    private final Counter droppedCounter;
+    private final Counter upgradedCounter;
+
+    public InsightHistoryService(MeetingInsightRepository repository,
+                                 UserRepository userRepository,
+                                 UserSnapshotCache userSnapshotCache,
+                                 InsightSearchIndex searchIndex,
+                                 @Qualifier("insightHistoryExecutor") ThreadPoolTaskExecutor executor,
+                                 MeterRegistry meterRegistry) {
+        this.repository = repository;
+        this.userRepository = userRepository;
+        this.userSnapshotCache = userSnapshotCache;
+        this.searchIndex = searchIndex;
+        this.executor = executor;
+        this.savedCounter = meterRegistry.counter("insight.history.writes", "outcome", "saved");
+        this.droppedCounter = meterRegistry.counter("insight.history.writes", "outcome", "dropped");
+        this.upgradedCounter = meterRegistry.counter("insight.history.writes", "outcome", "upgraded");
+    }
+
+    /**
+     * Queues the insights of one meeting to be stored in the owner's history.
+     *
+     * @param owner           The email of the user the insights were generated for.
+     * @param audioHash       The SHA-256 of the audio.
+     * @param fileName        The original file name, may be null.
+     * @param durationSeconds The duration of the audio, or null if unknown.
+     * @param model           The model that produced the insights.
+     * @param promptVersion   The version of the prompt used.
+     * @param insights        The insights.
+     * @param processingMs    How long producing the insights took.
+     * @return Completes with the id of the stored entry once it is written, or with null if it was dropped.
+     */
+    public CompletableFuture<Long> record(String owner, String audioHash, String fileName, Double durationSeconds,
+                                          String model, String promptVersion, MeetingInsights insights,
+                                          long processingMs) {
+        // Read the clock now: the write may run much later.
+        Instant createdAt = Instant.now().truncatedTo(ChronoUnit.MICROS);
+        try {
+            return executor.submitCompletable(() -> save(owner, audioHash, fileName, durationSeconds, model,
+                    promptVersion, insights, processingMs, createdAt));
+        } catch (TaskRejectedException e) {
+            droppedCounter.increment();
+            log.warn("Insight history write queue is full, not saving insights for {}", owner);
+            return CompletableFuture.completedFuture(null);
+        }
+    }
+
+    /**
+     * Queues replacing the insights of a stored entry, e.g. a fast model's draft with the pro model's result. The
+     * entry keeps its place in the history.
+     *
+     * @param id           The id of the entry, as returned by {@link #record}.
+     * @param model        The model that produced the new insights.
+     * @param insights     The new insights.
+     * @param processingMs How long producing the new insights took.
+     */
+    public void upgrade(Long id, String model, MeetingInsights insights, long processingMs) {
+        try {
+            executor.execute(() -> replace(id, model, insights, processingMs));
+        } catch (TaskRejectedException e) {
+            droppedCounter.increment();
+            log.warn("Insight history write queue is full, not upgrading history entry {}", id);
+        }
+    }
+
+    private void replace(Long id, String model, MeetingInsights insights, long processingMs) {
+        try {
+            Optional<MeetingInsight> row = repository.findById(id);
+            if (row.isEmpty()) {
+                droppedCounter.increment();
+                return;
+            }
+            MeetingInsight entry = row.get();
+            entry.setModel(model);
+            entry.setInsights(objectMapper.writeValueAsString(insights));
+            entry.setSearchText(searchText(entry.getFileName(), insights));
+            entry.setProcessingMs(processingMs);
+            repository.save(entry);
+            searchIndex.index(entry);
+            upgradedCounter.increment();
+        } catch (Exception e) {
+            droppedCounter.increment();
+            log.error("Could not upgrade insight history entry {}", id, e);
+        }
+    }
+
+    private Long save(String owner, String audioHash, String fileName, Double durationSeconds, String model,
+                      String promptVersion, MeetingInsights insights, long processingMs, Instant createdAt) {
+        try {
+            Optional<UserSnapshot> user = userSnapshotCache.findByEmail(owner);
+            if (user.isEmpty()) {
+                droppedCounter.increment();
+                return null;
+            }
+            MeetingInsight entry = new MeetingInsight();
+            // A reference is enough to set the foreign key; the user row isn't loaded.
+            entry.setOwner(userRepository.getReferenceById(user.get().getId()));
+            entry.setAudioHash(audioHash);
+            entry.setFileName(fileName);
+            entry.setDurationSeconds(durationSeconds);
+            entry.setModel(model);
+            entry.setPromptVersion(promptVersion);
+            entry.setInsights(objectMapper.writeValueAsString(insights));
+            entry.setSearchText(searchText(fileName, insights));
+            entry.setProcessingMs(processingMs);
+            entry.setCreatedAt(createdAt);
+            repository.save(entry);
+            searchIndex.index(entry);
+            savedCounter.increment();
+            return entry.getId();
+        } catch (Exception e) {
+            droppedCounter.increment();
+            log.error("Could not save insight history for {}", owner, e);
+            return null;
+        }
+    }
+
+    /**
+     * Flattens the file name and insights into the text that is searched, one line per item, so that highlights
+     * show whole items rather than JSON.
+     */
+    static String searchText(String fileName, MeetingInsights insights) {
+        StringBuilder text = new StringBuilder();
+        appendLine(text, fileName);
+        insights.getSummary().forEach(line -> appendLine(text, line));
+        for (ActionItem item : insights.getActionItems()) {
+            StringBuilder line = new StringBuilder();
+            for (String part : new String[]{item.getTask(), item.getOwner(), item.getDeadline()}) {
+                if (part != null && !part.isBlank()) {
+                    line.append(line.isEmpty() ? "" : " - ").append(part.strip());
+                }
+            }
+            appendLine(text, line.toString());
+        }
+        insights.getDecisions().forEach(line -> appendLine(text, line));
+        insights.getDiscussionPoints().forEach(line -> appendLine(text, line));
+        insights.getFollowUps().forEach(line -> appendLine(text, line));
+        return text.toString();
+    }
+
+    private static void appendLine(StringBuilder text, String line) {
+        if (line != null && !line.isBlank()) {
+            // Items are single lines; a stray newline inside one would split its highlight.
+            text.append(line.strip().replace('\n', ' ')).append('\n');
+        }
+    }
+
+    /**
+     * Searches a user's insights.
+     *
+     * @param owner The user's email.
+     * @param query The search words.
+     * @param limit The maximum number of results, capped at {@value #MAX_SEARCH_RESULTS}.
+     * @return The matching insights, best match first.
+     * @throws IllegalArgumentException If the query is blank.
+     */
+    public List<InsightSearchHit> search(String owner, String query, int limit) {
+        if (query == null || query.isBlank()) {
+            throw new IllegalArgumentException("Query must not be blank.");
+        }
+        Optional<UserSnapshot> user = userSnapshotCache.findByEmail(owner);
+        if (user.isEmpty()) {
+            return List.of();
+        }
+        return searchIndex.search(user.get().getId(), query.strip(), Math.max(1, Math.min(limit, MAX_SEARCH_RESULTS)));
+    }
+
+    /**
+     * Lists a user's insights, newest first.
+     *
+     * @param owner  The user's email.
+     * @param cursor The nextCursor of the previous page, or null for the first page.
+     * @param limit  The page size, capped at {@value #MAX_PAGE_SIZE}.
+     * @return The page.
+     * @throws IllegalArgumentException If the cursor is malformed.
+     */
+    public InsightHistoryPage list(String owner, String cursor, int limit) {
+        InsightHistoryPage page = new InsightHistoryPage();
+        Optional<UserSnapshot> user = userSnapshotCache.findByEmail(owner);
+        if (user.isEmpty()) {
+            return page;
+        }
+        Long ownerId = user.get().getId();
+        int size = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+
+        // One extra row tells whether there is a next page without a count query.
+        Limit fetch = Limit.of(size + 1);
+        List<MeetingInsight> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = repository.findFirstPage(ownerId, fetch);
+        } else {
+            Cursor after = Cursor.decode(cursor);
+            rows = repository.findPageAfter(ownerId, after.createdAt, after.id, fetch);
+        }
+
+        for (MeetingInsight row : rows.subList(0, Math.min(size, rows.size()))) {
+            page.getItems().add(toItem(row));
+        }
+        if (rows.size() > size) {
+            MeetingInsight last = rows.get(size - 1);
+            page.setNextCursor(new Cursor(last.getCreatedAt(), last.getId()).encode());
+        }
+        return page;
+    }
+
+    private InsightHistoryItem toItem(MeetingInsight row) {
+        InsightHistoryItem item = new InsightHistoryItem();
+        item.setId(row.getId());
+        item.setFileName(row.getFileName());
+        item.setDurationSeconds(row.getDurationSeconds());
+        item.setModel(row.getModel());
+        item.setPromptVersion(row.getPromptVersion());
+        item.setProcessingMs(row.getProcessingMs());
+        item.setCreatedAt(row.getCreatedAt());
+        try {
+            item.setInsights(objectMapper.readValue(row.getInsights(), MeetingInsights.class));
+        } catch (JsonProcessingException e) {
+            log.warn("Ignoring unreadable insights in history entry {}: {}", row.getId(), e.getMessage());
+        }
+        return item;
+    }
+
+    /**
+     * The position after which the next page starts, passed to clients as an opaque string.
+     */
+    private static class Cursor {
+        final Instant createdAt;
+        final Long id;
+
+        Cursor(Instant createdAt, Long id) {
+            this.createdAt = createdAt;
+            this.id = id;
+        }
+
+        String encode() {
+            String raw = createdAt + "|" + id;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+
+        static Cursor decode(String cursor) {
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+                int separator = raw.indexOf('|');
+                return new Cursor(Instant.parse(raw.substring(0, separator)), Long.parseLong(raw.substring(separator + 1)));
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Invalid cursor.");
+            }
+        }
+    }
+}
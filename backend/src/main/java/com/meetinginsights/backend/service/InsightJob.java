@@ -0,0 +1,88 @@
+package com.meetinginsights.backend.service;
+
+import com.meetinginsights.backend.dto.MeetingInsights;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * State of one asynchronous insight generation job.
+ */
+public class InsightJob {
+
+    public enum Status {
+        QUEUED, RUNNING, SUCCEEDED, FAILED;
+
+        public boolean isFinished() {
+            return this == SUCCEEDED || this == FAILED;
+        }
+    }
+
+    private final String id;
+    private final String owner;
+    private final String fileName;
+    private final ModelTier requestedTier;
+    private final boolean draft;
+    private final Instant submittedAt = Instant.now();
+
+    private volatile Status status = Status.QUEUED;
+    private volatile Instant startedAt;
+    private volatile Instant finishedAt;
+    private volatile MeetingInsights result;
+    private volatile String error;
+
+    // SSE subscribers waiting for this job to finish.
+    private final List<SseEmitter> emitters = new CopyOnWriteArrayList<>();
+
+    public InsightJob(String id, String owner, String fileName) {
+        this(id, owner, fileName, null, false);
+    }
+
+    /**
+     * @param requestedTier The model tier the client asked for, or null to let the {@link ModelRouter} choose.
+     * @param draft         Whether to draft with the fast model and refine with the pro model later.
+     */
+    public InsightJob(String id, String owner, String fileName, ModelTier requestedTier, boolean draft) {
+        this.id = id;
+        this.owner = owner;
+        this.fileName = fileName;
+        this.requestedTier = requestedTier;
+        this.draft = draft;
+    }
+
+    public String getId() { return id; }
+    public String getOwner() { return owner; }
+    public String getFileName() { return fileName; }
+    public ModelTier getRequestedTier() { return requestedTier; }
+    public boolean isDraft() { return draft; }
+    public Instant getSubmittedAt() { return submittedAt; }
+    public Status getStatus() { return status; }
+    public Instant getStartedAt() { return startedAt; }
+    public Instant getFinishedAt() { return finishedAt; }
+    public MeetingInsights getResult() { return result; }
+    public String getError() { return error; }
+    List<SseEmitter> getEmitters() { return emitters; }
+
+    public boolean isFinished() {
+        return status.isFinished();
+    }
+
+    void markRunning() {
+        startedAt = Instant.now();
+        status = Status.RUNNING;
+    }
+
+    void markSucceeded(MeetingInsights result) {
+        this.result = result;
+        finishedAt = Instant.now();
+        status = Status.SUCCEEDED;
+    }
+
+    void markFailed(String error) {
+        this.error = error;
+        finishedAt = Instant.now();
+        status = Status.FAILED;
+    }
+}
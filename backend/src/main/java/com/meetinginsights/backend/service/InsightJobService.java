@@ -0,0 +1,244 @@
+package com.meetinginsights.backend.service;
+
+import com.meetinginsights.backend.dto.InsightJobResponse;
+import com.meetinginsights.backend.dto.MeetingInsights;
+import com.meetinginsights.backend.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Runs insight generation as asynchronous jobs so Gemini round trips never hold a servlet thread.
+ * <p>
+ * Uploads are spooled to a temp file (the multipart data is gone once the request completes), queued on the
+ * bounded insight executor, and tracked by job ID until they expire. Clients poll a job or subscribe to it over SSE.
+ */
+@Service
+public class InsightJobService {
+
+    private static final Logger log = LoggerFactory.getLogger(InsightJobService.class);
+
+    private final GeminiService geminiService;
+    private final ThreadPoolTaskExecutor executor;
+    private final Map<String, InsightJob> jobs = new ConcurrentHashMap<>();
+
+    private final Timer waitTimer;
+    private final Timer runTimer;
+    private final Counter succeededCounter;
+    private final Counter failedCounter;
+    private final Counter rejectedCounter;
+
+    @Value("${insight.jobs.retention-ms:3600000}")
+    private long retentionMs;
+
+    @Value("${insight.jobs.sse-timeout-ms:600000}")
+    private long sseTimeoutMs;
+
+    public InsightJobService(GeminiService geminiService,
+                             @Qualifier("insightJobExecutor") ThreadPoolTaskExecutor executor,
+                             MeterRegistry meterRegistry) {
+        this.geminiService = geminiService;
+        this.executor = executor;
+
+        Gauge.builder("insight.jobs.queue.depth", executor, e -> e.getThreadPoolExecutor().getQueue().size())
+                .description("Insight jobs waiting for a worker")
+                .register(meterRegistry);
+        Gauge.builder("insight.jobs.active", executor, ThreadPoolTaskExecutor::getActiveCount)
+                .description("Insight jobs currently running")
+                .register(meterRegistry);
+        this.waitTimer = Timer.builder("insight.jobs.wait")
+                .description("Time insight jobs spend queued before a worker picks them up")
+                .register(meterRegistry);
+        this.runTimer = Timer.builder("insight.jobs.run")
+                .description("Time insight jobs spend running")
+                .register(meterRegistry);
+        this.succeededCounter = meterRegistry.counter("insight.jobs.completed", "outcome", "succeeded");
+        this.failedCounter = meterRegistry.counter("insight.jobs.completed", "outcome", "failed");
+        this.rejectedCounter = meterRegistry.counter("insight.jobs.rejected");
+    }
+
+    /**
+     * Spools the uploaded audio and queues an insight job for it.
+     *
+     * @param audioFile The uploaded meeting audio.
+     * @param owner     The user submitting the job; only they can read it back.
+     * @return The queued job.
+     * @throws IOException If the upload cannot be spooled to disk.
+     * @throws TooManyRequestsException If the job queue is full.
+     */
+    public InsightJob submit(MultipartFile audioFile, String owner) throws IOException {
+        return submit(audioFile, owner, null, false);
+    }
+
+    /**
+     * Like {@link #submit(MultipartFile, String)}, with a choice of model.
+     *
+     * @param requested The model tier the client asked for, or null to let the {@link ModelRouter} choose.
+     * @param draft     Whether to draft with the fast model and refine with the pro model later.
+     */
+    public InsightJob submit(MultipartFile audioFile, String owner, ModelTier requested, boolean draft) throws IOException {
+        if (audioFile.isEmpty()) {
+            throw new IllegalArgumentException("Audio file cannot be empty.");
+        }
+
+        Path spooled = Files.createTempFile("insight-job-", ".audio");
+        try {
+            audioFile.transferTo(spooled);
+        } catch (IOException e) {
+            Files.deleteIfExists(spooled);
+            throw e;
+        }
+        long size = Files.size(spooled);
+        String contentType = audioFile.getContentType();
+
+        InsightJob job = new InsightJob(UUID.randomUUID().toString(), owner, audioFile.getOriginalFilename(),
+                requested, draft);
+        jobs.put(job.getId(), job);
+        try {
+            executor.execute(() -> run(job, spooled, size, contentType));
+        } catch (TaskRejectedException e) {
+            jobs.remove(job.getId());
+            Files.deleteIfExists(spooled);
+            rejectedCounter.increment();
+            throw new TooManyRequestsException("Too many insight jobs are queued. Please try again shortly.");
+        }
+        return job;
+    }
+
+    /**
+     * Looks up a job, hiding jobs that belong to other users.
+     *
+     * @param id    The job ID.
+     * @param owner The user asking for the job.
+     * @return The job, or empty if it doesn't exist, has expired or belongs to someone else.
+     */
+    public Optional<InsightJob> find(String id, String owner) {
+        InsightJob job = jobs.get(id);
+        if (job == null || !job.getOwner().equals(owner)) {
+            return Optional.empty();
+        }
+        return Optional.of(job);
+    }
+
+    /**
+     * Opens an SSE stream for a job. The current status is sent right away, followed by every status change;
+     * the stream completes once the job has finished.
+     *
+     * @param job The job to follow.
+     * @return The emitter to return from the controller.
+     */
+    public SseEmitter subscribe(InsightJob job) {
+        SseEmitter emitter = createEmitter();
+        emitter.onCompletion(() -> job.getEmitters().remove(emitter));
+        emitter.onTimeout(() -> job.getEmitters().remove(emitter));
+        emitter.onError(e -> job.getEmitters().remove(emitter));
+
+        // Synchronized with publish() so a job finishing right now is delivered exactly once. The job may finish
+        // while we hold the lock, so the decision is made on the state that was sent.
+        synchronized (job) {
+            InsightJobResponse state = InsightJobResponse.from(job);
+            send(emitter, state);
+            if (!isFinished(state)) {
+                job.getEmitters().add(emitter);
+            }
+        }
+        return emitter;
+    }
+
+    SseEmitter createEmitter() {
+        return new SseEmitter(sseTimeoutMs);
+    }
+
+    private void run(InsightJob job, Path spooled, long size, String contentType) {
+        job.markRunning();
+        waitTimer.record(Duration.between(job.getSubmittedAt(), job.getStartedAt()));
+        publish(job);
+
+        long start = System.nanoTime();
+        try {
+            MeetingInsights insights = geminiService.processMeetingAudio(
+                    new FileSystemResource(spooled), size, contentType, job.getFileName(), job.getOwner(),
+                    job.getRequestedTier(), job.isDraft());
+            job.markSucceeded(insights);
+            succeededCounter.increment();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            job.markFailed("Insight generation was interrupted.");
+            failedCounter.increment();
+        } catch (Exception e) {
+            log.warn("Insight job {} failed", job.getId(), e);
+            job.markFailed(e.getMessage());
+            failedCounter.increment();
+        } finally {
+            runTimer.record(Duration.ofNanos(System.nanoTime() - start));
+            try {
+                Files.deleteIfExists(spooled);
+            } catch (IOException e) {
+                log.warn("Could not delete spooled audio {}: {}", spooled, e.getMessage());
+            }
+        }
+        publish(job);
+    }
+
+    private void publish(InsightJob job) {
+        synchronized (job) {
+            InsightJobResponse state = InsightJobResponse.from(job);
+            for (SseEmitter emitter : job.getEmitters()) {
+                send(emitter, state);
+            }
+            if (isFinished(state)) {
+                job.getEmitters().clear();
+            }
+        }
+    }
+
+    private static boolean isFinished(InsightJobResponse state) {
+        return InsightJob.Status.valueOf(state.getStatus()).isFinished();
+    }
+
+    private void send(SseEmitter emitter, InsightJobResponse state) {
+        try {
+            emitter.send(SseEmitter.event()
+                    .id(state.getStatus())
+                    .name("status")
+                    .data(state));
+            if (isFinished(state)) {
+                emitter.complete();
+            }
+        } catch (IOException | IllegalStateException e) {
+            // The client went away; the emitter's callbacks remove it.
+            emitter.completeWithError(e);
+        }
+    }
+
+    /**
+     * Drops finished jobs once their retention period has passed.
+     */
+    @Scheduled(fixedDelay = 60000)
+    public void evictExpiredJobs() {
+        Instant cutoff = Instant.now().minusMillis(retentionMs);
+        jobs.values().removeIf(job -> job.isFinished() && job.getFinishedAt().isBefore(cutoff));
+    }
+}
@@ -0,0 +1,36 @@
+package com.meetinginsights.backend.service;
+
+import com.meetinginsights.backend.dto.InsightSearchHit;
+import com.meetinginsights.backend.entity.MeetingInsight;
+
+import java.util.List;
+
+/**
+ * Full-text search over stored meeting insights. Selected by insight.search.engine: "postgres" (the default) searches
+ * the meeting_insights table, "memory" keeps its own index in the JVM for tests and local runs without PostgreSQL.
+ * Implementations must be safe to call concurrently.
+ */
+public interface InsightSearchIndex {
+
+    /**
+     * Adds a stored entry to the index, or replaces it if its id was indexed before.
+     *
+     * @param entry The saved entry, with its id and owner set.
+     */
+    void index(MeetingInsight entry);
+
+    /**
+     * Drops every entry of a user from the index, once their stored insights have been deleted.
+     *
+     * @param ownerId The id of the user.
+     */
+    void removeOwner(Long ownerId);
+
+    /**
+     * @param ownerId The id of the user whose insights are searched; other users' insights are never returned.
+     * @param query   The search words. All words must match; words are matched case-insensitively.
+     * @param limit   The maximum number of results.
+     * @return The matching entries, best match first.
+     */
+    List<InsightSearchHit> search(Long ownerId, String query, int limit);
+}
@@ -0,0 +1,34 @@
+package com.meetinginsights.backend.service;
+
+import com.meetinginsights.backend.dto.MeetingInsights;
+
+/**
+ * One event of a streamed insight generation: either a chunk of the model's answer as it is produced, or the
+ * complete parsed insights at the end.
+ */
+public class InsightStreamEvent {
+
+    public enum Type { CHUNK, INSIGHTS }
+
+    private final Type type;
+    private final String text;
+    private final MeetingInsights insights;
+
+    private InsightStreamEvent(Type type, String text, MeetingInsights insights) {
+        this.type = type;
+        this.text = text;
+        this.insights = insights;
+    }
+
+    static InsightStreamEvent chunk(String text) {
+        return new InsightStreamEvent(Type.CHUNK, text, null);
+    }
+
+    static InsightStreamEvent insights(MeetingInsights insights) {
+        return new InsightStreamEvent(Type.INSIGHTS, null, insights);
+    }
+
+    public Type getType() { return type; }
+    public String getText() { return text; }
+    public MeetingInsights getInsights() { return insights; }
+}
@@ -0,0 +1,54 @@
+package com.meetinginsights.backend.service;
+
+import com.meetinginsights.backend.entity.CachedInsight;
+import com.meetinginsights.backend.repository.CachedInsightRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * Stores cached insights in PostgreSQL so they survive restarts and are shared between instances.
+ */
+@Component
+@ConditionalOnProperty(name = "insight.cache.persistent.enabled", havingValue = "true")
+public class JpaInsightCacheStore implements InsightCacheStore {
+
+    private final CachedInsightRepository repository;
+
+    @Value("${insight.cache.ttl:24h}")
+    private Duration ttl;
+
+    public JpaInsightCacheStore(CachedInsightRepository repository) {
+        this.repository = repository;
+    }
+
+    @Override
+    public Optional<String> find(String key, Duration maxAge) {
+        Instant cutoff = Instant.now().minus(maxAge);
+        return repository.findById(key)
+                .filter(entry -> entry.getCreatedAt().isAfter(cutoff))
+                .map(CachedInsight::getInsights);
+    }
+
+    @Override
+    public void save(String key, String insights) {
+        CachedInsight entry = new CachedInsight();
+        entry.setCacheKey(key);
+        entry.setInsights(insights);
+        entry.setCreatedAt(Instant.now());
+        repository.save(entry);
+    }
+
+    /**
+     * Deletes entries that have outlived the cache TTL.
+     */
+    @Scheduled(fixedDelayString = "${insight.cache.persistent.purge-interval-ms:3600000}")
+    public void purgeExpired() {
+        repository.deleteCreatedBefore(Instant.now().minus(ttl));
+    }
+}
@@ -0,0 +1,278 @@
+package com.meetinginsights.backend.service;
+
+import com.meetinginsights.backend.audio.RangeInputStream;
+import com.meetinginsights.backend.audio.TimestampMap;
+import com.meetinginsights.backend.audio.WavFormat;
+import com.meetinginsights.backend.exception.ModelUnavailableException;
+import com.meetinginsights.backend.exception.TooManyRequestsException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.InputStreamSource;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+
+import static com.meetinginsights.backend.audio.TimestampMap.formatTime;
+
+/**
+ * Map-reduce processing for long meetings: the recording is split into overlapping time segments, each segment is
+ * analyzed by the model in parallel (up to a configured concurrency), and a final text-only call merges the
+ * per-segment analyses into one set of structured insights.
+ * <p>
+ * Wall-clock latency then depends on the segment length rather than the meeting length, and a failing segment is
+ * retried on its own instead of failing the whole meeting. Only PCM WAV can be split without a codec, so other
+ * formats are not eligible.
+ */
+@Component
+public class LongMeetingProcessor {
+
+    private static final Logger log = LoggerFactory.getLogger(LongMeetingProcessor.class);
+
+    /**
+     * The model calls a segmented analysis needs, implemented by {@link GeminiService} on its {@link InsightEngine}.
+     */
+    interface SegmentModel {
+        String analyzeAudio(InputStreamSource audio, long size, String mimeType, String fileName, String prompt)
+                throws IOException, InterruptedException;
+
+        String generateText(String prompt) throws IOException, InterruptedException;
+    }
+
+    private static final String SEGMENT_PROMPT = """
+        You are an AI meeting assistant.
+        You are analyzing segment %d of %d of a longer meeting recording. This clip covers %s to %s of the meeting.
+        Segments overlap slightly, so the beginning and end of this clip may repeat content from neighbouring segments.
+        When you mention times, give them relative to the start of the whole meeting (add %s to times within this clip).
+        If no discernible speech is found, say so in the summary and leave the other lists empty.
+
+        Tasks:
+        1. Summarize this segment in up to 5 concise bullet points (summary).
+        2. Extract all action items with responsible persons and deadlines, if mentioned (actionItems).
+        3. Identify decisions taken (decisions).
+        4. Highlight key discussion points (discussionPoints).
+        5. Suggest possible follow-up actions (followUps).
+
+        Analyze the provided audio.
+        """;
+
+    private static final String MERGE_PROMPT = """
+        You are an AI meeting assistant.
+        Below are JSON analyses of consecutive, slightly overlapping segments of one meeting, in chronological order.
+        Merge them into a single set of meeting insights for the whole meeting.
+        Remove duplicates caused by the overlap between segments, keep responsible persons and deadlines,
+        and keep the order in which things were discussed.
+
+        Tasks:
+        1. Summarize the meeting in 5 concise bullet points (summary).
+        2. Merge all action items with responsible persons and deadlines (actionItems).
+        3. Merge the decisions taken (decisions).
+        4. Merge the key discussion points (discussionPoints).
+        5. Merge the suggested follow-up actions (followUps).
+
+        """;
+
+    private final TaskExecutor executor;
+
+    @Value("${gemini.segments.enabled:true}")
+    private boolean enabled;
+
+    @Value("${gemini.segments.min-duration:15m}")
+    private Duration minDuration;
+
+    @Value("${gemini.segments.length:10m}")
+    private Duration segmentLength;
+
+    @Value("${gemini.segments.overlap:15s}")
+    private Duration overlap;
+
+    @Value("${gemini.segments.concurrency:4}")
+    private int concurrency;
+
+    @Value("${gemini.segments.max-attempts:3}")
+    private int maxAttempts;
+
+    @Value("${gemini.segments.retry-backoff:2s}")
+    private Duration retryBackoff;
+
+    public LongMeetingProcessor(@Qualifier("meetingSegmentExecutor") TaskExecutor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * @return True if the recording is long enough, and in a format that can be split, to use segmented processing.
+     */
+    public boolean isEligible(WavFormat wav) {
+        return enabled && wav != null && wav.getDurationSeconds() > minDuration.toSeconds();
+    }
+
+    /**
+     * Analyzes a long PCM WAV recording segment by segment and merges the results.
+     *
+     * @param audio    The audio source. It is re-opened for each segment.
+     * @param wav      The WAV format of the source.
+     * @param fileName The original file name.
+     * @param timeline The silences cut from the audio, to report times in the original recording.
+     * @param model    The model calls to use.
+     * @return The merged insights.
+     * @throws IOException If a segment still fails after its retries, or the merge call fails.
+     * @throws InterruptedException If processing is interrupted.
+     * @throws TooManyRequestsException If the segment executor's queue is full.
+     */
+    public String process(InputStreamSource audio, WavFormat wav, String fileName, TimestampMap timeline, SegmentModel model)
+            throws IOException, InterruptedException {
+        List<Segment> segments = plan(wav);
+        String[] analyses = new String[segments.size()];
+
+        // Keep at most `concurrency` segments in flight; each completion lets the next one start.
+        ExecutorCompletionService<Integer> completion = new ExecutorCompletionService<>(executor);
+        List<Future<Integer>> futures = new ArrayList<>();
+        int next = 0;
+        try {
+            while (next < segments.size() && next < concurrency) {
+                futures.add(submit(completion, segments.get(next++), segments.size(), audio, wav, fileName, timeline, model, analyses));
+            }
+            for (int done = 0; done < segments.size(); done++) {
+                completion.take().get();
+                if (next < segments.size()) {
+                    futures.add(submit(completion, segments.get(next++), segments.size(), audio, wav, fileName, timeline, model, analyses));
+                }
+            }
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException io) {
+                throw io;
+            }
+            if (cause instanceof InterruptedException ie) {
+                throw ie;
+            }
+            // Unchecked failures (a refused permit, an open circuit) keep their type so they map to the right status.
+            if (cause instanceof RuntimeException re) {
+                throw re;
+            }
+            if (cause instanceof Error err) {
+                throw err;
+            }
+            throw new IOException("Segment analysis failed: " + cause.getMessage(), cause);
+        } finally {
+            futures.forEach(f -> f.cancel(true));
+        }
+
+        StringBuilder mergePrompt = new StringBuilder(MERGE_PROMPT);
+        for (Segment segment : segments) {
+            mergePrompt.append("--- Segment ").append(segment.index + 1)
+                    .append(" (").append(formatTime(timeline.toOriginal(segment.startSeconds)))
+                    .append(" - ").append(formatTime(timeline.toOriginal(segment.endSeconds))).append(") ---\n")
+                    .append(analyses[segment.index]).append("\n\n");
+        }
+        return model.generateText(mergePrompt.toString());
+    }
+
+    private Future<Integer> submit(ExecutorCompletionService<Integer> completion, Segment segment, int total,
+                                   InputStreamSource audio, WavFormat wav, String fileName, TimestampMap timeline,
+                                   SegmentModel model, String[] analyses) {
+        try {
+            return completion.submit(() -> {
+                analyses[segment.index] = analyzeWithRetry(segment, total, audio, wav, fileName, timeline, model);
+                return segment.index;
+            });
+        } catch (TaskRejectedException e) {
+            throw new TooManyRequestsException("Too many long meetings are being processed. Please try again shortly.");
+        }
+    }
+
+    /**
+     * Analyzes one segment, retrying just this segment with exponential backoff when it fails.
+     */
+    private String analyzeWithRetry(Segment segment, int total, InputStreamSource audio, WavFormat wav, String fileName,
+                                    TimestampMap timeline, SegmentModel model) throws IOException, InterruptedException {
+        byte[] header = wav.header(segment.byteLength);
+        InputStreamSource segmentAudio = () -> {
+            InputStream in = audio.getInputStream();
+            in.skipNBytes(wav.getDataOffset() + segment.byteOffset);
+            return new SequenceInputStream(new ByteArrayInputStream(header), new RangeInputStream(in, segment.byteLength));
+        };
+        String start = formatTime(timeline.toOriginal(segment.startSeconds));
+        String prompt = SEGMENT_PROMPT.formatted(segment.index + 1, total,
+                start, formatTime(timeline.toOriginal(segment.endSeconds)), start);
+        String cuts = timeline.describe(segment.startSeconds, segment.endSeconds);
+        if (!cuts.isEmpty()) {
+            prompt += GeminiService.SILENCE_NOTE + cuts;
+        }
+        String segmentName = fileName + " [segment " + (segment.index + 1) + "/" + total + "]";
+
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return model.analyzeAudio(segmentAudio, header.length + segment.byteLength, "audio/wav", segmentName, prompt);
+            } catch (IOException | RuntimeException e) {
+                // The model call has been retried already, or the caller was refused a permit; retrying it again
+                // would only add load.
+                if (e instanceof ModelUnavailableException || e instanceof TooManyRequestsException) {
+                    throw e;
+                }
+                if (attempt >= maxAttempts) {
+                    if (e instanceof RuntimeException re) {
+                        throw re;
+                    }
+                    throw new IOException("Segment " + (segment.index + 1) + " of " + total + " failed after "
+                            + attempt + " attempts: " + e.getMessage(), e);
+                }
+                log.warn("Segment {} of {} failed (attempt {}), retrying: {}", segment.index + 1, total, attempt, e.getMessage());
+                Thread.sleep(retryBackoff.toMillis() << (attempt - 1));
+            }
+        }
+    }
+
+    /**
+     * Splits the recording into segments of the configured length, each extended by the overlap into the next one.
+     */
+    List<Segment> plan(WavFormat wav) {
+        long frames = wav.getFrameCount();
+        long segmentFrames = Math.max(1, segmentLength.toMillis() * wav.getSampleRate() / 1000);
+        long overlapFrames = overlap.toMillis() * wav.getSampleRate() / 1000;
+
+        List<Segment> segments = new ArrayList<>();
+        for (long start = 0; start < frames; start += segmentFrames) {
+            long end = Math.min(frames, start + segmentFrames + overlapFrames);
+            // Fold a short tail into the previous segment instead of sending a clip that is mostly overlap.
+            if (frames - (start + segmentFrames) <= overlapFrames) {
+                end = frames;
+            }
+            segments.add(new Segment(segments.size(),
+                    (double) start / wav.getSampleRate(), (double) end / wav.getSampleRate(),
+                    start * wav.getBlockAlign(), (end - start) * wav.getBlockAlign()));
+            if (end == frames) {
+                break;
+            }
+        }
+        return segments;
+    }
+
+    static class Segment {
+        final int index;
+        final double startSeconds;
+        final double endSeconds;
+        final long byteOffset;
+        final long byteLength;
+
+        Segment(int index, double startSeconds, double endSeconds, long byteOffset, long byteLength) {
+            this.index = index;
+            this.startSeconds = startSeconds;
+            this.endSeconds = endSeconds;
+            this.byteOffset = byteOffset;
+            this.byteLength = byteLength;
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.meetinginsights.backend.service;
+
+import com.meetinginsights.backend.security.UserSnapshot;
+import com.meetinginsights.backend.security.UserSnapshotCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Picks the {@link ModelTier} for a generation request. The first rule that applies wins:
+ * <ol>
+ *   <li>a tier the client asked for explicitly;</li>
+ *   <li>the pro tier for users with one of the insight.routing.pro-roles;</li>
+ *   <li>the fast tier for audio up to insight.routing.fast-max-duration, the pro tier for anything longer. Audio
+ *   without a readable duration is judged by its size (see {@link OutboundGovernor#assumedDurationSeconds}).</li>
+ * </ol>
+ * Metrics: insight.routes (by tier and reason: requested, role, short or long), insight.route.latency (requests by
+ * the tier that answered them and their outcome, with a percentile histogram so percentiles can be aggregated across
+ * instances) and insight.refinements (drafts refined by the pro model, by outcome).
+ */
+@Component
+public class ModelRouter {
+
+    // The statuses a generation request can end with, see GeminiService
+    static final List<String> OUTCOMES = List.of("ok", "cached", "error", "cancelled");
+
+    private final UserSnapshotCache userSnapshotCache;
+    private final MeterRegistry meterRegistry;
+    private final double fastMaxSeconds;
+    private final Set<String> proRoles;
+    private final Map<ModelTier, Map<String, Timer>> latencyTimers = new EnumMap<>(ModelTier.class);
+
+    public ModelRouter(UserSnapshotCache userSnapshotCache,
+                       MeterRegistry meterRegistry,
+                       @Value("${insight.routing.fast-max-duration:10m}") Duration fastMaxDuration,
+                       @Value("${insight.routing.pro-roles:}") Set<String> proRoles) {
+        this.userSnapshotCache = userSnapshotCache;
+        this.meterRegistry = meterRegistry;
+        this.fastMaxSeconds = fastMaxDuration.toMillis() / 1000.0;
+        this.proRoles = proRoles == null ? Collections.emptySet() : Set.copyOf(proRoles);
+        for (ModelTier tier : ModelTier.values()) {
+            Map<String, Timer> timers = new HashMap<>();
+            for (String outcome : OUTCOMES) {
+                timers.put(outcome, Timer.builder("insight.route.latency")
+                        .description("Generation requests by the model tier that answered them")
+                        .tag("tier", tier.label())
+                        .tag("outcome", outcome)
+                        .publishPercentileHistogram()
+                        .register(meterRegistry));
+            }
+            latencyTimers.put(tier, timers);
+        }
+    }
+
+    /**
+     * @param requested       The tier the client asked for, or null to choose automatically.
+     * @param owner           The email of the user the request is for, or null.
+     * @param durationSeconds The duration of the audio, or null if unknown.
+     * @param size            The size of the audio in bytes.
+     * @return The tier to use.
+     */
+    public ModelTier route(ModelTier requested, String owner, Double durationSeconds, long size) {
+        if (requested != null) {
+            return count(requested, "requested");
+        }
+        if (!proRoles.isEmpty() && owner != null) {
+            Set<String> roles = userSnapshotCache.findByEmail(owner).map(UserSnapshot::getRoles).orElse(Set.of());
+            if (roles.stream().anyMatch(proRoles::contains)) {
+                return count(ModelTier.PRO, "role");
+            }
+        }
+        double seconds = durationSeconds != null ? durationSeconds : OutboundGovernor.assumedDurationSeconds(size);
+        return seconds <= fastMaxSeconds ? count(ModelTier.FAST, "short") : count(ModelTier.PRO, "long");
+    }
+
+    /**
+     * Records how long a generation request took.
+     *
+     * @param tier    The tier that answered it; the fast tier for a draft.
+     * @param outcome The status of its audit row, one of {@link #OUTCOMES}.
+     * @throws IllegalArgumentException If the outcome isn't one of them.
+     */
+    void recordLatency(ModelTier tier, String outcome, long nanos) {
+        Timer timer = latencyTimers.get(tier).get(outcome);
+        if (timer == null) {
+            throw new IllegalArgumentException("Unknown outcome: " + outcome);
+        }
+        timer.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Counts a draft's refinement by the pro model: upgraded, failed, or rejected or skipped when it could not be
+     * queued.
+     */
+    void recordRefinement(String outcome) {
+        meterRegistry.counter("insight.refinements", "outcome", outcome).increment();
+    }
+
+    private ModelTier count(ModelTier tier, String reason) {
+        meterRegistry.counter("insight.routes", "tier", tier.label(), "reason", reason).increment();
+        return tier;
+    }
+}
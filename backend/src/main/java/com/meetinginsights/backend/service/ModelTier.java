@@ -0,0 +1,35 @@
+package com.meetinginsights.backend.service;
+
+import java.util.Locale;
+
+/**
+ * The class of model that generates a meeting's insights: a fast, cheap model for short clips, or the pro model for
+ * long or demanding meetings. Each {@link InsightEngine} maps the tiers to its own models.
+ */
+public enum ModelTier {
+    FAST,
+    PRO;
+
+    /**
+     * Parses the model a client asked for.
+     *
+     * @param value "fast", "pro", or null, blank or "auto" to let the {@link ModelRouter} choose.
+     * @return The tier, or null for automatic routing.
+     * @throws IllegalArgumentException If the value is none of these.
+     */
+    public static ModelTier parse(String value) {
+        if (value == null || value.isBlank() || value.equalsIgnoreCase("auto")) {
+            return null;
+        }
+        try {
+            return valueOf(value.strip().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown model '" + value + "'; use fast, pro or auto.");
+        }
+    }
+
+    /** The tier's name in metrics and audit rows. */
+    public String label() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+}
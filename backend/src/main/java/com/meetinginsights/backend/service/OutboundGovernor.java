@@ -0,0 +1,383 @@
+package com.meetinginsights.backend.service;
+
+import com.meetinginsights.backend.exception.ModelUnavailableException;
+import com.meetinginsights.backend.exception.TooManyRequestsException;
+import com.meetinginsights.backend.ratelimit.TokenBucket;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Keeps outbound model calls within the project's Gemini quota, so bursts wait here instead of coming back as 429s
+ * after their audio has been uploaded.
+ * <p>
+ * A call is admitted when there is a free in-flight slot, a token in the requests-per-minute bucket and enough tokens
+ * in the tokens-per-minute bucket for its estimated input tokens (see {@link #estimateTokens}). The estimate is
+ * replaced by the counted tokens once the call is done ({@link Permit#settle}).
+ * <p>
+ * Calls that can't be admitted right away wait in a queue per user, and the queues are served round-robin, one call
+ * per user per turn. A user with many calls waiting, e.g. the segments of several long meetings, therefore gets no
+ * more than their share while others are waiting too. Calls that wait longer than max-wait fail with
+ * {@link ModelUnavailableException}; a user with max-queued-per-user calls already waiting is turned away with
+ * {@link TooManyRequestsException}.
+ * <p>
+ * Only the model call itself is admitted: audio sent through the Files API is uploaded before the permit is asked
+ * for, so a long upload doesn't hold an in-flight slot.
+ * <p>
+ * Retries and hedges made by {@link ResilientGeminiClient} are further copies of the admitted call, and Gemini counts
+ * each of them against the quota. A retry waits for a request and the call's tokens before it is sent
+ * ({@link Permit#chargeRetry}), and is given up if they can't be had before the call's deadline. A hedge is sent at
+ * the same time as the call, so it is charged only if the buckets cover it right away and no other call is waiting
+ * for the quota ({@link Permit#tryChargeHedge}).
+ * <p>
+ * Metrics: gemini.governor.queue (time from asking to admission, by outcome: admitted or timeout),
+ * gemini.governor.queued, gemini.governor.in-flight, gemini.governor.rejected, and gemini.governor.retries and
+ * gemini.governor.hedges (by outcome: charged or refused).
+ */
+@Component
+public class OutboundGovernor {
+
+    /** Gemini counts audio input as 32 tokens per second. */
+    static final int AUDIO_TOKENS_PER_SECOND = 32;
+    // Roughly what text prompts come to in English.
+    private static final int CHARACTERS_PER_TOKEN = 4;
+    // Audio whose duration can't be read from a header is assumed to be compressed at 64 kbit/s.
+    private static final double ASSUMED_BYTES_PER_SECOND = 8000;
+    private static final String ANONYMOUS = "";
+
+    private final int maxInFlight;
+    private final int maxQueuedPerUser;
+    private final long maxWaitNanos;
+    private final double requestsPerMinute;
+    private final TokenBucket requests;
+    private final TokenBucket tokens;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Map<String, ArrayDeque<Waiter>> queues = new HashMap<>();
+    // Users with calls waiting, in the order they are served.
+    private final ArrayDeque<String> rotation = new ArrayDeque<>();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger queued = new AtomicInteger();
+
+    private final Timer admittedTimer;
+    private final Timer timeoutTimer;
+    private final Counter rejectedCounter;
+    private final Counter retryChargedCounter;
+    private final Counter retryRefusedCounter;
+    private final Counter hedgeChargedCounter;
+    private final Counter hedgeRefusedCounter;
+
+    public OutboundGovernor(MeterRegistry meterRegistry,
+                            @Value("${gemini.governor.requests-per-minute:150}") double requestsPerMinute,
+                            @Value("${gemini.governor.request-burst:20}") double requestBurst,
+                            @Value("${gemini.governor.tokens-per-minute:2000000}") double tokensPerMinute,
+                            @Value("${gemini.governor.token-burst:500000}") double tokenBurst,
+                            @Value("${gemini.governor.max-in-flight:16}") int maxInFlight,
+                            @Value("${gemini.governor.max-queued-per-user:20}") int maxQueuedPerUser,
+                            @Value("${gemini.governor.max-wait:60s}") Duration maxWait) {
+        this.maxInFlight = maxInFlight;
+        this.maxQueuedPerUser = maxQueuedPerUser;
+        this.maxWaitNanos = maxWait.toNanos();
+        this.requestsPerMinute = requestsPerMinute;
+        this.requests = new TokenBucket(requestBurst, requestsPerMinute);
+        this.tokens = new TokenBucket(tokenBurst, tokensPerMinute);
+
+        this.admittedTimer = Timer.builder("gemini.governor.queue")
+                .description("Time model calls wait for the outbound quota")
+                .tag("outcome", "admitted")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+        this.timeoutTimer = Timer.builder("gemini.governor.queue")
+                .description("Time model calls wait for the outbound quota")
+                .tag("outcome", "timeout")
+                .register(meterRegistry);
+        this.rejectedCounter = meterRegistry.counter("gemini.governor.rejected");
+        this.retryChargedCounter = meterRegistry.counter("gemini.governor.retries", "outcome", "charged");
+        this.retryRefusedCounter = meterRegistry.counter("gemini.governor.retries", "outcome", "refused");
+        this.hedgeChargedCounter = meterRegistry.counter("gemini.governor.hedges", "outcome", "charged");
+        this.hedgeRefusedCounter = meterRegistry.counter("gemini.governor.hedges", "outcome", "refused");
+        meterRegistry.gauge("gemini.governor.queued", queued);
+        meterRegistry.gauge("gemini.governor.in-flight", inFlight);
+    }
+
+    /**
+     * Estimates the input tokens of a call before it is made.
+     *
+     * @param prompt       The text of the prompt.
+     * @param audioSeconds The duration of the audio sent with it, 0 for none.
+     * @return The estimated input tokens.
+     */
+    public static long estimateTokens(String prompt, double audioSeconds) {
+        return prompt.length() / CHARACTERS_PER_TOKEN + (long) Math.ceil(audioSeconds * AUDIO_TOKENS_PER_SECOND);
+    }
+
+    /**
+     * @param size The size of compressed audio in bytes.
+     * @return Its assumed duration, for audio without a readable header.
+     */
+    public static double assumedDurationSeconds(long size) {
+        return size / ASSUMED_BYTES_PER_SECOND;
+    }
+
+    /**
+     * Waits until a call may be made. The returned permit must be closed when the call is done.
+     *
+     * @param user            The user the call is made for, or null.
+     * @param estimatedTokens The estimated input tokens of the call. A call estimated above the token burst is
+     *                        charged the whole burst, so it can still be admitted.
+     * @return The permit.
+     * @throws ModelUnavailableException If the call wasn't admitted within max-wait.
+     * @throws TooManyRequestsException  If the user already has max-queued-per-user calls waiting.
+     * @throws InterruptedException      If the thread is interrupted while waiting.
+     */
+    public Permit acquire(String user, long estimatedTokens) throws ModelUnavailableException, InterruptedException {
+        String key = user == null ? ANONYMOUS : user;
+        double cost = Math.min(Math.max(estimatedTokens, 1), tokens.getCapacity());
+        long start = System.nanoTime();
+        Waiter waiter = new Waiter(cost, lock.newCondition());
+
+        lock.lock();
+        try {
+            ArrayDeque<Waiter> queue = queues.get(key);
+            if (queue == null) {
+                queue = new ArrayDeque<>();
+                queues.put(key, queue);
+                rotation.addLast(key);
+            } else if (queue.size() >= maxQueuedPerUser) {
+                rejectedCounter.increment();
+                throw new TooManyRequestsException("Too many of your AI requests are waiting. Please try again shortly.");
+            }
+            queue.addLast(waiter);
+            queued.incrementAndGet();
+
+            long deadline = start + maxWaitNanos;
+            while (true) {
+                long refillNanos = dispatch();
+                if (waiter.admitted) {
+                    break;
+                }
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    withdraw(key, waiter);
+                    timeoutTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                    throw new ModelUnavailableException("Timed out waiting for the AI quota.", expectedDrainTime());
+                }
+                try {
+                    // Only the next call in line needs to wake up for the refill; the others are woken when their
+                    // turn comes.
+                    waiter.condition.awaitNanos(waiter == next() ? Math.min(refillNanos, remaining) : remaining);
+                } catch (InterruptedException e) {
+                    if (waiter.admitted) {
+                        release();
+                    } else {
+                        withdraw(key, waiter);
+                    }
+                    throw e;
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        admittedTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return new Permit(cost);
+    }
+
+    /**
+     * Admits waiting calls in round-robin order for as long as the limits allow. Called with the lock held.
+     *
+     * @return The nanoseconds until the buckets have refilled enough for the next call in line, or Long.MAX_VALUE if
+     *         it waits for an in-flight call to finish or nothing is waiting.
+     */
+    private long dispatch() {
+        while (!rotation.isEmpty()) {
+            if (inFlight.get() >= maxInFlight) {
+                return Long.MAX_VALUE;
+            }
+            String user = rotation.peekFirst();
+            ArrayDeque<Waiter> queue = queues.get(user);
+            Waiter next = queue.peekFirst();
+            long refillNanos = Math.max(requests.nanosUntilAvailable(1), tokens.nanosUntilAvailable(next.cost));
+            if (refillNanos > 0) {
+                // The next call may be waiting without a timeout; make it wait for the refill instead.
+                next.condition.signal();
+                return refillNanos;
+            }
+            requests.adjust(-1);
+            tokens.adjust(-next.cost);
+            inFlight.incrementAndGet();
+            queue.pollFirst();
+            queued.decrementAndGet();
+            next.admitted = true;
+            next.condition.signal();
+
+            rotation.pollFirst();
+            if (queue.isEmpty()) {
+                queues.remove(user);
+            } else {
+                rotation.addLast(user);
+            }
+        }
+        return Long.MAX_VALUE;
+    }
+
+    private Waiter next() {
+        return rotation.isEmpty() ? null : queues.get(rotation.peekFirst()).peekFirst();
+    }
+
+    /**
+     * Takes a waiter that gave up out of its queue and lets the calls behind it move up. Called with the lock held.
+     */
+    private void withdraw(String user, Waiter waiter) {
+        ArrayDeque<Waiter> queue = queues.get(user);
+        queue.remove(waiter);
+        queued.decrementAndGet();
+        if (queue.isEmpty()) {
+            queues.remove(user);
+            rotation.remove(user);
+        }
+        dispatch();
+    }
+
+    private void release() {
+        lock.lock();
+        try {
+            inFlight.decrementAndGet();
+            dispatch();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return About how long the calls waiting now take to be admitted at the request rate, as a Retry-After hint.
+     */
+    private Duration expectedDrainTime() {
+        return Duration.ofSeconds(Math.max(1, (long) Math.ceil(queued.get() * 60 / requestsPerMinute)));
+    }
+
+    /** For tests. */
+    int getQueued() {
+        return queued.get();
+    }
+
+    private static final class Waiter {
+        final double cost;
+        final Condition condition;
+        boolean admitted;
+
+        Waiter(double cost, Condition condition) {
+            this.cost = cost;
+            this.condition = condition;
+        }
+    }
+
+    /**
+     * The admission of one call, holding its in-flight slot until closed.
+     */
+    public final class Permit implements AutoCloseable {
+
+        private final double estimatedTokens;
+        // The copies of the call charged to the quota: the call itself, its retries and its hedges.
+        private final AtomicInteger copies = new AtomicInteger(1);
+        private final AtomicBoolean settled = new AtomicBoolean();
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Permit(double estimatedTokens) {
+            this.estimatedTokens = estimatedTokens;
+        }
+
+        /**
+         * Corrects the tokens-per-minute bucket once the call's real input tokens are known: an overestimate is
+         * returned to the bucket, an underestimate is taken from it, for the call and each of its retries and hedges.
+         *
+         * @param promptTokens The input tokens Gemini counted; 0 if unknown, which keeps the estimate.
+         */
+        public void settle(long promptTokens) {
+            if (promptTokens > 0 && settled.compareAndSet(false, true)) {
+                tokens.adjust(copies.get() * (estimatedTokens - promptTokens));
+            }
+        }
+
+        /**
+         * Charges a retry of the call to the quota: a request and the call's estimated tokens, waiting for the buckets
+         * to refill if needed. The retry shares the call's in-flight slot.
+         *
+         * @param deadlineNanos The {@link System#nanoTime} by which the retry has to be sent.
+         * @throws ModelUnavailableException If the buckets won't cover the retry before the deadline; it must not be
+         *                                   sent then.
+         * @throws InterruptedException      If the thread is interrupted while waiting.
+         */
+        public void chargeRetry(long deadlineNanos) throws ModelUnavailableException, InterruptedException {
+            lock.lock();
+            try {
+                Condition refilled = lock.newCondition();
+                while (true) {
+                    long refillNanos = Math.max(requests.nanosUntilAvailable(1),
+                            tokens.nanosUntilAvailable(estimatedTokens));
+                    if (refillNanos <= 0) {
+                        requests.adjust(-1);
+                        tokens.adjust(-estimatedTokens);
+                        copies.incrementAndGet();
+                        retryChargedCounter.increment();
+                        return;
+                    }
+                    if (System.nanoTime() + refillNanos >= deadlineNanos) {
+                        retryRefusedCounter.increment();
+                        throw new ModelUnavailableException("Gemini failed and the AI quota leaves no room to retry.",
+                                Duration.ofSeconds(Math.max(1, TimeUnit.NANOSECONDS.toSeconds(refillNanos) + 1)));
+                    }
+                    refilled.awaitNanos(refillNanos);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Charges a hedge of the call, a second copy sent while the first is still unanswered, to the quota: a
+         * request and the call's estimated tokens. The hedge shares the call's in-flight slot.
+         *
+         * @return True if the hedge was charged and may be sent; false if other calls are waiting for the quota or
+         *         the buckets can't cover it right now.
+         */
+        public boolean tryChargeHedge() {
+            lock.lock();
+            try {
+                if (queued.get() > 0 || requests.nanosUntilAvailable(1) > 0
+                        || tokens.nanosUntilAvailable(estimatedTokens) > 0) {
+                    hedgeRefusedCounter.increment();
+                    return false;
+                }
+                requests.adjust(-1);
+                tokens.adjust(-estimatedTokens);
+                copies.incrementAndGet();
+                hedgeChargedCounter.increment();
+                return true;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Frees the in-flight slot. Closing more than once has no further effect.
+         */
+        @Override
+        public void close() {
+            if (released.compareAndSet(false, true)) {
+                release();
+            }
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.meetinginsights.backend.service;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Timers and size distributions for the stages of the upload → model → response pipeline.
+ * <p>
+ * Every meter is registered up front, so recording costs a clock read and a few atomic adds; the histograms are
+ * exported as Prometheus buckets and the percentiles computed by the server, not in the JVM.
+ * <p>
+ * Metrics: insight.pipeline.stage (by stage: multipart_read, serialize, base64, network, parse), insight.upload.size,
+ * gemini.request.size and gemini.responses (by HTTP status).
+ */
+@Component
+public class PipelineMetrics {
+
+    public enum Stage {
+        /** Receiving and parsing the multipart upload, before the controller runs. */
+        MULTIPART_READ,
+        /** Serializing a generateContent request, without the inline audio. */
+        SERIALIZE,
+        /** Base64-encoding inline audio; it is encoded while it is sent, so this overlaps with NETWORK. */
+        BASE64,
+        /** Sending a generateContent request until the response headers arrive, retries included. */
+        NETWORK,
+        /** Reading and parsing a generateContent response body. */
+        PARSE
+    }
+
+    private final MeterRegistry meterRegistry;
+    private final Map<Stage, Timer> stageTimers = new EnumMap<>(Stage.class);
+    private final DistributionSummary uploadSize;
+    private final DistributionSummary requestSize;
+
+    public PipelineMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        for (Stage stage : Stage.values()) {
+            stageTimers.put(stage, Timer.builder("insight.pipeline.stage")
+                    .description("Time spent in each stage of insight generation")
+                    .tag("stage", stage.name().toLowerCase(Locale.ROOT))
+                    .publishPercentileHistogram()
+                    .register(meterRegistry));
+        }
+        this.uploadSize = DistributionSummary.builder("insight.upload.size")
+                .description("Size of multipart uploads")
+                .baseUnit("bytes")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.requestSize = DistributionSummary.builder("gemini.request.size")
+                .description("Size of generateContent request bodies")
+                .baseUnit("bytes")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    public void record(Stage stage, long nanos) {
+        stageTimers.get(stage).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Records the time since startNanos, a {@link System#nanoTime()} reading.
+     */
+    public void recordSince(Stage stage, long startNanos) {
+        record(stage, System.nanoTime() - startNanos);
+    }
+
+    public void recordUploadSize(long bytes) {
+        if (bytes >= 0) {
+            uploadSize.record(bytes);
+        }
+    }
+
+    public void recordRequestSize(long bytes) {
+        requestSize.record(bytes);
+    }
+
+    /**
+     * Counts a response of the Gemini API by its HTTP status.
+     */
+    public void countResponse(int status) {
+        meterRegistry.counter("gemini.responses", "status", Integer.toString(status)).increment();
+    }
+}
@@ -0,0 +1,382 @@
+package com.meetinginsights.backend.service;
+
+import com.meetinginsights.backend.exception.ModelUnavailableException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import reactor.core.publisher.Flux;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Makes Gemini calls with deadlines, retries, optional hedging and a circuit breaker.
+ * <ul>
+ *   <li>Deadlines: every attempt has to produce a response within gemini.resilience.attempt-timeout, and the call as
+ *   a whole, retries included, within overall-timeout. generateContent only sends its headers once the answer is
+ *   complete, so the request timeout bounds the whole attempt.</li>
+ *   <li>Retries: timeouts, connection failures, 429 and 5xx are retried up to max-attempts with exponential backoff
+ *   and jitter, waiting at least as long as the Retry-After header asks. A retry that can't finish before the overall
+ *   deadline isn't started. Retries of a call admitted by the {@link OutboundGovernor} are charged to it, and one the
+ *   quota can't pay for before the deadline fails the call with {@link ModelUnavailableException}.</li>
+ *   <li>Hedging (off by default): if an attempt hasn't answered after the p95 latency of recent successful attempts
+ *   (at least hedge.min-delay), a second identical request is sent and whichever answers first is used. This cuts the
+ *   tail latency at the cost of some duplicate calls. Hedges are charged to the {@link OutboundGovernor}, and none is
+ *   sent while the governor is holding calls back.</li>
+ *   <li>Circuit breaker: when most of the recent attempts failed, calls fail fast with
+ *   {@link ModelUnavailableException} for breaker.open-duration instead of waiting for a provider that is down.</li>
+ * </ul>
+ * Metrics: gemini.attempts (time to response, by outcome), gemini.retries (by reason), gemini.timeouts (by scope:
+ * attempt or overall), gemini.hedges (won or lost), gemini.hedge.delay, gemini.breaker.state (0 closed, 1 half open,
+ * 2 open), gemini.breaker.transitions and gemini.breaker.rejected.
+ */
+@Component
+public class ResilientGeminiClient {
+
+    // Successful attempt latencies kept to estimate the hedging delay, and how many are needed first.
+    private static final int LATENCY_SAMPLES = 200;
+    private static final int MIN_LATENCY_SAMPLES = 20;
+
+    private final HttpClient httpClient;
+    private final MeterRegistry meterRegistry;
+    private final Duration attemptTimeout;
+    private final Duration overallTimeout;
+    private final int maxAttempts;
+    private final Duration initialBackoff;
+    private final Duration maxBackoff;
+    private final boolean hedgeEnabled;
+    private final Duration hedgeMinDelay;
+    private final CircuitBreaker breaker;
+    private final LatencyWindow latencies = new LatencyWindow(LATENCY_SAMPLES);
+
+    private final AtomicInteger breakerState = new AtomicInteger();
+    private final AtomicInteger hedgeDelayMs = new AtomicInteger();
+    private final Counter rejectedCounter;
+    private final Counter hedgeWonCounter;
+    private final Counter hedgeLostCounter;
+
+    public ResilientGeminiClient(MeterRegistry meterRegistry,
+                                 @Value("${gemini.resilience.connect-timeout:10s}") Duration connectTimeout,
+                                 @Value("${gemini.resilience.attempt-timeout:120s}") Duration attemptTimeout,
+                                 @Value("${gemini.resilience.overall-timeout:300s}") Duration overallTimeout,
+                                 @Value("${gemini.resilience.max-attempts:3}") int maxAttempts,
+                                 @Value("${gemini.resilience.initial-backoff:1s}") Duration initialBackoff,
+                                 @Value("${gemini.resilience.max-backoff:20s}") Duration maxBackoff,
+                                 @Value("${gemini.resilience.hedge.enabled:false}") boolean hedgeEnabled,
+                                 @Value("${gemini.resilience.hedge.min-delay:10s}") Duration hedgeMinDelay,
+                                 @Value("${gemini.resilience.breaker.window:20}") int breakerWindow,
+                                 @Value("${gemini.resilience.breaker.failure-rate:0.5}") double breakerFailureRate,
+                                 @Value("${gemini.resilience.breaker.open-duration:30s}") Duration breakerOpenDuration) {
+        this.httpClient = HttpClient.newBuilder().connectTimeout(connectTimeout).build();
+        this.meterRegistry = meterRegistry;
+        this.attemptTimeout = attemptTimeout;
+        this.overallTimeout = overallTimeout;
+        this.maxAttempts = maxAttempts;
+        this.initialBackoff = initialBackoff;
+        this.maxBackoff = maxBackoff;
+        this.hedgeEnabled = hedgeEnabled;
+        this.hedgeMinDelay = hedgeMinDelay;
+        this.breaker = new CircuitBreaker(breakerWindow, breakerFailureRate, breakerOpenDuration, state -> {
+            breakerState.set(state.ordinal());
+            meterRegistry.counter("gemini.breaker.transitions", "to", state.name().toLowerCase()).increment();
+        });
+        this.rejectedCounter = meterRegistry.counter("gemini.breaker.rejected");
+        this.hedgeWonCounter = meterRegistry.counter("gemini.hedges", "outcome", "won");
+        this.hedgeLostCounter = meterRegistry.counter("gemini.hedges", "outcome", "lost");
+        meterRegistry.gauge("gemini.breaker.state", breakerState);
+        meterRegistry.gauge("gemini.hedge.delay", hedgeDelayMs);
+    }
+
+    /**
+     * Sends a request, retrying it as described above.
+     *
+     * @param request The request. Its body must be replayable, since it may be sent more than once.
+     * @return The response with its body unread: a success, an error that isn't worth retrying (e.g. 400), or the
+     *         last 429/5xx once the retries are used up. The caller must read or close the body.
+     * @throws ModelUnavailableException If the breaker is open, or no attempt produced a response before the
+     *                                   deadlines.
+     * @throws InterruptedException      If the thread is interrupted while waiting.
+     */
+    public HttpResponse<InputStream> send(HttpRequest request) throws IOException, InterruptedException {
+        return send(request, null);
+    }
+
+    /**
+     * Sends a request admitted by the {@link OutboundGovernor}, retrying it as described above.
+     *
+     * @param request The request. Its body must be replayable, since it may be sent more than once.
+     * @param permit  The call's permit, charged for each retry and hedge; a hedge the governor refuses isn't sent.
+     *                Null to retry and hedge without asking.
+     * @return As {@link #send(HttpRequest)}.
+     * @throws ModelUnavailableException As {@link #send(HttpRequest)}, or if the quota can't pay for a retry before
+     *                                   the deadline.
+     * @throws InterruptedException      If the thread is interrupted while waiting.
+     */
+    public HttpResponse<InputStream> send(HttpRequest request, OutboundGovernor.Permit permit)
+            throws IOException, InterruptedException {
+        long deadline = System.nanoTime() + overallTimeout.toNanos();
+        for (int attempt = 1; ; attempt++) {
+            Duration openFor = breaker.tryAcquire();
+            if (openFor != null) {
+                rejectedCounter.increment();
+                throw new ModelUnavailableException("Gemini is unavailable after repeated failures; not calling it for "
+                        + openFor.toSeconds() + "s.", openFor);
+            }
+
+            long timeoutNanos = Math.min(attemptTimeout.toNanos(), deadline - System.nanoTime());
+            boolean lastChance = timeoutNanos < attemptTimeout.toNanos();
+            long start = System.nanoTime();
+            HttpResponse<InputStream> response = null;
+            IOException failure = null;
+            String reason;
+            try {
+                response = exchange(request, timeoutNanos, permit);
+                int status = response.statusCode();
+                reason = status == 429 ? "status_429" : status >= 500 ? "status_5xx" : null;
+            } catch (HttpTimeoutException e) {
+                failure = e;
+                reason = "timeout";
+                meterRegistry.counter("gemini.timeouts", "scope", lastChance ? "overall" : "attempt").increment();
+            } catch (IOException e) {
+                failure = e;
+                reason = "io";
+            }
+            long elapsed = System.nanoTime() - start;
+            breaker.record(reason == null);
+            meterRegistry.timer("gemini.attempts", "outcome", reason == null ? "success" : reason)
+                    .record(elapsed, TimeUnit.NANOSECONDS);
+            if (reason == null) {
+                if (response.statusCode() < 300) {
+                    latencies.record(elapsed);
+                }
+                return response;
+            }
+
+            Duration retryAfter = response != null ? retryAfter(response.headers()) : null;
+            long waitNanos = backoffNanos(attempt);
+            if (retryAfter != null) {
+                waitNanos = Math.max(waitNanos, retryAfter.toNanos());
+            }
+            if (attempt >= maxAttempts || System.nanoTime() + waitNanos >= deadline) {
+                if (failure != null) {
+                    throw new ModelUnavailableException("Gemini did not answer: " + failure.getMessage(), null, failure);
+                }
+                return response;
+            }
+            meterRegistry.counter("gemini.retries", "reason", reason).increment();
+            if (response != null) {
+                response.body().close();
+            }
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+            if (permit != null) {
+                permit.chargeRetry(deadline);
+            }
+        }
+    }
+
+    /**
+     * Guards a streamed call: it is subject to the circuit breaker and fails if no chunk arrives for an attempt timeout.
+     * Streams aren't retried or hedged, since chunks may already have been passed on.
+     */
+    public <T> Flux<T> guard(Flux<T> stream) {
+        return Flux.defer(() -> {
+            Duration openFor = breaker.tryAcquire();
+            if (openFor != null) {
+                rejectedCounter.increment();
+                return Flux.error(new ModelUnavailableException("Gemini is unavailable after repeated failures; "
+                        + "not calling it for " + openFor.toSeconds() + "s.", openFor));
+            }
+            return stream.timeout(attemptTimeout)
+                    .onErrorMap(TimeoutException.class, e -> {
+                        meterRegistry.counter("gemini.timeouts", "scope", "attempt").increment();
+                        return new ModelUnavailableException("Gemini stopped responding.", null, e);
+                    })
+                    .doOnComplete(() -> breaker.record(true))
+                    .doOnError(e -> breaker.record(!(e instanceof ModelUnavailableException
+                            || e instanceof WebClientRequestException)));
+        });
+    }
+
+    /**
+     * Parses a Retry-After value, either delay-seconds or an HTTP date.
+     *
+     * @return The delay, or null if the value is absent or malformed.
+     */
+    public static Duration parseRetryAfter(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            return Duration.ofSeconds(Math.max(0, Long.parseLong(value.trim())));
+        } catch (NumberFormatException e) {
+            try {
+                ZonedDateTime at = ZonedDateTime.parse(value.trim(), DateTimeFormatter.RFC_1123_DATE_TIME);
+                Duration delay = Duration.between(ZonedDateTime.now(at.getZone()), at);
+                return delay.isNegative() ? Duration.ZERO : delay;
+            } catch (DateTimeParseException ignored) {
+                return null;
+            }
+        }
+    }
+
+    public static Duration retryAfter(HttpHeaders headers) {
+        return parseRetryAfter(headers.firstValue("Retry-After").orElse(null));
+    }
+
+    CircuitBreaker.State getBreakerState() {
+        return breaker.getState();
+    }
+
+    /**
+     * One attempt: the request, plus a hedge if it takes longer than usual and the permit, if any, can pay for it.
+     */
+    private HttpResponse<InputStream> exchange(HttpRequest request, long timeoutNanos, OutboundGovernor.Permit permit)
+            throws IOException, InterruptedException {
+        long start = System.nanoTime();
+        CompletableFuture<HttpResponse<InputStream>> primary =
+                httpClient.sendAsync(withTimeout(request, timeoutNanos), HttpResponse.BodyHandlers.ofInputStream());
+        long hedgeDelay = hedgeDelayNanos();
+        if (hedgeDelay <= 0 || hedgeDelay >= timeoutNanos) {
+            return await(primary);
+        }
+        try {
+            return primary.get(hedgeDelay, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            // Slower than usual: hedge below.
+        } catch (ExecutionException e) {
+            throw unwrap(e);
+        } catch (InterruptedException e) {
+            primary.cancel(true);
+            throw e;
+        }
+        if (permit != null && !permit.tryChargeHedge()) {
+            return await(primary);
+        }
+
+        // The hedge gets what is left of the attempt's time, so both end by the same deadline.
+        CompletableFuture<HttpResponse<InputStream>> hedge = httpClient.sendAsync(
+                withTimeout(request, timeoutNanos - (System.nanoTime() - start)), HttpResponse.BodyHandlers.ofInputStream());
+        CompletableFuture<HttpResponse<InputStream>> first = new CompletableFuture<>();
+        AtomicInteger failures = new AtomicInteger();
+        for (CompletableFuture<HttpResponse<InputStream>> candidate : Arrays.asList(primary, hedge)) {
+            candidate.whenComplete((response, error) -> {
+                if (error == null) {
+                    if (!first.complete(response)) {
+                        closeQuietly(response);
+                    }
+                } else if (failures.incrementAndGet() == 2) {
+                    first.completeExceptionally(error);
+                }
+            });
+        }
+        try {
+            HttpResponse<InputStream> response = await(first);
+            boolean hedgeWon = hedge.isDone() && !hedge.isCompletedExceptionally() && hedge.getNow(null) == response;
+            (hedgeWon ? hedgeWonCounter : hedgeLostCounter).increment();
+            return response;
+        } finally {
+            // Abandon the slower request; a no-op for the one that answered.
+            primary.cancel(true);
+            hedge.cancel(true);
+        }
+    }
+
+    private long hedgeDelayNanos() {
+        if (!hedgeEnabled) {
+            return 0;
+        }
+        long p95 = latencies.percentile(0.95, MIN_LATENCY_SAMPLES);
+        if (p95 < 0) {
+            return 0;
+        }
+        long delay = Math.max(hedgeMinDelay.toNanos(), p95);
+        hedgeDelayMs.set((int) TimeUnit.NANOSECONDS.toMillis(delay));
+        return delay;
+    }
+
+    private long backoffNanos(int attempt) {
+        long backoff = Math.min(maxBackoff.toNanos(), initialBackoff.toNanos() << Math.min(attempt - 1, 20));
+        // Equal jitter: at least half the backoff, so retries of many callers spread out without retrying at once.
+        return backoff / 2 + ThreadLocalRandom.current().nextLong(backoff / 2 + 1);
+    }
+
+    private static HttpRequest withTimeout(HttpRequest request, long timeoutNanos) {
+        return HttpRequest.newBuilder(request, (name, value) -> true)
+                .timeout(Duration.ofNanos(Math.max(1, timeoutNanos)))
+                .build();
+    }
+
+    private static <T> T await(CompletableFuture<T> future) throws IOException, InterruptedException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            throw unwrap(e);
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            throw e;
+        }
+    }
+
+    private static IOException unwrap(ExecutionException e) {
+        Throwable cause = e.getCause();
+        return cause instanceof IOException io ? io : new IOException(cause);
+    }
+
+    private static void closeQuietly(HttpResponse<InputStream> response) {
+        try {
+            response.body().close();
+        } catch (IOException e) {
+            // Only the losing hedge's connection is affected.
+        }
+    }
+
+    /**
+     * The most recent latencies, for percentiles.
+     */
+    private static final class LatencyWindow {
+        private final long[] samples;
+        private int next;
+        private int size;
+
+        LatencyWindow(int capacity) {
+            this.samples = new long[capacity];
+        }
+
+        synchronized void record(long nanos) {
+            samples[next] = nanos;
+            next = (next + 1) % samples.length;
+            size = Math.min(size + 1, samples.length);
+        }
+
+        /**
+         * @return The percentile in nanoseconds, or -1 if fewer than minSamples were recorded.
+         */
+        synchronized long percentile(double percentile, int minSamples) {
+            if (size < minSamples) {
+                return -1;
+            }
+            long[] sorted = Arrays.copyOf(samples, size);
+            Arrays.sort(sorted);
+            return sorted[(int) Math.ceil(percentile * size) - 1];
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.meetinginsights.backend.service;
+
+/**
+ * Turns raw highlights, in which the matched words are delimited by {@link #START} and {@link #END}, into HTML.
+ * <p>
+ * The indexed text comes from model output and may contain markup, so it is escaped; only the match delimiters become
+ * tags. Control characters are used as delimiters because they can't occur in the text, unlike "&lt;mark&gt;".
+ */
+final class SearchHighlights {
+
+    static final char START = '\u0002';
+    static final char END = '\u0003';
+
+    private SearchHighlights() {
+    }
+
+    static String toHtml(String raw) {
+        if (raw == null) {
+            return null;
+        }
+        StringBuilder html = new StringBuilder(raw.length() + 32);
+        for (int i = 0; i < raw.length(); i++) {
+            char c = raw.charAt(i);
+            switch (c) {
+                case START -> html.append("<mark>");
+                case END -> html.append("</mark>");
+                case '<' -> html.append("&lt;");
+                case '>' -> html.append("&gt;");
+                case '&' -> html.append("&amp;");
+                case '"' -> html.append("&quot;");
+                case '\'' -> html.append("&#39;");
+                default -> html.append(c);
+            }
+        }
+        return html.toString();
+    }
+}
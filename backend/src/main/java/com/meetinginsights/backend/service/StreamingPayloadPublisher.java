@@ -0,0 +1,136 @@
+package com.meetinginsights.backend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.springframework.core.io.InputStreamSource;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.io.UncheckedIOException;
+import java.net.http.HttpRequest;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.LongConsumer;
+
+/**
+ * Builds HTTP request bodies for JSON payloads that carry a large Base64 field (e.g. Gemini's inlineData.data)
+ * without ever holding the encoded data in memory.
+ * <p>
+ * The JSON envelope is serialized by Jackson with a placeholder in place of the data, split around the placeholder,
+ * and the request body is then streamed as: envelope prefix, Base64 of the source, envelope suffix.
+ */
+public final class StreamingPayloadPublisher {
+
+    private StreamingPayloadPublisher() {
+    }
+
+    /**
+     * Creates a body publisher that streams {@code root} as JSON, with {@code holder.fieldName} set to the
+     * Base64 encoding of the source's content.
+     *
+     * @param objectMapper The ObjectMapper used to serialize the envelope.
+     * @param root         The root JSON object of the payload.
+     * @param holder       The object (somewhere inside root) that receives the Base64 field.
+     * @param fieldName    The name of the Base64 field, e.g. "data".
+     * @param source       The source of the raw bytes. It is re-opened each time the body is (re)sent.
+     * @return A BodyPublisher streaming the complete JSON payload.
+     * @throws IOException If the envelope cannot be serialized.
+     */
+    public static HttpRequest.BodyPublisher withBase64Field(ObjectMapper objectMapper, ObjectNode root, ObjectNode holder,
+                                                            String fieldName, InputStreamSource source) throws IOException {
+        InputStreamSource payload = payloadWithBase64Field(objectMapper, root, holder, fieldName, source);
+        return HttpRequest.BodyPublishers.ofInputStream(() -> {
+            try {
+                return payload.getInputStream();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to open the payload source", e);
+            }
+        });
+    }
+
+    /**
+     * Like {@link #withBase64Field}, but returns the payload as a re-openable stream source, for HTTP clients
+     * other than java.net.http.
+     */
+    public static InputStreamSource payloadWithBase64Field(ObjectMapper objectMapper, ObjectNode root, ObjectNode holder,
+                                                           String fieldName, InputStreamSource source) throws IOException {
+        return payloadWithBase64Field(objectMapper, root, holder, fieldName, source, -1, null);
+    }
+
+    /**
+     * Like {@link #payloadWithBase64Field(ObjectMapper, ObjectNode, ObjectNode, String, InputStreamSource)}, and
+     * reports the length of the payload and the time spent encoding.
+     *
+     * @param sourceSize The size of the source's content, or -1 if unknown.
+     * @param encodeTime Receives the nanoseconds spent Base64-encoding each time the payload is read through, or null.
+     */
+    public static Payload payloadWithBase64Field(ObjectMapper objectMapper, ObjectNode root, ObjectNode holder,
+                                                 String fieldName, InputStreamSource source, long sourceSize,
+                                                 LongConsumer encodeTime) throws IOException {
+        // Base64 and the placeholder only use characters that Jackson never escapes, so it can be located verbatim.
+        String placeholder = "__stream_" + UUID.randomUUID().toString().replace("-", "") + "__";
+        holder.put(fieldName, placeholder);
+        byte[] envelope = objectMapper.writeValueAsBytes(root);
+        holder.remove(fieldName);
+
+        int at = indexOf(envelope, placeholder.getBytes(StandardCharsets.US_ASCII));
+        if (at < 0) {
+            throw new IOException("Could not locate the streamed field in the serialized payload.");
+        }
+        byte[] prefix = new byte[at];
+        System.arraycopy(envelope, 0, prefix, 0, at);
+        int suffixStart = at + placeholder.length();
+        byte[] suffix = new byte[envelope.length - suffixStart];
+        System.arraycopy(envelope, suffixStart, suffix, 0, suffix.length);
+
+        long length = sourceSize < 0 ? -1 : prefix.length + (sourceSize + 2) / 3 * 4 + suffix.length;
+        return new Payload(length, () -> concat(new ByteArrayInputStream(prefix),
+                new Base64EncodingInputStream(source.getInputStream(), Base64EncodingInputStream.DEFAULT_CHUNK_SIZE,
+                        encodeTime),
+                new ByteArrayInputStream(suffix)));
+    }
+
+    /**
+     * A streamed payload and its length.
+     */
+    public static final class Payload implements InputStreamSource {
+        private final long contentLength;
+        private final InputStreamSource content;
+
+        private Payload(long contentLength, InputStreamSource content) {
+            this.contentLength = contentLength;
+            this.content = content;
+        }
+
+        /** The length of the payload in bytes, or -1 if the size of the source was not given. */
+        public long contentLength() {
+            return contentLength;
+        }
+
+        @Override
+        public InputStream getInputStream() throws IOException {
+            return content.getInputStream();
+        }
+    }
+
+    private static InputStream concat(InputStream... parts) {
+        return new SequenceInputStream(Collections.enumeration(List.of(parts)));
+    }
+
+    private static int indexOf(byte[] haystack, byte[] needle) {
+        outer:
+        for (int i = 0; i <= haystack.length - needle.length; i++) {
+            for (int j = 0; j < needle.length; j++) {
+                if (haystack[i + j] != needle[j]) {
+                    continue outer;
+                }
+            }
+            return i;
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,220 @@
+package com.meetinginsights.backend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.meetinginsights.backend.audio.WavFormat;
+import com.meetinginsights.backend.dto.ActionItem;
+import com.meetinginsights.backend.dto.MeetingInsights;
+import com.meetinginsights.backend.exception.ModelUnavailableException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.io.InputStreamSource;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.zip.CRC32C;
+
+/**
+ * An {@link InsightEngine} that answers in-process, for throughput and soak tests of the upload path without network
+ * access or Gemini quota. Active with the stub-engine profile.
+ * <p>
+ * The insights are made up but deterministic: they are derived from a checksum of the audio (or of the prompt, for
+ * text-only calls), so the same upload always gets the same answer. The audio is read in full to compute it, which
+ * stands in for the read a real call makes to send it.
+ * <p>
+ * Latency follows a log-normal distribution given by its median and 99th percentile; streamed answers spread their
+ * chunks over it. Calls to the fast tier take fast-latency-factor of that latency. A fraction of calls fail: with unavailable-rate right away with {@link ModelUnavailableException},
+ * as an overloaded provider answers 429 or 503, and with error-rate after the latency with a plain IOException, as a
+ * blocked or empty answer does.
+ */
+@Component
+@Profile(StubInsightEngine.PROFILE)
+public class StubInsightEngine implements InsightEngine {
+
+    static final String PROFILE = "stub-engine";
+
+    private static final String MODEL = "stub-";
+    private static final double Z_99 = 2.3263;
+    private static final String[] TOPICS = {"the release plan", "the hiring pipeline", "customer feedback",
+            "the budget review", "the onboarding flow", "infrastructure costs", "the roadmap", "support tickets"};
+    private static final String[] PEOPLE = {"Alex", "Sam", "Jordan", "Taylor", "Morgan", "Riley"};
+    private static final String[] DEADLINES = {"Monday", "Friday", "next week", "end of month"};
+
+    private final double medianMs;
+    private final double sigma;
+    private final double fastLatencyFactor;
+    private final double unavailableRate;
+    private final double errorRate;
+    private final int streamChunks;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    public StubInsightEngine(@Value("${insight.engine.stub.latency-median:2s}") Duration latencyMedian,
+                             @Value("${insight.engine.stub.latency-p99:8s}") Duration latencyP99,
+                             @Value("${insight.engine.stub.unavailable-rate:0}") double unavailableRate,
+                             @Value("${insight.engine.stub.error-rate:0}") double errorRate,
+                             @Value("${insight.engine.stub.stream-chunks:8}") int streamChunks,
+                             @Value("${insight.engine.stub.fast-latency-factor:0.25}") double fastLatencyFactor) {
+        this.medianMs = latencyMedian.toMillis();
+        this.sigma = latencyP99.compareTo(latencyMedian) > 0 && !latencyMedian.isZero()
+                ? Math.log((double) latencyP99.toMillis() / latencyMedian.toMillis()) / Z_99
+                : 0;
+        this.unavailableRate = unavailableRate;
+        this.errorRate = errorRate;
+        this.streamChunks = Math.max(1, streamChunks);
+        this.fastLatencyFactor = fastLatencyFactor;
+    }
+
+    @Override
+    public String getModel(ModelTier tier) {
+        return MODEL + tier.label();
+    }
+
+    @Override
+    public String analyzeAudio(InputStreamSource audio, long size, String mimeType, String fileName, String prompt,
+                               TokenUsage usage) throws IOException, InterruptedException {
+        String answer = insights(checksum(audio) * 31 + prompt.hashCode(), fileName);
+        return complete(answer, nextOutcome(usage.getTier()), prompt, audioSeconds(audio, size), usage);
+    }
+
+    @Override
+    public Flux<String> streamAudio(InputStreamSource audio, long size, String mimeType, String fileName, String prompt,
+                                    TokenUsage usage) {
+        // Reading the audio blocks; the chunks are then timed without holding a thread.
+        return Mono.fromCallable(() -> insights(checksum(audio) * 31 + prompt.hashCode(), fileName))
+                .zipWith(Mono.fromCallable(() -> audioSeconds(audio, size)))
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMapMany(answerAndSeconds -> {
+                    String answer = answerAndSeconds.getT1();
+                    Outcome outcome = nextOutcome(usage.getTier());
+                    if (outcome.unavailable()) {
+                        return Flux.error(unavailable());
+                    }
+                    if (outcome.error()) {
+                        return Mono.delay(Duration.ofMillis(outcome.latencyMs())).then(Mono.<String>error(blocked()));
+                    }
+                    return Flux.fromIterable(split(answer))
+                            .delayElements(Duration.ofMillis(outcome.latencyMs() / streamChunks))
+                            .doOnComplete(() -> usage.add(OutboundGovernor.estimateTokens(prompt,
+                                    answerAndSeconds.getT2()), outputTokens(answer)));
+                });
+    }
+
+    @Override
+    public String analyzeUploadedAudio(String fileUri, String mimeType, String prompt, TokenUsage usage)
+            throws IOException, InterruptedException {
+        String answer = insights(fileUri.hashCode() * 31L + prompt.hashCode(), fileUri);
+        return complete(answer, nextOutcome(usage.getTier()), prompt, 0, usage);
+    }
+
+    @Override
+    public String generateText(String prompt, TokenUsage usage) throws IOException, InterruptedException {
+        String answer = insights(prompt.hashCode(), "merged meeting");
+        return complete(answer, nextOutcome(usage.getTier()), prompt, 0, usage);
+    }
+
+    private String complete(String answer, Outcome outcome, String prompt, double audioSeconds, TokenUsage usage)
+            throws IOException, InterruptedException {
+        if (outcome.unavailable()) {
+            throw unavailable();
+        }
+        Thread.sleep(outcome.latencyMs());
+        if (outcome.error()) {
+            throw blocked();
+        }
+        usage.add(OutboundGovernor.estimateTokens(prompt, audioSeconds), outputTokens(answer));
+        return answer;
+    }
+
+    /**
+     * Draws the latency and the failure, if any, of one call.
+     */
+    private Outcome nextOutcome(ModelTier tier) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        double factor = tier == ModelTier.FAST ? fastLatencyFactor : 1;
+        long latencyMs = Math.round(factor * medianMs * Math.exp(sigma * random.nextGaussian()));
+        double roll = random.nextDouble();
+        return new Outcome(latencyMs, roll < unavailableRate, roll >= unavailableRate && roll < unavailableRate + errorRate);
+    }
+
+    private static ModelUnavailableException unavailable() {
+        return new ModelUnavailableException("Stub engine: simulated overload.", Duration.ofSeconds(1));
+    }
+
+    private static IOException blocked() {
+        return new IOException("Failed to generate insights: Stub engine: simulated failed answer.");
+    }
+
+    /**
+     * Builds insights JSON from a seed, always the same for the same seed.
+     */
+    private String insights(long seed, String fileName) throws IOException {
+        SplittableRandom random = new SplittableRandom(seed);
+        MeetingInsights insights = new MeetingInsights();
+        for (int i = 1; i <= 5; i++) {
+            insights.getSummary().add("Point " + i + " of " + fileName + ": the team went over " + topic(random) + ".");
+        }
+        for (int i = random.nextInt(4); i > 0; i--) {
+            ActionItem item = new ActionItem();
+            item.setTask("Follow up on " + topic(random));
+            item.setOwner(random.nextBoolean() ? PEOPLE[random.nextInt(PEOPLE.length)] : null);
+            item.setDeadline(random.nextBoolean() ? DEADLINES[random.nextInt(DEADLINES.length)] : null);
+            insights.getActionItems().add(item);
+        }
+        for (int i = random.nextInt(3); i > 0; i--) {
+            insights.getDecisions().add("Agreed to prioritize " + topic(random) + ".");
+        }
+        for (int i = 2 + random.nextInt(3); i > 0; i--) {
+            insights.getDiscussionPoints().add("Trade-offs around " + topic(random) + ".");
+        }
+        for (int i = 1 + random.nextInt(2); i > 0; i--) {
+            insights.getFollowUps().add("Schedule a review of " + topic(random) + ".");
+        }
+        return objectMapper.writeValueAsString(insights);
+    }
+
+    private static String topic(SplittableRandom random) {
+        return TOPICS[random.nextInt(TOPICS.length)];
+    }
+
+    private List<String> split(String answer) {
+        List<String> chunks = new ArrayList<>(streamChunks);
+        int chunkLength = (answer.length() + streamChunks - 1) / streamChunks;
+        for (int start = 0; start < answer.length(); start += chunkLength) {
+            chunks.add(answer.substring(start, Math.min(answer.length(), start + chunkLength)));
+        }
+        return chunks;
+    }
+
+    private static long outputTokens(String answer) {
+        return answer.getBytes(StandardCharsets.UTF_8).length / 4;
+    }
+
+    private static long checksum(InputStreamSource audio) throws IOException {
+        CRC32C crc = new CRC32C();
+        byte[] buffer = new byte[64 * 1024];
+        try (InputStream in = audio.getInputStream()) {
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                crc.update(buffer, 0, read);
+            }
+        }
+        return crc.getValue();
+    }
+
+    private static double audioSeconds(InputStreamSource audio, long size) throws IOException {
+        return WavFormat.read(audio, size).map(WavFormat::getDurationSeconds)
+                .orElseGet(() -> OutboundGovernor.assumedDurationSeconds(size));
+    }
+
+    private record Outcome(long latencyMs, boolean unavailable, boolean error) {
+    }
+}
@@ -0,0 +1,43 @@
+package com.meetinginsights.backend.service;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The model calls and tokens spent on one generation request, the user they are spent for and the model tier they
+ * go to. A long meeting makes several calls from segment threads, so the counts are atomic.
+ */
+final class TokenUsage {
+
+    private final String owner;
+    private final ModelTier tier;
+    private final AtomicInteger calls = new AtomicInteger();
+    private final AtomicLong promptTokens = new AtomicLong();
+    private final AtomicLong outputTokens = new AtomicLong();
+
+    /**
+     * @param owner The email of the user the request is for, or null.
+     * @param tier  The model tier the request's calls go to.
+     */
+    TokenUsage(String owner, ModelTier tier) {
+        this.owner = owner;
+        this.tier = tier;
+    }
+
+    void add(long prompt, long output) {
+        calls.incrementAndGet();
+        promptTokens.addAndGet(prompt);
+        outputTokens.addAndGet(output);
+    }
+
+    String getOwner() { return owner; }
+
+    ModelTier getTier() { return tier; }
+
+    /** The number of model calls made; 0 means the insights came from the cache. */
+    int getCalls() { return calls.get(); }
+
+    long getPromptTokens() { return promptTokens.get(); }
+
+    long getOutputTokens() { return outputTokens.get(); }
+}
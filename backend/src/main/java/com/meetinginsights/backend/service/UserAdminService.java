@@ -0,0 +1,143 @@
+package com.meetinginsights.backend.service;
+
+import com.meetinginsights.backend.entity.Role;
+import com.meetinginsights.backend.entity.User;
+import com.meetinginsights.backend.repository.MeetingInsightRepository;
+import com.meetinginsights.backend.repository.UserRepository;
+import com.meetinginsights.backend.security.RoleRegistry;
+import com.meetinginsights.backend.security.TokenRevocationService;
+import com.meetinginsights.backend.security.UserSnapshotCache;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Administrative changes to users and roles.
+ * <p>
+ * Tokens carry the roles they were issued with, so every change here revokes the affected tokens: a user whose roles
+ * changed or who was deleted has to log in again, and a token can't keep granting a role that was taken away.
+ */
+@Service
+public class UserAdminService {
+
+    private final UserRepository userRepository;
+    private final MeetingInsightRepository meetingInsightRepository;
+    private final InsightSearchIndex searchIndex;
+    private final RoleRegistry roleRegistry;
+    private final TokenRevocationService revocationService;
+    private final UserSnapshotCache userSnapshotCache;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public UserAdminService(UserRepository userRepository, MeetingInsightRepository meetingInsightRepository,
+                            InsightSearchIndex searchIndex, RoleRegistry roleRegistry, TokenRevocationService revocationService,
+                            UserSnapshotCache userSnapshotCache, ApplicationEventPublisher eventPublisher) {
+        this.userRepository = userRepository;
+        this.meetingInsightRepository = meetingInsightRepository;
+        this.searchIndex = searchIndex;
+        this.roleRegistry = roleRegistry;
+        this.revocationService = revocationService;
+        this.userSnapshotCache = userSnapshotCache;
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * Replaces a user's roles and revokes the user's tokens.
+     *
+     * @param email     The user's email.
+     * @param roleNames The new role names, e.g. "ROLE_ADMIN".
+     * @return The user's role names, or empty if there is no such user.
+     * @throws IllegalStateException If one of the roles doesn't exist.
+     */
+    @Transactional
+    public Optional<Set<String>> setRoles(String email, Collection<String> roleNames) {
+        Set<Role> roles = new HashSet<>();
+        for (String name : roleNames) {
+            roles.add(roleRegistry.get(name));
+        }
+        Optional<User> found = userRepository.findByEmail(email);
+        if (found.isEmpty()) {
+            return Optional.empty();
+        }
+        User user = found.get();
+        user.setRoles(roles);
+        userRepository.save(user);
+        userChanged(email);
+        return Optional.of(roles.stream().map(Role::getName).collect(Collectors.toUnmodifiableSet()));
+    }
+
+    /**
+     * Deletes a user with their stored insights and revokes the user's tokens. The insights leave the search index
+     * once the deletion is committed.
+     *
+     * @param email The user's email.
+     * @return True if the user existed.
+     */
+    @Transactional
+    public boolean deleteUser(String email) {
+        Optional<User> found = userRepository.findByEmail(email);
+        if (found.isEmpty()) {
+            return false;
+        }
+        Long userId = found.get().getId();
+        meetingInsightRepository.deleteByOwnerId(userId);
+        userRepository.delete(found.get());
+        removeFromSearchIndex(userId);
+        userChanged(email);
+        return true;
+    }
+
+    /**
+     * Reloads the role registry. If roles were removed or renamed, every token is revoked, since tokens still name
+     * the old roles, and all cached users are dropped.
+     *
+     * @return The names of the loaded roles.
+     */
+    public Collection<String> reloadRoles() {
+        Set<String> before = Set.copyOf(roleRegistry.names());
+        Collection<String> after = roleRegistry.reload();
+        if (!after.containsAll(before)) {
+            revocationService.revokeAll();
+            userSnapshotCache.invalidateAll();
+        }
+        return after;
+    }
+
+    private void removeFromSearchIndex(Long userId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    searchIndex.removeOwner(userId);
+                }
+            });
+        } else {
+            searchIndex.removeOwner(userId);
+        }
+    }
+
+    /**
+     * Revokes the user's tokens right away, and once more when the transaction completes: a login that reads the
+     * user before the change is committed must not get a token that outlives it. The cached user is dropped through
+     * {@link UserChangedEvent}.
+     */
+    private void userChanged(String email) {
+        revocationService.revokeAllFor(email);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    revocationService.revokeAllFor(email);
+                }
+            });
+        }
+        eventPublisher.publishEvent(new UserChangedEvent(email));
+    }
+}
@@ -0,0 +1,16 @@
+package com.meetinginsights.backend.service;
+
+/**
+ * Published when a user's row or roles are written or the user is deleted, so whatever caches the user can drop it.
+ * Published inside the writing transaction; listeners that re-read the user should run after it completes.
+ */
+public class UserChangedEvent {
+
+    private final String email;
+
+    public UserChangedEvent(String email) {
+        this.email = email;
+    }
+
+    public String getEmail() { return email; }
+}
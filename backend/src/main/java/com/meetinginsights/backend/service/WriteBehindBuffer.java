@@ -0,0 +1,179 @@
+package com.meetinginsights.backend.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Collects records on request threads and writes them in batches on a background thread.
+ * <p>
+ * Adding a record is a lock-free enqueue, so it costs the caller well under a microsecond. The writer thread flushes
+ * as soon as a full batch has queued up, and otherwise at least every flush interval. A failed batch is retried with
+ * exponential backoff. While that happens the queue keeps growing up to its capacity; beyond that, new records are
+ * dropped and counted instead of blocking callers or growing without bound. {@link #close()} writes everything
+ * still queued before returning.
+ * <p>
+ * Metrics, prefixed with the buffer's name: "records" (outcome=written|dropped), "flush" (batch write time) and
+ * "queued".
+ *
+ * @param <T> The record type.
+ */
+public class WriteBehindBuffer<T> implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(WriteBehindBuffer.class);
+
+    /**
+     * Writes one batch, e.g. as a JDBC batch insert. An exception fails the whole batch, which is then retried.
+     */
+    @FunctionalInterface
+    public interface BatchWriter<T> {
+        void write(List<T> batch) throws Exception;
+    }
+
+    private final String name;
+    private final BatchWriter<T> writer;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final int capacity;
+    private final int maxAttempts;
+    private final long retryBackoffNanos;
+    private final Duration shutdownTimeout;
+
+    private final ConcurrentLinkedQueue<T> queue = new ConcurrentLinkedQueue<>();
+    // ConcurrentLinkedQueue.size() walks the whole queue, so the count is kept separately.
+    private final AtomicInteger queued = new AtomicInteger();
+    private final Thread flusher;
+    private volatile boolean open = true;
+
+    private final Counter writtenCounter;
+    private final Counter droppedCounter;
+    private final Timer flushTimer;
+
+    /**
+     * Creates the buffer and starts its writer thread.
+     *
+     * @param name            The name of the writer thread and the prefix of the metrics.
+     * @param writer          Writes one batch.
+     * @param batchSize       The most records written at once; a full batch is written right away.
+     * @param flushInterval   The longest a record waits for its batch to fill up.
+     * @param capacity        The most records queued; more are dropped.
+     * @param maxAttempts     Attempts at writing a batch before it is dropped.
+     * @param retryBackoff    The wait before the first retry, doubled for every further one.
+     * @param shutdownTimeout How long {@link #close()} waits for the queue to be written.
+     * @param meterRegistry   The registry for the metrics.
+     */
+    public WriteBehindBuffer(String name, BatchWriter<T> writer, int batchSize, Duration flushInterval, int capacity,
+                             int maxAttempts, Duration retryBackoff, Duration shutdownTimeout,
+                             MeterRegistry meterRegistry) {
+        this.name = name;
+        this.writer = writer;
+        this.batchSize = batchSize;
+        this.flushIntervalNanos = flushInterval.toNanos();
+        this.capacity = capacity;
+        this.maxAttempts = maxAttempts;
+        this.retryBackoffNanos = retryBackoff.toNanos();
+        this.shutdownTimeout = shutdownTimeout;
+        this.writtenCounter = meterRegistry.counter(name + ".records", "outcome", "written");
+        this.droppedCounter = meterRegistry.counter(name + ".records", "outcome", "dropped");
+        this.flushTimer = meterRegistry.timer(name + ".flush");
+        meterRegistry.gauge(name + ".queued", queued);
+
+        this.flusher = new Thread(this::run, name + "-writer");
+        this.flusher.setDaemon(true);
+        this.flusher.start();
+    }
+
+    /**
+     * Queues a record to be written. Never blocks.
+     *
+     * @param record The record.
+     * @return False if the record was dropped because the queue is full or the buffer is closed.
+     */
+    public boolean offer(T record) {
+        if (!open) {
+            droppedCounter.increment();
+            return false;
+        }
+        int size = queued.incrementAndGet();
+        if (size > capacity) {
+            queued.decrementAndGet();
+            droppedCounter.increment();
+            return false;
+        }
+        queue.offer(record);
+        if (size == batchSize) {
+            // A full batch is waiting; don't let it sit until the flush interval is up.
+            LockSupport.unpark(flusher);
+        }
+        return true;
+    }
+
+    /**
+     * Stops accepting records and waits up to the shutdown timeout for the queued ones to be written.
+     */
+    @Override
+    public void close() {
+        open = false;
+        LockSupport.unpark(flusher);
+        try {
+            flusher.join(shutdownTimeout.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (flusher.isAlive()) {
+            log.warn("Gave up waiting for {} queued {} records to be written", queued.get(), name);
+        }
+    }
+
+    private void run() {
+        List<T> batch = new ArrayList<>(batchSize);
+        while (true) {
+            // Read before draining, so that once closed, one more pass takes whatever was queued before.
+            boolean closing = !open;
+            T record;
+            while (batch.size() < batchSize && (record = queue.poll()) != null) {
+                batch.add(record);
+            }
+            if (!batch.isEmpty()) {
+                queued.addAndGet(-batch.size());
+                write(batch);
+                batch.clear();
+            }
+            if (closing && queue.isEmpty()) {
+                return;
+            }
+            if (!closing && queued.get() < batchSize) {
+                LockSupport.parkNanos(this, flushIntervalNanos);
+            }
+        }
+    }
+
+    private void write(List<T> batch) {
+        for (int attempt = 1; ; attempt++) {
+            long start = System.nanoTime();
+            try {
+                writer.write(batch);
+                flushTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                writtenCounter.increment(batch.size());
+                return;
+            } catch (Exception e) {
+                if (attempt >= maxAttempts) {
+                    droppedCounter.increment(batch.size());
+                    log.error("Dropping {} {} records after {} failed writes", batch.size(), name, attempt, e);
+                    return;
+                }
+                LockSupport.parkNanos(retryBackoffNanos << (attempt - 1));
+            }
+        }
+    }
+}
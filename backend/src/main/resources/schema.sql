@@ -0,0 +1,8 @@
+-- Runs on every start after Hibernate has created or updated the tables (spring.jpa.defer-datasource-initialization),
+-- so every statement must be idempotent.
+
+-- Full-text search over stored insights. The tsvector is a generated column, so PostgreSQL keeps it in sync on every
+-- insert and update of search_text, and the GIN index makes @@ queries independent of the table size.
+ALTER TABLE meeting_insights ADD COLUMN IF NOT EXISTS search_vector tsvector
+    GENERATED ALWAYS AS (to_tsvector('english', coalesce(search_text, ''))) STORED;
+CREATE INDEX IF NOT EXISTS idx_meeting_insights_search ON meeting_insights USING GIN (search_vector);
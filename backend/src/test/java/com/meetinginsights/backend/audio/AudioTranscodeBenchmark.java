@@ -0,0 +1,106 @@
+package com.meetinginsights.backend.audio;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Random;
+
+/**
+ * Throughput and size-reduction benchmark for {@link WavTranscoder} on common recording formats, using a synthetic
+ * speech-like signal (a pitch-modulated harmonic tone with syllable-rate amplitude envelope and some noise).
+ * <p>
+ * Not a unit test; run it manually, e.g.
+ * <pre>
+ * mvn -q test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ * java -cp target/test-classes:target/classes:$(cat target/cp.txt) \
+ *     com.meetinginsights.backend.audio.AudioTranscodeBenchmark [seconds] [iterations]
+ * </pre>
+ */
+public class AudioTranscodeBenchmark {
+
+    public static void main(String[] args) throws IOException {
+        int seconds = args.length > 0 ? Integer.parseInt(args[0]) : 300;
+        int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        WavTranscoder transcoder = new WavTranscoder(16000);
+
+        WavFormat[] formats = {
+                format(WavFormat.FORMAT_PCM, 2, 44100, 16, seconds),
+                format(WavFormat.FORMAT_PCM, 2, 48000, 24, seconds),
+                format(WavFormat.FORMAT_IEEE_FLOAT, 2, 48000, 32, seconds),
+                format(WavFormat.FORMAT_PCM, 1, 22050, 16, seconds),
+                format(WavFormat.FORMAT_PCM, 1, 16000, 16, seconds),
+        };
+
+        System.out.printf("%d s of audio, best of %d runs%n", seconds, iterations);
+        System.out.printf("%-28s %12s %12s %8s %10s%n", "input", "in bytes", "out bytes", "ratio", "MB/s in");
+        for (WavFormat in : formats) {
+            byte[] data = synthesize(in);
+            if (!transcoder.isWorthwhile(in)) {
+                System.out.printf("%-28s %12d %12s %8s %10s%n", describe(in), data.length, "-", "1.0x", "pass");
+                continue;
+            }
+
+            long best = Long.MAX_VALUE;
+            long outBytes = 0;
+            for (int i = 0; i < iterations; i++) {
+                long start = System.nanoTime();
+                outBytes = drain(transcoder.transcode(new ByteArrayInputStream(data), in));
+                best = Math.min(best, System.nanoTime() - start);
+            }
+            double mbPerSecond = data.length / 1e6 / (best / 1e9);
+            System.out.printf("%-28s %12d %12d %7.1fx %10.0f%n",
+                    describe(in), data.length, outBytes, (double) data.length / outBytes, mbPerSecond);
+        }
+    }
+
+    private static WavFormat format(int audioFormat, int channels, int sampleRate, int bits, int seconds) {
+        long dataLength = (long) seconds * sampleRate * channels * (bits / 8);
+        return new WavFormat(audioFormat, channels, sampleRate, bits, 44, dataLength);
+    }
+
+    private static String describe(WavFormat f) {
+        return String.format("%d Hz %d-bit %s %s", f.getSampleRate(), f.getBitsPerSample(),
+                f.getAudioFormat() == WavFormat.FORMAT_IEEE_FLOAT ? "float" : "int",
+                f.getChannels() == 1 ? "mono" : "stereo");
+    }
+
+    private static byte[] synthesize(WavFormat f) {
+        byte[] data = new byte[(int) f.getDataLength()];
+        int bytesPerSample = f.getBitsPerSample() / 8;
+        Random random = new Random(7);
+        double phase = 0;
+        for (long frame = 0; frame < f.getFrameCount(); frame++) {
+            double t = (double) frame / f.getSampleRate();
+            double pitch = 120 + 30 * Math.sin(2 * Math.PI * 0.7 * t);
+            phase += 2 * Math.PI * pitch / f.getSampleRate();
+            double envelope = Math.max(0, Math.sin(2 * Math.PI * 4 * t));
+            double sample = envelope * (0.5 * Math.sin(phase) + 0.25 * Math.sin(2 * phase) + 0.12 * Math.sin(3 * phase))
+                    + 0.01 * random.nextGaussian();
+            for (int c = 0; c < f.getChannels(); c++) {
+                int offset = (int) (frame * f.getBlockAlign()) + c * bytesPerSample;
+                if (f.getAudioFormat() == WavFormat.FORMAT_IEEE_FLOAT) {
+                    writeLittleEndian(data, offset, Float.floatToIntBits((float) sample), 4);
+                } else {
+                    long max = (1L << (f.getBitsPerSample() - 1)) - 1;
+                    writeLittleEndian(data, offset, Math.round(sample * max), bytesPerSample);
+                }
+            }
+        }
+        return data;
+    }
+
+    private static void writeLittleEndian(byte[] b, int offset, long value, int bytes) {
+        for (int i = 0; i < bytes; i++) {
+            b[offset + i] = (byte) (value >> (8 * i));
+        }
+    }
+
+    private static long drain(InputStream in) throws IOException {
+        byte[] buffer = new byte[64 * 1024];
+        long total = 0;
+        for (int n; (n = in.read(buffer)) > 0; ) {
+            total += n;
+        }
+        return total;
+    }
+}
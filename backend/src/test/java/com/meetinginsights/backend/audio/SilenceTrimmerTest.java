@@ -0,0 +1,156 @@
+package com.meetinginsights.backend.audio;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * At 1 kHz the trimmer works in frames of 20 samples (20 ms); 200 ms of silence is 10 frames and 40 ms of padding
+ * is 2. Silent frames hold a small distinct level each, so the test can tell which of them were kept.
+ */
+class SilenceTrimmerTest {
+
+    private static final int SAMPLE_RATE = 1000;
+    private static final int FRAME_SAMPLES = 20;
+    private static final short LOUD = 10000;
+
+    @Test
+    void aShortSilenceIsKept() throws IOException {
+        List<Short> frames = frames(loud(5), silent(1, 10), loud(5));
+
+        Trimmed trimmed = trim(frames, 40);
+
+        assertEquals(frames, trimmed.frames);
+        assertTrue(trimmed.map.isEmpty());
+    }
+
+    @Test
+    void aLongSilenceIsCutToItsPaddingOnEachSide() throws IOException {
+        Trimmed trimmed = trim(frames(loud(5), silent(1, 30), loud(5)), 40);
+
+        // The first two silent frames and, from the ring, the last two, in order.
+        assertEquals(frames(loud(5), List.of((short) 1, (short) 2, (short) 29, (short) 30), loud(5)), trimmed.frames);
+        assertEquals(1, trimmed.map.getCuts().size());
+        TimestampMap.Cut cut = trimmed.map.getCuts().get(0);
+        assertEquals(0.14, cut.getOutputSeconds(), 1e-9);
+        assertEquals(0.52, cut.getRemovedSeconds(), 1e-9);
+    }
+
+    @Test
+    void withoutPaddingTheWholeRunIsCut() throws IOException {
+        Trimmed trimmed = trim(frames(loud(5), silent(1, 30), loud(5)), 0);
+
+        assertEquals(frames(loud(5), loud(5)), trimmed.frames);
+        assertEquals(0.1, trimmed.map.getCuts().get(0).getOutputSeconds(), 1e-9);
+        assertEquals(0.6, trimmed.map.getRemovedSeconds(), 1e-9);
+    }
+
+    @Test
+    void aTrailingSilenceIsCutAndAPartialFrameKept() throws IOException {
+        List<Short> frames = frames(loud(5), silent(1, 23));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] input = concat(pcm(frames), new byte[] {1, 0, 2, 0, 3});
+
+        TimestampMap map = trimmer(40).trim(new ByteArrayInputStream(input), out);
+
+        byte[] expected = concat(pcm(frames(loud(5), List.of((short) 1, (short) 2, (short) 22, (short) 23))),
+                new byte[] {1, 0, 2, 0});
+        assertArrayEquals(expected, out.toByteArray());
+        assertEquals(0.38, map.getRemovedSeconds(), 1e-9);
+    }
+
+    @Test
+    void eachLongRunIsCutSeparately() throws IOException {
+        Trimmed trimmed = trim(frames(silent(1, 15), loud(3), silent(1, 12), loud(3)), 40);
+
+        assertEquals(2, trimmed.map.getCuts().size());
+        // Cuts are placed after a run's leading padding: 4 kept frames of the first run, 3 loud ones, then 2.
+        assertEquals(0.18, trimmed.map.getCuts().get(1).getOutputSeconds(), 1e-9);
+        assertEquals(0.22 + 0.16, trimmed.map.getRemovedSeconds(), 1e-9);
+        assertEquals(4 + 3 + 4 + 3, trimmed.frames.size());
+    }
+
+    private static SilenceTrimmer trimmer(long paddingMs) {
+        return new SilenceTrimmer(SAMPLE_RATE, -45, 200, paddingMs);
+    }
+
+    private static Trimmed trim(List<Short> frames, long paddingMs) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        TimestampMap map = trimmer(paddingMs).trim(new ByteArrayInputStream(pcm(frames)), out);
+
+        ByteBuffer b = ByteBuffer.wrap(out.toByteArray()).order(ByteOrder.LITTLE_ENDIAN);
+        List<Short> levels = new ArrayList<>();
+        while (b.hasRemaining()) {
+            short level = b.getShort();
+            for (int i = 1; i < FRAME_SAMPLES; i++) {
+                assertEquals(level, b.getShort(), "a frame was split");
+            }
+            levels.add(level);
+        }
+        return new Trimmed(levels, map);
+    }
+
+    /** Each element is one frame, filled with that level. */
+    private static byte[] pcm(List<Short> frames) {
+        ByteBuffer b = ByteBuffer.allocate(frames.size() * FRAME_SAMPLES * 2).order(ByteOrder.LITTLE_ENDIAN);
+        for (short level : frames) {
+            for (int i = 0; i < FRAME_SAMPLES; i++) {
+                b.putShort(level);
+            }
+        }
+        return b.array();
+    }
+
+    private static List<Short> loud(int count) {
+        List<Short> frames = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            frames.add(LOUD);
+        }
+        return frames;
+    }
+
+    /** Silent frames with levels from..to, all far below -45 dBFS. */
+    private static List<Short> silent(int from, int to) {
+        List<Short> frames = new ArrayList<>();
+        for (int level = from; level <= to; level++) {
+            frames.add((short) level);
+        }
+        return frames;
+    }
+
+    @SafeVarargs
+    private static List<Short> frames(List<Short>... parts) {
+        List<Short> frames = new ArrayList<>();
+        for (List<Short> part : parts) {
+            frames.addAll(part);
+        }
+        return frames;
+    }
+
+    private static byte[] concat(byte[] a, byte[] b) {
+        byte[] result = new byte[a.length + b.length];
+        System.arraycopy(a, 0, result, 0, a.length);
+        System.arraycopy(b, 0, result, a.length, b.length);
+        return result;
+    }
+
+    private static final class Trimmed {
+        final List<Short> frames;
+        final TimestampMap map;
+
+        Trimmed(List<Short> frames, TimestampMap map) {
+            this.frames = frames;
+            this.map = map;
+        }
+    }
+}
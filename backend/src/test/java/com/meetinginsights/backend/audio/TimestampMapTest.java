@@ -0,0 +1,62 @@
+package com.meetinginsights.backend.audio;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TimestampMapTest {
+
+    /** 59 s cut at 0:05, 30 s at 0:10 and 100 s at 0:20 of the trimmed audio. */
+    private static TimestampMap threeCuts() {
+        TimestampMap map = new TimestampMap();
+        map.addCut(5, 59);
+        map.addCut(10, 30);
+        map.addCut(20, 100);
+        return map;
+    }
+
+    @Test
+    void timesAreShiftedByEveryCutBeforeThem() {
+        TimestampMap map = threeCuts();
+
+        assertEquals(3, map.toOriginal(3), 1e-9);
+        // Audio right at a cut resumes after the removed span.
+        assertEquals(64, map.toOriginal(5), 1e-9);
+        assertEquals(66, map.toOriginal(7), 1e-9);
+        assertEquals(99, map.toOriginal(10), 1e-9);
+        assertEquals(104, map.toOriginal(15), 1e-9);
+        assertEquals(214, map.toOriginal(25), 1e-9);
+        assertEquals(189, map.getRemovedSeconds(), 1e-9);
+    }
+
+    @Test
+    void withoutCutsTimesAreUnchanged() {
+        TimestampMap map = new TimestampMap();
+
+        assertTrue(map.isEmpty());
+        assertEquals(42.5, map.toOriginal(42.5), 1e-9);
+        assertEquals("", map.describe(0, 100));
+    }
+
+    @Test
+    void theCutsInAStretchAreDescribedRelativeToItsStart() {
+        TimestampMap map = threeCuts();
+
+        assertEquals("""
+                - At 00:05 in this audio, 00:59 of silence was removed; the audio after it resumes at 01:04 of the original recording.
+                - At 00:10 in this audio, 00:30 of silence was removed; the audio after it resumes at 01:39 of the original recording.
+                - At 00:20 in this audio, 01:40 of silence was removed; the audio after it resumes at 03:29 of the original recording.
+                """, map.describe(0, 30));
+        assertEquals("- At 00:02 in this audio, 00:30 of silence was removed; the audio after it resumes at 01:39 of the original recording.\n",
+                map.describe(8, 20));
+        assertEquals("", map.describe(11, 20));
+    }
+
+    @Test
+    void timesFromAnHourOnIncludeTheHours() {
+        assertEquals("00:00", TimestampMap.formatTime(0.9));
+        assertEquals("59:59", TimestampMap.formatTime(3599));
+        assertEquals("1:01:01", TimestampMap.formatTime(3661));
+    }
+}
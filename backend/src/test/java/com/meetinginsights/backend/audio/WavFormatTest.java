@@ -0,0 +1,161 @@
+package com.meetinginsights.backend.audio;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WavFormatTest {
+
+    @Test
+    void aCanonicalHeaderIsReadBack() throws IOException {
+        WavFormat written = new WavFormat(WavFormat.FORMAT_PCM, 2, 44100, 16, 44, 4 * 44100);
+        byte[] file = concat(written.header(4 * 44100), new byte[4 * 44100]);
+
+        WavFormat read = read(file).orElseThrow();
+
+        assertEquals(WavFormat.FORMAT_PCM, read.getAudioFormat());
+        assertEquals(2, read.getChannels());
+        assertEquals(44100, read.getSampleRate());
+        assertEquals(16, read.getBitsPerSample());
+        assertEquals(4, read.getBlockAlign());
+        assertEquals(44, read.getDataOffset());
+        assertEquals(44100, read.getFrameCount());
+        assertEquals(1.0, read.getDurationSeconds(), 1e-9);
+        assertArrayEquals(new byte[4 * 44100], read.openData(() -> new ByteArrayInputStream(file)).readAllBytes());
+    }
+
+    @Test
+    void theSubFormatOfAnExtensibleHeaderIsUsed() throws IOException {
+        ByteBuffer fmt = fmt(0xFFFE, 2, 48000, 32, 40);
+        fmt.putShort(16, (short) 22);   // extension size
+        fmt.putShort(18, (short) 32);   // valid bits
+        fmt.putInt(20, 0x3);            // channel mask
+        fmt.putShort(24, (short) WavFormat.FORMAT_IEEE_FLOAT);
+
+        WavFormat read = read(file(chunk("fmt ", fmt.array()), chunk("data", new byte[800]))).orElseThrow();
+
+        assertEquals(WavFormat.FORMAT_IEEE_FLOAT, read.getAudioFormat());
+        assertEquals(100, read.getFrameCount());
+        assertEquals(12 + 8 + 40 + 8, read.getDataOffset());
+    }
+
+    @Test
+    void oddLengthChunksAreSkippedWithTheirPadByte() throws IOException {
+        byte[] file = file(chunk("fmt ", fmt(1, 1, 16000, 16, 16).array()), chunk("LIST", new byte[7]),
+                chunk("data", new byte[320]));
+
+        WavFormat read = read(file).orElseThrow();
+
+        // 12 + (8 + 16) + (8 + 7 + 1 pad) + 8
+        assertEquals(60, read.getDataOffset());
+        assertEquals(160, read.getFrameCount());
+    }
+
+    @Test
+    void aMissingOrOversizedDataLengthIsClampedToTheFile() throws IOException {
+        // 1000 bytes of data and a stray byte, under a data chunk that claims 2 GB
+        byte[] file = concat(file(chunk("fmt ", fmt(1, 1, 8000, 16, 16).array()), chunk("data", new byte[1000])),
+                new byte[1]);
+        ByteBuffer.wrap(file).order(ByteOrder.LITTLE_ENDIAN).putInt(40, Integer.MAX_VALUE);
+
+        WavFormat read = read(file).orElseThrow();
+
+        // The odd trailing byte is not a whole frame.
+        assertEquals(1000, read.getDataLength());
+    }
+
+    @Test
+    void headersOutsideTheSupportedRangesAreNotWav() throws IOException {
+        assertEquals(Optional.empty(), read(wav(fmt(1, 1, 0, 16, 16))));
+        assertEquals(Optional.empty(), read(wav(fmt(1, 1, 100, 16, 16))));
+        assertEquals(Optional.empty(), read(wav(fmt(1, 1, 10_000_000, 16, 16))));
+        assertEquals(Optional.empty(), read(wav(fmt(1, 0, 16000, 16, 16))));
+        assertEquals(Optional.empty(), read(wav(fmt(1, 65535, 16000, 32, 16))));
+        assertEquals(Optional.empty(), read(wav(fmt(1, 1, 16000, 12, 16))));
+        assertEquals(Optional.empty(), read(wav(fmt(1, 1, 16000, 64, 16))));
+        assertEquals(Optional.empty(), read(wav(fmt(1, 1, 16000, 65535, 16))));
+        assertEquals(Optional.empty(), read(wav(fmt(3, 1, 16000, 16, 16))));
+        // Compressed formats, e.g. MP3 in a WAV container
+        assertEquals(Optional.empty(), read(wav(fmt(0x55, 1, 16000, 16, 16))));
+        assertTrue(read(wav(fmt(3, 1, 16000, 64, 16))).isPresent());
+    }
+
+    @Test
+    void anOversizedFmtChunkIsRejectedWithoutAllocatingIt() throws IOException {
+        byte[] file = wav(fmt(1, 1, 16000, 16, 16));
+        // Claims the fmt chunk is 2 GB long
+        ByteBuffer.wrap(file).order(ByteOrder.LITTLE_ENDIAN).putInt(16, Integer.MAX_VALUE);
+        assertEquals(Optional.empty(), read(file));
+
+        // Larger than the 40 bytes of WAVE_FORMAT_EXTENSIBLE, even if actually present
+        assertEquals(Optional.empty(), read(file(chunk("fmt ", new byte[42]), chunk("data", new byte[4]))));
+        // Negative as a signed int
+        ByteBuffer.wrap(file).order(ByteOrder.LITTLE_ENDIAN).putInt(16, -2);
+        assertEquals(Optional.empty(), read(file));
+    }
+
+    @Test
+    void otherFilesAndTruncatedHeadersAreNotWav() throws IOException {
+        assertEquals(Optional.empty(), read("ID3\u0004 not a wav file".getBytes()));
+        assertEquals(Optional.empty(), read(new byte[0]));
+        byte[] file = wav(fmt(1, 1, 16000, 16, 16));
+        byte[] truncated = new byte[30];
+        System.arraycopy(file, 0, truncated, 0, truncated.length);
+        assertEquals(Optional.empty(), read(truncated));
+        // No data chunk
+        assertEquals(Optional.empty(), read(file(chunk("fmt ", fmt(1, 1, 16000, 16, 16).array()))));
+    }
+
+    private static Optional<WavFormat> read(byte[] file) throws IOException {
+        return WavFormat.read(() -> new ByteArrayInputStream(file), file.length);
+    }
+
+    private static byte[] wav(ByteBuffer fmt) throws IOException {
+        return file(chunk("fmt ", fmt.array()), chunk("data", new byte[64]));
+    }
+
+    private static ByteBuffer fmt(int audioFormat, int channels, int sampleRate, int bits, int size) {
+        ByteBuffer b = ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+        int blockAlign = channels * ((bits + 7) / 8);
+        b.putShort((short) audioFormat).putShort((short) channels).putInt(sampleRate)
+                .putInt(sampleRate * blockAlign).putShort((short) blockAlign).putShort((short) bits);
+        return b;
+    }
+
+    private static byte[] chunk(String tag, byte[] body) {
+        ByteBuffer b = ByteBuffer.allocate(8 + body.length + body.length % 2).order(ByteOrder.LITTLE_ENDIAN);
+        b.put(tag.getBytes()).putInt(body.length).put(body);
+        return b.array();
+    }
+
+    private static byte[] file(byte[]... chunks) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ByteBuffer riff = ByteBuffer.allocate(12).order(ByteOrder.LITTLE_ENDIAN);
+        int length = 4;
+        for (byte[] chunk : chunks) {
+            length += chunk.length;
+        }
+        riff.put("RIFF".getBytes()).putInt(length).put("WAVE".getBytes());
+        out.write(riff.array());
+        for (byte[] chunk : chunks) {
+            out.write(chunk);
+        }
+        return out.toByteArray();
+    }
+
+    private static byte[] concat(byte[] a, byte[] b) {
+        byte[] result = new byte[a.length + b.length];
+        System.arraycopy(a, 0, result, 0, a.length);
+        System.arraycopy(b, 0, result, a.length, b.length);
+        return result;
+    }
+}
@@ -0,0 +1,160 @@
+package com.meetinginsights.backend.audio;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WavTranscoderTest {
+
+    private final WavTranscoder transcoder = new WavTranscoder(16000);
+
+    @Test
+    void downsamplingAveragesEachOutputPeriod() throws IOException {
+        // 48 kHz to 16 kHz: every output sample is the mean of three input samples.
+        short[] input = new short[4800];
+        for (int i = 0; i < input.length; i++) {
+            input[i] = (short) (i % 3 == 0 ? 300 : i % 3 == 1 ? 600 : 900);
+        }
+        WavFormat in = pcm16(1, 48000, input.length);
+
+        short[] output = transcode(in, pcm16(input));
+
+        assertEquals(1600, output.length);
+        for (short sample : output) {
+            assertEquals(600, sample);
+        }
+    }
+
+    @Test
+    void theOutputHeaderDescribesMono16BitAtTheTargetRate() throws IOException {
+        // One second at 44.1 kHz, a step of 2.75625 input frames per output frame
+        WavFormat in = pcm16(2, 44100, 44100);
+        byte[] file = transcoder.transcode(new ByteArrayInputStream(new byte[44100 * 4]), in).readAllBytes();
+
+        WavFormat out = WavFormat.read(() -> new ByteArrayInputStream(file), file.length).orElseThrow();
+
+        assertEquals(WavFormat.FORMAT_PCM, out.getAudioFormat());
+        assertEquals(1, out.getChannels());
+        assertEquals(16000, out.getSampleRate());
+        assertEquals(16, out.getBitsPerSample());
+        assertEquals(16000, out.getFrameCount());
+        assertEquals(44 + 16000 * 2, file.length);
+    }
+
+    @Test
+    void aConstantSignalSurvivesAFractionalStep() throws IOException {
+        short[] input = new short[44100];
+        Arrays.fill(input, (short) 1000);
+
+        short[] output = transcode(pcm16(1, 44100, input.length), pcm16(input));
+
+        assertEquals(16000, output.length);
+        for (short sample : output) {
+            assertEquals(1000, sample, 1);
+        }
+    }
+
+    @Test
+    void channelsAreMixedDownToMono() throws IOException {
+        short[] output = transcode(pcm16(2, 16000, 2), pcm16((short) 1000, (short) -1000, (short) 2000, (short) 0));
+
+        assertArrayEquals(new short[] {0, 1000}, output);
+    }
+
+    @Test
+    void eightBitSamplesAreUnsigned() throws IOException {
+        WavFormat in = new WavFormat(WavFormat.FORMAT_PCM, 1, 16000, 8, 44, 3);
+
+        short[] output = transcode(in, new byte[] {(byte) 128, (byte) 192, 0});
+
+        assertArrayEquals(new short[] {0, 16384, -32767}, output);
+    }
+
+    @Test
+    void twentyFourBitSamplesAreSignExtended() throws IOException {
+        WavFormat in = new WavFormat(WavFormat.FORMAT_PCM, 1, 16000, 24, 44, 6);
+        ByteBuffer data = ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN).putInt(0x200000).putInt(-0x200000);
+        byte[] pcm = {data.get(0), data.get(1), data.get(2), data.get(4), data.get(5), data.get(6)};
+
+        assertArrayEquals(new short[] {8192, -8192}, transcode(in, pcm));
+    }
+
+    @Test
+    void floatSamplesAreScaledAndClipped() throws IOException {
+        WavFormat in32 = new WavFormat(WavFormat.FORMAT_IEEE_FLOAT, 1, 16000, 32, 44, 12);
+        ByteBuffer floats = ByteBuffer.allocate(12).order(ByteOrder.LITTLE_ENDIAN).putFloat(0.25f).putFloat(-1.5f).putFloat(2f);
+        assertArrayEquals(new short[] {8192, Short.MIN_VALUE, Short.MAX_VALUE}, transcode(in32, floats.array()));
+
+        WavFormat in64 = new WavFormat(WavFormat.FORMAT_IEEE_FLOAT, 1, 16000, 64, 44, 16);
+        ByteBuffer doubles = ByteBuffer.allocate(16).order(ByteOrder.LITTLE_ENDIAN).putDouble(-0.25).putDouble(0.5);
+        assertArrayEquals(new short[] {-8192, 16384}, transcode(in64, doubles.array()));
+    }
+
+    @Test
+    void missingDataIsPaddedWithSilence() throws IOException {
+        // The header promises 100 frames, the data holds 2.
+        short[] output = transcode(pcm16(1, 16000, 100), pcm16((short) 500, (short) 500));
+
+        assertEquals(100, output.length);
+        assertEquals(500, output[1]);
+        assertEquals(0, output[99]);
+    }
+
+    @Test
+    void framesLargerThanTheBlockBudgetAreReadOneAtATime() throws IOException {
+        // 4096 channels of 32-bit PCM: 16 KiB per frame
+        WavFormat in = new WavFormat(WavFormat.FORMAT_PCM, 4096, 16000, 32, 44, 2L * 4096 * 4);
+        ByteBuffer data = ByteBuffer.allocate(2 * 4096 * 4).order(ByteOrder.LITTLE_ENDIAN);
+        for (int i = 0; i < 4096; i++) {
+            data.putInt(0x40000000);
+        }
+
+        assertArrayEquals(new short[] {16384, 0}, transcode(in, data.array()));
+    }
+
+    @Test
+    void aFormatWithoutASampleRateIsRejected() {
+        WavFormat in = new WavFormat(WavFormat.FORMAT_PCM, 1, 0, 16, 44, 100);
+
+        assertThrows(IllegalArgumentException.class, () -> transcoder.outputFormat(in));
+    }
+
+    @Test
+    void onlyAudioThatWouldShrinkIsWorthTranscoding() {
+        assertFalse(transcoder.isWorthwhile(pcm16(1, 16000, 1)));
+        assertFalse(transcoder.isWorthwhile(pcm16(1, 8000, 1)));
+        assertTrue(transcoder.isWorthwhile(pcm16(2, 16000, 1)));
+        assertTrue(transcoder.isWorthwhile(pcm16(1, 22050, 1)));
+        assertTrue(transcoder.isWorthwhile(new WavFormat(WavFormat.FORMAT_PCM, 1, 16000, 24, 44, 3)));
+    }
+
+    private short[] transcode(WavFormat in, byte[] data) throws IOException {
+        try (InputStream out = transcoder.transcodeData(new ByteArrayInputStream(data), in)) {
+            byte[] bytes = out.readAllBytes();
+            short[] samples = new short[bytes.length / 2];
+            ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN).asShortBuffer().get(samples);
+            return samples;
+        }
+    }
+
+    private static WavFormat pcm16(int channels, int sampleRate, long frames) {
+        return new WavFormat(WavFormat.FORMAT_PCM, channels, sampleRate, 16, 44, frames * channels * 2);
+    }
+
+    private static byte[] pcm16(short... samples) {
+        ByteBuffer b = ByteBuffer.allocate(samples.length * 2).order(ByteOrder.LITTLE_ENDIAN);
+        b.asShortBuffer().put(samples);
+        return b.array();
+    }
+}
@@ -0,0 +1,60 @@
+package com.meetinginsights.backend.config;
+
+import com.meetinginsights.backend.service.PipelineMetrics;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.web.servlet.MultipartProperties;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockPart;
+import org.springframework.web.multipart.support.StandardServletMultipartResolver;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class MetricsConfigTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final StandardServletMultipartResolver resolver =
+            new MetricsConfig().multipartResolver(new MultipartProperties(), new PipelineMetrics(meterRegistry));
+
+    @Test
+    void theUploadSizeIsTheContentLength() {
+        MockHttpServletRequest request = multipartRequest();
+        request.setContent(new byte[5_000]);
+
+        resolver.resolveMultipart(request);
+
+        assertEquals(5_000, uploadSize().totalAmount(), 0);
+    }
+
+    @Test
+    void aChunkedUploadIsSizedByItsFiles() {
+        // No content set, so there is no Content-Length, as with Transfer-Encoding: chunked.
+        MockHttpServletRequest request = multipartRequest();
+        assertEquals(-1, request.getContentLengthLong());
+
+        resolver.resolveMultipart(request);
+
+        assertEquals(1, uploadSize().count());
+        assertEquals(3_000 + 1_000, uploadSize().totalAmount(), 0);
+    }
+
+    private static MockHttpServletRequest multipartRequest() {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/gemini/upload-audio");
+        request.setContentType("multipart/form-data; boundary=x");
+        request.addPart(file("file", "meeting.wav", 3_000));
+        request.addPart(file("attachment", "notes.txt", 1_000));
+        return request;
+    }
+
+    private static MockPart file(String name, String fileName, int size) {
+        MockPart part = new MockPart(name, fileName, new byte[size]);
+        part.getHeaders().setContentType(MediaType.APPLICATION_OCTET_STREAM);
+        return part;
+    }
+
+    private DistributionSummary uploadSize() {
+        return meterRegistry.get("insight.upload.size").summary();
+    }
+}
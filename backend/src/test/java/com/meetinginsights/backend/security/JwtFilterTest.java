@@ -0,0 +1,109 @@
+package com.meetinginsights.backend.security;
+
+import com.meetinginsights.backend.entity.Role;
+import com.meetinginsights.backend.repository.RoleRepository;
+import com.meetinginsights.backend.service.CustomUserDetailsService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class JwtFilterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final JwtService jwtService = new JwtService("test-secret-test-secret-test-secret-test-secret", 1_000,
+            meterRegistry);
+    private final TokenRevocationService revocationService = new TokenRevocationService(3_600_000L, 1_000);
+    private final CustomUserDetailsService userDetailsService = mock(CustomUserDetailsService.class);
+    private final RoleRegistry roleRegistry;
+    private final JwtFilter filter;
+
+    JwtFilterTest() {
+        ReflectionTestUtils.setField(jwtService, "expirationMs", 3_600_000L);
+        RoleRepository roleRepository = mock(RoleRepository.class);
+        when(roleRepository.findAll()).thenReturn(List.of(role("ROLE_USER"), role("ROLE_ADMIN")));
+        roleRegistry = new RoleRegistry(roleRepository);
+        roleRegistry.reload();
+        filter = new JwtFilter(jwtService, userDetailsService, revocationService, roleRegistry, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void theUserIsLoadedAndCheckedByDefault() throws Exception {
+        when(userDetailsService.loadUserByUsername("ann@example.com"))
+                .thenReturn(User.withUsername("ann@example.com").password("x").authorities("ROLE_ADMIN").build());
+        String token = jwtService.generateToken("ann@example.com", Set.of("ROLE_USER"));
+
+        Authentication authentication = filter(token);
+
+        assertNotNull(authentication);
+        // The database's roles apply, not the ones the token was issued with.
+        assertEquals(List.of("ROLE_ADMIN"), authorityNames(authentication));
+    }
+
+    @Test
+    void statelessModeAuthenticatesFromTheClaimsWithoutLoadingTheUser() throws Exception {
+        ReflectionTestUtils.setField(filter, "stateless", true);
+        String token = jwtService.generateToken("ann@example.com", Set.of("ROLE_ADMIN"));
+
+        Authentication authentication = filter(token);
+
+        assertNotNull(authentication);
+        assertEquals("ann@example.com", authentication.getName());
+        assertEquals(List.of("ROLE_ADMIN"), authorityNames(authentication));
+        verify(userDetailsService, never()).loadUserByUsername(anyString());
+    }
+
+    @Test
+    void aRevokedTokenIsRefusedInEitherMode() throws Exception {
+        String token = jwtService.generateToken("ann@example.com", Set.of("ROLE_USER"));
+        revocationService.revokeAllFor("ann@example.com");
+
+        assertNull(filter(token));
+        ReflectionTestUtils.setField(filter, "stateless", true);
+        assertNull(filter(token));
+        verify(userDetailsService, never()).loadUserByUsername(anyString());
+        assertEquals(2, meterRegistry.get("auth.jwt.filter").tag("outcome", "rejected").timer().count());
+    }
+
+    private Authentication filter(String token) throws Exception {
+        SecurityContextHolder.clearContext();
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/insights");
+        request.addHeader("Authorization", "Bearer " + token);
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+
+    private static Role role(String name) {
+        Role role = new Role();
+        role.setName(name);
+        return role;
+    }
+
+    private static List<String> authorityNames(Authentication authentication) {
+        return authentication.getAuthorities().stream().map(GrantedAuthority::getAuthority).toList();
+    }
+}
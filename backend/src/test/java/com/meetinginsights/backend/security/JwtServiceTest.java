@@ -0,0 +1,100 @@
+package com.meetinginsights.backend.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.security.SignatureException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JwtServiceTest {
+
+    private static final String SECRET = "test-secret-test-secret-test-secret-test-secret";
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final JwtService jwtService = jwtService(SECRET, 3_600_000L, meterRegistry);
+
+    @Test
+    void aGeneratedTokenVerifiesWithItsSubjectRolesAndId() {
+        String token = jwtService.generateToken("ann@example.com", Set.of("ROLE_USER", "ROLE_ADMIN"));
+
+        Claims claims = jwtService.extractAllClaims(token);
+
+        assertEquals("ann@example.com", claims.getSubject());
+        assertEquals(Set.of("ROLE_USER", "ROLE_ADMIN"), jwtService.extractRoles(claims));
+        assertTrue(claims.getId() != null && !claims.getId().isEmpty());
+        assertNotEquals(claims.getId(),
+                jwtService.extractAllClaims(jwtService.generateToken("ann@example.com", Set.of("ROLE_USER"))).getId());
+    }
+
+    @Test
+    void repeatedLookupsOfATokenAreServedFromTheCache() {
+        String token = jwtService.generateToken("ann@example.com", Set.of("ROLE_USER"));
+
+        Claims first = jwtService.extractAllClaims(token);
+        Claims second = jwtService.extractAllClaims(token);
+
+        assertSame(first, second);
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "jwt.claims").tag("result", "hit")
+                .functionCounter().count());
+    }
+
+    @Test
+    void aTamperedTokenIsRejectedAndNotCached() {
+        String token = jwtService.generateToken("ann@example.com", Set.of("ROLE_USER"));
+        String[] parts = token.split("\\.");
+        String tampered = parts[0] + "." + parts[1] + "." + flipFirstChar(parts[2]);
+
+        assertThrows(SignatureException.class, () -> jwtService.extractAllClaims(tampered));
+        assertFalse(jwtService.isTokenSyntacticallyValid(tampered));
+        // A failed verification leaves nothing behind that a later lookup could hit.
+        assertThrows(SignatureException.class, () -> jwtService.extractAllClaims(tampered));
+    }
+
+    @Test
+    void aTokenSignedWithAnotherKeyIsRejected() {
+        String foreign = jwtService("another-secret-another-secret-another-secret", 3_600_000L, new SimpleMeterRegistry())
+                .generateToken("ann@example.com", Set.of("ROLE_ADMIN"));
+
+        assertThrows(SignatureException.class, () -> jwtService.extractAllClaims(foreign));
+    }
+
+    @Test
+    void anExpiredTokenIsRejected() {
+        String expired = jwtService(SECRET, -1_000L, new SimpleMeterRegistry()).generateToken("ann@example.com", Set.of("ROLE_USER"));
+
+        assertThrows(ExpiredJwtException.class, () -> jwtService.extractAllClaims(expired));
+        assertFalse(jwtService.isTokenSyntacticallyValid(expired));
+    }
+
+    @Test
+    void aTokenOnlyValidatesForItsOwnUser() {
+        String token = jwtService.generateToken("ann@example.com", Set.of("ROLE_USER"));
+        UserDetails ann = User.withUsername("ann@example.com").password("x").authorities("ROLE_USER").build();
+        UserDetails bob = User.withUsername("bob@example.com").password("x").authorities("ROLE_USER").build();
+
+        assertTrue(jwtService.validateToken(token, ann));
+        assertFalse(jwtService.validateToken(token, bob));
+    }
+
+    private static JwtService jwtService(String secret, long expirationMs, SimpleMeterRegistry meterRegistry) {
+        JwtService service = new JwtService(secret, 1_000, meterRegistry);
+        ReflectionTestUtils.setField(service, "expirationMs", expirationMs);
+        return service;
+    }
+
+    private static String flipFirstChar(String s) {
+        return (s.charAt(0) == 'A' ? 'B' : 'A') + s.substring(1);
+    }
+}
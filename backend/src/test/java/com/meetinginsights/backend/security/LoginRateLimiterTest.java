@@ -0,0 +1,110 @@
+package com.meetinginsights.backend.security;
+
+import com.meetinginsights.backend.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.web.ServerProperties;
+import org.springframework.boot.autoconfigure.web.embedded.TomcatWebServerFactoryCustomizer;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+import org.springframework.boot.web.server.WebServer;
+import org.springframework.core.env.PropertiesPropertySource;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.support.PropertiesLoaderUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class LoginRateLimiterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final LoginRateLimiter limiter = limiter(2, 5);
+
+    @Test
+    void anAddressIsThrottledOnceItsBurstIsUsed() {
+        limiter.acquire("203.0.113.1", "a@example.com");
+        limiter.acquire("203.0.113.1", "b@example.com");
+
+        assertThrows(TooManyRequestsException.class, () -> limiter.acquire("203.0.113.1", "c@example.com"));
+        assertDoesNotThrow(() -> limiter.acquire("203.0.113.2", "c@example.com"));
+        assertEquals(1, meterRegistry.get("auth.login.throttled").tag("limit", "address").counter().count());
+    }
+
+    @Test
+    void anAccountIsThrottledAcrossAddressesAndRegardlessOfCase() {
+        LoginRateLimiter limiter = limiter(20, 2);
+        limiter.acquire("203.0.113.1", "ann@example.com");
+        limiter.acquire("203.0.113.2", " Ann@Example.com");
+
+        assertThrows(TooManyRequestsException.class, () -> limiter.acquire("203.0.113.3", "ANN@example.com"));
+        assertDoesNotThrow(() -> limiter.acquire("203.0.113.3", "bob@example.com"));
+        assertEquals(1, meterRegistry.get("auth.login.throttled").tag("limit", "account").counter().count());
+    }
+
+    @Test
+    void clientsBehindTheProxyGetTheirOwnBuckets() throws Exception {
+        LoginRateLimiter limiter = limiter(1, 100);
+        HttpServlet login = new HttpServlet() {
+            @Override
+            protected void doPost(HttpServletRequest request, HttpServletResponse response) throws IOException {
+                try {
+                    limiter.acquire(request.getRemoteAddr(), null);
+                    response.setStatus(200);
+                } catch (TooManyRequestsException e) {
+                    response.setStatus(429);
+                }
+            }
+        };
+        // The server is configured from application.properties, like the application's own Tomcat.
+        StandardEnvironment environment = new StandardEnvironment();
+        environment.getPropertySources().addFirst(new PropertiesPropertySource("application",
+                PropertiesLoaderUtils.loadProperties(new ClassPathResource("application.properties"))));
+        ServerProperties serverProperties = Binder.get(environment).bind("server", ServerProperties.class).get();
+        TomcatServletWebServerFactory factory = new TomcatServletWebServerFactory(0);
+        new TomcatWebServerFactoryCustomizer(environment, serverProperties).customize(factory);
+        WebServer server = factory.getWebServer(context -> context.addServlet("login", login).addMapping("/login"));
+        server.start();
+        try {
+            HttpClient client = HttpClient.newHttpClient();
+            String url = "http://127.0.0.1:" + server.getPort() + "/login";
+
+            // Requests arrive from 127.0.0.1, a trusted proxy, on behalf of two different clients.
+            assertEquals(200, post(client, url, "198.51.100.7"));
+            assertEquals(200, post(client, url, "198.51.100.8"));
+            assertEquals(429, post(client, url, "198.51.100.7"));
+            // A client can't get a fresh bucket by prepending an address of its own choosing.
+            assertEquals(429, post(client, url, "192.0.2.99, 198.51.100.8"));
+        } finally {
+            server.stop();
+        }
+    }
+
+    private static int post(HttpClient client, String url, String forwardedFor) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url))
+                .header("X-Forwarded-For", forwardedFor)
+                .POST(HttpRequest.BodyPublishers.noBody())
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    private LoginRateLimiter limiter(int addressCapacity, int accountCapacity) {
+        LoginRateLimiter limiter = new LoginRateLimiter(meterRegistry, 1_000);
+        ReflectionTestUtils.setField(limiter, "addressCapacity", addressCapacity);
+        ReflectionTestUtils.setField(limiter, "addressRefillPerMinute", 1);
+        ReflectionTestUtils.setField(limiter, "accountCapacity", accountCapacity);
+        ReflectionTestUtils.setField(limiter, "accountRefillPerMinute", 1);
+        return limiter;
+    }
+}
@@ -0,0 +1,69 @@
+package com.meetinginsights.backend.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PasswordEncodersTest {
+
+    @Test
+    void bcryptHashesWithAnyOtherCostAreUpgraded() {
+        PasswordEncoder encoder = new PasswordEncoders.TargetCostBCryptPasswordEncoder(5);
+
+        assertTrue(encoder.upgradeEncoding(new BCryptPasswordEncoder(6).encode("secret")));
+        assertTrue(encoder.upgradeEncoding(new BCryptPasswordEncoder(4).encode("secret")));
+        assertFalse(encoder.upgradeEncoding(new BCryptPasswordEncoder(5).encode("secret")));
+    }
+
+    @Test
+    void somethingThatIsNotABcryptHashIsNotUpgraded() {
+        PasswordEncoder encoder = new PasswordEncoders.TargetCostBCryptPasswordEncoder(5);
+
+        assertFalse(encoder.upgradeEncoding(null));
+        assertFalse(encoder.upgradeEncoding("$2a$"));
+        assertFalse(encoder.upgradeEncoding("plaintext"));
+        assertFalse(encoder.upgradeEncoding("$2a$xx$abcdefghijklmnopqrstuv"));
+    }
+
+    @Test
+    void aLegacyUnprefixedHashStillMatchesAndIsUpgraded() {
+        PasswordEncoder encoder = PasswordEncoders.create(PasswordEncoders.BCRYPT, 5);
+        // Stored before the {id} prefix, already at the target cost.
+        String legacy = new BCryptPasswordEncoder(5).encode("secret");
+
+        assertTrue(encoder.matches("secret", legacy));
+        assertFalse(encoder.matches("wrong", legacy));
+        assertTrue(encoder.upgradeEncoding(legacy));
+    }
+
+    @Test
+    void aPrefixedHashIsOnlyUpgradedWhenItsCostDiffers() {
+        PasswordEncoder encoder = PasswordEncoders.create(PasswordEncoders.BCRYPT, 5);
+
+        String current = encoder.encode("secret");
+        assertTrue(current.startsWith("{bcrypt}$2a$05$"));
+        assertTrue(encoder.matches("secret", current));
+        assertFalse(encoder.upgradeEncoding(current));
+
+        assertTrue(encoder.upgradeEncoding("{bcrypt}" + new BCryptPasswordEncoder(4).encode("secret")));
+    }
+
+    @Test
+    void hashesOfAnotherAlgorithmAreUpgraded() {
+        PasswordEncoder encoder = PasswordEncoders.create(PasswordEncoders.BCRYPT, 5);
+        String pbkdf2 = PasswordEncoders.create(PasswordEncoders.PBKDF2, 5).encode("secret");
+
+        assertTrue(pbkdf2.startsWith("{pbkdf2}"));
+        assertTrue(encoder.matches("secret", pbkdf2));
+        assertTrue(encoder.upgradeEncoding(pbkdf2));
+    }
+
+    @Test
+    void anUnknownAlgorithmIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> PasswordEncoders.create("md5", 5));
+    }
+}
@@ -0,0 +1,65 @@
+package com.meetinginsights.backend.security;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark of password verification latency per algorithm and cost, i.e. the CPU time one login costs on this
+ * hardware. Sample mode reports percentiles, so the p99 of each setting can be read off directly; multiply by the
+ * expected login rate and divide by auth.hashing.pool-size to see how close a setting gets to saturating the pool.
+ * <p>
+ * Not a unit test; run it manually, e.g.
+ * <pre>
+ * mvn -q test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ * java -cp target/test-classes:target/classes:$(cat target/cp.txt) \
+ *     com.meetinginsights.backend.security.PasswordVerifyBenchmark [-p encoder=bcrypt-12,argon2]
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PasswordVerifyBenchmark {
+
+    private static final String PASSWORD = "correct horse battery staple";
+
+    /** The algorithm, and for BCrypt the cost, as used for new hashes by auth.password.encoder/bcrypt-strength. */
+    @Param({"bcrypt-8", "bcrypt-10", "bcrypt-12", "bcrypt-14", "pbkdf2", "argon2"})
+    public String encoder;
+
+    private PasswordEncoder passwordEncoder;
+    private String hash;
+
+    @Setup
+    public void setUp() {
+        String[] spec = encoder.split("-");
+        int bcryptStrength = spec.length > 1 ? Integer.parseInt(spec[1]) : 10;
+        passwordEncoder = PasswordEncoders.create(spec[0], bcryptStrength);
+        hash = passwordEncoder.encode(PASSWORD);
+    }
+
+    @Benchmark
+    public boolean verify() {
+        return passwordEncoder.matches(PASSWORD, hash);
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder().include(PasswordVerifyBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,89 @@
+package com.meetinginsights.backend.security;
+
+import com.meetinginsights.backend.entity.Role;
+import com.meetinginsights.backend.repository.RoleRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RoleRegistryTest {
+
+    private final RoleRepository roleRepository = mock(RoleRepository.class);
+    private final RoleRegistry registry = new RoleRegistry(roleRepository);
+
+    @Test
+    void rolesAreResolvedFromMemoryAfterTheLoad() {
+        Role user = role(1L, "ROLE_USER");
+        when(roleRepository.findAll()).thenReturn(List.of(user, role(2L, "ROLE_ADMIN")));
+
+        assertEquals(Set.of("ROLE_USER", "ROLE_ADMIN"), Set.copyOf(registry.reload()));
+
+        assertSame(user, registry.get("ROLE_USER"));
+        registry.get("ROLE_ADMIN");
+        verify(roleRepository, times(1)).findAll();
+    }
+
+    @Test
+    void anUnknownRoleIsAnError() {
+        when(roleRepository.findAll()).thenReturn(List.of(role(1L, "ROLE_USER")));
+        registry.reload();
+
+        assertThrows(IllegalStateException.class, () -> registry.get("ROLE_ADMIN"));
+    }
+
+    @Test
+    void aReloadPicksUpAddedAndRemovedRoles() {
+        when(roleRepository.findAll()).thenReturn(List.of(role(1L, "ROLE_USER")));
+        registry.reload();
+
+        when(roleRepository.findAll()).thenReturn(List.of(role(2L, "ROLE_ADMIN")));
+        assertEquals(Set.of("ROLE_ADMIN"), Set.copyOf(registry.reload()));
+
+        assertEquals(2L, registry.get("ROLE_ADMIN").getId());
+        assertThrows(IllegalStateException.class, () -> registry.get("ROLE_USER"));
+        assertEquals(Set.of("ROLE_ADMIN"), Set.copyOf(registry.names()));
+    }
+
+    @Test
+    void authorityListsAreSharedWithinALoadAndRebuiltByAReload() {
+        when(roleRepository.findAll()).thenReturn(List.of(role(1L, "ROLE_USER"), role(2L, "ROLE_ADMIN")));
+        registry.reload();
+
+        List<GrantedAuthority> first = registry.authorities(Set.of("ROLE_USER", "ROLE_ADMIN"));
+        List<GrantedAuthority> second = registry.authorities(Set.of("ROLE_ADMIN", "ROLE_USER"));
+        assertSame(first, second);
+        assertSame(first.get(0), registry.authorities(List.of(first.get(0).getAuthority())).get(0));
+
+        registry.reload();
+        assertNotSame(first, registry.authorities(Set.of("ROLE_USER", "ROLE_ADMIN")));
+    }
+
+    @Test
+    void aRoleMissingFromTheRegistryStillGetsAnAuthority() {
+        when(roleRepository.findAll()).thenReturn(List.of(role(1L, "ROLE_USER")));
+        registry.reload();
+
+        List<GrantedAuthority> authorities = registry.authorities(List.of("ROLE_USER", "ROLE_AUDITOR"));
+
+        assertEquals(List.of("ROLE_USER", "ROLE_AUDITOR"),
+                authorities.stream().map(GrantedAuthority::getAuthority).toList());
+    }
+
+    private static Role role(Long id, String name) {
+        Role role = new Role();
+        role.setId(id);
+        role.setName(name);
+        return role;
+    }
+}
@@ -0,0 +1,70 @@
+package com.meetinginsights.backend.security;
+
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TokenRevocationServiceTest {
+
+    private final JwtService jwtService = new JwtService("test-secret-test-secret-test-secret-test-secret", 1_000,
+            new SimpleMeterRegistry());
+    private final TokenRevocationService revocationService = new TokenRevocationService(3_600_000L, 1_000);
+
+    TokenRevocationServiceTest() {
+        ReflectionTestUtils.setField(jwtService, "expirationMs", 3_600_000L);
+    }
+
+    @Test
+    void revokingATokenLeavesTheUsersOtherTokensValid() {
+        Claims first = claims("ann@example.com");
+        Claims second = claims("ann@example.com");
+
+        revocationService.revoke(first);
+
+        assertTrue(revocationService.isRevoked(first));
+        assertFalse(revocationService.isRevoked(second));
+    }
+
+    @Test
+    void revokingAllOfAUsersTokensLeavesOtherUsersAlone() {
+        Claims ann = claims("ann@example.com");
+        Claims annAgain = claims("ann@example.com");
+        Claims bob = claims("bob@example.com");
+
+        revocationService.revokeAllFor("ann@example.com");
+
+        assertTrue(revocationService.isRevoked(ann));
+        assertTrue(revocationService.isRevoked(annAgain));
+        assertFalse(revocationService.isRevoked(bob));
+    }
+
+    @Test
+    void aTokenIssuedAfterTheCutoffIsValid() throws Exception {
+        revocationService.revokeAllFor("ann@example.com");
+        // Issue times have a resolution of one second.
+        Thread.sleep(1_100);
+
+        assertFalse(revocationService.isRevoked(claims("ann@example.com")));
+    }
+
+    @Test
+    void revokingAllTokensRevokesEveryUsersTokens() {
+        Claims ann = claims("ann@example.com");
+        Claims bob = claims("bob@example.com");
+
+        revocationService.revokeAll();
+
+        assertTrue(revocationService.isRevoked(ann));
+        assertTrue(revocationService.isRevoked(bob));
+    }
+
+    private Claims claims(String subject) {
+        return jwtService.extractAllClaims(jwtService.generateToken(subject, Set.of("ROLE_USER")));
+    }
+}
@@ -0,0 +1,118 @@
+package com.meetinginsights.backend.security;
+
+import com.meetinginsights.backend.entity.User;
+import com.meetinginsights.backend.repository.UserRepository;
+import com.meetinginsights.backend.service.UserChangedEvent;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Logs in through the same {@link DaoAuthenticationProvider} wiring as {@code SecurityConfig}, with a BCrypt target
+ * cost of 5 so the hashing stays fast.
+ */
+class UserDetailsServiceImplTest {
+
+    private final UserSnapshotCache userSnapshotCache = mock(UserSnapshotCache.class);
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+    private final PasswordEncoder passwordEncoder = PasswordEncoders.create(PasswordEncoders.BCRYPT, 5);
+    private final UserDetailsServiceImpl service = service();
+    private final DaoAuthenticationProvider provider = provider();
+
+    @Test
+    void aLoginWithALegacyHashStoresAPrefixedHashAtTheTargetCost() {
+        User user = user(new BCryptPasswordEncoder(4).encode("secret"));
+
+        provider.authenticate(new UsernamePasswordAuthenticationToken("ann@example.com", "secret"));
+
+        ArgumentCaptor<User> saved = ArgumentCaptor.forClass(User.class);
+        verify(userRepository).save(saved.capture());
+        String stored = saved.getValue().getPassword();
+        assertTrue(stored.startsWith("{bcrypt}$2a$05$"), stored);
+        assertTrue(passwordEncoder.matches("secret", stored));
+        assertEquals(stored, user.getPassword());
+
+        ArgumentCaptor<UserChangedEvent> event = ArgumentCaptor.forClass(UserChangedEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        assertEquals("ann@example.com", event.getValue().getEmail());
+    }
+
+    @Test
+    void aLoginWithACurrentHashLeavesItAlone() {
+        user(passwordEncoder.encode("secret"));
+
+        provider.authenticate(new UsernamePasswordAuthenticationToken("ann@example.com", "secret"));
+
+        verify(userRepository, never()).save(any());
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    void aFailedLoginDoesNotTouchTheHash() {
+        user(new BCryptPasswordEncoder(4).encode("secret"));
+
+        assertThrows(BadCredentialsException.class,
+                () -> provider.authenticate(new UsernamePasswordAuthenticationToken("ann@example.com", "wrong")));
+
+        verify(userRepository, never()).save(any());
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    void updatingTheHashOfADeletedUserFails() {
+        User user = user("{bcrypt}hash");
+        UserDetailsImpl details = (UserDetailsImpl) service.loadUserByUsername("ann@example.com");
+        when(userRepository.findById(user.getId())).thenReturn(Optional.empty());
+
+        assertThrows(UsernameNotFoundException.class, () -> service.updatePassword(details, "{bcrypt}new"));
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    private UserDetailsServiceImpl service() {
+        UserDetailsServiceImpl service = new UserDetailsServiceImpl();
+        ReflectionTestUtils.setField(service, "userSnapshotCache", userSnapshotCache);
+        ReflectionTestUtils.setField(service, "userRepository", userRepository);
+        ReflectionTestUtils.setField(service, "eventPublisher", eventPublisher);
+        return service;
+    }
+
+    private DaoAuthenticationProvider provider() {
+        DaoAuthenticationProvider provider = new DaoAuthenticationProvider();
+        provider.setUserDetailsService(service);
+        provider.setPasswordEncoder(passwordEncoder);
+        provider.setUserDetailsPasswordService(service);
+        return provider;
+    }
+
+    /** Stores ann@example.com with this password hash, in the repository and the snapshot cache. */
+    private User user(String password) {
+        User user = new User();
+        user.setId(1L);
+        user.setEmail("ann@example.com");
+        user.setUsername("ann");
+        user.setPassword(password);
+        UserSnapshot snapshot = UserSnapshot.of(user, mock(RoleRegistry.class));
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        when(userSnapshotCache.findByEmail("ann@example.com")).thenReturn(Optional.of(snapshot));
+        return user;
+    }
+}
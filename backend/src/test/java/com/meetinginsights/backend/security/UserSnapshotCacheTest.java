@@ -0,0 +1,134 @@
+package com.meetinginsights.backend.security;
+
+import com.meetinginsights.backend.entity.Role;
+import com.meetinginsights.backend.entity.User;
+import com.meetinginsights.backend.repository.RoleRepository;
+import com.meetinginsights.backend.repository.UserRepository;
+import com.meetinginsights.backend.service.UserChangedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.annotation.EnableTransactionManagement;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class UserSnapshotCacheTest {
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final RoleRegistry roleRegistry = roleRegistry();
+    private final UserSnapshotCache cache = new UserSnapshotCache(userRepository, roleRegistry, new SimpleMeterRegistry(),
+            100, Duration.ofMinutes(5));
+
+    @Test
+    void aUserIsLoadedOnceAndThenServedFromTheCache() {
+        when(userRepository.findByEmail("ann@example.com")).thenReturn(Optional.of(user("ann@example.com", "ROLE_USER")));
+
+        UserSnapshot first = cache.findByEmail("ann@example.com").orElseThrow();
+        UserSnapshot second = cache.findByEmail("ann@example.com").orElseThrow();
+
+        assertSame(first, second);
+        assertEquals(Set.of("ROLE_USER"), first.getRoles());
+        assertSame(roleRegistry.authorities(Set.of("ROLE_USER")), first.getAuthorities());
+        verify(userRepository, times(1)).findByEmail("ann@example.com");
+    }
+
+    @Test
+    void anUnknownEmailIsNotCached() {
+        when(userRepository.findByEmail("ann@example.com")).thenReturn(Optional.empty());
+        assertTrue(cache.findByEmail("ann@example.com").isEmpty());
+
+        when(userRepository.findByEmail("ann@example.com")).thenReturn(Optional.of(user("ann@example.com", "ROLE_USER")));
+        assertTrue(cache.findByEmail("ann@example.com").isPresent());
+    }
+
+    @Test
+    void aChangedUserIsReloaded() {
+        when(userRepository.findByEmail("ann@example.com")).thenReturn(Optional.of(user("ann@example.com", "ROLE_USER")));
+        cache.findByEmail("ann@example.com");
+
+        when(userRepository.findByEmail("ann@example.com")).thenReturn(Optional.of(user("ann@example.com", "ROLE_ADMIN")));
+        cache.onUserChanged(new UserChangedEvent("ann@example.com"));
+
+        assertEquals(Set.of("ROLE_ADMIN"), cache.findByEmail("ann@example.com").orElseThrow().getRoles());
+    }
+
+    @Test
+    void invalidatingAllDropsEveryUser() {
+        when(userRepository.findByEmail("ann@example.com")).thenReturn(Optional.of(user("ann@example.com", "ROLE_USER")));
+        when(userRepository.findByEmail("bob@example.com")).thenReturn(Optional.of(user("bob@example.com", "ROLE_USER")));
+        cache.findByEmail("ann@example.com");
+        cache.findByEmail("bob@example.com");
+
+        cache.invalidateAll();
+        cache.findByEmail("ann@example.com");
+        cache.findByEmail("bob@example.com");
+
+        verify(userRepository, times(2)).findByEmail("ann@example.com");
+        verify(userRepository, times(2)).findByEmail("bob@example.com");
+    }
+
+    @Test
+    void aPublishedEventReachesTheCacheOutsideATransaction() {
+        try (AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext(ListenerConfig.class)) {
+            UserRepository repository = context.getBean(UserRepository.class);
+            UserSnapshotCache beanCache = context.getBean(UserSnapshotCache.class);
+            when(repository.findByEmail("ann@example.com")).thenReturn(Optional.of(user("ann@example.com", "ROLE_USER")));
+            beanCache.findByEmail("ann@example.com");
+
+            context.publishEvent(new UserChangedEvent("ann@example.com"));
+            beanCache.findByEmail("ann@example.com");
+
+            verify(repository, times(2)).findByEmail("ann@example.com");
+        }
+    }
+
+    @Configuration
+    @EnableTransactionManagement
+    static class ListenerConfig {
+        @Bean
+        UserRepository userRepository() {
+            return mock(UserRepository.class);
+        }
+
+        @Bean
+        UserSnapshotCache userSnapshotCache(UserRepository userRepository) {
+            return new UserSnapshotCache(userRepository, roleRegistry(), new SimpleMeterRegistry(), 100, Duration.ofMinutes(5));
+        }
+    }
+
+    private static RoleRegistry roleRegistry() {
+        RoleRepository roleRepository = mock(RoleRepository.class);
+        when(roleRepository.findAll()).thenReturn(List.of(role("ROLE_USER"), role("ROLE_ADMIN")));
+        RoleRegistry registry = new RoleRegistry(roleRepository);
+        registry.reload();
+        return registry;
+    }
+
+    private static Role role(String name) {
+        Role role = new Role();
+        role.setName(name);
+        return role;
+    }
+
+    private static User user(String email, String roleName) {
+        User user = new User();
+        user.setId(1L);
+        user.setEmail(email);
+        user.setUsername(email);
+        user.setRoles(Set.of(role(roleName)));
+        return user;
+    }
+}
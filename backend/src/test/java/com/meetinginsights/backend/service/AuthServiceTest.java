@@ -0,0 +1,114 @@
+package com.meetinginsights.backend.service;
+
+import com.meetinginsights.backend.dto.AuthResponse;
+import com.meetinginsights.backend.dto.RegisterRequest;
+import com.meetinginsights.backend.entity.Role;
+import com.meetinginsights.backend.exception.EmailAlreadyExistsException;
+import com.meetinginsights.backend.exception.UsernameAlreadyExistsException;
+import com.meetinginsights.backend.repository.RoleRepository;
+import com.meetinginsights.backend.repository.UserRepository;
+import com.meetinginsights.backend.security.JwtService;
+import com.meetinginsights.backend.security.RoleRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.hibernate.exception.ConstraintViolationException;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.security.crypto.password.NoOpPasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class AuthServiceTest {
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final JwtService jwtService = new JwtService("test-secret-test-secret-test-secret-test-secret", 1_000,
+            new SimpleMeterRegistry());
+    private final AuthService authService = new AuthService();
+
+    AuthServiceTest() {
+        ReflectionTestUtils.setField(jwtService, "expirationMs", 3_600_000L);
+        RoleRepository roleRepository = mock(RoleRepository.class);
+        Role userRole = new Role();
+        userRole.setName("ROLE_USER");
+        when(roleRepository.findAll()).thenReturn(List.of(userRole));
+        RoleRegistry roleRegistry = new RoleRegistry(roleRepository);
+        roleRegistry.reload();
+
+        ReflectionTestUtils.setField(authService, "userRepository", userRepository);
+        ReflectionTestUtils.setField(authService, "roleRegistry", roleRegistry);
+        ReflectionTestUtils.setField(authService, "passwordEncoder", NoOpPasswordEncoder.getInstance());
+        ReflectionTestUtils.setField(authService, "jwtService", jwtService);
+    }
+
+    @Test
+    void aNewUserGetsATokenWithTheUserRole() {
+        AuthResponse response = authService.register(request("ann", "ann@example.com"));
+
+        assertEquals("ann@example.com", jwtService.extractUsername(response.getToken()));
+        assertEquals(Set.of("ROLE_USER"), jwtService.extractRoles(response.getToken()));
+    }
+
+    @Test
+    void aDuplicateEmailIsAConflict() {
+        when(userRepository.save(any())).thenThrow(uniqueViolation("Key (email)=(ann@example.com) already exists."));
+
+        assertThrows(EmailAlreadyExistsException.class, () -> authService.register(request("ann", "ann@example.com")));
+    }
+
+    @Test
+    void aDuplicateUsernameIsAConflict() {
+        when(userRepository.save(any())).thenThrow(uniqueViolation("Key (username)=(ann) already exists."));
+
+        assertThrows(UsernameAlreadyExistsException.class, () -> authService.register(request("ann", "ann@example.com")));
+    }
+
+    @Test
+    void aViolationOnAnotherKeyIsRethrownAsItIs() {
+        // A unique violation on another column whose name merely contains "email"
+        DataIntegrityViolationException otherKey = uniqueViolation("Key (email_hash)=(abc) already exists.");
+        when(userRepository.save(any())).thenThrow(otherKey);
+        assertSame(otherKey, assertThrows(DataIntegrityViolationException.class,
+                () -> authService.register(request("ann", "ann@example.com"))));
+    }
+
+    @Test
+    void aViolationOtherThanUniquenessIsRethrownAsItIs() {
+        // Not a unique violation, although the message names the email column
+        DataIntegrityViolationException notNull = new DataIntegrityViolationException("could not execute statement",
+                new ConstraintViolationException("could not execute statement",
+                        new SQLException("ERROR: null value in column \"email\" of relation \"users\" violates not-null"
+                                + " constraint\n  Detail: Failing row contains (email) = null.", "23502"), null));
+        when(userRepository.save(any())).thenThrow(notNull);
+        assertSame(notNull, assertThrows(DataIntegrityViolationException.class,
+                () -> authService.register(request("ann", "ann@example.com"))));
+    }
+
+    /**
+     * A unique violation as PostgreSQL reports it, wrapped by Hibernate and Spring.
+     */
+    private static DataIntegrityViolationException uniqueViolation(String detail) {
+        SQLException sql = new SQLException("ERROR: duplicate key value violates unique constraint"
+                + " \"uk6dotkott2kjsp8vw4d0m25fb7\"\n  Detail: " + detail, "23505");
+        return new DataIntegrityViolationException("could not execute statement",
+                new ConstraintViolationException("could not execute statement", sql, "uk6dotkott2kjsp8vw4d0m25fb7"));
+    }
+
+    private static RegisterRequest request(String username, String email) {
+        RegisterRequest request = new RegisterRequest();
+        request.setUsername(username);
+        request.setFirstName("Ann");
+        request.setLastName("Example");
+        request.setEmail(email);
+        request.setPassword("secret");
+        return request;
+    }
+}
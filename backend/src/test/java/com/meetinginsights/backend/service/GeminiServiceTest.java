@@ -0,0 +1,433 @@
+package com.meetinginsights.backend.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.meetinginsights.backend.audio.AudioPreprocessor;
+import com.meetinginsights.backend.audio.TimestampMap;
+import com.meetinginsights.backend.audio.WavFormat;
+import com.meetinginsights.backend.dto.MeetingInsights;
+import com.meetinginsights.backend.exception.TooManyRequestsException;
+import com.meetinginsights.backend.security.UserSnapshotCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.InputStreamSource;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class GeminiServiceTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private GeminiStubServer stub;
+    private GeminiService geminiService;
+    private GeminiInsightEngine engine;
+    private LongMeetingProcessor longMeetingProcessor;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        stub = new GeminiStubServer();
+        meterRegistry = new SimpleMeterRegistry();
+
+        GeminiFileUploader uploader = new GeminiFileUploader(Duration.ofSeconds(5), Duration.ofSeconds(2));
+        ReflectionTestUtils.setField(uploader, "geminiApiKey", "test-key");
+        ReflectionTestUtils.setField(uploader, "geminiBaseUrl", stub.baseUrl());
+        ReflectionTestUtils.setField(uploader, "chunkSize", 64 * 1024L);
+        ReflectionTestUtils.setField(uploader, "maxChunkRetries", 3);
+        ReflectionTestUtils.setField(uploader, "activationTimeoutMs", 1000L);
+        ReflectionTestUtils.setField(uploader, "pollIntervalMs", 10L);
+
+        engine = new GeminiInsightEngine();
+        ReflectionTestUtils.setField(engine, "geminiApiKey", "test-key");
+        ReflectionTestUtils.setField(engine, "fastModel", "gemini-2.5-flash");
+        ReflectionTestUtils.setField(engine, "proModel", "gemini-2.5-pro");
+        ReflectionTestUtils.setField(engine, "geminiBaseUrl", stub.baseUrl());
+        ReflectionTestUtils.setField(engine, "filesApiThresholdBytes", 1024 * 1024L);
+        ReflectionTestUtils.setField(engine, "maxBufferedChunks", 16);
+        ReflectionTestUtils.setField(engine, "fileUploader", uploader);
+        ReflectionTestUtils.setField(engine, "geminiClient", new ResilientGeminiClient(new SimpleMeterRegistry(),
+                Duration.ofSeconds(5), Duration.ofSeconds(30), Duration.ofSeconds(60), 3, Duration.ofMillis(10),
+                Duration.ofMillis(100), false, Duration.ofSeconds(1), 20, 0.5, Duration.ofSeconds(30)));
+        // Limits far above what the calls here need
+        ReflectionTestUtils.setField(engine, "governor", new OutboundGovernor(new SimpleMeterRegistry(),
+                1e6, 1e6, 1e9, 1e9, Integer.MAX_VALUE, Integer.MAX_VALUE, Duration.ofSeconds(60)));
+        ReflectionTestUtils.setField(engine, "metrics", new PipelineMetrics(meterRegistry));
+
+        geminiService = new GeminiService();
+        ReflectionTestUtils.setField(geminiService, "engine", engine);
+        ReflectionTestUtils.setField(geminiService, "insightCache",
+                new InsightCache(new SimpleMeterRegistry(), Optional.empty(), 100, Duration.ofHours(1)));
+
+        longMeetingProcessor = new LongMeetingProcessor(new SimpleAsyncTaskExecutor());
+        ReflectionTestUtils.setField(longMeetingProcessor, "enabled", true);
+        ReflectionTestUtils.setField(longMeetingProcessor, "minDuration", Duration.ofMinutes(15));
+        ReflectionTestUtils.setField(longMeetingProcessor, "segmentLength", Duration.ofMinutes(10));
+        ReflectionTestUtils.setField(longMeetingProcessor, "overlap", Duration.ofSeconds(15));
+        ReflectionTestUtils.setField(longMeetingProcessor, "concurrency", 2);
+        ReflectionTestUtils.setField(longMeetingProcessor, "maxAttempts", 3);
+        ReflectionTestUtils.setField(longMeetingProcessor, "retryBackoff", Duration.ofMillis(10));
+        ReflectionTestUtils.setField(geminiService, "longMeetingProcessor", longMeetingProcessor);
+
+        AudioPreprocessor audioPreprocessor = new AudioPreprocessor(meterRegistry);
+        ReflectionTestUtils.setField(audioPreprocessor, "enabled", true);
+        ReflectionTestUtils.setField(audioPreprocessor, "targetSampleRate", 16000);
+        ReflectionTestUtils.setField(audioPreprocessor, "silenceTrimmingEnabled", true);
+        ReflectionTestUtils.setField(audioPreprocessor, "silenceThresholdDbfs", -45.0);
+        ReflectionTestUtils.setField(audioPreprocessor, "minSilence", Duration.ofSeconds(2));
+        ReflectionTestUtils.setField(audioPreprocessor, "silencePadding", Duration.ofMillis(200));
+        ReflectionTestUtils.setField(geminiService, "audioPreprocessor", audioPreprocessor);
+    }
+
+    @AfterEach
+    void tearDown() {
+        stub.close();
+    }
+
+    @Test
+    void smallAudioIsStreamedInlineAsBase64() throws Exception {
+        byte[] audio = randomBytes(100_001);
+
+        MeetingInsights insights = geminiService.processMeetingAudio(new MockMultipartFile("file", "meeting.wav", "audio/wav", audio));
+
+        assertEquals(List.of("stub summary"), insights.getSummary());
+        JsonNode inlineData = objectMapper.readTree(stub.generateRequests.get(0))
+                .path("contents").path(0).path("parts").path(1).path("inlineData");
+        assertEquals("audio/wav", inlineData.path("mimeType").asText());
+        assertArrayEquals(audio, Base64.getDecoder().decode(inlineData.path("data").asText()));
+    }
+
+    @Test
+    void eachStageOfAModelCallIsTimed() throws Exception {
+        geminiService.processMeetingAudio(new MockMultipartFile("file", "meeting.mp3", "audio/mpeg", randomBytes(30_000)));
+
+        for (String stage : List.of("serialize", "base64", "network", "parse")) {
+            assertEquals(1, meterRegistry.get("insight.pipeline.stage").tag("stage", stage).timer().count(), stage);
+        }
+        // The request size is known before sending and matches what was sent.
+        assertEquals(stub.generateRequests.get(0).length(),
+                meterRegistry.get("gemini.request.size").summary().totalAmount(), 0);
+        assertEquals(1, meterRegistry.get("gemini.responses").tag("status", "200").counter().count());
+    }
+
+    @Test
+    void largeAudioIsUploadedInResumableChunksAndReferencedByUri() throws Exception {
+        byte[] audio = randomBytes(2 * 1024 * 1024 + 123);
+        stub.failingChunks = 1;
+
+        MeetingInsights insights = geminiService.processMeetingAudio(new MockMultipartFile("file", "meeting.wav", "audio/wav", audio));
+
+        assertEquals(List.of("stub summary"), insights.getSummary());
+        assertArrayEquals(audio, stub.uploadedBytes());
+        assertTrue(stub.chunkRequests > 2 * 1024 * 1024 / (64 * 1024));
+
+        JsonNode fileData = objectMapper.readTree(stub.generateRequests.get(0))
+                .path("contents").path(0).path("parts").path(1).path("fileData");
+        assertEquals(stub.baseUrl() + "/v1beta/files/stub", fileData.path("fileUri").asText());
+        assertTrue(stub.generateRequests.get(0).length() < 4096);
+    }
+
+    @Test
+    void aStalledUploadChunkTimesOutAndIsResumed() throws Exception {
+        byte[] audio = randomBytes(2 * 1024 * 1024 + 123);
+        stub.stallingChunks = 1;
+        stub.chunkStallMs = 10_000;
+
+        long start = System.nanoTime();
+        MeetingInsights insights = geminiService.processMeetingAudio(new MockMultipartFile("file", "meeting.wav", "audio/wav", audio));
+
+        assertEquals(List.of("stub summary"), insights.getSummary());
+        assertArrayEquals(audio, stub.uploadedBytes());
+        // Given up on after the 2s request timeout rather than waiting out the stall
+        assertTrue(System.nanoTime() - start < Duration.ofSeconds(8).toNanos());
+    }
+
+    @Test
+    void audioIsUploadedBeforeTheCallWaitsForTheGovernor() throws Exception {
+        OutboundGovernor governor = new OutboundGovernor(new SimpleMeterRegistry(),
+                1e6, 1e6, 1e9, 1e9, 1, Integer.MAX_VALUE, Duration.ofSeconds(60));
+        ReflectionTestUtils.setField(engine, "governor", governor);
+        byte[] audio = randomBytes(2 * 1024 * 1024 + 123);
+
+        CompletableFuture<MeetingInsights> insights;
+        // Another call holds the only in-flight slot while the audio is uploaded.
+        try (OutboundGovernor.Permit other = governor.acquire("someone-else", 1)) {
+            insights = CompletableFuture.supplyAsync(() -> {
+                try {
+                    return geminiService.processMeetingAudio(new MockMultipartFile("file", "meeting.wav", "audio/wav", audio));
+                } catch (Exception e) {
+                    throw new RuntimeException(e);
+                }
+            });
+            long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+            while (stub.uploadedBytes().length < audio.length && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            assertArrayEquals(audio, stub.uploadedBytes());
+            assertTrue(stub.generateRequests.isEmpty());
+        }
+
+        assertEquals(List.of("stub summary"), insights.get().getSummary());
+        assertEquals(1, stub.generateRequests.size());
+    }
+
+    @Test
+    void insightsAreRequestedAsSchemaConstrainedJsonAndParsedIntoTypedFields() throws Exception {
+        stub.insightsText = "{\"summary\":[\"Budget approved\",\"Launch moved\"],\"unexpected\":{\"nested\":[1,2]},"
+                + "\"actionItems\":[{\"task\":\"Update the plan\",\"owner\":\"Sam\",\"deadline\":\"Friday\"},"
+                + "{\"task\":\"Book a room\",\"owner\":null}],"
+                + "\"decisions\":[\"Ship in May\"],\"discussionPoints\":null,\"followUps\":[\"Check \\\"risks\\\"\"]}";
+
+        MeetingInsights insights = geminiService.processMeetingAudio(
+                new MockMultipartFile("file", "meeting.mp3", "audio/mpeg", randomBytes(1000)));
+
+        assertEquals(List.of("Budget approved", "Launch moved"), insights.getSummary());
+        assertEquals(2, insights.getActionItems().size());
+        assertEquals("Sam", insights.getActionItems().get(0).getOwner());
+        assertEquals("Friday", insights.getActionItems().get(0).getDeadline());
+        assertNull(insights.getActionItems().get(1).getOwner());
+        assertNull(insights.getActionItems().get(1).getDeadline());
+        assertEquals(List.of("Ship in May"), insights.getDecisions());
+        assertTrue(insights.getDiscussionPoints().isEmpty());
+        assertEquals(List.of("Check \"risks\""), insights.getFollowUps());
+
+        JsonNode generationConfig = objectMapper.readTree(stub.generateRequests.get(0)).path("generationConfig");
+        assertEquals("application/json", generationConfig.path("responseMimeType").asText());
+        assertEquals("STRING", generationConfig.path("responseSchema").path("properties")
+                .path("actionItems").path("items").path("properties").path("deadline").path("type").asText());
+    }
+
+    @Test
+    void streamedInsightsArriveInChunksFollowedByTheParsedResult() throws Exception {
+        stub.streamChunks = 4;
+        MockMultipartFile file = new MockMultipartFile("file", "meeting.mp3", "audio/mpeg", randomBytes(10_000));
+
+        List<InsightStreamEvent> events = geminiService
+                .streamMeetingAudio(file, file.getSize(), file.getContentType(), file.getOriginalFilename())
+                .collectList().block(Duration.ofSeconds(10));
+
+        assertEquals(5, events.size());
+        StringBuilder streamed = new StringBuilder();
+        events.subList(0, 4).forEach(event -> {
+            assertEquals(InsightStreamEvent.Type.CHUNK, event.getType());
+            streamed.append(event.getText());
+        });
+        assertEquals(stub.insightsText, streamed.toString());
+        assertEquals(InsightStreamEvent.Type.INSIGHTS, events.get(4).getType());
+        assertEquals(List.of("stub summary"), events.get(4).getInsights().getSummary());
+        assertEquals("Priya", events.get(4).getInsights().getActionItems().get(0).getOwner());
+
+        // The streamed result is cached like any other.
+        assertSame(events.get(4).getInsights(), geminiService.processMeetingAudio(file));
+        assertEquals(1, stub.generateRequests.size());
+    }
+
+    @Test
+    void reuploadedAudioIsServedFromTheCache() throws Exception {
+        byte[] audio = randomBytes(50_000);
+
+        MeetingInsights first = geminiService.processMeetingAudio(new MockMultipartFile("file", "a.wav", "audio/wav", audio));
+        MeetingInsights second = geminiService.processMeetingAudio(new MockMultipartFile("file", "copy-of-a.wav", "audio/wav", audio));
+
+        assertSame(first, second);
+        assertEquals(1, stub.generateRequests.size());
+    }
+
+    @Test
+    void everyRequestIsAuditedWithItsTokenUsage() throws Exception {
+        GenerationAuditLog auditLog = mock(GenerationAuditLog.class);
+        ReflectionTestUtils.setField(geminiService, "auditLog", auditLog);
+        byte[] audio = randomBytes(20_000);
+
+        geminiService.processMeetingAudio(new MockMultipartFile("file", "a.wav", "audio/wav", audio), "ann@example.com");
+        geminiService.processMeetingAudio(new MockMultipartFile("file", "a.wav", "audio/wav", audio), "ann@example.com");
+
+        verify(auditLog).record(eq("ann@example.com"), eq(20_000L), anyLong(), eq("ok"), anyString(), eq(10L), eq(5L));
+        verify(auditLog).record(eq("ann@example.com"), eq(20_000L), anyLong(), eq("cached"), anyString(), eq(0L), eq(0L));
+    }
+
+    @Test
+    void shortAudioGoesToTheFastModelUnlessTheProModelIsRequested() throws Exception {
+        ReflectionTestUtils.setField(geminiService, "router", router());
+        byte[] audio = randomBytes(20_000);
+
+        MeetingInsights fast = geminiService.processMeetingAudio(
+                new MockMultipartFile("file", "a.mp3", "audio/mpeg", audio), null, null, false);
+        MeetingInsights pro = geminiService.processMeetingAudio(
+                new MockMultipartFile("file", "a.mp3", "audio/mpeg", audio), null, ModelTier.PRO, false);
+
+        // Each model's insights are cached apart.
+        assertEquals(List.of("gemini-2.5-flash", "gemini-2.5-pro"), stub.generateModels);
+        assertEquals(List.of("stub summary"), fast.getSummary());
+        assertEquals(List.of("stub summary"), pro.getSummary());
+        assertEquals(1, meterRegistry.get("insight.routes").tag("tier", "fast").tag("reason", "short").counter().count());
+        assertEquals(1, meterRegistry.get("insight.route.latency").tag("tier", "pro").tag("outcome", "ok").timer().count());
+        // Every tier and outcome is registered up front.
+        assertEquals(0, meterRegistry.get("insight.route.latency").tag("tier", "fast").tag("outcome", "error").timer().count());
+    }
+
+    @Test
+    void draftsAreAnsweredByTheFastModelAndUpgradedByTheProModel() throws Exception {
+        ReflectionTestUtils.setField(geminiService, "router", router());
+        ReflectionTestUtils.setField(geminiService, "refineExecutor", new SimpleAsyncTaskExecutor());
+        InsightHistoryService history = mock(InsightHistoryService.class);
+        when(history.record(anyString(), anyString(), anyString(), isNull(), anyString(), anyString(), any(), anyLong()))
+                .thenReturn(CompletableFuture.completedFuture(7L));
+        ReflectionTestUtils.setField(geminiService, "insightHistory", history);
+        byte[] audio = randomBytes(20_000);
+
+        geminiService.processMeetingAudio(
+                new MockMultipartFile("file", "a.mp3", "audio/mpeg", audio), "ann@example.com", ModelTier.PRO, true);
+
+        verify(history).record(eq("ann@example.com"), anyString(), eq("a.mp3"), isNull(), eq("gemini-2.5-flash"),
+                anyString(), any(), anyLong());
+        verify(history, timeout(5000)).upgrade(eq(7L), eq("gemini-2.5-pro"), any(), anyLong());
+        assertEquals(List.of("gemini-2.5-flash", "gemini-2.5-pro"), stub.generateModels);
+        assertEquals(1, meterRegistry.get("insight.refinements").tag("outcome", "upgraded").counter().count());
+
+        // Once refined, the pro model's insights are served from the cache, draft or not.
+        geminiService.processMeetingAudio(
+                new MockMultipartFile("file", "a.mp3", "audio/mpeg", audio), "ann@example.com", ModelTier.PRO, true);
+        assertEquals(2, stub.generateModels.size());
+    }
+
+    @Test
+    void longWavMeetingIsAnalyzedInSegmentsAndMerged() throws Exception {
+        // 35 minutes of 8 kHz, 8-bit mono PCM: segments 0-10, 10-20, 20-30 and 30-35 minutes.
+        int sampleRate = 8000;
+        byte[] pcm = new byte[35 * 60 * sampleRate];
+        WavFormat wav = new WavFormat(WavFormat.FORMAT_PCM, 1, sampleRate, 8, 44, pcm.length);
+        byte[] audio = concat(wav.header(pcm.length), pcm);
+        ReflectionTestUtils.setField(engine, "filesApiThresholdBytes", 100L * 1024 * 1024);
+        stub.failingGenerates = 1;
+
+        MeetingInsights insights = geminiService.processMeetingAudio(new MockMultipartFile("file", "long.wav", "audio/wav", audio));
+
+        assertEquals(List.of("stub summary"), insights.getSummary());
+        // 4 segments + 1 retried segment + 1 merge call
+        assertEquals(6, stub.generateRequests.size());
+        String merge = objectMapper.readTree(stub.generateRequests.get(5))
+                .path("contents").path(0).path("parts").path(0).path("text").asText();
+        assertTrue(merge.contains("--- Segment 4 (30:00 - 35:00) ---"));
+        assertEquals(1, objectMapper.readTree(stub.generateRequests.get(5)).path("contents").path(0).path("parts").size());
+    }
+
+    @Test
+    void aRefusedSegmentCallIsRethrownWithItsOwnType() {
+        int sampleRate = 8000;
+        byte[] pcm = new byte[25 * 60 * sampleRate];
+        WavFormat wav = new WavFormat(WavFormat.FORMAT_PCM, 1, sampleRate, 8, 44, pcm.length);
+        byte[] audio = concat(wav.header(pcm.length), pcm);
+        LongMeetingProcessor.SegmentModel refusing = new LongMeetingProcessor.SegmentModel() {
+            @Override
+            public String analyzeAudio(InputStreamSource audio, long size, String mimeType, String fileName, String prompt) {
+                throw new TooManyRequestsException("Too many model calls in flight");
+            }
+
+            @Override
+            public String generateText(String prompt) {
+                throw new AssertionError("nothing to merge");
+            }
+        };
+
+        assertThrows(TooManyRequestsException.class, () -> longMeetingProcessor.process(
+                () -> new ByteArrayInputStream(audio), wav, "long.wav", new TimestampMap(), refusing));
+    }
+
+    @Test
+    void stereoWavIsDownsampledToMono16kBeforeUpload() throws Exception {
+        // 2 seconds of a 440 Hz tone in 48 kHz, 16-bit stereo.
+        int sampleRate = 48000;
+        byte[] pcm = tone(2 * sampleRate, sampleRate, 2);
+        WavFormat wav = new WavFormat(WavFormat.FORMAT_PCM, 2, sampleRate, 16, 44, pcm.length);
+        byte[] audio = concat(wav.header(pcm.length), pcm);
+
+        geminiService.processMeetingAudio(new MockMultipartFile("file", "stereo.wav", "audio/wav", audio));
+
+        JsonNode inlineData = objectMapper.readTree(stub.generateRequests.get(0))
+                .path("contents").path(0).path("parts").path(1).path("inlineData");
+        byte[] sent = Base64.getDecoder().decode(inlineData.path("data").asText());
+        WavFormat sentFormat = WavFormat.read(() -> new ByteArrayInputStream(sent), sent.length).orElseThrow();
+        assertEquals(1, sentFormat.getChannels());
+        assertEquals(16000, sentFormat.getSampleRate());
+        assertEquals(16, sentFormat.getBitsPerSample());
+        assertEquals(2 * 16000, sentFormat.getFrameCount());
+        assertEquals(44 + 2 * 16000 * 2, sent.length);
+    }
+
+    @Test
+    void longSilencesAreCutAndTimesMappedToTheOriginal() throws Exception {
+        // 16 kHz mono: 5 s of speech, 60 s of dead air, 5 s of speech.
+        int sampleRate = 16000;
+        byte[] pcm = concat(concat(tone(5 * sampleRate, sampleRate, 1), new byte[60 * sampleRate * 2]),
+                tone(5 * sampleRate, sampleRate, 1));
+        WavFormat wav = new WavFormat(WavFormat.FORMAT_PCM, 1, sampleRate, 16, 44, pcm.length);
+        byte[] audio = concat(wav.header(pcm.length), pcm);
+
+        geminiService.processMeetingAudio(new MockMultipartFile("file", "gap.wav", "audio/wav", audio));
+
+        JsonNode parts = objectMapper.readTree(stub.generateRequests.get(0)).path("contents").path(0).path("parts");
+        byte[] sent = Base64.getDecoder().decode(parts.path(1).path("inlineData").path("data").asText());
+        // Only the 200 ms of padding on either side of the gap is kept.
+        assertEquals(44 + (10 * sampleRate + sampleRate * 2 / 5) * 2, sent.length);
+        assertTrue(parts.path(0).path("text").asText()
+                .contains("- At 00:05 in this audio, 00:59 of silence was removed; the audio after it resumes at 01:04"));
+        assertEquals(59.6, meterRegistry.get("audio.silence.removed").summary().totalAmount(), 0.001);
+    }
+
+    private ModelRouter router() {
+        return new ModelRouter(mock(UserSnapshotCache.class), meterRegistry, Duration.ofMinutes(10), Set.of());
+    }
+
+    private static byte[] tone(int frames, int sampleRate, int channels) {
+        byte[] pcm = new byte[frames * channels * 2];
+        for (int i = 0; i < frames; i++) {
+            short sample = (short) (Math.sin(2 * Math.PI * 440 * i / sampleRate) * 16000);
+            for (int c = 0; c < channels; c++) {
+                pcm[(i * channels + c) * 2] = (byte) sample;
+                pcm[(i * channels + c) * 2 + 1] = (byte) (sample >> 8);
+            }
+        }
+        return pcm;
+    }
+
+    private static byte[] concat(byte[] a, byte[] b) {
+        byte[] result = Arrays.copyOf(a, a.length + b.length);
+        System.arraycopy(b, 0, result, a.length, b.length);
+        return result;
+    }
+
+    private static byte[] randomBytes(int length) {
+        byte[] bytes = new byte[length];
+        new Random(42).nextBytes(bytes);
+        return bytes;
+    }
+}
@@ -0,0 +1,200 @@
+package com.meetinginsights.backend.service;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * A local stand-in for the Gemini API: generateContent plus the resumable Files API upload protocol, with injectable
+ * faults (error statuses with Retry-After, slow answers).
+ */
+class GeminiStubServer implements AutoCloseable {
+
+    private final HttpServer server;
+    private final ExecutorService handlerExecutor = Executors.newCachedThreadPool();
+    private final ByteArrayOutputStream uploaded = new ByteArrayOutputStream();
+
+    final List<String> generateRequests = new CopyOnWriteArrayList<>();
+    // The model named in the path of each recorded generate request
+    final List<String> generateModels = new CopyOnWriteArrayList<>();
+    volatile boolean recordRequests = true;
+    volatile String insightsText = "{\"summary\":[\"stub summary\"],\"actionItems\":[{\"task\":\"Send the notes\","
+            + "\"owner\":\"Priya\",\"deadline\":null}],\"decisions\":[],\"discussionPoints\":[],\"followUps\":[]}";
+    // How many partial responses streamGenerateContent splits the insights into.
+    volatile int streamChunks = 3;
+    // Simulated model latency for generateContent.
+    volatile long latencyMs = 0;
+    // The next N generateContent calls fail with failureStatus, with a Retry-After header if retryAfterSeconds >= 0.
+    volatile int failingGenerates = 0;
+    volatile int failureStatus = 503;
+    volatile long retryAfterSeconds = -1;
+    // The next N generateContent calls take slowLatencyMs instead of latencyMs.
+    volatile int slowGenerates = 0;
+    volatile long slowLatencyMs = 0;
+    // The next N upload chunks persist only half their bytes and then fail with 503.
+    volatile int failingChunks = 0;
+    // The next N upload chunks persist nothing and get no answer for chunkStallMs.
+    volatile int stallingChunks = 0;
+    volatile long chunkStallMs = 0;
+    volatile int chunkRequests = 0;
+
+    GeminiStubServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 1024);
+        server.setExecutor(handlerExecutor);
+        server.createContext("/v1beta/models/", this::handleGenerateContent);
+        server.createContext("/upload/v1beta/files", this::handleUploadStart);
+        server.createContext("/upload/session", this::handleUploadSession);
+        server.start();
+    }
+
+    String baseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    synchronized byte[] uploadedBytes() {
+        return uploaded.toByteArray();
+    }
+
+    private void handleGenerateContent(HttpExchange exchange) throws IOException {
+        byte[] body = exchange.getRequestBody().readAllBytes();
+        if (recordRequests) {
+            String path = exchange.getRequestURI().getPath();
+            generateModels.add(path.substring("/v1beta/models/".length(), path.lastIndexOf(':')));
+            generateRequests.add(new String(body, StandardCharsets.UTF_8));
+        }
+        long latency = latencyMs;
+        synchronized (this) {
+            if (failingGenerates > 0) {
+                failingGenerates--;
+                if (retryAfterSeconds >= 0) {
+                    exchange.getResponseHeaders().add("Retry-After", String.valueOf(retryAfterSeconds));
+                }
+                respond(exchange, failureStatus, "{\"error\":{\"message\":\"overloaded\"}}");
+                return;
+            }
+            if (slowGenerates > 0) {
+                slowGenerates--;
+                latency = slowLatencyMs;
+            }
+        }
+        if (latency > 0) {
+            try {
+                Thread.sleep(latency);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (exchange.getRequestURI().getPath().endsWith(":streamGenerateContent")) {
+            streamInsights(exchange);
+            return;
+        }
+        respond(exchange, 200, candidateResponse(insightsText));
+    }
+
+    /**
+     * Sends the insights as an SSE stream of streamChunks partial responses, as streamGenerateContent?alt=sse does.
+     */
+    private void streamInsights(HttpExchange exchange) throws IOException {
+        exchange.getResponseHeaders().add("Content-Type", "text/event-stream");
+        exchange.getResponseHeaders().add("Connection", "close");
+        exchange.sendResponseHeaders(200, 0);
+        String text = insightsText;
+        try (OutputStream out = exchange.getResponseBody()) {
+            for (int i = 0; i < streamChunks; i++) {
+                String chunk = text.substring(text.length() * i / streamChunks, text.length() * (i + 1) / streamChunks);
+                out.write(("data: " + candidateResponse(chunk) + "\r\n\r\n").getBytes(StandardCharsets.UTF_8));
+                out.flush();
+            }
+        }
+    }
+
+    private static String candidateResponse(String text) {
+        String escaped = text.replace("\\", "\\\\").replace("\"", "\\\"");
+        return "{\"candidates\":[{\"content\":{\"parts\":[{\"text\":\"" + escaped + "\"}],\"role\":\"model\"},"
+                + "\"finishReason\":\"STOP\"}],\"usageMetadata\":{\"promptTokenCount\":10,\"candidatesTokenCount\":5}}";
+    }
+
+    private void handleUploadStart(HttpExchange exchange) throws IOException {
+        exchange.getRequestBody().readAllBytes();
+        exchange.getResponseHeaders().add("X-Goog-Upload-URL", baseUrl() + "/upload/session/1");
+        respond(exchange, 200, "");
+    }
+
+    private void handleUploadSession(HttpExchange exchange) throws IOException {
+        String command = exchange.getRequestHeaders().getFirst("X-Goog-Upload-Command");
+        byte[] body = exchange.getRequestBody().readAllBytes();
+
+        if (!"query".equals(command) && takeStall()) {
+            try {
+                Thread.sleep(chunkStallMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.close();
+            return;
+        }
+
+        synchronized (this) {
+            if ("query".equals(command)) {
+                exchange.getResponseHeaders().add("X-Goog-Upload-Size-Received", Integer.toString(uploaded.size()));
+                respond(exchange, 200, "");
+                return;
+            }
+
+            chunkRequests++;
+            long offset = Long.parseLong(exchange.getRequestHeaders().getFirst("X-Goog-Upload-Offset"));
+            if (offset != uploaded.size()) {
+                respond(exchange, 400, "{\"error\":{\"message\":\"offset mismatch\"}}");
+                return;
+            }
+            if (failingChunks > 0) {
+                failingChunks--;
+                uploaded.write(body, 0, body.length / 2);
+                respond(exchange, 503, "");
+                return;
+            }
+            uploaded.write(body, 0, body.length);
+        }
+
+        if (command != null && command.contains("finalize")) {
+            respond(exchange, 200, "{\"file\":{\"name\":\"files/stub\",\"uri\":\"" + baseUrl()
+                    + "/v1beta/files/stub\",\"mimeType\":\"audio/wav\",\"state\":\"ACTIVE\"}}");
+        } else {
+            respond(exchange, 200, "");
+        }
+    }
+
+    private synchronized boolean takeStall() {
+        if (stallingChunks > 0) {
+            stallingChunks--;
+            return true;
+        }
+        return false;
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        // The JDK server may drop idle keep-alive connections, which the client would see as spurious failures.
+        exchange.getResponseHeaders().add("Connection", "close");
+        exchange.sendResponseHeaders(status, bytes.length == 0 ? -1 : bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        handlerExecutor.shutdownNow();
+    }
+}
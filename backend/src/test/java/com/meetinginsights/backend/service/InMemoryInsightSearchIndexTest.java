@@ -0,0 +1,151 @@
+package com.meetinginsights.backend.service;
+
+import com.meetinginsights.backend.dto.InsightSearchHit;
+import com.meetinginsights.backend.entity.MeetingInsight;
+import com.meetinginsights.backend.entity.User;
+import com.meetinginsights.backend.repository.MeetingInsightRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class InMemoryInsightSearchIndexTest {
+
+    private final MeetingInsightRepository repository = mock(MeetingInsightRepository.class);
+    private final InMemoryInsightSearchIndex index = new InMemoryInsightSearchIndex(repository);
+
+    @Test
+    void entriesWhereTheWordsWeighMoreRankHigher() {
+        index.index(entry(1L, 7L, "Weekly sync\nBudget review\nHiring plan for the new office in spring\nTravel policy"));
+        index.index(entry(2L, 7L, "Budget planning\nBudget cuts agreed\nBudget owner: Ann"));
+        index.index(entry(3L, 7L, "Hiring plan\nNo other topics"));
+
+        List<InsightSearchHit> hits = index.search(7L, "budget", 10);
+
+        assertEquals(List.of(2L, 1L), ids(hits));
+        assertTrue(hits.get(0).getRank() > hits.get(1).getRank());
+    }
+
+    @Test
+    void everyWordMustMatchAndStopWordsAreIgnored() {
+        index.index(entry(1L, 7L, "Budget review"));
+        index.index(entry(2L, 7L, "Budget review\nHiring plan"));
+        index.index(entry(3L, 7L, "Hiring plan"));
+
+        assertEquals(List.of(2L), ids(index.search(7L, "the HIRING of budget", 10)));
+        assertEquals(List.of(), ids(index.search(7L, "budget travel", 10)));
+        assertEquals(List.of(), ids(index.search(7L, "the of", 10)));
+    }
+
+    @Test
+    void theLimitKeepsTheBestMatches() {
+        for (int n = 1; n <= 20; n++) {
+            // Entry n mentions the word n times in a text of the same length.
+            int mentions = n;
+            String text = IntStream.range(0, 20).mapToObj(i -> i < mentions ? "budget" : "filler")
+                    .collect(Collectors.joining(" "));
+            index.index(entry((long) n, 7L, text));
+        }
+
+        assertEquals(List.of(20L, 19L, 18L), ids(index.search(7L, "budget", 3)));
+    }
+
+    @Test
+    void matchesAreHighlightedAndTheTextIsEscaped() {
+        index.index(entry(1L, 7L, "Agreed on the <b>Budget</b> & plan\nUnrelated line\nBudget owner is Ann"));
+
+        String highlight = index.search(7L, "budget", 10).get(0).getHighlight();
+
+        assertEquals("Agreed on the &lt;b&gt;<mark>Budget</mark>&lt;/b&gt; &amp; plan ... <mark>Budget</mark> owner is Ann",
+                highlight);
+    }
+
+    @Test
+    void aLongLineIsCutAroundTheFirstMatch() {
+        String line = IntStream.range(0, 40).mapToObj(i -> i == 25 ? "budget" : "w" + i).collect(Collectors.joining(" "));
+        index.index(entry(1L, 7L, line));
+
+        String highlight = index.search(7L, "budget", 10).get(0).getHighlight();
+
+        // Five words lead up to the match, twenty in all.
+        assertEquals(IntStream.range(20, 40).mapToObj(i -> i == 25 ? "<mark>budget</mark>" : "w" + i)
+                .collect(Collectors.joining(" ")), highlight);
+    }
+
+    @Test
+    void aUserOnlyFindsTheirOwnEntries() {
+        index.index(entry(1L, 7L, "Budget review"));
+        index.index(entry(2L, 8L, "Budget review"));
+        index.index(entry(3L, 8L, "Budget review again"));
+
+        assertEquals(List.of(1L), ids(index.search(7L, "budget", 10)));
+        assertEquals(2, index.search(8L, "budget", 10).size());
+        assertEquals(List.of(), ids(index.search(9L, "budget", 10)));
+    }
+
+    @Test
+    void aRemovedOwnersEntriesAreNoLongerFound() {
+        index.index(entry(1L, 7L, "Budget review"));
+        index.index(entry(2L, 8L, "Budget review"));
+
+        index.removeOwner(7L);
+
+        assertEquals(List.of(), ids(index.search(7L, "budget", 10)));
+        assertEquals(List.of(2L), ids(index.search(8L, "budget", 10)));
+    }
+
+    @Test
+    void aReindexedEntryIsFoundByItsNewTextOnly() {
+        index.index(entry(1L, 7L, "Budget draft"));
+        index.index(entry(1L, 7L, "Hiring plan"));
+
+        assertEquals(List.of(), ids(index.search(7L, "budget", 10)));
+        assertEquals(List.of(1L), ids(index.search(7L, "hiring", 10)));
+    }
+
+    @Test
+    void storedEntriesAreIndexedAtStartup() {
+        List<MeetingInsight> stored = new ArrayList<>();
+        for (long id = 1; id <= 1500; id++) {
+            stored.add(entry(id, id % 3, id == 1234 ? "Budget review" : "Hiring plan"));
+        }
+        when(repository.findPageAfterId(anyLong(), any())).thenAnswer(call -> {
+            long afterId = call.getArgument(0);
+            return stored.stream().filter(m -> m.getId() > afterId).limit(call.<Limit>getArgument(1).max()).toList();
+        });
+
+        index.backfill();
+
+        assertEquals(List.of(1234L), ids(index.search(1234L % 3, "budget", 10)));
+        assertEquals(500, index.search(0L, "hiring", 1000).size());
+        verify(repository).findPageAfterId(1000L, Limit.of(1000));
+    }
+
+    private static MeetingInsight entry(Long id, Long ownerId, String searchText) {
+        User owner = new User();
+        owner.setId(ownerId);
+        MeetingInsight entry = new MeetingInsight();
+        entry.setId(id);
+        entry.setOwner(owner);
+        entry.setFileName("meeting-" + id + ".mp3");
+        entry.setCreatedAt(Instant.parse("2026-10-01T10:00:00Z").plusSeconds(id));
+        entry.setSearchText(searchText);
+        return entry;
+    }
+
+    private static List<Long> ids(List<InsightSearchHit> hits) {
+        return hits.stream().map(InsightSearchHit::getId).toList();
+    }
+}
@@ -0,0 +1,45 @@
+package com.meetinginsights.backend.service;
+
+import com.meetinginsights.backend.dto.MeetingInsights;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class InsightCacheTest {
+
+    private static final String AUDIO_HASH = "a".repeat(64);
+
+    private final InsightCache cache = new InsightCache(new SimpleMeterRegistry(), Optional.empty(), 100,
+            Duration.ofHours(1));
+
+    @Test
+    void keysFitTheCacheKeyColumnWhateverTheModelIsCalled() {
+        String key = cache.key(AUDIO_HASH, "v3:" + "gemini-2.5-pro-preview-experimental-".repeat(5));
+
+        assertEquals(97, key.length());
+        assertTrue(key.startsWith(AUDIO_HASH + ":"));
+        assertEquals(key.length(), cache.key(AUDIO_HASH, "v3:gemini-2.5-flash").length());
+    }
+
+    @Test
+    void eachVariantGetsItsOwnEntry() {
+        String fast = cache.key(AUDIO_HASH, "v3:gemini-2.5-flash");
+        String pro = cache.key(AUDIO_HASH, "v3:gemini-2.5-pro");
+        MeetingInsights insights = new MeetingInsights();
+        insights.setSummary(List.of("fast"));
+
+        cache.put(fast, insights);
+
+        assertNotEquals(fast, pro);
+        assertEquals(fast, cache.key(AUDIO_HASH, "v3:gemini-2.5-flash"));
+        assertTrue(cache.get(fast).isPresent());
+        assertTrue(cache.get(pro).isEmpty());
+    }
+}
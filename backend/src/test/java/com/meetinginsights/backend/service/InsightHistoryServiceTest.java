@@ -0,0 +1,171 @@
+package com.meetinginsights.backend.service;
+
+import com.meetinginsights.backend.dto.InsightHistoryItem;
+import com.meetinginsights.backend.dto.InsightHistoryPage;
+import com.meetinginsights.backend.entity.MeetingInsight;
+import com.meetinginsights.backend.entity.User;
+import com.meetinginsights.backend.repository.MeetingInsightRepository;
+import com.meetinginsights.backend.repository.RoleRepository;
+import com.meetinginsights.backend.repository.UserRepository;
+import com.meetinginsights.backend.security.RoleRegistry;
+import com.meetinginsights.backend.security.UserSnapshot;
+import com.meetinginsights.backend.security.UserSnapshotCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class InsightHistoryServiceTest {
+
+    private static final Comparator<MeetingInsight> NEWEST_FIRST =
+            Comparator.comparing(MeetingInsight::getCreatedAt).thenComparing(MeetingInsight::getId).reversed();
+
+    private final MeetingInsightRepository repository = mock(MeetingInsightRepository.class);
+    private final UserSnapshotCache userSnapshotCache = mock(UserSnapshotCache.class);
+    private final List<MeetingInsight> rows = new ArrayList<>();
+    private final InsightHistoryService service = new InsightHistoryService(repository, mock(UserRepository.class),
+            userSnapshotCache, mock(InsightSearchIndex.class), mock(ThreadPoolTaskExecutor.class), new SimpleMeterRegistry());
+
+    InsightHistoryServiceTest() {
+        when(userSnapshotCache.findByEmail("ann@example.com")).thenReturn(Optional.of(snapshot(7L, "ann@example.com")));
+        // The repository's keyset queries, over the rows of this test
+        when(repository.findFirstPage(eq(7L), any())).thenAnswer(call -> rows.stream()
+                .sorted(NEWEST_FIRST)
+                .limit(call.<Limit>getArgument(1).max())
+                .toList());
+        when(repository.findPageAfter(eq(7L), any(), any(), any())).thenAnswer(call -> {
+            Instant createdAt = call.getArgument(1);
+            Long id = call.getArgument(2);
+            return rows.stream()
+                    .filter(m -> m.getCreatedAt().isBefore(createdAt)
+                            || (m.getCreatedAt().equals(createdAt) && m.getId() < id))
+                    .sorted(NEWEST_FIRST)
+                    .limit(call.<Limit>getArgument(3).max())
+                    .toList();
+        });
+    }
+
+    @Test
+    void pagesFollowEachOtherWithoutGapsOrRepeats() {
+        Instant base = Instant.parse("2026-10-01T10:00:00.123456Z");
+        // Ids don't follow creation times, and several entries share a creation time.
+        for (long id = 1; id <= 23; id++) {
+            rows.add(row(id, base.plusSeconds((id * 7) % 5)));
+        }
+
+        List<Long> seen = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            InsightHistoryPage page = service.list("ann@example.com", cursor, 5);
+            page.getItems().stream().map(InsightHistoryItem::getId).forEach(seen::add);
+            cursor = page.getNextCursor();
+            pages++;
+        } while (cursor != null);
+
+        assertEquals(5, pages);
+        assertEquals(rows.stream().sorted(NEWEST_FIRST).map(MeetingInsight::getId).toList(), seen);
+    }
+
+    @Test
+    void theCursorCarriesTheExactPositionOfTheLastItem() {
+        Instant createdAt = Instant.parse("2026-10-01T10:00:00.123456Z");
+        rows.add(row(1L, createdAt.minusSeconds(1)));
+        rows.add(row(2L, createdAt));
+
+        String cursor = service.list("ann@example.com", null, 1).getNextCursor();
+        service.list("ann@example.com", cursor, 1);
+
+        // Opaque to clients, but it must round-trip to the microsecond.
+        assertTrue(cursor.matches("[A-Za-z0-9_-]+"));
+        verify(repository).findPageAfter(eq(7L), eq(createdAt), eq(2L), eq(Limit.of(2)));
+    }
+
+    @Test
+    void theLastPageHasNoCursor() {
+        rows.add(row(1L, Instant.parse("2026-10-01T10:00:00Z")));
+        rows.add(row(2L, Instant.parse("2026-10-01T11:00:00Z")));
+
+        InsightHistoryPage page = service.list("ann@example.com", null, 2);
+
+        assertEquals(2, page.getItems().size());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void thePageSizeIsCapped() {
+        service.list("ann@example.com", null, 10_000);
+
+        verify(repository).findFirstPage(7L, Limit.of(InsightHistoryService.MAX_PAGE_SIZE + 1));
+    }
+
+    @Test
+    void aMalformedCursorIsRejected() {
+        String noSeparator = Base64.getUrlEncoder().encodeToString("2026-10-01T10:00:00Z".getBytes(StandardCharsets.UTF_8));
+        String badTime = Base64.getUrlEncoder().encodeToString("yesterday|5".getBytes(StandardCharsets.UTF_8));
+
+        assertThrows(IllegalArgumentException.class, () -> service.list("ann@example.com", "not base64!", 5));
+        assertThrows(IllegalArgumentException.class, () -> service.list("ann@example.com", noSeparator, 5));
+        assertThrows(IllegalArgumentException.class, () -> service.list("ann@example.com", badTime, 5));
+    }
+
+    @Test
+    void aSearchCoversOnlyTheCallersEntries() {
+        InsightSearchIndex searchIndex = mock(InsightSearchIndex.class);
+        InsightHistoryService service = new InsightHistoryService(repository, mock(UserRepository.class),
+                userSnapshotCache, searchIndex, mock(ThreadPoolTaskExecutor.class), new SimpleMeterRegistry());
+        when(userSnapshotCache.findByEmail("nobody@example.com")).thenReturn(Optional.empty());
+
+        service.search("ann@example.com", "  budget  ", 1_000);
+
+        verify(searchIndex).search(7L, "budget", InsightHistoryService.MAX_SEARCH_RESULTS);
+        assertTrue(service.search("nobody@example.com", "budget", 10).isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> service.search("ann@example.com", " ", 10));
+    }
+
+    @Test
+    void anUnknownUserHasAnEmptyHistory() {
+        when(userSnapshotCache.findByEmail("nobody@example.com")).thenReturn(Optional.empty());
+
+        InsightHistoryPage page = service.list("nobody@example.com", null, 5);
+
+        assertTrue(page.getItems().isEmpty());
+        assertNull(page.getNextCursor());
+    }
+
+    private static MeetingInsight row(Long id, Instant createdAt) {
+        MeetingInsight row = new MeetingInsight();
+        row.setId(id);
+        row.setCreatedAt(createdAt);
+        row.setFileName("meeting-" + id + ".mp3");
+        row.setInsights("{\"summary\":[\"meeting " + id + "\"]}");
+        return row;
+    }
+
+    static UserSnapshot snapshot(Long id, String email) {
+        User user = new User();
+        user.setId(id);
+        user.setEmail(email);
+        user.setRoles(new HashSet<>());
+        return UserSnapshot.of(user, new RoleRegistry(mock(RoleRepository.class)));
+    }
+}
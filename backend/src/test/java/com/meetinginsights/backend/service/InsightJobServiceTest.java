@@ -0,0 +1,255 @@
+package com.meetinginsights.backend.service;
+
+import com.meetinginsights.backend.dto.InsightJobResponse;
+import com.meetinginsights.backend.dto.MeetingInsights;
+import com.meetinginsights.backend.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.InputStreamSource;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class InsightJobServiceTest {
+
+    private final GeminiService geminiService = mock(GeminiService.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ThreadPoolTaskExecutor executor = executor();
+    private final List<RecordingEmitter> emitters = new ArrayList<>();
+
+    private final InsightJobService service = new InsightJobService(geminiService, executor, meterRegistry) {
+        @Override
+        SseEmitter createEmitter() {
+            RecordingEmitter emitter = new RecordingEmitter();
+            emitters.add(emitter);
+            return emitter;
+        }
+    };
+
+    @AfterEach
+    void shutDown() {
+        executor.shutdown();
+    }
+
+    @Test
+    void theRequestedModelAndDraftFlagArePassedToTheJob() throws Exception {
+        when(geminiService.processMeetingAudio(any(InputStreamSource.class), anyLong(), any(), any(), any(), any(),
+                eq(true))).thenReturn(new MeetingInsights());
+
+        InsightJob job = service.submit(audio(), "alice@example.com", ModelTier.PRO, true);
+        awaitFinished(job);
+
+        assertEquals(InsightJob.Status.SUCCEEDED, job.getStatus());
+        verify(geminiService).processMeetingAudio(any(InputStreamSource.class), eq(4L), eq("audio/wav"),
+                eq("meeting.wav"), eq("alice@example.com"), eq(ModelTier.PRO), eq(true));
+    }
+
+    @Test
+    void aFullQueueIsAnsweredWithTooManyRequestsAndTheSpooledAudioIsDeleted() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        blockGenerationUntil(release);
+        InsightJob running = service.submit(audio(), "alice@example.com");
+        InsightJob queued = service.submit(audio(), "alice@example.com");
+
+        SpoolingFile rejected = new SpoolingFile();
+        assertThrows(TooManyRequestsException.class, () -> service.submit(rejected, "alice@example.com"));
+
+        assertNotNull(rejected.spooled);
+        assertFalse(Files.exists(rejected.spooled));
+        assertEquals(1, meterRegistry.counter("insight.jobs.rejected").count());
+
+        release.countDown();
+        awaitFinished(running);
+        awaitFinished(queued);
+    }
+
+    @Test
+    void jobsAreOnlyFoundByTheirOwner() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        blockGenerationUntil(release);
+        InsightJob job = service.submit(audio(), "alice@example.com");
+
+        assertTrue(service.find(job.getId(), "alice@example.com").isPresent());
+        assertTrue(service.find(job.getId(), "bob@example.com").isEmpty());
+        assertTrue(service.find("no-such-job", "alice@example.com").isEmpty());
+
+        release.countDown();
+        awaitFinished(job);
+    }
+
+    @Test
+    void aSubscriberGetsEveryStatusAndTheFinalOneOnce() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        blockGenerationUntil(release);
+        InsightJob job = service.submit(audio(), "alice@example.com");
+
+        service.subscribe(job);
+        release.countDown();
+        awaitCompleted(1);
+
+        RecordingEmitter emitter = emitters.get(0);
+        assertEquals("SUCCEEDED", emitter.statuses.get(emitter.statuses.size() - 1));
+        assertEquals(1, emitter.statuses.stream().filter("SUCCEEDED"::equals).count());
+        assertEquals(1, emitter.completions);
+        assertTrue(job.getEmitters().isEmpty());
+    }
+
+    @Test
+    void subscribingAfterTheJobFinishedSendsTheResultOnce() throws Exception {
+        when(geminiService.processMeetingAudio(any(InputStreamSource.class), anyLong(), any(), any(), any(), isNull(),
+                eq(false))).thenReturn(new MeetingInsights());
+        InsightJob job = service.submit(audio(), "alice@example.com");
+        awaitFinished(job);
+
+        service.subscribe(job);
+
+        assertEquals(List.of("SUCCEEDED"), emitters.get(0).statuses);
+        assertEquals(1, emitters.get(0).completions);
+        assertTrue(job.getEmitters().isEmpty());
+    }
+
+    @Test
+    void subscribingWhileTheJobFinishesDeliversTheFinalStatusExactlyOnce() throws Exception {
+        for (int i = 0; i < 200; i++) {
+            CountDownLatch release = new CountDownLatch(1);
+            blockGenerationUntil(release);
+            InsightJob job = service.submit(audio(), "alice@example.com");
+            emitters.clear();
+
+            release.countDown();
+            service.subscribe(job);
+            awaitCompleted(i + 1);
+
+            RecordingEmitter emitter = emitters.get(0);
+            assertEquals(1, emitter.statuses.stream().filter("SUCCEEDED"::equals).count(), "run " + i);
+            assertEquals(1, emitter.completions, "run " + i);
+        }
+    }
+
+    @Test
+    void finishedJobsAreEvictedOnceTheirRetentionHasPassed() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        blockGenerationUntil(release);
+        InsightJob finished = service.submit(audio(), "alice@example.com");
+        release.countDown();
+        awaitFinished(finished);
+        CountDownLatch never = new CountDownLatch(1);
+        blockGenerationUntil(never);
+        InsightJob running = service.submit(audio(), "alice@example.com");
+
+        ReflectionTestUtils.setField(service, "retentionMs", 60_000L);
+        service.evictExpiredJobs();
+        assertTrue(service.find(finished.getId(), "alice@example.com").isPresent());
+
+        ReflectionTestUtils.setField(service, "retentionMs", 0L);
+        Thread.sleep(5);
+        service.evictExpiredJobs();
+        assertTrue(service.find(finished.getId(), "alice@example.com").isEmpty());
+        assertTrue(service.find(running.getId(), "alice@example.com").isPresent());
+
+        never.countDown();
+        awaitFinished(running);
+    }
+
+    /** One worker and one queue slot. */
+    private static ThreadPoolTaskExecutor executor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(1);
+        executor.initialize();
+        return executor;
+    }
+
+    private void blockGenerationUntil(CountDownLatch release) throws Exception {
+        when(geminiService.processMeetingAudio(any(InputStreamSource.class), anyLong(), any(), any(), anyString(),
+                isNull(), eq(false))).thenAnswer(invocation -> {
+                    release.await(10, TimeUnit.SECONDS);
+                    return new MeetingInsights();
+                });
+    }
+
+    private static void awaitFinished(InsightJob job) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!job.isFinished() && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        assertTrue(job.isFinished(), "job did not finish");
+    }
+
+    /** Waits until this many jobs have run and published their final status. */
+    private void awaitCompleted(long jobs) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (executor.getThreadPoolExecutor().getCompletedTaskCount() < jobs && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        assertEquals(jobs, executor.getThreadPoolExecutor().getCompletedTaskCount(), "jobs did not finish");
+    }
+
+    private static MockMultipartFile audio() {
+        return new MockMultipartFile("file", "meeting.wav", "audio/wav", new byte[] {1, 2, 3, 4});
+    }
+
+    /** Remembers where the service spooled it. */
+    private static final class SpoolingFile extends MockMultipartFile {
+        Path spooled;
+
+        SpoolingFile() {
+            super("file", "meeting.wav", "audio/wav", new byte[] {1, 2, 3, 4});
+        }
+
+        @Override
+        public void transferTo(Path dest) throws IOException {
+            spooled = dest;
+            super.transferTo(dest);
+        }
+    }
+
+    /** Records the job statuses sent and how often it was completed, without a servlet response behind it. */
+    private static final class RecordingEmitter extends SseEmitter {
+        final List<String> statuses = new ArrayList<>();
+        int completions = 0;
+
+        @Override
+        public synchronized void send(SseEventBuilder builder) {
+            AtomicReference<String> status = new AtomicReference<>();
+            for (ResponseBodyEmitter.DataWithMediaType part : builder.build()) {
+                if (part.getData() instanceof InsightJobResponse response) {
+                    status.set(response.getStatus());
+                }
+            }
+            statuses.add(status.get());
+        }
+
+        @Override
+        public synchronized void complete() {
+            completions++;
+        }
+    }
+}
@@ -0,0 +1,224 @@
+package com.meetinginsights.backend.service;
+
+import com.meetinginsights.backend.entity.MeetingInsight;
+import com.meetinginsights.backend.entity.User;
+import com.meetinginsights.backend.repository.MeetingInsightRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.BiFunction;
+
+/**
+ * Search latency benchmark over a synthetic history of short meetings (default 1,000,000 entries spread over 1,000
+ * users). Owners are skewed like real usage: the busiest user holds about a tenth of all entries, and users are
+ * queried in proportion to their history size. Queries are one or two words drawn from the vocabulary.
+ * <p>
+ * By default it measures {@link InMemoryInsightSearchIndex}. Given a JDBC URL it measures the PostgreSQL search
+ * instead, with the query of {@link MeetingInsightRepository#search} run against a scratch table
+ * (insight_search_benchmark) with the same generated column and GIN index, loaded on the first run.
+ * <p>
+ * Not a unit test; run it manually, e.g.
+ * <pre>
+ * mvn -q test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ * java -Xmx3g -cp target/test-classes:target/classes:$(cat target/cp.txt) \
+ *     com.meetinginsights.backend.service.InsightSearchBenchmark [entries] [owners] [jdbcUrl user password]
+ * </pre>
+ */
+public class InsightSearchBenchmark {
+
+    private static final int VOCABULARY = 5000;
+    private static final int WARMUP_QUERIES = 2000;
+    private static final int QUERIES = 10000;
+    private static final int LIMIT = 10;
+    private static final String TABLE = "insight_search_benchmark";
+
+    public static void main(String[] args) throws Exception {
+        int entries = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int owners = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+        Corpus corpus = new Corpus(owners);
+
+        BiFunction<Long, String, Integer> search;
+        if (args.length > 2) {
+            DriverManagerDataSource dataSource = new DriverManagerDataSource(args[2],
+                    args.length > 3 ? args[3] : null, args.length > 4 ? args[4] : null);
+            search = postgres(dataSource, corpus, entries);
+        } else {
+            search = memory(corpus, entries);
+        }
+
+        System.out.printf("%d entries, %d owners, busiest owner holds %d%n", entries, owners, corpus.busiestOwnerEntries);
+        Random random = new Random(11);
+        for (int i = 0; i < WARMUP_QUERIES; i++) {
+            search.apply(corpus.queryOwner(random), corpus.query(random));
+        }
+        long[] nanos = new long[QUERIES];
+        long hits = 0;
+        for (int i = 0; i < QUERIES; i++) {
+            long owner = corpus.queryOwner(random);
+            String query = corpus.query(random);
+            long start = System.nanoTime();
+            hits += search.apply(owner, query);
+            nanos[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(nanos);
+        System.out.printf("%d queries, %.1f hits on average%n", QUERIES, (double) hits / QUERIES);
+        System.out.printf("p50 %.3f ms, p95 %.3f ms, p99 %.3f ms, max %.3f ms%n", percentile(nanos, 0.50),
+                percentile(nanos, 0.95), percentile(nanos, 0.99), nanos[nanos.length - 1] / 1e6);
+    }
+
+    private static BiFunction<Long, String, Integer> memory(Corpus corpus, int entries) {
+        // Filled from the corpus below instead of a database
+        InMemoryInsightSearchIndex index = new InMemoryInsightSearchIndex(null);
+        Map<Long, User> users = new HashMap<>();
+        Random random = new Random(7);
+        long start = System.nanoTime();
+        for (long id = 1; id <= entries; id++) {
+            User owner = users.computeIfAbsent(corpus.owner(random), ownerId -> {
+                User user = new User();
+                user.setId(ownerId);
+                return user;
+            });
+            MeetingInsight entry = new MeetingInsight();
+            entry.setId(id);
+            entry.setOwner(owner);
+            entry.setFileName("meeting-" + id + ".wav");
+            entry.setCreatedAt(Instant.ofEpochSecond(1_700_000_000L + id));
+            entry.setSearchText(corpus.document(random, entry.getFileName()));
+            index.index(entry);
+            corpus.count(owner.getId());
+        }
+        System.out.printf("Indexed in %d s, heap used %d MB%n", (System.nanoTime() - start) / 1_000_000_000,
+                (Runtime.getRuntime().totalMemory() - Runtime.getRuntime().freeMemory()) >> 20);
+        return (owner, query) -> index.search(owner, query, LIMIT).size();
+    }
+
+    private static BiFunction<Long, String, Integer> postgres(DriverManagerDataSource dataSource, Corpus corpus,
+                                                              int entries) throws NoSuchMethodException {
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("CREATE TABLE IF NOT EXISTS " + TABLE + " (id bigserial PRIMARY KEY, owner_id bigint NOT NULL,"
+                + " file_name text, created_at timestamptz NOT NULL, search_text text)");
+        jdbc.execute("ALTER TABLE " + TABLE + " ADD COLUMN IF NOT EXISTS search_vector tsvector"
+                + " GENERATED ALWAYS AS (to_tsvector('english', coalesce(search_text, ''))) STORED");
+        jdbc.execute("CREATE INDEX IF NOT EXISTS " + TABLE + "_search ON " + TABLE + " USING GIN (search_vector)");
+        jdbc.execute("CREATE INDEX IF NOT EXISTS " + TABLE + "_owner ON " + TABLE + " (owner_id, created_at DESC, id DESC)");
+
+        // Replaying the same seed gives the same owners, so the busiest-owner count is right on later runs too.
+        Random random = new Random(7);
+        long existing = jdbc.queryForObject("SELECT count(*) FROM " + TABLE, Long.class);
+        long start = System.nanoTime();
+        List<Object[]> batch = new ArrayList<>();
+        for (long id = 1; id <= entries; id++) {
+            long owner = corpus.owner(random);
+            String fileName = "meeting-" + id + ".wav";
+            String text = corpus.document(random, fileName);
+            corpus.count(owner);
+            if (id > existing) {
+                batch.add(new Object[]{owner, fileName, Timestamp.from(Instant.ofEpochSecond(1_700_000_000L + id)), text});
+                if (batch.size() == 1000 || id == entries) {
+                    jdbc.batchUpdate("INSERT INTO " + TABLE + " (owner_id, file_name, created_at, search_text)"
+                            + " VALUES (?, ?, ?, ?)", batch);
+                    batch.clear();
+                }
+            }
+        }
+        if (existing < entries) {
+            jdbc.execute("ANALYZE " + TABLE);
+            System.out.printf("Loaded %d rows in %d s%n", entries - existing, (System.nanoTime() - start) / 1_000_000_000);
+        }
+
+        String sql = MeetingInsightRepository.class
+                .getMethod("search", Long.class, String.class, int.class, String.class)
+                .getAnnotation(Query.class).value()
+                .replace("meeting_insights", TABLE);
+        String headlineOptions = "StartSel=\"" + SearchHighlights.START + "\", StopSel=\"" + SearchHighlights.END
+                + "\", MaxFragments=3, MinWords=5, MaxWords=20, FragmentDelimiter=\" ... \"";
+        NamedParameterJdbcTemplate named = new NamedParameterJdbcTemplate(jdbc);
+        return (owner, query) -> named.queryForList(sql, new MapSqlParameterSource()
+                .addValue("ownerId", owner)
+                .addValue("query", query)
+                .addValue("limit", LIMIT)
+                .addValue("headlineOptions", headlineOptions)).size();
+    }
+
+    private static double percentile(long[] sortedNanos, double percentile) {
+        return sortedNanos[(int) Math.ceil(percentile * sortedNanos.length) - 1] / 1e6;
+    }
+
+    /**
+     * Generates owners, meeting texts and queries from a fixed vocabulary with a Zipf-like word distribution.
+     */
+    private static final class Corpus {
+        private final int owners;
+        private final String[] words = new String[VOCABULARY];
+        private final double[] cumulative = new double[VOCABULARY];
+        private final Map<Long, Integer> entriesByOwner = new HashMap<>();
+        private final List<Long> ownerSample = new ArrayList<>();
+        int busiestOwnerEntries;
+
+        Corpus(int owners) {
+            this.owners = owners;
+            String[] syllables = {"ba", "ko", "ri", "mu", "te", "sa", "lo", "ne", "pi", "du", "ga", "fe", "zo", "hi",
+                    "ca", "ve", "jo", "ru", "wi", "ty"};
+            double total = 0;
+            for (int i = 0; i < VOCABULARY; i++) {
+                words[i] = syllables[i % 20] + syllables[(i / 20) % 20] + syllables[i / 400];
+                total += 1.0 / (i + 1);
+                cumulative[i] = total;
+            }
+            for (int i = 0; i < VOCABULARY; i++) {
+                cumulative[i] /= total;
+            }
+        }
+
+        long owner(Random random) {
+            // Cubing a uniform value skews towards low ids: owner 1 gets about 10% of the entries.
+            return 1 + (long) (owners * Math.pow(random.nextDouble(), 3));
+        }
+
+        void count(long owner) {
+            int count = entriesByOwner.merge(owner, 1, Integer::sum);
+            busiestOwnerEntries = Math.max(busiestOwnerEntries, count);
+            ownerSample.add(owner);
+        }
+
+        long queryOwner(Random random) {
+            // An owner picked with probability proportional to their history size
+            return ownerSample.get(random.nextInt(ownerSample.size()));
+        }
+
+        String word(Random random) {
+            int i = Arrays.binarySearch(cumulative, random.nextDouble());
+            return words[Math.min(i < 0 ? -i - 1 : i, VOCABULARY - 1)];
+        }
+
+        String document(Random random, String fileName) {
+            StringBuilder text = new StringBuilder(fileName).append('\n');
+            int lines = 4 + random.nextInt(4);
+            for (int line = 0; line < lines; line++) {
+                int length = 4 + random.nextInt(7);
+                for (int w = 0; w < length; w++) {
+                    text.append(w == 0 ? "" : " ").append(word(random));
+                }
+                text.append('\n');
+            }
+            return text.toString();
+        }
+
+        String query(Random random) {
+            // Words from the top of the distribution, so most queries have matches
+            String first = words[random.nextInt(500)];
+            return random.nextBoolean() ? first : first + " " + words[random.nextInt(500)];
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.meetinginsights.backend.service;
+
+import com.meetinginsights.backend.audio.TimestampMap;
+import com.meetinginsights.backend.audio.WavFormat;
+import com.meetinginsights.backend.exception.TooManyRequestsException;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LongMeetingProcessorTest {
+
+    private static final int SAMPLE_RATE = 8000;
+
+    private final LongMeetingProcessor processor = processor();
+
+    @Test
+    void aLongRecordingIsSplitIntoOverlappingSegments() {
+        List<LongMeetingProcessor.Segment> segments = processor.plan(wav(35 * 60));
+
+        assertEquals(4, segments.size());
+        assertSegment(segments.get(0), 0, 0, 615);
+        assertSegment(segments.get(1), 1, 600, 1215);
+        assertSegment(segments.get(2), 2, 1200, 1815);
+        assertSegment(segments.get(3), 3, 1800, 2100);
+    }
+
+    @Test
+    void aTailNoLongerThanTheOverlapIsFoldedIntoTheLastSegment() {
+        List<LongMeetingProcessor.Segment> segments = processor.plan(wav(20 * 60 + 10));
+
+        assertEquals(2, segments.size());
+        assertSegment(segments.get(1), 1, 600, 1210);
+    }
+
+    @Test
+    void aTailLongerThanTheOverlapGetsItsOwnSegment() {
+        List<LongMeetingProcessor.Segment> segments = processor.plan(wav(20 * 60 + 16));
+
+        assertEquals(3, segments.size());
+        assertSegment(segments.get(1), 1, 600, 1215);
+        assertSegment(segments.get(2), 2, 1200, 1216);
+    }
+
+    @Test
+    void aRecordingOfExactlyOneSegmentLengthIsNotSplit() {
+        List<LongMeetingProcessor.Segment> segments = processor.plan(wav(10 * 60));
+
+        assertEquals(1, segments.size());
+        assertSegment(segments.get(0), 0, 0, 600);
+    }
+
+    @Test
+    void segmentsCoverTheSampleDataInWholeFrames() {
+        // Stereo 16-bit: 4 bytes per frame
+        WavFormat wav = new WavFormat(WavFormat.FORMAT_PCM, 2, SAMPLE_RATE, 16, 44, 25L * 60 * SAMPLE_RATE * 4);
+
+        List<LongMeetingProcessor.Segment> segments = processor.plan(wav);
+
+        long frameBytes = 4;
+        for (LongMeetingProcessor.Segment segment : segments) {
+            assertEquals(0, segment.byteOffset % frameBytes);
+            assertEquals(0, segment.byteLength % frameBytes);
+            assertEquals((long) (segment.startSeconds * SAMPLE_RATE) * frameBytes, segment.byteOffset);
+        }
+        LongMeetingProcessor.Segment last = segments.get(segments.size() - 1);
+        assertEquals(wav.getDataLength(), last.byteOffset + last.byteLength);
+    }
+
+    @Test
+    void onlyRecordingsLongerThanTheMinimumAreEligible() {
+        assertFalse(processor.isEligible(wav(15 * 60)));
+        assertTrue(processor.isEligible(wav(15 * 60 + 1)));
+        assertFalse(processor.isEligible(null));
+
+        ReflectionTestUtils.setField(processor, "enabled", false);
+        assertFalse(processor.isEligible(wav(60 * 60)));
+    }
+
+    @Test
+    void aFullSegmentQueueIsReportedAsTooManyRequests() {
+        TaskExecutor full = task -> {
+            throw new TaskRejectedException("Queue full");
+        };
+        LongMeetingProcessor rejecting = new LongMeetingProcessor(full);
+        ReflectionTestUtils.setField(rejecting, "segmentLength", Duration.ofMinutes(10));
+        ReflectionTestUtils.setField(rejecting, "overlap", Duration.ofSeconds(15));
+        ReflectionTestUtils.setField(rejecting, "concurrency", 4);
+
+        assertThrows(TooManyRequestsException.class, () -> rejecting.process(
+                InputStream::nullInputStream, wav(35 * 60), "meeting.wav", new TimestampMap(), null));
+    }
+
+    private static void assertSegment(LongMeetingProcessor.Segment segment, int index, double startSeconds,
+                                      double endSeconds) {
+        assertEquals(index, segment.index);
+        assertEquals(startSeconds, segment.startSeconds, 1e-9);
+        assertEquals(endSeconds, segment.endSeconds, 1e-9);
+    }
+
+    /** 8 kHz, 8-bit mono, so one byte per frame. */
+    private static WavFormat wav(long seconds) {
+        return new WavFormat(WavFormat.FORMAT_PCM, 1, SAMPLE_RATE, 8, 44, seconds * SAMPLE_RATE);
+    }
+
+    private static LongMeetingProcessor processor() {
+        LongMeetingProcessor processor = new LongMeetingProcessor(new SyncTaskExecutor());
+        ReflectionTestUtils.setField(processor, "enabled", true);
+        ReflectionTestUtils.setField(processor, "minDuration", Duration.ofMinutes(15));
+        ReflectionTestUtils.setField(processor, "segmentLength", Duration.ofMinutes(10));
+        ReflectionTestUtils.setField(processor, "overlap", Duration.ofSeconds(15));
+        return processor;
+    }
+}
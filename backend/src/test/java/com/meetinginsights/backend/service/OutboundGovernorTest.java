@@ -0,0 +1,209 @@
+package com.meetinginsights.backend.service;
+
+import com.meetinginsights.backend.exception.ModelUnavailableException;
+import com.meetinginsights.backend.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OutboundGovernorTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ExecutorService callers = Executors.newCachedThreadPool();
+
+    @AfterEach
+    void tearDown() {
+        callers.shutdownNow();
+    }
+
+    @Test
+    void callsBeyondTheInFlightLimitWaitForASlot() throws Exception {
+        OutboundGovernor governor = governor(1e6, 1e6, 2, 20, Duration.ofSeconds(10));
+        OutboundGovernor.Permit first = governor.acquire("a@example.com", 100);
+        governor.acquire("a@example.com", 100);
+
+        Future<OutboundGovernor.Permit> third = callers.submit(() -> governor.acquire("b@example.com", 100));
+        assertThrows(TimeoutException.class, () -> third.get(200, TimeUnit.MILLISECONDS));
+
+        first.close();
+        third.get(2, TimeUnit.SECONDS);
+        assertEquals(0, governor.getQueued());
+    }
+
+    @Test
+    void requestsAreSpacedOutOnceTheBurstIsUsed() throws Exception {
+        // A burst of 2, then one request per second
+        OutboundGovernor governor = new OutboundGovernor(meterRegistry, 60, 2, 1e6, 1e6, 10, 20, Duration.ofSeconds(10));
+        governor.acquire(null, 100).close();
+        governor.acquire(null, 100).close();
+
+        long start = System.nanoTime();
+        governor.acquire(null, 100).close();
+        long waitedMs = (System.nanoTime() - start) / 1_000_000;
+
+        assertTrue(waitedMs >= 900, "waited " + waitedMs + "ms");
+        assertEquals(3, meterRegistry.get("gemini.governor.queue").tag("outcome", "admitted").timer().count());
+    }
+
+    @Test
+    void overestimatedTokensAreReturnedToTheBucket() throws Exception {
+        // 1000 tokens, refilled far too slowly to matter here
+        OutboundGovernor governor = new OutboundGovernor(meterRegistry, 1e6, 1e6, 1, 1000, 10, 20, Duration.ofMillis(300));
+        try (OutboundGovernor.Permit permit = governor.acquire("a@example.com", 800)) {
+            permit.settle(100);
+        }
+
+        // 900 left after settling; without it only 200 would be, and this would time out.
+        governor.acquire("a@example.com", 800).close();
+        assertThrows(ModelUnavailableException.class, () -> governor.acquire("a@example.com", 800));
+    }
+
+    @Test
+    void aHedgeIsChargedTheCallsTokensAndSettledWithIt() throws Exception {
+        OutboundGovernor governor = new OutboundGovernor(meterRegistry, 1e6, 1e6, 1, 1000, 10, 20, Duration.ofMillis(300));
+        try (OutboundGovernor.Permit permit = governor.acquire("a@example.com", 300)) {
+            assertTrue(permit.tryChargeHedge());
+            // Both copies counted 100 tokens, so 2 x 200 come back.
+            permit.settle(100);
+        }
+
+        // 800 left; without the hedge's charge 900 would be, and the second call would be admitted.
+        governor.acquire("a@example.com", 800).close();
+        assertThrows(ModelUnavailableException.class, () -> governor.acquire("a@example.com", 100));
+        assertEquals(1, meterRegistry.get("gemini.governor.hedges").tag("outcome", "charged").counter().count());
+    }
+
+    @Test
+    void aRetryWaitsForTheQuotaAndIsRefusedIfItCantBePaidInTime() throws Exception {
+        // 1000 tokens, refilled at 1200 a minute: 20 a second
+        OutboundGovernor governor = new OutboundGovernor(meterRegistry, 1e6, 1e6, 1200, 1000, 10, 20, Duration.ofMillis(300));
+        try (OutboundGovernor.Permit permit = governor.acquire("a@example.com", 490)) {
+            permit.chargeRetry(System.nanoTime() + TimeUnit.SECONDS.toNanos(1));
+
+            // 20 tokens left; the next 490 take 23.5 s.
+            long start = System.nanoTime();
+            assertThrows(ModelUnavailableException.class,
+                    () -> permit.chargeRetry(System.nanoTime() + TimeUnit.SECONDS.toNanos(5)));
+            assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(1));
+        }
+        assertEquals(1, meterRegistry.get("gemini.governor.retries").tag("outcome", "charged").counter().count());
+        assertEquals(1, meterRegistry.get("gemini.governor.retries").tag("outcome", "refused").counter().count());
+    }
+
+    @Test
+    void noHedgeIsChargedWhileCallsAreWaitingOrTheQuotaIsUsed() throws Exception {
+        OutboundGovernor governor = governor(1e6, 1e6, 1, 20, Duration.ofSeconds(10));
+        OutboundGovernor.Permit permit = governor.acquire("a@example.com", 100);
+        Future<?> waiting = queue(governor, "b@example.com", Collections.synchronizedList(new ArrayList<>()));
+        awaitQueued(governor, 1);
+
+        assertFalse(permit.tryChargeHedge());
+        permit.close();
+        waiting.get(5, TimeUnit.SECONDS);
+
+        // A burst of one request, used by the call itself
+        OutboundGovernor throttled = new OutboundGovernor(meterRegistry, 1, 1, 1e6, 1e6, 10, 20, Duration.ofSeconds(10));
+        try (OutboundGovernor.Permit only = throttled.acquire("a@example.com", 100)) {
+            assertFalse(only.tryChargeHedge());
+        }
+        assertEquals(2, meterRegistry.get("gemini.governor.hedges").tag("outcome", "refused").counter().count());
+    }
+
+    @Test
+    void waitingUsersTakeTurns() throws Exception {
+        OutboundGovernor governor = governor(1e6, 1e6, 1, 20, Duration.ofSeconds(10));
+        OutboundGovernor.Permit blocker = governor.acquire("other@example.com", 100);
+
+        List<String> admitted = Collections.synchronizedList(new ArrayList<>());
+        List<Future<?>> calls = new ArrayList<>();
+        // The heavy user queues four calls before the light user queues one.
+        for (int i = 0; i < 4; i++) {
+            calls.add(queue(governor, "heavy@example.com", admitted));
+            awaitQueued(governor, i + 1);
+        }
+        calls.add(queue(governor, "light@example.com", admitted));
+        awaitQueued(governor, 5);
+
+        blocker.close();
+        for (Future<?> call : calls) {
+            call.get(5, TimeUnit.SECONDS);
+        }
+        assertEquals(List.of("heavy@example.com", "light@example.com", "heavy@example.com", "heavy@example.com",
+                "heavy@example.com"), admitted);
+    }
+
+    @Test
+    void aUserWithTooManyCallsWaitingIsTurnedAway() throws Exception {
+        OutboundGovernor governor = governor(1e6, 1e6, 1, 2, Duration.ofSeconds(10));
+        OutboundGovernor.Permit blocker = governor.acquire("a@example.com", 100);
+        List<String> admitted = Collections.synchronizedList(new ArrayList<>());
+        queue(governor, "a@example.com", admitted);
+        queue(governor, "a@example.com", admitted);
+        awaitQueued(governor, 2);
+
+        assertThrows(TooManyRequestsException.class, () -> governor.acquire("a@example.com", 100));
+        // Other users still get in line.
+        Future<?> other = queue(governor, "b@example.com", admitted);
+        awaitQueued(governor, 3);
+        assertEquals(1, meterRegistry.get("gemini.governor.rejected").counter().count());
+
+        blocker.close();
+        other.get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void aCallThatWaitsTooLongTimesOut() throws Exception {
+        OutboundGovernor governor = governor(1e6, 1e6, 1, 20, Duration.ofMillis(200));
+        governor.acquire("a@example.com", 100);
+
+        ModelUnavailableException e = assertThrows(ModelUnavailableException.class,
+                () -> governor.acquire("b@example.com", 100));
+        assertTrue(e.getRetryAfter().toSeconds() >= 1);
+        assertEquals(0, governor.getQueued());
+        assertEquals(1, meterRegistry.get("gemini.governor.queue").tag("outcome", "timeout").timer().count());
+    }
+
+    @Test
+    void tokensAreEstimatedFromTheAudioDuration() {
+        // 10 minutes of audio at 32 tokens per second, plus a 400 character prompt
+        assertEquals(19_200 + 100, OutboundGovernor.estimateTokens("x".repeat(400), 600));
+    }
+
+    private OutboundGovernor governor(double requestsPerMinute, double tokensPerMinute, int maxInFlight,
+                                      int maxQueuedPerUser, Duration maxWait) {
+        return new OutboundGovernor(meterRegistry, requestsPerMinute, requestsPerMinute, tokensPerMinute,
+                tokensPerMinute, maxInFlight, maxQueuedPerUser, maxWait);
+    }
+
+    private Future<?> queue(OutboundGovernor governor, String user, List<String> admitted) {
+        return callers.submit(() -> {
+            try (OutboundGovernor.Permit permit = governor.acquire(user, 100)) {
+                admitted.add(user);
+            }
+            return null;
+        });
+    }
+
+    private static void awaitQueued(OutboundGovernor governor, int queued) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (governor.getQueued() < queued && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(queued, governor.getQueued());
+    }
+}
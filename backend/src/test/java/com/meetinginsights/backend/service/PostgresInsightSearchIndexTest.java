@@ -0,0 +1,52 @@
+package com.meetinginsights.backend.service;
+
+import com.meetinginsights.backend.dto.InsightSearchHit;
+import com.meetinginsights.backend.repository.InsightSearchRow;
+import com.meetinginsights.backend.repository.MeetingInsightRepository;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class PostgresInsightSearchIndexTest {
+
+    private final MeetingInsightRepository repository = mock(MeetingInsightRepository.class);
+    private final PostgresInsightSearchIndex index = new PostgresInsightSearchIndex(repository);
+
+    @Test
+    void rowsBecomeHitsWithEscapedHighlights() {
+        InsightSearchRow row = mock(InsightSearchRow.class);
+        when(row.getId()).thenReturn(5L);
+        when(row.getFileName()).thenReturn("standup.mp3");
+        when(row.getCreatedAt()).thenReturn(Instant.parse("2026-10-01T10:00:00Z"));
+        when(row.getRank()).thenReturn(0.25);
+        when(row.getHighlight()).thenReturn("the <script> " + SearchHighlights.START + "budget" + SearchHighlights.END);
+        when(repository.search(eq(7L), eq("budget"), eq(10), anyString())).thenReturn(List.of(row));
+
+        List<InsightSearchHit> hits = index.search(7L, "budget", 10);
+
+        assertEquals(1, hits.size());
+        assertEquals(5L, hits.get(0).getId());
+        assertEquals(0.25, hits.get(0).getRank());
+        assertEquals("the &lt;script&gt; <mark>budget</mark>", hits.get(0).getHighlight());
+    }
+
+    @Test
+    void theSearchIsScopedToTheOwnerAndDelimitsMatchesWithControlCharacters() {
+        index.search(7L, "budget", 10);
+
+        verify(repository).search(eq(7L), eq("budget"), eq(10), argThat(options ->
+                options.contains("StartSel=\"" + SearchHighlights.START + "\"")
+                        && options.contains("StopSel=\"" + SearchHighlights.END + "\"")));
+        assertTrue(index.search(8L, "budget", 10).isEmpty());
+    }
+}
@@ -0,0 +1,209 @@
+package com.meetinginsights.backend.service;
+
+import com.meetinginsights.backend.exception.ModelUnavailableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The resilience behaviors of {@link ResilientGeminiClient} against the fault-injecting {@link GeminiStubServer}.
+ */
+class ResilientGeminiClientTest {
+
+    private GeminiStubServer stub;
+    private SimpleMeterRegistry meterRegistry;
+    private HttpRequest request;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        stub = new GeminiStubServer();
+        meterRegistry = new SimpleMeterRegistry();
+        request = HttpRequest.newBuilder()
+                .uri(URI.create(stub.baseUrl() + "/v1beta/models/test:generateContent"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString("{}"))
+                .build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        stub.close();
+    }
+
+    @Test
+    void overloadedResponsesAreRetriedAfterTheirRetryAfter() throws Exception {
+        ResilientGeminiClient client = client(Duration.ofSeconds(5), Duration.ofSeconds(10), 3, false, 20);
+        stub.failingGenerates = 1;
+        stub.failureStatus = 429;
+        stub.retryAfterSeconds = 1;
+
+        long start = System.nanoTime();
+        HttpResponse<InputStream> response = client.send(request);
+
+        assertEquals(200, status(response));
+        assertTrue(elapsedMs(start) >= 1000);
+        assertEquals(2, stub.generateRequests.size());
+        assertEquals(1, meterRegistry.get("gemini.retries").tag("reason", "status_429").counter().count());
+    }
+
+    @Test
+    void theLastErrorIsReturnedOnceTheRetriesAreUsedUp() throws Exception {
+        ResilientGeminiClient client = client(Duration.ofSeconds(5), Duration.ofSeconds(10), 3, false, 20);
+        stub.failingGenerates = 5;
+
+        assertEquals(503, status(client.send(request)));
+        assertEquals(3, stub.generateRequests.size());
+    }
+
+    @Test
+    void aStalledAttemptIsAbandonedAndRetried() throws Exception {
+        ResilientGeminiClient client = client(Duration.ofMillis(300), Duration.ofSeconds(5), 3, false, 20);
+        stub.slowGenerates = 1;
+        stub.slowLatencyMs = 3000;
+
+        long start = System.nanoTime();
+        HttpResponse<InputStream> response = client.send(request);
+
+        assertEquals(200, status(response));
+        assertTrue(elapsedMs(start) < 2000);
+        assertEquals(1, meterRegistry.get("gemini.timeouts").tag("scope", "attempt").counter().count());
+    }
+
+    @Test
+    void theOverallDeadlineEndsTheCall() throws Exception {
+        ResilientGeminiClient client = client(Duration.ofMillis(400), Duration.ofMillis(700), 5, false, 20);
+        stub.latencyMs = 2000;
+
+        long start = System.nanoTime();
+        assertThrows(ModelUnavailableException.class, () -> client.send(request));
+
+        assertTrue(elapsedMs(start) < 1500);
+        assertEquals(1, meterRegistry.get("gemini.timeouts").tag("scope", "overall").counter().count());
+    }
+
+    @Test
+    void aSlowAttemptIsHedged() throws Exception {
+        ResilientGeminiClient client = client(Duration.ofSeconds(5), Duration.ofSeconds(10), 1, true, 20);
+        // Enough fast calls to know the usual latency
+        for (int i = 0; i < 20; i++) {
+            status(client.send(request));
+        }
+        stub.slowGenerates = 1;
+        stub.slowLatencyMs = 3000;
+
+        long start = System.nanoTime();
+        HttpResponse<InputStream> response = client.send(request);
+
+        assertEquals(200, status(response));
+        assertTrue(elapsedMs(start) < 1500);
+        assertEquals(22, stub.generateRequests.size());
+        assertEquals(1, meterRegistry.get("gemini.hedges").tag("outcome", "won").counter().count());
+    }
+
+    @Test
+    void noHedgeIsSentWhenTheGovernorRefusesIt() throws Exception {
+        ResilientGeminiClient client = client(Duration.ofSeconds(5), Duration.ofSeconds(10), 1, true, 20);
+        for (int i = 0; i < 20; i++) {
+            status(client.send(request));
+        }
+        stub.slowGenerates = 1;
+        stub.slowLatencyMs = 1000;
+        // A burst of one request, used by the call itself
+        OutboundGovernor governor = new OutboundGovernor(meterRegistry, 1, 1, 1e6, 1e6, 10, 20, Duration.ofSeconds(10));
+
+        long start = System.nanoTime();
+        try (OutboundGovernor.Permit permit = governor.acquire(null, 100)) {
+            assertEquals(200, status(client.send(request, permit)));
+        }
+
+        // The slow attempt was waited out instead of being sent twice.
+        assertTrue(elapsedMs(start) >= 900);
+        assertEquals(21, stub.generateRequests.size());
+        assertEquals(1, meterRegistry.get("gemini.governor.hedges").tag("outcome", "refused").counter().count());
+    }
+
+    @Test
+    void aRetryWaitsForTheQuotaBeforeItIsSent() throws Exception {
+        ResilientGeminiClient client = client(Duration.ofSeconds(5), Duration.ofSeconds(10), 3, false, 20);
+        stub.failingGenerates = 1;
+        // A burst of one request, used by the call itself, then one request a second
+        OutboundGovernor governor = new OutboundGovernor(meterRegistry, 60, 1, 1e6, 1e6, 10, 20, Duration.ofSeconds(10));
+
+        long start = System.nanoTime();
+        try (OutboundGovernor.Permit permit = governor.acquire(null, 100)) {
+            assertEquals(200, status(client.send(request, permit)));
+        }
+
+        assertTrue(elapsedMs(start) >= 900);
+        assertEquals(2, stub.generateRequests.size());
+        assertEquals(1, meterRegistry.get("gemini.governor.retries").tag("outcome", "charged").counter().count());
+    }
+
+    @Test
+    void aRetryTheQuotaCantPayForBeforeTheDeadlineFailsTheCall() throws Exception {
+        ResilientGeminiClient client = client(Duration.ofSeconds(1), Duration.ofSeconds(2), 3, false, 20);
+        stub.failingGenerates = 1;
+        // One request a minute
+        OutboundGovernor governor = new OutboundGovernor(meterRegistry, 1, 1, 1e6, 1e6, 10, 20, Duration.ofSeconds(10));
+
+        long start = System.nanoTime();
+        try (OutboundGovernor.Permit permit = governor.acquire(null, 100)) {
+            ModelUnavailableException e = assertThrows(ModelUnavailableException.class,
+                    () -> client.send(request, permit));
+            assertTrue(e.getRetryAfter().toSeconds() > 1);
+        }
+
+        // Given up without waiting for the refill
+        assertTrue(elapsedMs(start) < 1000);
+        assertEquals(1, stub.generateRequests.size());
+        assertEquals(1, meterRegistry.get("gemini.governor.retries").tag("outcome", "refused").counter().count());
+    }
+
+    @Test
+    void theBreakerFailsFastWhileGeminiIsDownAndClosesOnceItRecovers() throws Exception {
+        ResilientGeminiClient client = client(Duration.ofSeconds(5), Duration.ofSeconds(10), 1, false, 4);
+        stub.failingGenerates = 4;
+        for (int i = 0; i < 4; i++) {
+            assertEquals(503, status(client.send(request)));
+        }
+        assertEquals(CircuitBreaker.State.OPEN, client.getBreakerState());
+
+        ModelUnavailableException rejected = assertThrows(ModelUnavailableException.class, () -> client.send(request));
+        assertTrue(rejected.getRetryAfter().toMillis() > 0);
+        assertEquals(4, stub.generateRequests.size());
+        assertEquals(1, meterRegistry.get("gemini.breaker.rejected").counter().count());
+
+        Thread.sleep(350);
+        assertEquals(200, status(client.send(request)));
+        assertEquals(CircuitBreaker.State.CLOSED, client.getBreakerState());
+    }
+
+    private ResilientGeminiClient client(Duration attemptTimeout, Duration overallTimeout, int maxAttempts,
+                                         boolean hedge, int breakerWindow) {
+        return new ResilientGeminiClient(meterRegistry, Duration.ofSeconds(2), attemptTimeout, overallTimeout,
+                maxAttempts, Duration.ofMillis(10), Duration.ofMillis(50), hedge, Duration.ofMillis(100),
+                breakerWindow, 0.5, Duration.ofMillis(300));
+    }
+
+    private static int status(HttpResponse<InputStream> response) throws Exception {
+        try (InputStream body = response.body()) {
+            body.readAllBytes();
+        }
+        return response.statusCode();
+    }
+
+    private static long elapsedMs(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1_000_000;
+    }
+}
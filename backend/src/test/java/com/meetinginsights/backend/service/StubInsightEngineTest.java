@@ -0,0 +1,96 @@
+package com.meetinginsights.backend.service;
+
+import com.meetinginsights.backend.audio.AudioPreprocessor;
+import com.meetinginsights.backend.dto.MeetingInsights;
+import com.meetinginsights.backend.exception.ModelUnavailableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class StubInsightEngineTest {
+
+    private final GeminiResponseParser parser = new GeminiResponseParser();
+
+    @Test
+    void theSameAudioAlwaysGetsTheSameInsights() throws Exception {
+        StubInsightEngine engine = engine(0, 0);
+        ByteArrayResource audio = new ByteArrayResource(randomBytes(50_000, 1));
+
+        String answer = engine.analyzeAudio(audio, audio.contentLength(), "audio/mpeg", "a.mp3", "prompt",
+                new TokenUsage(null, ModelTier.PRO));
+
+        assertEquals(answer, engine.analyzeAudio(audio, audio.contentLength(), "audio/mpeg", "a.mp3", "prompt",
+                new TokenUsage(null, ModelTier.PRO)));
+        ByteArrayResource other = new ByteArrayResource(randomBytes(50_000, 2));
+        assertNotEquals(answer, engine.analyzeAudio(other, other.contentLength(), "audio/mpeg", "a.mp3", "prompt",
+                new TokenUsage(null, ModelTier.PRO)));
+        assertEquals(5, parser.parseInsights(answer).getSummary().size());
+    }
+
+    @Test
+    void theStreamedAnswerMatchesTheBlockingOne() throws Exception {
+        StubInsightEngine engine = engine(0, 0);
+        ByteArrayResource audio = new ByteArrayResource(randomBytes(50_000, 1));
+        TokenUsage usage = new TokenUsage(null, ModelTier.PRO);
+
+        String streamed = String.join("", engine.streamAudio(audio, audio.contentLength(), "audio/mpeg", "a.mp3",
+                "prompt", usage).collectList().block(Duration.ofSeconds(5)));
+
+        assertEquals(engine.analyzeAudio(audio, audio.contentLength(), "audio/mpeg", "a.mp3", "prompt",
+                new TokenUsage(null, ModelTier.PRO)), streamed);
+        assertEquals(1, usage.getCalls());
+    }
+
+    @Test
+    void failuresAreInjectedAtTheConfiguredRates() {
+        ByteArrayResource audio = new ByteArrayResource(randomBytes(1000, 1));
+
+        assertThrows(ModelUnavailableException.class, () -> engine(1, 0).analyzeAudio(audio, audio.contentLength(),
+                "audio/mpeg", "a.mp3", "prompt", new TokenUsage(null, ModelTier.PRO)));
+        IOException failed = assertThrows(IOException.class, () -> engine(0, 1).analyzeAudio(audio,
+                audio.contentLength(), "audio/mpeg", "a.mp3", "prompt", new TokenUsage(null, ModelTier.PRO)));
+        assertFalse(failed instanceof ModelUnavailableException);
+        assertInstanceOf(ModelUnavailableException.class, engine(1, 0).streamAudio(audio, audio.contentLength(),
+                "audio/mpeg", "a.mp3", "prompt", new TokenUsage(null, ModelTier.PRO)).materialize().blockLast().getThrowable());
+    }
+
+    @Test
+    void theUploadPathRunsOfflineOnTheStub() throws Exception {
+        GeminiService geminiService = new GeminiService();
+        ReflectionTestUtils.setField(geminiService, "engine", engine(0, 0));
+        ReflectionTestUtils.setField(geminiService, "insightCache",
+                new InsightCache(new SimpleMeterRegistry(), Optional.empty(), 100, Duration.ofHours(1)));
+        ReflectionTestUtils.setField(geminiService, "longMeetingProcessor",
+                new LongMeetingProcessor(new SimpleAsyncTaskExecutor()));
+        ReflectionTestUtils.setField(geminiService, "audioPreprocessor", new AudioPreprocessor(new SimpleMeterRegistry()));
+
+        MeetingInsights insights = geminiService.processMeetingAudio(
+                new MockMultipartFile("file", "meeting.mp3", "audio/mpeg", randomBytes(10_000, 3)));
+
+        assertEquals(5, insights.getSummary().size());
+    }
+
+    private static StubInsightEngine engine(double unavailableRate, double errorRate) {
+        return new StubInsightEngine(Duration.ofMillis(5), Duration.ofMillis(20), unavailableRate, errorRate, 4, 0.25);
+    }
+
+    private static byte[] randomBytes(int length, long seed) {
+        byte[] bytes = new byte[length];
+        new Random(seed).nextBytes(bytes);
+        return bytes;
+    }
+}
@@ -0,0 +1,111 @@
+package com.meetinginsights.backend.service;
+
+import com.meetinginsights.backend.entity.Role;
+import com.meetinginsights.backend.entity.User;
+import com.meetinginsights.backend.repository.MeetingInsightRepository;
+import com.meetinginsights.backend.repository.RoleRepository;
+import com.meetinginsights.backend.repository.UserRepository;
+import com.meetinginsights.backend.security.RoleRegistry;
+import com.meetinginsights.backend.security.TokenRevocationService;
+import com.meetinginsights.backend.security.UserSnapshotCache;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class UserAdminServiceTest {
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final MeetingInsightRepository meetingInsightRepository = mock(MeetingInsightRepository.class);
+    private final InsightSearchIndex searchIndex = mock(InsightSearchIndex.class);
+    private final RoleRepository roleRepository = mock(RoleRepository.class);
+    private final TokenRevocationService revocationService = mock(TokenRevocationService.class);
+    private final UserSnapshotCache userSnapshotCache = mock(UserSnapshotCache.class);
+    private final ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+    private final RoleRegistry roleRegistry = new RoleRegistry(roleRepository);
+    private final UserAdminService service = new UserAdminService(userRepository, meetingInsightRepository,
+            searchIndex, roleRegistry, revocationService, userSnapshotCache, eventPublisher);
+
+    UserAdminServiceTest() {
+        when(roleRepository.findAll()).thenReturn(List.of(role(1L, "ROLE_USER"), role(2L, "ROLE_ADMIN")));
+        roleRegistry.reload();
+    }
+
+    @Test
+    void changingRolesRevokesTheUsersTokens() {
+        User ann = user(7L, "ann@example.com");
+        when(userRepository.findByEmail("ann@example.com")).thenReturn(Optional.of(ann));
+
+        Optional<Set<String>> roles = service.setRoles("ann@example.com", Set.of("ROLE_USER", "ROLE_ADMIN"));
+
+        assertEquals(Optional.of(Set.of("ROLE_USER", "ROLE_ADMIN")), roles);
+        verify(userRepository).save(ann);
+        verify(revocationService).revokeAllFor("ann@example.com");
+        ArgumentCaptor<UserChangedEvent> event = ArgumentCaptor.forClass(UserChangedEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        assertEquals("ann@example.com", event.getValue().getEmail());
+    }
+
+    @Test
+    void anUnknownRoleChangesNothing() {
+        when(userRepository.findByEmail("ann@example.com")).thenReturn(Optional.of(user(7L, "ann@example.com")));
+
+        assertThrows(IllegalStateException.class, () -> service.setRoles("ann@example.com", Set.of("ROLE_ROOT")));
+        verify(userRepository, never()).save(any());
+        verify(revocationService, never()).revokeAllFor(any());
+    }
+
+    @Test
+    void deletingAUserRemovesTheirInsightsAndRevokesTheirTokens() {
+        User ann = user(7L, "ann@example.com");
+        when(userRepository.findByEmail("ann@example.com")).thenReturn(Optional.of(ann));
+
+        service.deleteUser("ann@example.com");
+
+        verify(meetingInsightRepository).deleteByOwnerId(7L);
+        verify(searchIndex).removeOwner(7L);
+        verify(userRepository).delete(ann);
+        verify(revocationService).revokeAllFor("ann@example.com");
+        assertFalse(service.deleteUser("nobody@example.com"));
+    }
+
+    @Test
+    void reloadingRevokesAllTokensOnlyWhenARoleIsGone() {
+        when(roleRepository.findAll()).thenReturn(List.of(role(1L, "ROLE_USER"), role(2L, "ROLE_ADMIN"), role(3L, "ROLE_AUDITOR")));
+        service.reloadRoles();
+        verify(revocationService, never()).revokeAll();
+
+        when(roleRepository.findAll()).thenReturn(List.of(role(1L, "ROLE_USER"), role(3L, "ROLE_AUDITOR")));
+        service.reloadRoles();
+        verify(revocationService).revokeAll();
+        verify(userSnapshotCache).invalidateAll();
+    }
+
+    private static Role role(Long id, String name) {
+        Role role = new Role();
+        role.setId(id);
+        role.setName(name);
+        return role;
+    }
+
+    private static User user(Long id, String email) {
+        User user = new User();
+        user.setId(id);
+        user.setEmail(email);
+        user.setRoles(new HashSet<>());
+        return user;
+    }
+}
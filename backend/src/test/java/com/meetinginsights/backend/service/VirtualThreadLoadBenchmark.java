@@ -0,0 +1,133 @@
+package com.meetinginsights.backend.service;
+
+import com.meetinginsights.backend.audio.AudioPreprocessor;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Load benchmark: N concurrent simulated uploads through {@link GeminiService#processMeetingAudio} against a local
+ * Gemini stub, once on a platform thread pool sized like Tomcat's default (200) and once on virtual threads.
+ * <p>
+ * Not a unit test; run it manually on a JDK 21+ runtime, e.g.
+ * <pre>
+ * mvn -q test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ * java -cp target/test-classes:target/classes:$(cat target/cp.txt) \
+ *     com.meetinginsights.backend.service.VirtualThreadLoadBenchmark [uploads] [latencyMs] [audioBytes]
+ * </pre>
+ */
+public class VirtualThreadLoadBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int uploads = args.length > 0 ? Integer.parseInt(args[0]) : 500;
+        long latencyMs = args.length > 1 ? Long.parseLong(args[1]) : 2000;
+        int audioBytes = args.length > 2 ? Integer.parseInt(args[2]) : 256 * 1024;
+
+        byte[] audio = new byte[audioBytes];
+        new Random(7).nextBytes(audio);
+
+        try (GeminiStubServer stub = new GeminiStubServer()) {
+            stub.latencyMs = latencyMs;
+            stub.recordRequests = false;
+            GeminiService geminiService = newService(stub);
+
+            System.out.printf("%d concurrent uploads of %d KB, stub latency %d ms%n", uploads, audioBytes / 1024, latencyMs);
+
+            ExecutorService platform = Executors.newFixedThreadPool(200);
+            run("platform (200 threads)", platform, geminiService, audio, uploads);
+            platform.shutdown();
+
+            if (Runtime.version().feature() >= 21) {
+                run("virtual threads", new VirtualThreadTaskExecutor("bench-"), geminiService, audio, uploads);
+            } else {
+                System.out.println("virtual threads: skipped, requires JDK 21+ (running " + Runtime.version() + ")");
+            }
+        }
+    }
+
+    private static GeminiService newService(GeminiStubServer stub) {
+        GeminiInsightEngine engine = new GeminiInsightEngine();
+        ReflectionTestUtils.setField(engine, "geminiApiKey", "bench-key");
+        ReflectionTestUtils.setField(engine, "fastModel", "gemini-2.5-flash");
+        ReflectionTestUtils.setField(engine, "proModel", "gemini-2.5-pro");
+        ReflectionTestUtils.setField(engine, "geminiBaseUrl", stub.baseUrl());
+        ReflectionTestUtils.setField(engine, "filesApiThresholdBytes", Long.MAX_VALUE);
+        ReflectionTestUtils.setField(engine, "geminiClient", new ResilientGeminiClient(new SimpleMeterRegistry(),
+                Duration.ofSeconds(10), Duration.ofSeconds(120), Duration.ofSeconds(300), 3, Duration.ofSeconds(1),
+                Duration.ofSeconds(20), false, Duration.ofSeconds(10), 20, 0.5, Duration.ofSeconds(30)));
+        // No outbound limits, so the benchmark measures the request threads alone
+        ReflectionTestUtils.setField(engine, "governor", new OutboundGovernor(new SimpleMeterRegistry(),
+                1e6, 1e6, 1e9, 1e9, Integer.MAX_VALUE, Integer.MAX_VALUE, Duration.ofSeconds(60)));
+        ReflectionTestUtils.setField(engine, "metrics", new PipelineMetrics(new SimpleMeterRegistry()));
+
+        GeminiService geminiService = new GeminiService();
+        ReflectionTestUtils.setField(geminiService, "engine", engine);
+        ReflectionTestUtils.setField(geminiService, "insightCache",
+                new InsightCache(new SimpleMeterRegistry(), Optional.empty(), 1000, Duration.ofHours(1)));
+        LongMeetingProcessor longMeetingProcessor = new LongMeetingProcessor(new SimpleAsyncTaskExecutor());
+        ReflectionTestUtils.setField(geminiService, "longMeetingProcessor", longMeetingProcessor);
+        ReflectionTestUtils.setField(geminiService, "audioPreprocessor", new AudioPreprocessor(new SimpleMeterRegistry()));
+        return geminiService;
+    }
+
+    private static void run(String label, Executor executor, GeminiService geminiService, byte[] audio, int uploads)
+            throws InterruptedException {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        threads.resetPeakThreadCount();
+
+        long[] latencies = new long[uploads];
+        AtomicInteger failures = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(uploads);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < uploads; i++) {
+            int index = i;
+            executor.execute(() -> {
+                // Every upload is distinct so the insight cache doesn't short-circuit the model call.
+                byte[] upload = audio.clone();
+                ByteBuffer.wrap(upload).putInt(index).putLong(System.nanoTime());
+                long t0 = System.nanoTime();
+                try {
+                    geminiService.processMeetingAudio(new MockMultipartFile("file", "bench.wav", "audio/wav", upload));
+                } catch (Exception e) {
+                    failures.incrementAndGet();
+                } finally {
+                    latencies[index] = System.nanoTime() - t0;
+                    done.countDown();
+                }
+            });
+        }
+        done.await();
+        long wallNanos = System.nanoTime() - start;
+
+        Arrays.sort(latencies);
+        System.out.printf("%-24s wall %6d ms | %7.1f req/s | p50 %6d ms | p95 %6d ms | p99 %6d ms | peak threads %4d | failures %d%n",
+                label,
+                wallNanos / 1_000_000,
+                uploads / (wallNanos / 1e9),
+                percentile(latencies, 0.50),
+                percentile(latencies, 0.95),
+                percentile(latencies, 0.99),
+                threads.getPeakThreadCount(),
+                failures.get());
+    }
+
+    private static long percentile(long[] sorted, double p) {
+        return sorted[Math.min(sorted.length - 1, (int) Math.ceil(p * sorted.length) - 1)] / 1_000_000;
+    }
+}
@@ -0,0 +1,65 @@
+package com.meetinginsights.backend.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * JMH benchmark of what recording an audit row costs the request thread: the enqueue into a
+ * {@link WriteBehindBuffer} whose writer thread takes 1 ms per batch of 500, roughly a JDBC batch insert. Records that
+ * outrun the writer are dropped at capacity, which costs about the same as an enqueue.
+ * <p>
+ * Not a unit test; run it manually, e.g.
+ * <pre>
+ * mvn -q test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ * java -cp target/test-classes:target/classes:$(cat target/cp.txt) \
+ *     com.meetinginsights.backend.service.WriteBehindBufferBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+public class WriteBehindBufferBenchmark {
+
+    private WriteBehindBuffer<Object> buffer;
+
+    @Setup
+    public void setUp() {
+        buffer = new WriteBehindBuffer<>("bench", batch -> LockSupport.parkNanos(1_000_000), 500,
+                Duration.ofSeconds(1), 50_000, 1, Duration.ZERO, Duration.ofSeconds(10), new SimpleMeterRegistry());
+    }
+
+    @TearDown
+    public void tearDown() {
+        buffer.close();
+    }
+
+    @Benchmark
+    public boolean offer() {
+        return buffer.offer(Boolean.TRUE);
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder().include(WriteBehindBufferBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,137 @@
+package com.meetinginsights.backend.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WriteBehindBufferTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<List<Integer>> batches = new CopyOnWriteArrayList<>();
+    private final List<WriteBehindBuffer<Integer>> buffers = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        buffers.forEach(WriteBehindBuffer::close);
+    }
+
+    @Test
+    void aFullBatchIsWrittenWithoutWaitingForTheInterval() {
+        WriteBehindBuffer<Integer> buffer = buffer(batch -> batches.add(List.copyOf(batch)), 5, Duration.ofHours(1), 100, 1);
+
+        for (int i = 0; i < 5; i++) {
+            assertTrue(buffer.offer(i));
+        }
+
+        awaitTrue(() -> batches.size() == 1);
+        assertEquals(List.of(0, 1, 2, 3, 4), batches.get(0));
+    }
+
+    @Test
+    void aPartialBatchIsWrittenOnceTheIntervalIsUp() {
+        WriteBehindBuffer<Integer> buffer = buffer(batch -> batches.add(List.copyOf(batch)), 100, Duration.ofMillis(200), 1000, 1);
+
+        long start = System.nanoTime();
+        buffer.offer(1);
+        buffer.offer(2);
+
+        awaitTrue(() -> batches.size() == 1);
+        assertEquals(List.of(1, 2), batches.get(0));
+        assertTrue(System.nanoTime() - start < Duration.ofSeconds(2).toNanos());
+        assertEquals(2, meterRegistry.get("test.records").tag("outcome", "written").counter().count());
+    }
+
+    @Test
+    void closingWritesEverythingStillQueued() {
+        WriteBehindBuffer<Integer> buffer = buffer(batch -> batches.add(List.copyOf(batch)), 3, Duration.ofHours(1), 100, 1);
+        for (int i = 0; i < 7; i++) {
+            buffer.offer(i);
+        }
+
+        buffer.close();
+
+        assertEquals(List.of(0, 1, 2, 3, 4, 5, 6), batches.stream().flatMap(List::stream).toList());
+        assertTrue(batches.stream().allMatch(batch -> batch.size() <= 3));
+        assertFalse(buffer.offer(7));
+    }
+
+    @Test
+    void recordsBeyondTheCapacityAreDropped() {
+        CountDownLatch release = new CountDownLatch(1);
+        WriteBehindBuffer<Integer> buffer = buffer(batch -> {
+            release.await();
+            batches.add(List.copyOf(batch));
+        }, 2, Duration.ofMillis(10), 4, 1);
+
+        // The first batch holds the writer, so the queue fills up behind it.
+        buffer.offer(0);
+        buffer.offer(1);
+        awaitTrue(() -> meterRegistry.get("test.queued").gauge().value() == 0);
+        int accepted = 0;
+        for (int i = 2; i < 10; i++) {
+            accepted += buffer.offer(i) ? 1 : 0;
+        }
+        release.countDown();
+        buffer.close();
+
+        assertEquals(4, accepted);
+        assertEquals(6, batches.stream().mapToInt(List::size).sum());
+        assertEquals(4, meterRegistry.get("test.records").tag("outcome", "dropped").counter().count());
+    }
+
+    @Test
+    void aFailedBatchIsRetriedAndDroppedAfterItsLastAttempt() {
+        AtomicInteger attempts = new AtomicInteger();
+        WriteBehindBuffer<Integer> buffer = buffer(batch -> {
+            // The first batch succeeds on its second attempt, the second one never.
+            int attempt = attempts.incrementAndGet();
+            if (attempt == 1 || batch.contains(9)) {
+                throw new IllegalStateException("database unavailable");
+            }
+            batches.add(List.copyOf(batch));
+        }, 2, Duration.ofHours(1), 100, 3);
+
+        buffer.offer(1);
+        buffer.offer(2);
+        awaitTrue(() -> batches.size() == 1);
+        buffer.offer(9);
+        buffer.offer(10);
+        buffer.close();
+
+        assertEquals(List.of(List.of(1, 2)), batches);
+        assertEquals(2 + 3, attempts.get());
+        assertEquals(2, meterRegistry.get("test.records").tag("outcome", "dropped").counter().count());
+    }
+
+    private WriteBehindBuffer<Integer> buffer(WriteBehindBuffer.BatchWriter<Integer> writer, int batchSize,
+                                              Duration flushInterval, int capacity, int maxAttempts) {
+        WriteBehindBuffer<Integer> buffer = new WriteBehindBuffer<>("test", writer, batchSize, flushInterval, capacity,
+                maxAttempts, Duration.ofMillis(10), Duration.ofSeconds(5), meterRegistry);
+        buffers.add(buffer);
+        return buffer;
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                throw new AssertionError("condition not met within 5s");
+            }
+            LockSupport.parkNanos(1_000_000);
+        }
+    }
+}
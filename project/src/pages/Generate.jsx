@@ -7,11 +7,70 @@ import { useAuth } from '../context/AuthContext';
 const { Dragger } = Upload;
 const { Title, Paragraph, Text } = Typography;
 
+const INSIGHT_SECTIONS = [
+  { key: 'summary', title: 'Summary' },
+  { key: 'actionItems', title: 'Action Items' },
+  { key: 'decisions', title: 'Decisions' },
+  { key: 'discussionPoints', title: 'Key Discussion Points' },
+  { key: 'followUps', title: 'Suggested Follow-ups' },
+];
+
+// Splits complete Server-Sent Events off the front of the text; returns them and how many characters they used.
+const parseSseEvents = (text) => {
+  const events = [];
+  let consumed = 0;
+  let end;
+  while ((end = text.indexOf('\n\n', consumed)) !== -1) {
+    let event = 'message';
+    const data = [];
+    text.slice(consumed, end).split('\n').forEach((line) => {
+      if (line.startsWith('event:')) {
+        event = line.slice(6).trim();
+      } else if (line.startsWith('data:')) {
+        data.push(line.slice(5).replace(/^ /, ''));
+      }
+    });
+    events.push({ event, data: data.join('\n') });
+    consumed = end + 2;
+  }
+  return { events, consumed };
+};
+
+const InsightsView = ({ insights }) => (
+  <div style={{ lineHeight: '1.6' }}>
+    {INSIGHT_SECTIONS.map(({ key, title }) => {
+      const items = insights[key] || [];
+      if (items.length === 0) {
+        return null;
+      }
+      return (
+        <div key={key} style={{ marginBottom: '16px' }}>
+          <Title level={5}>{title}</Title>
+          <ul style={{ paddingLeft: '20px', marginBottom: 0 }}>
+            {items.map((item, index) => (
+              <li key={index}>
+                {key === 'actionItems' ? (
+                  <>
+                    {item.task}
+                    {item.owner && <Text type="secondary"> — {item.owner}</Text>}
+                    {item.deadline && <Text type="secondary"> (by {item.deadline})</Text>}
+                  </>
+                ) : item}
+              </li>
+            ))}
+          </ul>
+        </div>
+      );
+    })}
+  </div>
+);
+
 const Generate = () => {
   const [form] = Form.useForm();
   const [loading, setLoading] = useState(false);
   const [uploadProgress, setUploadProgress] = useState(0);
-  const [response, setResponse] = useState('');
+  const [response, setResponse] = useState(null);
+  const [jobStatus, setJobStatus] = useState('');
   const [error, setError] = useState('');
   const [audioFile, setAudioFile] = useState(null);
   const { token } = useAuth();
@@ -24,31 +83,60 @@ const Generate = () => {
 
     setLoading(true);
     setError('');
-    setResponse('');
+    setResponse(null);
+    setJobStatus('');
     setUploadProgress(0);
 
     try {
       const formData = new FormData();
       formData.append('file', audioFile);
+      const headers = { 'Authorization': `Bearer ${token}` };
 
-      const result = await axios.post(
+      // The upload is answered with 202 as soon as the audio is queued; the insights are generated as a job.
+      const submitted = await axios.post(
         // ⭐ CORRECTED: Use the absolute URL to the backend server ⭐
         'http://localhost:8080/api/gemini/upload-audio',
         formData,
         {
-          headers: {
-            'Content-Type': 'multipart/form-data',
-            'Authorization': `Bearer ${token}`,
-          },
+          headers: { ...headers, 'Content-Type': 'multipart/form-data' },
           onUploadProgress: (progressEvent) => {
             const progress = Math.round((progressEvent.loaded * 100) / progressEvent.total);
             setUploadProgress(progress);
           },
         }
       );
-      
-      if (result.data) {
-        setResponse(result.data);
+      setJobStatus(submitted.data.status);
+
+      // Follow the job: every "status" event carries the job, the last one its insights or error.
+      let job = submitted.data;
+      let processed = 0;
+      const handleEvents = (text) => {
+        const { events, consumed } = parseSseEvents(text.slice(processed));
+        processed += consumed;
+        events.forEach(({ event, data }) => {
+          if (event === 'status') {
+            job = JSON.parse(data);
+            setJobStatus(job.status);
+          }
+        });
+      };
+
+      const result = await axios.get(
+        `http://localhost:8080/api/gemini/jobs/${submitted.data.jobId}/events`,
+        {
+          headers: { ...headers, 'Accept': 'text/event-stream' },
+          responseType: 'text',
+          onDownloadProgress: (progressEvent) => {
+            handleEvents(progressEvent.event?.target?.responseText || '');
+          },
+        }
+      );
+      handleEvents(typeof result.data === 'string' ? result.data : '');
+
+      if (job.status === 'FAILED') {
+        setError(job.error || 'Failed to generate insights.');
+      } else if (job.status === 'SUCCEEDED' && job.insights) {
+        setResponse(job.insights);
       } else {
         setError('The server returned a successful response but with no data.');
       }
@@ -193,9 +281,16 @@ const Generate = () => {
                 AI Generated Insights from Audio:
               </Text>
               
-              <div style={{ whiteSpace: 'pre-wrap', lineHeight: '1.6' }}>
-                {response}
-              </div>
+              {response ? (
+                <InsightsView insights={response} />
+              ) : (
+                <div style={{ textAlign: 'center', padding: '24px' }}>
+                  <Spin />
+                  <Paragraph style={{ marginTop: '12px', color: '#666' }}>
+                    {jobStatus === 'RUNNING' ? 'Generating insights...' : 'Waiting for a free worker...'}
+                  </Paragraph>
+                </div>
+              )}
             </div>
           </>
         )}